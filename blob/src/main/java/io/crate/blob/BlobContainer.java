@@ -21,8 +21,10 @@
 
 package io.crate.blob;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import io.crate.blob.exceptions.DigestNotFoundException;
 import io.crate.common.Hex;
+import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ElasticsearchIllegalStateException;
 import org.elasticsearch.common.io.FileSystemUtils;
 import org.elasticsearch.common.logging.ESLogger;
@@ -32,6 +34,8 @@ import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class BlobContainer {
 
@@ -53,15 +57,60 @@ public class BlobContainer {
     private final File baseDirectory;
     private final File tmpDirectory;
     private final File varDirectory;
+    private final BlobPacks packs;
+    private final long packThreshold;
+
+    private final AtomicLong blobsCount = new AtomicLong();
+    private final AtomicLong blobsSize = new AtomicLong();
 
     public BlobContainer(File baseDirectory) {
+        this(baseDirectory, 0, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * @param packThreshold blobs smaller than this number of bytes are stored in pack files
+     *                      instead of a file of their own, 0 disables packing
+     * @param compactionExecutor executor used to compact pack files after deletions
+     */
+    public BlobContainer(File baseDirectory, long packThreshold, Executor compactionExecutor) {
         this.baseDirectory = baseDirectory;
         this.tmpDirectory = new File(baseDirectory, "tmp");
         this.varDirectory = new File(baseDirectory, "var");
+        this.packThreshold = packThreshold;
         FileSystemUtils.mkdirs(this.varDirectory);
         FileSystemUtils.mkdirs(this.tmpDirectory);
 
         createSubDirectories(this.varDirectory);
+        initStats();
+        // existing packs are read even if packing is disabled
+        this.packs = new BlobPacks(new File(baseDirectory, "packs"), compactionExecutor);
+    }
+
+    /**
+     * count and size of the blobs are only calculated once by walking the sub-folders,
+     * afterwards they're maintained whenever a blob is committed or deleted.
+     *
+     * Files with a .X suffix are leftovers of an interrupted recovery and aren't counted,
+     * they'll get deleted by {@link #cleanAndReturnDigests(byte)}.
+     */
+    private void initStats() {
+        long count = 0;
+        long size = 0;
+        for (File dir : subDirs) {
+            File[] files = dir.listFiles();
+            if (files == null) {
+                continue;
+            }
+            for (File file : files) {
+                if (file.getName().contains(".")) {
+                    continue;
+                }
+                count++;
+                size += file.length();
+            }
+        }
+        blobsCount.set(count);
+        blobsSize.set(size);
     }
 
     /**
@@ -84,13 +133,24 @@ public class BlobContainer {
 
     }
 
+    /**
+     * visit all blobs, blobs stored in a pack are visited as if they were a file of their own
+     */
     public void walkFiles(FilenameFilter filter, FileVisitor visitor) throws IOException {
-        for (File dir : subDirs) {
+        for (int i = 0; i < subDirs.length; i++) {
+            File dir = subDirs[i];
             File[] files = dir.listFiles(filter);
-            if (files == null) {
-                continue;
+            if (files != null) {
+                for (File file : files) {
+                    if (!visitor.visit(file)) {
+                        return;
+                    }
+                }
             }
-            for (File file : files) {
+            for (File file : packs.files(i, dir)) {
+                if (filter != null && !filter.accept(dir, file.getName())) {
+                    continue;
+                }
                 if (!visitor.visit(file)) {
                     return;
                 }
@@ -110,7 +170,8 @@ public class BlobContainer {
     public byte[][] cleanAndReturnDigests(byte prefix) {
         int index = prefix & 0xFF;  // byte is signed and may be negative, convert to int to get correct index
         String[] names = cleanDigests(subDirs[index].list(), index);
-        byte[][] digests = new byte[names.length][];
+        List<String> packedNames = packs.digests(index);
+        byte[][] digests = new byte[names.length + packedNames.size()][];
         for(int i = 0; i < names.length; i ++){
             try {
                 digests[i] = Hex.decodeHex(names[i]);
@@ -119,6 +180,9 @@ public class BlobContainer {
                 throw ex;
             }
         }
+        for (int i = 0; i < packedNames.size(); i++) {
+            digests[names.length + i] = Hex.decodeHex(packedNames.get(i));
+        }
         return digests;
     }
 
@@ -156,20 +220,138 @@ public class BlobContainer {
         return varDirectory;
     }
 
+    /**
+     * @return the file a blob is stored in if it isn't part of a pack
+     */
     public File getFile(String digest) {
         return new File(getVarDirectory(), digest.substring(0, 2) + File.separator + digest);
     }
 
+    public BlobPacks packs() {
+        return packs;
+    }
+
+    public boolean exists(String digest) {
+        return packs.contains(digest) || getFile(digest).exists();
+    }
+
+    /**
+     * @return the length of the blob, 0 if it doesn't exist
+     */
+    public long length(String digest) {
+        long length = packs.length(digest);
+        if (length < 0) {
+            return getFile(digest).length();
+        }
+        return length;
+    }
+
+    /**
+     * @return the number of blobs stored in this container
+     */
+    public long blobsCount() {
+        return blobsCount.get() + packs.count();
+    }
+
+    /**
+     * @return the size in bytes of all blobs stored in this container
+     */
+    public long blobsSize() {
+        return blobsSize.get() + packs.size();
+    }
+
+    /**
+     * move a completely written blob to its final location, which is a pack
+     * if the blob is smaller than the pack threshold.
+     *
+     * @return the file which contains the blob
+     */
+    public File commitBlob(String digest, File source) {
+        File target = getFile(digest);
+        if (source.length() < packThreshold && !target.exists()) {
+            try {
+                if (!packs.add(digest, source) && !source.delete()) {
+                    logger.warn("Could not delete {}", source);
+                }
+            } catch (IOException e) {
+                throw new BlobWriteException(digest, source.length(), e);
+            }
+            return packs.packFile(digest);
+        }
+        commitFile(source, target);
+        return target;
+    }
+
+    /**
+     * move a completely written file to its final location (a file inside the var directory)
+     * and account for it in the blob stats.
+     * An existing file at the target location is replaced and isn't counted twice.
+     *
+     * @return false if the file couldn't be moved
+     */
+    public synchronized boolean commitFile(File source, File target) {
+        if (target.getParentFile().getAbsoluteFile().equals(packs.getDirectory().getAbsoluteFile())) {
+            try {
+                return packs.addPack(source, target.getName());
+            } catch (IOException e) {
+                throw new BlobWriteException(target.getName(), source.length(), e);
+            }
+        }
+        long existingLength = target.exists() ? target.length() : -1;
+        if (!source.renameTo(target)) {
+            return false;
+        }
+        if (existingLength < 0) {
+            blobsCount.incrementAndGet();
+            blobsSize.addAndGet(target.length());
+        } else {
+            blobsSize.addAndGet(target.length() - existingLength);
+        }
+        return true;
+    }
+
+    /**
+     * delete the blob with the given digest and remove it from the blob stats
+     *
+     * @return false if the blob doesn't exist or couldn't be deleted
+     */
+    public synchronized boolean delete(String digest) {
+        try {
+            if (packs.delete(digest)) {
+                return true;
+            }
+        } catch (IOException e) {
+            throw new BlobWriteException(digest, 0, e);
+        }
+        File file = getFile(digest);
+        long length = file.length();
+        if (!file.delete()) {
+            return false;
+        }
+        blobsCount.decrementAndGet();
+        blobsSize.addAndGet(-length);
+        return true;
+    }
+
     public DigestBlob createBlob(String digest, UUID transferId) {
         // TODO: check if exists already
         return new DigestBlob(this, digest, transferId);
     }
 
-    public RandomAccessFile getRandomAccessFile(String digest) {
+    /**
+     * open the blob for reading, the returned region must be closed by the caller
+     */
+    public BlobRegion openBlob(String digest) {
         try {
-            return new RandomAccessFile(getFile(digest), "r");
+            BlobRegion region = packs.open(digest);
+            if (region != null) {
+                return region;
+            }
+            return BlobRegion.open(getFile(digest));
         } catch (FileNotFoundException e) {
             throw new DigestNotFoundException(digest);
+        } catch (IOException e) {
+            throw new ElasticsearchException("Could not open blob " + digest, e);
         }
     }
 }
@@ -0,0 +1,565 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.blob;
+
+import io.crate.common.Hex;
+import org.apache.lucene.util.IOUtils;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.logging.Loggers;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.Executor;
+
+/**
+ * Stores small blobs as records of large append-only pack files instead of
+ * one file per blob.
+ *
+ * A record consists of the 20 byte digest, the last modified timestamp and the
+ * length of the content, followed by the content itself.
+ * Once a pack has been sealed it isn't modified anymore, the offsets of records which
+ * got deleted are appended to a ".del" file next to it. Sealed packs which mostly consist
+ * of deleted records are compacted by copying their remaining records into the current pack.
+ *
+ * The location of every blob is kept in memory, it is rebuilt by reading the record headers
+ * of all packs on start.
+ */
+public class BlobPacks {
+
+    private static final ESLogger logger = Loggers.getLogger(BlobPacks.class);
+
+    public static final String PACK_SUFFIX = ".pack";
+    private static final String DELETED_SUFFIX = ".del";
+
+    private static final int HEADER_SIZE = 20 + 8 + 8;
+    private static final long MAX_PACK_SIZE = 256 * 1024 * 1024;
+    private static final int COMPACTION_LIVE_PERCENT = 50;
+
+    private static class Pack {
+        private final String name;
+        private final File file;
+        private final File deletedFile;
+        private long size;
+        private long liveBytes;
+        private boolean compacting;
+        private FileChannel channel;
+
+        private Pack(File directory, String name) {
+            this.name = name;
+            this.file = new File(directory, name);
+            this.deletedFile = new File(directory, name + DELETED_SUFFIX);
+        }
+    }
+
+    private static class Entry {
+        private final Pack pack;
+        private final long offset;
+        private final long length;
+        private final long lastModified;
+
+        private Entry(Pack pack, long offset, long length, long lastModified) {
+            this.pack = pack;
+            this.offset = offset;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        private long recordSize() {
+            return HEADER_SIZE + length;
+        }
+    }
+
+    /**
+     * A blob stored in a pack, exposed as the file it would be stored in otherwise.
+     */
+    private static class PackedFile extends File {
+
+        private final long length;
+        private final long lastModified;
+
+        private PackedFile(File parent, String digest, long length, long lastModified) {
+            super(parent, digest);
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public long length() {
+            return length;
+        }
+
+        @Override
+        public long lastModified() {
+            return lastModified;
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public boolean isFile() {
+            return true;
+        }
+    }
+
+    private final File directory;
+    private final Executor compactionExecutor;
+    private final Map<String, Pack> packs = new HashMap<>();
+    private final Map<String, Entry>[] entries;
+    private Pack current;
+    private long nextPackId;
+    private long count;
+    private long size;
+
+    @SuppressWarnings("unchecked")
+    public BlobPacks(File directory, Executor compactionExecutor) {
+        this.directory = directory;
+        this.compactionExecutor = compactionExecutor;
+        this.entries = new Map[BlobContainer.SUB_DIRS.length];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = new HashMap<>();
+        }
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new BlobWriteException(directory.getName(), 0, null);
+        }
+        load();
+    }
+
+    private void load() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        List<String> names = new ArrayList<>(files.length);
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(PACK_SUFFIX)) {
+                names.add(name);
+            } else if (!name.endsWith(DELETED_SUFFIX)
+                       || !new File(directory, name.substring(0, name.length() - DELETED_SUFFIX.length())).exists()) {
+                // leftover of an interrupted recovery or of a removed pack
+                if (!file.delete()) {
+                    logger.error("Could not delete {}", file);
+                }
+            }
+        }
+        Collections.sort(names);
+        synchronized (this) {
+            for (String name : names) {
+                try {
+                    loadPack(name);
+                } catch (IOException e) {
+                    throw new ElasticsearchException("Could not load pack " + name, e);
+                }
+            }
+        }
+    }
+
+    private static long packId(String name) {
+        return Long.parseLong(name.substring(0, 16), 16);
+    }
+
+    private Map<String, Entry> prefixEntries(String digest) {
+        return entries[Integer.parseInt(digest.substring(0, 2), 16)];
+    }
+
+    private Entry entry(String digest) {
+        return prefixEntries(digest).get(digest);
+    }
+
+    /**
+     * reads the record headers of a pack and registers its blobs.
+     * Blobs which are already stored in another pack are marked as deleted.
+     */
+    private void loadPack(String name) throws IOException {
+        Pack pack = new Pack(directory, name);
+        Set<Long> deleted = readDeleted(pack);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        byte[] digestBytes = new byte[20];
+        try (FileChannel channel = new RandomAccessFile(pack.file, "rw").getChannel()) {
+            long fileSize = channel.size();
+            long position = 0;
+            while (position + HEADER_SIZE <= fileSize) {
+                readHeader(channel, position, header);
+                header.get(digestBytes);
+                long lastModified = header.getLong();
+                long length = header.getLong();
+                if (length < 0 || position + HEADER_SIZE + length > fileSize) {
+                    break;
+                }
+                Entry entry = new Entry(pack, position, length, lastModified);
+                if (!deleted.contains(position)) {
+                    String digest = Hex.encodeHexString(digestBytes);
+                    if (entry(digest) == null) {
+                        register(digest, entry);
+                    } else {
+                        markDeleted(entry);
+                    }
+                }
+                position += entry.recordSize();
+            }
+            if (position < fileSize) {
+                logger.warn("Truncating incomplete record at {} of pack {}", position, pack.file);
+                channel.truncate(position);
+            }
+            pack.size = position;
+        }
+        packs.put(name, pack);
+        nextPackId = Math.max(nextPackId, packId(name) + 1);
+        if (pack.liveBytes == 0) {
+            removePack(pack);
+        }
+    }
+
+    private static Set<Long> readDeleted(Pack pack) throws IOException {
+        Set<Long> deleted = new HashSet<>();
+        if (!pack.deletedFile.exists()) {
+            return deleted;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(pack.deletedFile)))) {
+            long numOffsets = pack.deletedFile.length() / 8;
+            for (long i = 0; i < numOffsets; i++) {
+                deleted.add(in.readLong());
+            }
+        }
+        return deleted;
+    }
+
+    private static void readHeader(FileChannel channel, long position, ByteBuffer header) throws IOException {
+        header.clear();
+        while (header.hasRemaining()) {
+            if (channel.read(header, position + header.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        header.flip();
+    }
+
+    private void register(String digest, Entry entry) {
+        prefixEntries(digest).put(digest, entry);
+        entry.pack.liveBytes += entry.recordSize();
+        count++;
+        size += entry.length;
+    }
+
+    private void markDeleted(Entry entry) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(entry.pack.deletedFile, true)) {
+            out.write(ByteBuffer.allocate(8).putLong(entry.offset).array());
+            out.getFD().sync();
+        }
+    }
+
+    private Pack currentPack() throws IOException {
+        if (current == null) {
+            String name = String.format(Locale.ENGLISH, "%016x-%s%s", nextPackId++, UUID.randomUUID(), PACK_SUFFIX);
+            Pack pack = new Pack(directory, name);
+            pack.channel = new FileOutputStream(pack.file, true).getChannel();
+            packs.put(name, pack);
+            current = pack;
+        }
+        return current;
+    }
+
+    private void seal() {
+        if (current != null) {
+            IOUtils.closeWhileHandlingException(current.channel);
+            current.channel = null;
+            current = null;
+        }
+    }
+
+    /**
+     * appends a record to the current pack and seals it once it is full
+     */
+    private Entry append(String digest, long lastModified, FileChannel source, long sourcePosition, long length)
+            throws IOException {
+        Pack pack = currentPack();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.put(Hex.decodeHex(digest));
+        header.putLong(lastModified);
+        header.putLong(length);
+        header.flip();
+        try {
+            while (header.hasRemaining()) {
+                pack.channel.write(header);
+            }
+            long transferred = 0;
+            while (transferred < length) {
+                long bytes = source.transferTo(sourcePosition + transferred, length - transferred, pack.channel);
+                if (bytes <= 0) {
+                    throw new EOFException("Unexpected end of content of blob " + digest);
+                }
+                transferred += bytes;
+            }
+            pack.channel.force(false);
+        } catch (IOException e) {
+            pack.channel.truncate(pack.size);
+            throw e;
+        }
+        Entry entry = new Entry(pack, pack.size, length, lastModified);
+        pack.size += entry.recordSize();
+        if (pack.size >= MAX_PACK_SIZE) {
+            seal();
+        }
+        return entry;
+    }
+
+    /**
+     * moves the content of the given file into the current pack
+     *
+     * @return false if a blob with the given digest is already stored
+     */
+    public synchronized boolean add(String digest, File source) throws IOException {
+        if (entry(digest) != null) {
+            return false;
+        }
+        try (FileChannel channel = new FileInputStream(source).getChannel()) {
+            register(digest, append(digest, source.lastModified(), channel, 0, channel.size()));
+        }
+        if (!source.delete()) {
+            logger.warn("Could not delete {} after adding it to a pack", source);
+        }
+        return true;
+    }
+
+    public synchronized boolean contains(String digest) {
+        return entry(digest) != null;
+    }
+
+    /**
+     * @return the length of the blob or -1 if it isn't stored in a pack
+     */
+    public synchronized long length(String digest) {
+        Entry entry = entry(digest);
+        return entry == null ? -1 : entry.length;
+    }
+
+    /**
+     * @return the region of the pack holding the blob or null if it isn't stored in a pack
+     */
+    public synchronized BlobRegion open(String digest) throws IOException {
+        Entry entry = entry(digest);
+        if (entry == null) {
+            return null;
+        }
+        return new BlobRegion(new RandomAccessFile(entry.pack.file, "r"), entry.offset + HEADER_SIZE, entry.length);
+    }
+
+    /**
+     * @return the pack file holding the blob or null if it isn't stored in a pack
+     */
+    public synchronized File packFile(String digest) {
+        Entry entry = entry(digest);
+        return entry == null ? null : entry.pack.file;
+    }
+
+    public synchronized boolean delete(String digest) throws IOException {
+        Entry entry = prefixEntries(digest).remove(digest);
+        if (entry == null) {
+            return false;
+        }
+        Pack pack = entry.pack;
+        markDeleted(entry);
+        pack.liveBytes -= entry.recordSize();
+        count--;
+        size -= entry.length;
+        if (pack != current && !pack.compacting) {
+            if (pack.liveBytes == 0) {
+                removePack(pack);
+            } else if (pack.liveBytes * 100 < pack.size * COMPACTION_LIVE_PERCENT) {
+                pack.compacting = true;
+                compactionExecutor.execute(new Compaction(pack));
+            }
+        }
+        return true;
+    }
+
+    private class Compaction implements Runnable {
+
+        private final Pack pack;
+
+        private Compaction(Pack pack) {
+            this.pack = pack;
+        }
+
+        @Override
+        public void run() {
+            try {
+                compact(pack);
+            } catch (IOException e) {
+                logger.error("Failed to compact pack {}", e, pack.file);
+                synchronized (BlobPacks.this) {
+                    pack.compacting = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * copies the records of a sealed pack which haven't been deleted into the current pack
+     * and removes it afterwards.
+     * Readers which have opened the pack before keep reading from the removed file.
+     */
+    private void compact(Pack pack) throws IOException {
+        logger.debug("Compacting pack {}", pack.file);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        byte[] digestBytes = new byte[20];
+        try (FileChannel channel = new FileInputStream(pack.file).getChannel()) {
+            long position = 0;
+            while (position < pack.size) {
+                readHeader(channel, position, header);
+                header.get(digestBytes);
+                long lastModified = header.getLong();
+                long length = header.getLong();
+                String digest = Hex.encodeHexString(digestBytes);
+                synchronized (this) {
+                    if (!packs.containsKey(pack.name)) {
+                        // removed by a recovery in the meantime
+                        return;
+                    }
+                    Entry entry = entry(digest);
+                    if (entry != null && entry.pack == pack && entry.offset == position) {
+                        Entry moved = append(digest, lastModified, channel, position + HEADER_SIZE, length);
+                        prefixEntries(digest).put(digest, moved);
+                        pack.liveBytes -= entry.recordSize();
+                        moved.pack.liveBytes += moved.recordSize();
+                    }
+                }
+                position += HEADER_SIZE + length;
+            }
+        }
+        synchronized (this) {
+            removePack(pack);
+        }
+    }
+
+    /**
+     * removes a pack including the blobs which are still stored in it
+     */
+    private void removePack(Pack pack) {
+        if (pack.liveBytes > 0) {
+            for (Map<String, Entry> prefixEntries : entries) {
+                Iterator<Entry> it = prefixEntries.values().iterator();
+                while (it.hasNext()) {
+                    Entry entry = it.next();
+                    if (entry.pack == pack) {
+                        it.remove();
+                        count--;
+                        size -= entry.length;
+                    }
+                }
+            }
+            pack.liveBytes = 0;
+        }
+        if (pack == current) {
+            seal();
+        }
+        packs.remove(pack.name);
+        if (!pack.file.delete()) {
+            logger.error("Could not delete pack {}", pack.file);
+        }
+        if (pack.deletedFile.exists() && !pack.deletedFile.delete()) {
+            logger.error("Could not delete {}", pack.deletedFile);
+        }
+    }
+
+    /**
+     * @return the digests of all packed blobs which start with the given prefix
+     */
+    public synchronized List<String> digests(int prefix) {
+        return new ArrayList<>(entries[prefix].keySet());
+    }
+
+    /**
+     * @return the packed blobs which start with the given prefix as files inside the given directory
+     */
+    public synchronized List<File> files(int prefix, File directory) {
+        List<File> files = new ArrayList<>(entries[prefix].size());
+        for (Map.Entry<String, Entry> entry : entries[prefix].entrySet()) {
+            files.add(new PackedFile(directory, entry.getKey(), entry.getValue().length, entry.getValue().lastModified));
+        }
+        return files;
+    }
+
+    public synchronized long count() {
+        return count;
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * seals the current pack, so that all packs are immutable apart from their deletions.
+     *
+     * @return the names of all packs
+     */
+    public synchronized List<String> sealAndList() {
+        seal();
+        List<String> names = new ArrayList<>(packs.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * removes all sealed packs which aren't part of the given names, including their blobs.
+     *
+     * @return the names which aren't present
+     */
+    public synchronized List<String> retain(Collection<String> names) {
+        for (Pack pack : new ArrayList<>(packs.values())) {
+            if (pack != current && !names.contains(pack.name)) {
+                removePack(pack);
+            }
+        }
+        List<String> missing = new ArrayList<>();
+        for (String name : names) {
+            if (!packs.containsKey(name)) {
+                missing.add(name);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * moves a whole pack received from another node into the pack directory and registers its blobs
+     */
+    public synchronized boolean addPack(File source, String name) throws IOException {
+        File target = new File(directory, name);
+        if (packs.containsKey(name) || !source.renameTo(target)) {
+            return false;
+        }
+        loadPack(name);
+        return true;
+    }
+}
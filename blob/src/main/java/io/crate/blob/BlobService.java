@@ -21,6 +21,7 @@
 
 package io.crate.blob;
 
+import com.google.common.base.Preconditions;
 import io.crate.blob.exceptions.MissingHTTPEndpointException;
 import io.crate.blob.pending_transfer.BlobHeadRequestHandler;
 import io.crate.blob.v2.BlobIndices;
@@ -46,11 +47,15 @@ import java.util.Set;
 
 public class BlobService extends AbstractLifecycleComponent<BlobService> {
 
+    public static final String SETTING_TRANSFER_WINDOW_SIZE = "blobs.transfer.window_size";
+    public static final int DEFAULT_TRANSFER_WINDOW_SIZE = 4;
+
     private final Injector injector;
     private final BlobHeadRequestHandler blobHeadRequestHandler;
 
     private final ClusterService clusterService;
     private final BlobEnvironment blobEnvironment;
+    private final int transferWindowSize;
 
     @Inject
     public BlobService(Settings settings,
@@ -62,10 +67,13 @@ public class BlobService extends AbstractLifecycleComponent<BlobService> {
         this.injector = injector;
         this.blobHeadRequestHandler = blobHeadRequestHandler;
         this.blobEnvironment = blobEnvironment;
+        this.transferWindowSize = settings.getAsInt(SETTING_TRANSFER_WINDOW_SIZE, DEFAULT_TRANSFER_WINDOW_SIZE);
+        Preconditions.checkArgument(transferWindowSize > 0,
+                "%s must be greater than 0", SETTING_TRANSFER_WINDOW_SIZE);
     }
 
     public RemoteDigestBlob newBlob(String index, String digest) {
-        return new RemoteDigestBlob(this, index, digest);
+        return new RemoteDigestBlob(this, index, digest, transferWindowSize);
     }
 
     public Injector getInjector() {
@@ -37,7 +37,6 @@ import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.*;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -58,6 +57,7 @@ public class BlobTransferTarget extends AbstractComponent {
     private CountDownLatch activePutHeadChunkTransfersLatch;
     private volatile boolean recoveryActive = false;
     private final Object lock = new Object();
+    private final Object restoreLock = new Object();
     private final List<UUID> finishedUploads = new ArrayList<>();
     private final TimeValue STATE_REMOVAL_DELAY;
 
@@ -89,12 +89,10 @@ public class BlobTransferTarget extends AbstractComponent {
         logger.debug("startTransfer {} {}", request.transferId(), request.isLast());
 
         BlobShard blobShard = blobIndices.blobShardSafe(request.index(), shardId);
-        File existing = blobShard.blobContainer().getFile(request.id());
-        long size = existing.length();
-        if (existing.exists()) {
+        if (blobShard.blobContainer().exists(request.id())) {
             // the file exists
             response.status(RemoteDigestBlob.Status.EXISTS);
-            response.size(size);
+            response.size(blobShard.blobContainer().length(request.id()));
             return;
         }
 
@@ -122,7 +120,13 @@ public class BlobTransferTarget extends AbstractComponent {
     public void continueTransfer(PutChunkReplicaRequest request, PutChunkResponse response, int shardId) {
         BlobTransferStatus status = activeTransfers.get(request.transferId);
         if (status == null) {
-            status = restoreTransferStatus(request, shardId);
+            // several chunks of the same transfer may arrive concurrently, restore only once
+            synchronized (restoreLock) {
+                status = activeTransfers.get(request.transferId);
+                if (status == null) {
+                    status = restoreTransferStatus(request, shardId);
+                }
+            }
         }
 
         addContent(request, response, status);
@@ -194,7 +198,7 @@ public class BlobTransferTarget extends AbstractComponent {
     private void addContent(IPutChunkRequest request, PutChunkResponse response, BlobTransferStatus status) {
         DigestBlob digestBlob = status.digestBlob();
         try {
-            digestBlob.addContent(request.content(), request.isLast());
+            digestBlob.addContent(request.currentPos(), request.content(), request.isLast());
         } catch (BlobWriteException e) {
             activeTransfers.remove(status.transferId());
             throw e;
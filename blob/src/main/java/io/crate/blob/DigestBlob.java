@@ -35,6 +35,9 @@ import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicLong;
@@ -47,12 +50,13 @@ public class DigestBlob {
     protected File file;
     private FileChannel fileChannel;
     private FileChannel headFileChannel;
-    private int size;
+    private long size;
     private long headLength;
     private AtomicLong headSize;
     private MessageDigest md;
     private long chunks;
     private CountDownLatch headCatchedUpLatch;
+    private final TreeMap<Long, BytesReference> pendingChunks = new TreeMap<>();
     private static final ESLogger logger = Loggers.getLogger(DigestBlob.class);
 
     public DigestBlob(BlobContainer container, String digest, UUID transferId) {
@@ -66,10 +70,17 @@ public class DigestBlob {
         return digest;
     }
 
-    public int size() {
+    public long size() {
         return size;
     }
 
+    /**
+     * @return the offset within the blob at which the next chunk is expected
+     */
+    public synchronized long position() {
+        return headLength + size;
+    }
+
     public File file() {
         return file;
     }
@@ -167,16 +178,14 @@ public class DigestBlob {
             IOUtils.closeWhileHandlingException(headFileChannel);
             headFileChannel = null;
         }
-        File newFile = container.getFile(digest);
-        file.renameTo(newFile);
-        return newFile;
+        return container.commitBlob(digest, file);
     }
 
     public File getContainerFile() {
         return container.getFile(digest);
     }
 
-    public void addContent(BytesReference content, boolean last){
+    public synchronized void addContent(BytesReference content, boolean last){
         try {
             addContent(content.toChannelBuffer(), last);
         } catch (IOException e) {
@@ -184,6 +193,41 @@ public class DigestBlob {
         }
     }
 
+    /**
+     * Adds a chunk which starts at the given offset of the blob.
+     *
+     * If several chunks of a transfer are in flight they may arrive out of order.
+     * Chunks ahead of the current position are buffered until the gap in front of
+     * them has been filled, chunks behind it are ignored as they have either been
+     * written already or are part of the head of a resumed transfer.
+     * The last chunk must not arrive before all others have been added.
+     */
+    public synchronized void addContent(long offset, BytesReference content, boolean last) {
+        long position = position();
+        if (last && offset != position) {
+            throw new IllegalStateException(String.format(Locale.ENGLISH,
+                    "Got last chunk of blob %s at offset %d but expected offset %d",
+                    digest, offset, position));
+        }
+        if (offset > position) {
+            pendingChunks.put(offset, content);
+            return;
+        }
+        if (offset < position) {
+            logger.trace("Ignoring chunk of blob {} at offset {}, already at {}", digest, offset, position);
+            return;
+        }
+        addContent(content, last);
+
+        Map.Entry<Long, BytesReference> pending;
+        while ((pending = pendingChunks.firstEntry()) != null && pending.getKey() <= position()) {
+            pendingChunks.pollFirstEntry();
+            if (pending.getKey() == position()) {
+                addContent(pending.getValue(), false);
+            }
+        }
+    }
+
     public void addToHead(BytesReference content) throws IOException {
         if (content == null) {
             return;
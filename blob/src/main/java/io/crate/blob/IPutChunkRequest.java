@@ -29,5 +29,6 @@ public interface IPutChunkRequest {
 
     public BytesReference content();
     public UUID transferId();
+    public long currentPos();
     public boolean isLast();
 }
@@ -52,7 +52,7 @@ public class PutChunkReplicaRequest extends ShardReplicationOperationRequest<Put
         super.readFrom(in);
         sourceNodeId = in.readString();
         transferId = new UUID(in.readLong(), in.readLong());
-        currentPos = in.readVInt();
+        currentPos = in.readVLong();
         content = in.readBytesReference();
         isLast = in.readBoolean();
     }
@@ -76,6 +76,10 @@ public class PutChunkReplicaRequest extends ShardReplicationOperationRequest<Put
         return transferId;
     }
 
+    public long currentPos() {
+        return currentPos;
+    }
+
     public boolean isLast() {
         return isLast;
     }
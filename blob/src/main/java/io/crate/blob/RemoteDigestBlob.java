@@ -23,6 +23,8 @@ package io.crate.blob;
 
 import io.crate.common.Hex;
 import org.elasticsearch.ElasticsearchIllegalArgumentException;
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.logging.ESLogger;
@@ -30,6 +32,7 @@ import org.elasticsearch.common.logging.Loggers;
 import org.jboss.netty.buffer.ChannelBuffer;
 
 import java.util.UUID;
+import java.util.concurrent.Semaphore;
 
 public class RemoteDigestBlob {
 
@@ -79,16 +82,30 @@ public class RemoteDigestBlob {
 
     private final String digest;
     private final Client client;
+    private final int windowSize;
+    private final Semaphore chunksInFlight;
+    private volatile Throwable chunkFailure;
     private long size;
     private StartBlobResponse startResponse;
     private UUID transferId;
 
 
     public RemoteDigestBlob(BlobService blobService, String index, String digest) {
+        this(blobService, index, digest, 1);
+    }
+
+    /**
+     * @param windowSize the number of chunks which may be in flight at the same time.
+     *                   The last chunk is only sent once all others have been acknowledged.
+     */
+    public RemoteDigestBlob(BlobService blobService, String index, String digest, int windowSize) {
+        assert windowSize > 0 : "windowSize must be greater than 0";
         this.digest = digest;
         this.client = blobService.getInjector().getInstance(Client.class);
         this.size = 0;
         this.index = index;
+        this.windowSize = windowSize;
+        this.chunksInFlight = new Semaphore(windowSize);
     }
 
     public Status status(){
@@ -125,17 +142,56 @@ public class RemoteDigestBlob {
 
     private Status chunk(ChannelBuffer buffer, boolean last) {
         assert (transferId != null);
+        // the request outlives the buffer if it is sent asynchronously
+        byte[] content = new byte[buffer.readableBytes()];
+        buffer.getBytes(buffer.readerIndex(), content);
         PutChunkRequest request = new PutChunkRequest(
             index,
             Hex.decodeHex(digest),
             transferId,
-            new BytesArray(buffer.array()),
+            new BytesArray(content),
             size,
             last
         );
-        size += buffer.readableBytes();
-        PutChunkResponse putChunkResponse = client.execute(PutChunkAction.INSTANCE, request).actionGet();
-        return putChunkResponse.status();
+        size += content.length;
+        if (last) {
+            // the target commits the blob on the last chunk, so all others must have arrived
+            chunksInFlight.acquireUninterruptibly(windowSize);
+            chunksInFlight.release(windowSize);
+            raiseChunkFailure();
+            PutChunkResponse putChunkResponse = client.execute(PutChunkAction.INSTANCE, request).actionGet();
+            return putChunkResponse.status();
+        }
+
+        raiseChunkFailure();
+        chunksInFlight.acquireUninterruptibly();
+        client.execute(PutChunkAction.INSTANCE, request, new ActionListener<PutChunkResponse>() {
+            @Override
+            public void onResponse(PutChunkResponse putChunkResponse) {
+                if (putChunkResponse.status() != Status.PARTIAL) {
+                    chunkFailure = new IllegalStateException(
+                        "Expected Status.PARTIAL for chunk but got: " + putChunkResponse.status());
+                }
+                chunksInFlight.release();
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                chunkFailure = e;
+                chunksInFlight.release();
+            }
+        });
+        return Status.PARTIAL;
+    }
+
+    /**
+     * re-throws the failure of a chunk which has been sent asynchronously
+     */
+    private void raiseChunkFailure() {
+        Throwable failure = chunkFailure;
+        if (failure != null) {
+            throw ExceptionsHelper.convertToRuntime(failure);
+        }
     }
 
     public Status addContent(ChannelBuffer buffer, boolean last) {
@@ -21,6 +21,7 @@
 
 package io.crate.blob.pending_transfer;
 
+import io.crate.blob.BlobRegion;
 import io.crate.blob.BlobTransferTarget;
 import io.crate.blob.DigestBlob;
 import org.elasticsearch.cluster.node.DiscoveryNode;
@@ -81,8 +82,11 @@ public class PutHeadChunkRunnable implements Runnable {
                 fileInputStream = new FileInputStream(pendingFile);
             } catch (FileNotFoundException e) {
                 // this happens if the file has already been moved from tmpDirectory to containerDirectory
+                // or into a pack
                 pendingFile = digestBlob.getContainerFile();
-                fileInputStream = new FileInputStream(pendingFile);
+                BlobRegion region = digestBlob.container().openBlob(digestBlob.getDigest());
+                region.file().seek(region.offset());
+                fileInputStream = new FileInputStream(region.file().getFD());
             }
 
             while (remainingBytes > 0) {
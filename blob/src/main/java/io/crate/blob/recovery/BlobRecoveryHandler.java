@@ -21,11 +21,15 @@
 
 package io.crate.blob.recovery;
 
+import com.google.common.io.ByteStreams;
 import io.crate.blob.BlobContainer;
+import io.crate.blob.BlobPacks;
+import io.crate.blob.BlobRegion;
 import io.crate.blob.BlobTransferTarget;
 import io.crate.blob.v2.BlobIndices;
 import io.crate.blob.v2.BlobShard;
 import io.crate.common.Hex;
+import org.apache.lucene.util.IOUtils;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.common.StopWatch;
 import org.elasticsearch.common.bytes.BytesArray;
@@ -37,9 +41,7 @@ import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.indices.recovery.*;
 import org.elasticsearch.transport.*;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
+import java.io.*;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
@@ -109,6 +111,7 @@ public class BlobRecoveryHandler {
 
         final AtomicReference<Exception> lastException = new AtomicReference<Exception>();
         try {
+            syncPacks(lastException);
             syncVarFiles(lastException);
         } catch (InterruptedException ex) {
             throw new ElasticsearchException("blob recovery phase1 failed", ex);
@@ -152,6 +155,47 @@ public class BlobRecoveryHandler {
     public void phase2() throws ElasticsearchException {
     }
 
+    /**
+     * transfer the packs which are missing on the target as a whole,
+     * the target removes the packs which don't exist on the source
+     */
+    private void syncPacks(AtomicReference<Exception> lastException) throws InterruptedException {
+        BlobPacks packs = blobShard.blobContainer().packs();
+        BlobStartPackSyncResponse response =
+            (BlobStartPackSyncResponse)transportService.submitRequest(
+                request.targetNode(),
+                BlobRecoveryTarget.Actions.START_PACK_SYNC,
+                new BlobStartPackSyncRequest(request.recoveryId(), packs.sealAndList()),
+                TransportRequestOptions.options(),
+                new FutureTransportResponseHandler<TransportResponse>() {
+                    @Override
+                    public TransportResponse newInstance() {
+                        return new BlobStartPackSyncResponse();
+                    }
+                }
+            ).txGet();
+
+        final CountDownLatch latch = new CountDownLatch(response.missingPacks.length);
+        for (String pack : response.missingPacks) {
+            File file = new File(packs.getDirectory(), pack);
+            logger.trace("[{}][{}] start to transfer pack {} to {}",
+                request.shardId().index().name(), request.shardId().id(), pack,
+                request.targetNode().getName());
+            try {
+                recoverySettings.concurrentStreamPool().execute(
+                    new TransferFileRunnable(BlobRegion.open(file), file, lastException, latch)
+                );
+            } catch (FileNotFoundException e) {
+                // compacted in the meantime, its blobs are transferred by syncVarFiles
+                latch.countDown();
+            } catch (IOException e) {
+                lastException.set(e);
+                latch.countDown();
+            }
+        }
+        latch.await();
+    }
+
     private void syncVarFiles(AtomicReference<Exception> lastException) throws InterruptedException {
 
         for (byte prefix : BlobContainer.PREFIXES) {
@@ -173,8 +217,10 @@ public class BlobRecoveryHandler {
                     request.shardId().index().name(), request.shardId().id(), digest,
                     request.targetNode().getName());
 
+                // the blob is transferred as a file of its own even if it is stored in a pack
+                BlobContainer blobContainer = blobShard.blobContainer();
                 recoverySettings.concurrentStreamPool().execute(
-                    new TransferFileRunnable(blobShard.blobContainer().getFile(digest),
+                    new TransferFileRunnable(blobContainer.openBlob(digest), blobContainer.getFile(digest),
                         lastException, latch)
                 );
             }
@@ -218,11 +264,17 @@ public class BlobRecoveryHandler {
     private class TransferFileRunnable implements Runnable {
         private final AtomicReference<Exception> lastException;
         private final String baseDir;
+        private final BlobRegion region;
         private final File file;
         private final CountDownLatch latch;
 
-        public TransferFileRunnable(File filePath, AtomicReference<Exception> lastException,
+        /**
+         * @param region the content to transfer
+         * @param filePath the path the content is stored at on the target
+         */
+        public TransferFileRunnable(BlobRegion region, File filePath, AtomicReference<Exception> lastException,
                                     CountDownLatch latch) {
+            this.region = region;
             this.file = filePath;
             this.lastException = lastException;
             this.latch = latch;
@@ -235,14 +287,15 @@ public class BlobRecoveryHandler {
             try {
                 final int BUFFER_SIZE = 4 * 4096;
 
-                long fileSize = file.length();
+                long fileSize = region.length();
 
                 if (fileSize == 0) {
                     logger.warn("[{}][{}] empty file: {}",
                         request.shardId().index().name(), request.shardId().id(), file.getName());
                 }
 
-                try (FileInputStream fileStream = new FileInputStream(file)) {
+                region.file().seek(region.offset());
+                try (InputStream fileStream = ByteStreams.limit(new FileInputStream(region.file().getFD()), fileSize)) {
                     String filePath = file.getAbsolutePath();
                     String relPath = filePath.substring(baseDir.length(), filePath.length());
                     byte[] buf = new byte[BUFFER_SIZE];
@@ -315,6 +368,7 @@ public class BlobRecoveryHandler {
                 logger.error("exception while file transfer", ex);
                 lastException.set(ex);
             } finally {
+                IOUtils.closeWhileHandlingException(region);
                 latch.countDown();
             }
         }
@@ -62,6 +62,7 @@ public class BlobIndices extends AbstractComponent implements ClusterStateListen
 
     public static final String SETTING_INDEX_BLOBS_ENABLED = "index.blobs.enabled";
     public static final String SETTING_INDEX_BLOBS_PATH = "index.blobs.path";
+    public static final String SETTING_INDEX_BLOBS_PACK_THRESHOLD = "index.blobs.pack_threshold";
     public static final String INDEX_PREFIX = ".blob_";
 
     private final Provider<TransportUpdateSettingsAction> transportUpdateSettingsActionProvider;
@@ -21,20 +21,20 @@
 
 package io.crate.blob.v2;
 
-import com.google.common.base.Throwables;
 import io.crate.blob.BlobContainer;
 import io.crate.blob.BlobEnvironment;
 import io.crate.blob.stats.BlobStats;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.index.settings.IndexSettings;
 import org.elasticsearch.index.shard.AbstractIndexShardComponent;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.File;
-import java.io.IOException;
 
 public class BlobShard extends AbstractIndexShardComponent {
 
@@ -44,12 +44,15 @@ public class BlobShard extends AbstractIndexShardComponent {
     @Inject
     protected BlobShard(ShardId shardId, @IndexSettings Settings indexSettings,
                         BlobEnvironment blobEnvironment,
-                        IndexShard indexShard) {
+                        IndexShard indexShard,
+                        ThreadPool threadPool) {
         super(shardId, indexSettings);
         this.indexShard = indexShard;
         File blobDir = blobDir(blobEnvironment);
         logger.info("creating BlobContainer at {}", blobDir);
-        this.blobContainer = new BlobContainer(blobDir);
+        long packThreshold = indexSettings.getAsBytesSize(
+                BlobIndices.SETTING_INDEX_BLOBS_PACK_THRESHOLD, new ByteSizeValue(0)).bytes();
+        this.blobContainer = new BlobContainer(blobDir, packThreshold, threadPool.executor(ThreadPool.Names.GENERIC));
     }
 
     public byte[][] currentDigests(byte prefix) {
@@ -57,7 +60,7 @@ public class BlobShard extends AbstractIndexShardComponent {
     }
 
     public boolean delete(String digest) {
-        return blobContainer.getFile(digest).delete();
+        return blobContainer.delete(digest);
     }
 
     public BlobContainer blobContainer() {
@@ -73,19 +76,8 @@ public class BlobShard extends AbstractIndexShardComponent {
 
         stats.location(blobContainer().getBaseDirectory().getAbsolutePath());
         stats.availableSpace(blobContainer().getBaseDirectory().getFreeSpace());
-        try {
-            blobContainer().walkFiles(null, new BlobContainer.FileVisitor() {
-                @Override
-                public boolean visit(File file) {
-                    stats.totalUsage(stats.totalUsage() + file.length());
-                    stats.count(stats.count() + 1);
-                    return true;
-                }
-            });
-        } catch (IOException e) {
-            logger.error("error getting blob stats", e);
-            Throwables.propagate(e);
-        }
+        stats.totalUsage(blobContainer().blobsSize());
+        stats.count(blobContainer().blobsCount());
         return stats;
     }
 
@@ -21,6 +21,7 @@
 
 package io.crate.http.netty;
 
+import io.crate.blob.BlobRegion;
 import io.crate.blob.BlobService;
 import io.crate.blob.DigestBlob;
 import io.crate.blob.RemoteDigestBlob;
@@ -41,7 +42,6 @@ import org.jboss.netty.handler.codec.http.*;
 import org.jboss.netty.util.CharsetUtil;
 
 import java.io.IOException;
-import java.io.RandomAccessFile;
 import java.nio.channels.ClosedChannelException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -247,7 +247,7 @@ public class HttpBlobHandler extends SimpleChannelUpstreamHandler implements
         // should be a redirect upfront if data is not local
 
         BlobShard blobShard = localBlobShard(index, digest);
-        long length = blobShard.blobContainer().getFile(digest).length();
+        long length = blobShard.blobContainer().length(digest);
         if (length < 1) {
             simpleResponse(HttpResponseStatus.NOT_FOUND, null);
             return;
@@ -285,35 +285,35 @@ public class HttpBlobHandler extends SimpleChannelUpstreamHandler implements
         }
         BlobShard blobShard = localBlobShard(index, digest);
 
-        final RandomAccessFile raf = blobShard.blobContainer().getRandomAccessFile(digest);
+        final BlobRegion region = blobShard.blobContainer().openBlob(digest);
         long start;
         long end;
         try {
             try {
                 start = Long.parseLong(matcher.group(1));
-                if (start > raf.length()) {
+                if (start > region.length()) {
                     LOGGER.warn("416 Requested Range not satisfiable");
                     simpleResponse(HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE, null);
-                    raf.close();
+                    region.close();
                     return;
                 }
-                end = raf.length() - 1;
+                end = region.length() - 1;
                 if (!matcher.group(2).equals("")) {
                     end = Long.parseLong(matcher.group(2));
                 }
             } catch (NumberFormatException ex) {
                 LOGGER.error("Couldn't parse Range Header", ex);
                 start = 0;
-                end = raf.length();
+                end = region.length();
             }
 
             HttpResponse response = new DefaultHttpResponse(HTTP_1_1, PARTIAL_CONTENT);
             HttpHeaders.setContentLength(response, end - start + 1);
-            response.headers().set(CONTENT_RANGE, "bytes " + start + "-" + end + "/" + raf.length());
+            response.headers().set(CONTENT_RANGE, "bytes " + start + "-" + end + "/" + region.length());
             setDefaultGetHeaders(response);
 
             ctx.getChannel().write(response);
-            ChannelFuture writeFuture = transferFile(digest, raf, start, end - start + 1);
+            ChannelFuture writeFuture = transferFile(digest, region, start, end - start + 1);
             if (!HttpHeaders.isKeepAlive(request)) {
                 writeFuture.addListener(ChannelFutureListener.CLOSE);
             }
@@ -323,7 +323,7 @@ public class HttpBlobHandler extends SimpleChannelUpstreamHandler implements
              * In case of success, the ChannelFutureListener in "transferFile" will take care
              * that the resources are released.
              */
-            raf.close();
+            region.close();
             throw t;
         }
     }
@@ -331,13 +331,13 @@ public class HttpBlobHandler extends SimpleChannelUpstreamHandler implements
     private void fullContentResponse(HttpRequest request, String index, final String digest) throws  IOException {
         BlobShard blobShard = localBlobShard(index, digest);
         HttpResponse response = new DefaultHttpResponse(HTTP_1_1, OK);
-        final RandomAccessFile raf = blobShard.blobContainer().getRandomAccessFile(digest);
+        final BlobRegion region = blobShard.blobContainer().openBlob(digest);
         try {
-            HttpHeaders.setContentLength(response, raf.length());
+            HttpHeaders.setContentLength(response, region.length());
             setDefaultGetHeaders(response);
             LOGGER.trace("HttpResponse: {}", response);
             ctx.getChannel().write(response);
-            ChannelFuture writeFuture = transferFile(digest, raf, 0, raf.length());
+            ChannelFuture writeFuture = transferFile(digest, region, 0, region.length());
             if (!HttpHeaders.isKeepAlive(request)) {
                 writeFuture.addListener(ChannelFutureListener.CLOSE);
             }
@@ -347,15 +347,19 @@ public class HttpBlobHandler extends SimpleChannelUpstreamHandler implements
              * In case of success, the ChannelFutureListener in "transferFile" will take care
              * that the resources are released.
              */
-            raf.close();
+            region.close();
             throw t;
         }
     }
 
-    private ChannelFuture transferFile(final String digest, RandomAccessFile raf, long position, long count)
+    /**
+     * @param position the position within the blob, which might be stored at an offset of a pack file
+     */
+    private ChannelFuture transferFile(final String digest, BlobRegion blobRegion, long position, long count)
         throws IOException
     {
-        final FileRegion region = new DefaultFileRegion(raf.getChannel(), position, count);
+        final FileRegion region = new DefaultFileRegion(
+            blobRegion.file().getChannel(), blobRegion.offset() + position, count);
         ChannelFuture writeFuture = ctx.getChannel().write(region);
         writeFuture.addListener(new ChannelFutureProgressListener() {
             @Override
@@ -40,6 +40,7 @@ import org.elasticsearch.transport.*;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.util.List;
 
 
 public class BlobRecoveryTarget extends AbstractComponent {
@@ -50,6 +51,13 @@ public class BlobRecoveryTarget extends AbstractComponent {
     * actor SourceNode as s
     * actor TargetNode as t
     *
+    * s -> t:StartPackSync(packs)
+    * t -> t:delete packs which aren't in packs
+    * t --> s:missing packs
+    * group for every missing pack
+    *  s -> t:transfer the whole pack like a missing digest
+    * end
+    *
     * group for every two char prefix
     * s -> t:StartPrefixSync(prefix)
     * t -> t:getDigests for prefix
@@ -81,6 +89,7 @@ public class BlobRecoveryTarget extends AbstractComponent {
         public static final String DELETE_FILE = "crate/blob/shard/recovery/delete_file";
         public static final String START_RECOVERY = "crate/blob/shard/recovery/start";
         public static final String START_PREFIX = "crate/blob/shard/recovery/start_prefix";
+        public static final String START_PACK_SYNC = "crate/blob/shard/recovery/start_pack_sync";
         public static final String TRANSFER_CHUNK = "crate/blob/shard/recovery/transfer_chunk";
         public static final String START_TRANSFER = "crate/blob/shard/recovery/start_transfer";
     }
@@ -94,6 +103,7 @@ public class BlobRecoveryTarget extends AbstractComponent {
 
         transportService.registerHandler(Actions.START_RECOVERY, new StartRecoveryRequestHandler());
         transportService.registerHandler(Actions.START_PREFIX, new StartPrefixSyncRequestHandler());
+        transportService.registerHandler(Actions.START_PACK_SYNC, new StartPackSyncRequestHandler());
         transportService.registerHandler(Actions.TRANSFER_CHUNK, new TransferChunkRequestHandler());
         transportService.registerHandler(Actions.START_TRANSFER, new StartTransferRequestHandler());
         transportService.registerHandler(Actions.DELETE_FILE, new DeleteFileRequestHandler());
@@ -189,7 +199,7 @@ public class BlobRecoveryTarget extends AbstractComponent {
                     // this might happen on bad timing while recovering/relocating.
                     // noop
                 } else {
-                    if (!source.renameTo(target)) {
+                    if (!shard.blobContainer().commitFile(source, target)) {
                         throw new BlobWriteException(target.getName(), target.length(), null);
                     }
                 }
@@ -227,6 +237,32 @@ public class BlobRecoveryTarget extends AbstractComponent {
     }
 
 
+    class StartPackSyncRequestHandler extends BaseHandler<BlobStartPackSyncRequest> {
+
+        @Override
+        public BlobStartPackSyncRequest newInstance() {
+            return new BlobStartPackSyncRequest();
+        }
+
+        @Override
+        public void messageReceived(BlobStartPackSyncRequest request, TransportChannel channel) throws Exception {
+            BlobRecoveryStatus status = onGoingRecoveries.get(request.recoveryId());
+            if (status == null) {
+                throw new IllegalBlobRecoveryStateException(
+                    "could not retrieve BlobRecoveryStatus"
+                );
+            }
+            if (status.canceled()) {
+                throw new IndexShardClosedException(status.shardId());
+            }
+            List<String> missingPacks = status.blobShard.blobContainer().packs().retain(request.packs());
+            BlobStartPackSyncResponse response = new BlobStartPackSyncResponse();
+            response.missingPacks = missingPacks.toArray(new String[missingPacks.size()]);
+            channel.sendResponse(response);
+        }
+    }
+
+
     private class StartTransferRequestHandler extends BaseHandler<BlobRecoveryStartTransferRequest> {
 
 
@@ -264,7 +300,7 @@ public class BlobRecoveryTarget extends AbstractComponent {
                 File source = new File(shard.blobContainer().getBaseDirectory(), tmpPath);
                 File target = new File(shard.blobContainer().getBaseDirectory(), request.path());
                 if (!target.exists()) {
-                    if (!source.renameTo(target)) {
+                    if (!shard.blobContainer().commitFile(source, target)) {
                         throw new IllegalBlobRecoveryStateException(
                             "couldn't rename file to " + request.path()
                         );
@@ -167,4 +167,39 @@ public class DigestBlobTests extends CrateUnitTest {
         assertTrue(file.delete());
     }
 
+    @Test
+    public void testAddContentOutOfOrder() throws IOException {
+        UUID transferId = UUID.randomUUID();
+        BlobContainer container = new BlobContainer(tmpDir.toFile());
+        DigestBlob digestBlob = container.createBlob("417de3231e23dcd6d224ff60918024bc6c59aa58", transferId);
+
+        digestBlob.addContent(0, new BytesArray("ABCD".getBytes()), false);
+        digestBlob.addContent(9, new BytesArray("JKLMN".getBytes()), false);
+        digestBlob.addContent(4, new BytesArray("EFGHI".getBytes()), false);
+        // duplicate chunk is ignored
+        digestBlob.addContent(4, new BytesArray("EFGHI".getBytes()), false);
+        assertEquals(14L, digestBlob.position());
+
+        digestBlob.addContent(14, new BytesArray("O".getBytes()), true);
+
+        File file = digestBlob.commit();
+        byte[] buffer = new byte[15];
+        try (FileInputStream stream = new FileInputStream(file)) {
+            stream.read(buffer, 0, 15);
+            assertEquals("ABCDEFGHIJKLMNO", new BytesArray(buffer).toUtf8().trim());
+        }
+        assertTrue(file.delete());
+    }
+
+    @Test
+    public void testLastChunkBeforeGapIsFilled() throws IOException {
+        BlobContainer container = new BlobContainer(tmpDir.toFile());
+        DigestBlob digestBlob = container.createBlob("417de3231e23dcd6d224ff60918024bc6c59aa58", UUID.randomUUID());
+
+        digestBlob.addContent(0, new BytesArray("ABCD".getBytes()), false);
+
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("Got last chunk of blob 417de3231e23dcd6d224ff60918024bc6c59aa58 at offset 9 but expected offset 4");
+        digestBlob.addContent(9, new BytesArray("JKLMNO".getBytes()), true);
+    }
 }
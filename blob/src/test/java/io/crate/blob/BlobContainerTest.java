@@ -0,0 +1,176 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.blob;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+public class BlobContainerTest extends CrateUnitTest {
+
+    private static final String DIGEST = "417de3231e23dcd6d224ff60918024bc6c59aa58";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void write(File file, int numBytes) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[numBytes]);
+        }
+    }
+
+    @Test
+    public void testStatsAreCalculatedOnStart() throws Exception {
+        File baseDir = folder.newFolder();
+        BlobContainer container = new BlobContainer(baseDir);
+        write(container.getFile(DIGEST), 10);
+        write(container.getFile("00" + DIGEST.substring(2)), 5);
+        // leftover of an interrupted recovery
+        write(new File(container.getFile(DIGEST).getPath() + ".1"), 3);
+
+        container = new BlobContainer(baseDir);
+        assertThat(container.blobsCount(), is(2L));
+        assertThat(container.blobsSize(), is(15L));
+    }
+
+    @Test
+    public void testStatsAreMaintainedOnCommitAndDelete() throws Exception {
+        BlobContainer container = new BlobContainer(folder.newFolder());
+        File source = new File(container.getTmpDirectory(), "blob");
+        write(source, 10);
+        assertThat(container.commitFile(source, container.getFile(DIGEST)), is(true));
+        assertThat(container.blobsCount(), is(1L));
+        assertThat(container.blobsSize(), is(10L));
+
+        // replacing an existing blob must not count it twice
+        write(source, 12);
+        assertThat(container.commitFile(source, container.getFile(DIGEST)), is(true));
+        assertThat(container.blobsCount(), is(1L));
+        assertThat(container.blobsSize(), is(12L));
+
+        assertThat(container.delete(DIGEST), is(true));
+        assertThat(container.delete(DIGEST), is(false));
+        assertThat(container.blobsCount(), is(0L));
+        assertThat(container.blobsSize(), is(0L));
+    }
+
+    private static byte[] read(BlobRegion region) throws IOException {
+        try {
+            byte[] content = new byte[(int) region.length()];
+            region.file().seek(region.offset());
+            region.file().readFully(content);
+            return content;
+        } finally {
+            region.close();
+        }
+    }
+
+    private static File tmpBlob(BlobContainer container, byte[] content) throws IOException {
+        File source = File.createTempFile("blob", null, container.getTmpDirectory());
+        try (FileOutputStream out = new FileOutputStream(source)) {
+            out.write(content);
+        }
+        return source;
+    }
+
+    @Test
+    public void testSmallBlobsArePacked() throws Exception {
+        File baseDir = folder.newFolder();
+        BlobContainer container = new BlobContainer(baseDir, 10, MoreExecutors.directExecutor());
+        String other = "00" + DIGEST.substring(2);
+        container.commitBlob(DIGEST, tmpBlob(container, "small".getBytes()));
+        container.commitBlob(other, tmpBlob(container, "not so small".getBytes()));
+
+        assertThat(container.getFile(DIGEST).exists(), is(false));
+        assertThat(container.getFile(other).exists(), is(true));
+        assertThat(container.exists(DIGEST), is(true));
+        assertThat(container.length(DIGEST), is(5L));
+        assertThat(new String(read(container.openBlob(DIGEST))), is("small"));
+        assertThat(container.cleanAndReturnDigests((byte) 0x41).length, is(1));
+        assertThat(container.blobsCount(), is(2L));
+        assertThat(container.blobsSize(), is(17L));
+
+        // packs are read on start
+        container = new BlobContainer(baseDir, 10, MoreExecutors.directExecutor());
+        assertThat(container.blobsCount(), is(2L));
+        assertThat(new String(read(container.openBlob(DIGEST))), is("small"));
+
+        final List<String> names = new ArrayList<>();
+        container.walkFiles(null, new BlobContainer.FileVisitor() {
+            @Override
+            public boolean visit(File file) throws IOException {
+                names.add(file.getName());
+                return true;
+            }
+        });
+        assertThat(names, containsInAnyOrder(DIGEST, other));
+    }
+
+    @Test
+    public void testDeletedBlobsAreRemovedFromPacks() throws Exception {
+        File baseDir = folder.newFolder();
+        BlobContainer container = new BlobContainer(baseDir, 10, MoreExecutors.directExecutor());
+        String other = "00" + DIGEST.substring(2);
+        container.commitBlob(DIGEST, tmpBlob(container, "small".getBytes()));
+        container.commitBlob(other, tmpBlob(container, "tiny".getBytes()));
+
+        assertThat(container.delete(DIGEST), is(true));
+        assertThat(container.delete(DIGEST), is(false));
+        assertThat(container.exists(DIGEST), is(false));
+        assertThat(container.blobsCount(), is(1L));
+        assertThat(container.blobsSize(), is(4L));
+
+        container = new BlobContainer(baseDir, 10, MoreExecutors.directExecutor());
+        assertThat(container.exists(DIGEST), is(false));
+        assertThat(new String(read(container.openBlob(other))), is("tiny"));
+    }
+
+    @Test
+    public void testSealedPackIsCompactedAfterDeletes() throws Exception {
+        File baseDir = folder.newFolder();
+        BlobContainer container = new BlobContainer(baseDir, 10, MoreExecutors.directExecutor());
+        String other = "00" + DIGEST.substring(2);
+        container.commitBlob(DIGEST, tmpBlob(container, "small".getBytes()));
+        container.commitBlob(other, tmpBlob(container, "tiny".getBytes()));
+        List<String> packs = container.packs().sealAndList();
+        assertThat(packs.size(), is(1));
+
+        assertThat(container.delete(DIGEST), is(true));
+
+        // the remaining blob has been copied into a new pack
+        assertThat(new File(container.packs().getDirectory(), packs.get(0)).exists(), is(false));
+        assertThat(container.packs().sealAndList().size(), is(1));
+        assertThat(new String(read(container.openBlob(other))), is("tiny"));
+        assertThat(container.blobsCount(), is(1L));
+    }
+}
@@ -562,7 +562,12 @@ whenList returns [List<WhenClause> value = new ArrayList<>()]
     ;
 
 explain returns [Statement value]
-    : ^(EXPLAIN explainOptions? statement) { $value = new Explain($statement.value, $explainOptions.value); }
+    : ^(EXPLAIN a=explainAnalyze explainOptions? statement) { $value = new Explain($statement.value, $explainOptions.value, $a.value); }
+    ;
+
+explainAnalyze returns [boolean value]
+    : ANALYZE { $value = true; }
+    |         { $value = false; }
     ;
 
 explainOptions returns [List<ExplainOption> value = new ArrayList<>()]
@@ -608,6 +608,16 @@ public class TestStatementBuilder
         assertEquals(((ShowCreateTable) stmt).table().getName().toString(), "my_schema.foo");
     }
 
+    @Test
+    public void testExplainAnalyze() throws Exception {
+        Explain stmt = (Explain) SqlParser.createStatement("EXPLAIN select * from foo");
+        assertFalse(stmt.isAnalyze());
+        stmt = (Explain) SqlParser.createStatement("EXPLAIN ANALYZE select * from foo");
+        assertTrue(stmt.isAnalyze());
+        assertTrue(stmt.getStatement() instanceof Query);
+        printStatement("explain analyze select * from foo");
+    }
+
     private static void printStatement(String sql)
     {
         println(sql.trim());
@@ -45,8 +45,13 @@ import io.crate.operation.collect.JobCollectContext;
 import io.crate.operation.collect.MapSideDataCollectOperation;
 import io.crate.operation.count.CountOperation;
 import io.crate.operation.fetch.FetchContext;
+import io.crate.operation.join.HashJoinOperation;
 import io.crate.operation.join.NestedLoopOperation;
+import io.crate.operation.profile.JobProfiler;
+import io.crate.operation.profile.PhaseProfiler;
 import io.crate.operation.projectors.FlatProjectorChain;
+import io.crate.operation.projectors.ListenableRowReceiver;
+import io.crate.operation.projectors.ProjectorFactory;
 import io.crate.operation.projectors.RowDownstreamFactory;
 import io.crate.operation.projectors.RowReceiver;
 import io.crate.planner.distribution.DistributionType;
@@ -58,6 +63,7 @@ import io.crate.planner.node.StreamerVisitor;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.CountPhase;
 import io.crate.planner.node.dql.MergePhase;
+import io.crate.planner.node.dql.join.HashJoinPhase;
 import io.crate.planner.node.dql.join.NestedLoopPhase;
 import io.crate.planner.node.fetch.FetchPhase;
 import io.crate.types.DataTypes;
@@ -111,7 +117,7 @@ public class ContextPreparer {
                                                           JobExecutionContext.Builder contextBuilder,
                                                           SharedShardContexts sharedShardContexts) {
         PreparerContext preparerContext = new PreparerContext(jobId, rowDownstreamFactory, nodeOperations,
-                sharedShardContexts);
+                sharedShardContexts, contextBuilder.profiler());
         List<ListenableFuture<Bucket>> directResponseFutures = new ArrayList<>();
         processDownstreamExecutionPhaseIds(nodeOperations, preparerContext);
 
@@ -136,7 +142,7 @@ public class ContextPreparer {
                                                       List<Tuple<ExecutionPhase, RowReceiver>> handlerPhases,
                                                       @Nullable SharedShardContexts sharedShardContexts) {
         ContextPreparer.PreparerContext preparerContext = new PreparerContext(jobId, rowDownstreamFactory,
-                nodeOperations, sharedShardContexts);
+                nodeOperations, sharedShardContexts, contextBuilder.profiler());
         processDownstreamExecutionPhaseIds(nodeOperations, preparerContext);
 
 
@@ -228,15 +234,40 @@ public class ContextPreparer {
 
         @Nullable
         private final SharedShardContexts sharedShardContexts;
+        @Nullable
+        private final JobProfiler profiler;
 
         public PreparerContext(UUID jobId,
                                RowDownstreamFactory rowDownstreamFactory,
                                Iterable<? extends NodeOperation> nodeOperations,
-                               @Nullable SharedShardContexts sharedShardContexts) {
+                               @Nullable SharedShardContexts sharedShardContexts,
+                               @Nullable JobProfiler profiler) {
             this.jobId = jobId;
             this.rowDownstreamFactory = rowDownstreamFactory;
             this.nodeOperations = nodeOperations;
             this.sharedShardContexts = sharedShardContexts;
+            this.profiler = profiler;
+        }
+
+        /**
+         * @return the profiler of the phase or null if the job isn't profiled
+         */
+        @Nullable
+        public PhaseProfiler phaseProfiler(ExecutionPhase executionPhase, RamAccountingContext ramAccountingContext) {
+            if (profiler == null) {
+                return null;
+            }
+            PhaseProfiler phaseProfiler = profiler.phaseProfiler(executionPhase);
+            phaseProfiler.ramAccountingContext(ramAccountingContext);
+            return phaseProfiler;
+        }
+
+        @Nullable
+        private RowReceiver profileOutput(ExecutionPhase executionPhase, @Nullable RowReceiver rowReceiver) {
+            if (profiler == null || rowReceiver == null) {
+                return rowReceiver;
+            }
+            return profiler.phaseProfiler(executionPhase).profileOutput(rowReceiver);
         }
 
         public boolean getPhaseHasSameNodeUpstream(int executionPhaseId, byte inputId) {
@@ -292,19 +323,19 @@ public class ContextPreparer {
         public RowReceiver getRowReceiver(UpstreamPhase upstreamPhase, int pageSize) {
             if (upstreamPhase.distributionInfo().distributionType() == DistributionType.SAME_NODE) {
                 LOGGER.trace("Phase uses SAME_NODE downstream: {}", upstreamPhase);
-                return phaseIdToRowReceivers.get(upstreamPhase.executionPhaseId());
+                return profileOutput(upstreamPhase, phaseIdToRowReceivers.get(upstreamPhase.executionPhaseId()));
             }
             NodeOperation nodeOperation = getNodeOperation(upstreamPhase.executionPhaseId());
             if (ExecutionPhases.hasDirectResponseDownstream(nodeOperation.downstreamNodes())) {
                 LOGGER.trace("Phase uses DIRECT_RESPONSE downstream: {}", upstreamPhase);
-                return phaseIdToRowReceivers.get(upstreamPhase.executionPhaseId());
+                return profileOutput(upstreamPhase, phaseIdToRowReceivers.get(upstreamPhase.executionPhaseId()));
             }
             LOGGER.trace("Phase uses DISTRIBUTED downstream: {}", upstreamPhase);
-            return rowDownstreamFactory.createDownstream(
+            return profileOutput(upstreamPhase, rowDownstreamFactory.createDownstream(
                     nodeOperation,
                     upstreamPhase.distributionInfo(),
                     jobId,
-                    pageSize);
+                    pageSize));
 
         }
 
@@ -355,13 +386,15 @@ public class ContextPreparer {
                 return null;
             }
 
+            ProjectorFactory projectorFactory = PhaseProfiler.projectorFactory(
+                    context.phaseProfiler(phase, ramAccountingContext), pageDownstreamFactory.projectorFactory());
             if (upstreamOnSameNode) {
                 if (!phase.projections().isEmpty()) {
                     ProjectorChainContext projectorChainContext = new ProjectorChainContext(
                             phase.executionPhaseId(),
                             phase.name(),
                             context.jobId,
-                            pageDownstreamFactory.projectorFactory(),
+                            projectorFactory,
                             phase.projections(),
                             rowReceiver,
                             ramAccountingContext);
@@ -380,7 +413,8 @@ public class ContextPreparer {
                             false,
                             ramAccountingContext,
                             // no separate executor because TransportDistributedResultAction already runs in a threadPool
-                            Optional.<Executor>absent());
+                            Optional.<Executor>absent(),
+                            projectorFactory);
 
 
             return new PageDownstreamContext(
@@ -408,7 +442,8 @@ public class ContextPreparer {
                     collectOperation,
                     ramAccountingContext,
                     rowReceiver,
-                    context.sharedShardContexts
+                    context.sharedShardContexts,
+                    context.phaseProfiler(phase, ramAccountingContext)
             );
         }
 
@@ -446,43 +481,85 @@ public class ContextPreparer {
         @Override
         public ExecutionSubContext visitNestedLoopPhase(NestedLoopPhase phase, PreparerContext context) {
             RamAccountingContext ramAccountingContext = RamAccountingContext.forExecutionPhase(circuitBreaker, phase);
+            FlatProjectorChain flatProjectorChain = joinProjectorChain(phase, context, ramAccountingContext);
+            if (flatProjectorChain == null) {
+                return null;
+            }
+
+            NestedLoopOperation nestedLoopOperation = new NestedLoopOperation(flatProjectorChain.firstProjector());
+            return joinContext(phase, context, ramAccountingContext, flatProjectorChain,
+                    nestedLoopOperation.leftRowReceiver(), nestedLoopOperation.rightRowReceiver());
+        }
+
+        @Override
+        public ExecutionSubContext visitHashJoinPhase(HashJoinPhase phase, PreparerContext context) {
+            RamAccountingContext ramAccountingContext = RamAccountingContext.forExecutionPhase(circuitBreaker, phase);
+            FlatProjectorChain flatProjectorChain = joinProjectorChain(phase, context, ramAccountingContext);
+            if (flatProjectorChain == null) {
+                return null;
+            }
+
+            HashJoinOperation hashJoinOperation = new HashJoinOperation(
+                    flatProjectorChain.firstProjector(),
+                    ramAccountingContext,
+                    phase.leftJoinKeys(),
+                    phase.rightJoinKeys(),
+                    phase.joinKeyTypes(),
+                    phase.buildLeft());
+            return joinContext(phase, context, ramAccountingContext, flatProjectorChain,
+                    hashJoinOperation.leftRowReceiver(), hashJoinOperation.rightRowReceiver());
+        }
+
+        /**
+         * @return the projector chain of the join phase or null if the downstream isn't available yet
+         */
+        @Nullable
+        private FlatProjectorChain joinProjectorChain(NestedLoopPhase phase,
+                                                      PreparerContext context,
+                                                      RamAccountingContext ramAccountingContext) {
             RowReceiver downstreamRowReceiver = context.getRowReceiver(phase, Paging.PAGE_SIZE);
             if (downstreamRowReceiver == null) {
                 context.executionPhasesToProcess.add(phase);
                 return null;
             }
 
-            FlatProjectorChain flatProjectorChain;
+            PhaseProfiler phaseProfiler = context.phaseProfiler(phase, ramAccountingContext);
             if (!phase.projections().isEmpty()) {
-                flatProjectorChain = FlatProjectorChain.withAttachedDownstream(
-                        pageDownstreamFactory.projectorFactory(),
+                return FlatProjectorChain.withAttachedDownstream(
+                        PhaseProfiler.projectorFactory(phaseProfiler, pageDownstreamFactory.projectorFactory()),
                         ramAccountingContext,
                         phase.projections(),
                         downstreamRowReceiver,
                         phase.jobId()
                 );
-            } else {
-                flatProjectorChain = FlatProjectorChain.withReceivers(Collections.singletonList(downstreamRowReceiver));
             }
+            return FlatProjectorChain.withReceivers(Collections.singletonList(downstreamRowReceiver));
+        }
 
-            NestedLoopOperation nestedLoopOperation = new NestedLoopOperation(flatProjectorChain.firstProjector());
+        private NestedLoopContext joinContext(NestedLoopPhase phase,
+                                              PreparerContext context,
+                                              RamAccountingContext ramAccountingContext,
+                                              FlatProjectorChain flatProjectorChain,
+                                              ListenableRowReceiver leftRowReceiver,
+                                              ListenableRowReceiver rightRowReceiver) {
             return new NestedLoopContext(
                     phase,
                     flatProjectorChain,
-                    nestedLoopOperation,
+                    leftRowReceiver,
+                    rightRowReceiver,
                     pageDownstreamContextForNestedLoop(
                             phase.executionPhaseId(),
                             context,
                             (byte) 0,
                             phase.leftMergePhase(),
-                            nestedLoopOperation.leftRowReceiver(),
+                            leftRowReceiver,
                             ramAccountingContext),
                     pageDownstreamContextForNestedLoop(
                             phase.executionPhaseId(),
                             context,
                             (byte) 1,
                             phase.rightMergePhase(),
-                            nestedLoopOperation.rightRowReceiver(),
+                            rightRowReceiver,
                             ramAccountingContext
                     )
             );
@@ -502,12 +579,17 @@ public class ContextPreparer {
                 return null;
             }
             assert mergePhase != null : "if upstream isn't on the same node, there must be a mergePhase";
+            PhaseProfiler phaseProfiler = ctx.phaseProfiler(mergePhase, ramAccountingContext);
+            if (phaseProfiler != null) {
+                rowReceiver = phaseProfiler.profileOutput(rowReceiver);
+            }
             Tuple<PageDownstream, FlatProjectorChain> pageDownstreamWithChain = pageDownstreamFactory.createMergeNodePageDownstream(
                     mergePhase,
                     rowReceiver,
                     true,
                     ramAccountingContext,
-                    Optional.of(threadPool.executor(ThreadPool.Names.SEARCH))
+                    Optional.of(threadPool.executor(ThreadPool.Names.SEARCH)),
+                    PhaseProfiler.projectorFactory(phaseProfiler, pageDownstreamFactory.projectorFactory())
             );
             return new PageDownstreamContext(
                     mergePhase.executionPhaseId(),
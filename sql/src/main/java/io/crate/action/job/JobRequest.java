@@ -21,7 +21,10 @@
 
 package io.crate.action.job;
 
+import io.crate.metadata.Routing;
 import io.crate.operation.NodeOperation;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.transport.TransportRequest;
@@ -29,41 +32,120 @@ import org.elasticsearch.transport.TransportRequest;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public class JobRequest extends TransportRequest {
 
     private UUID jobId;
+    @Nullable
     private Collection<? extends NodeOperation> nodeOperations;
+    private boolean profile;
+
+    @Nullable
+    private String templateFingerprint;
+    @Nullable
+    private BytesReference templateBytes;
+    @Nullable
+    private List<Routing> templateRoutings;
 
     protected JobRequest() {
     }
 
     public JobRequest(UUID jobId, Collection<? extends NodeOperation> nodeOperations) {
+        this(jobId, nodeOperations, false);
+    }
+
+    public JobRequest(UUID jobId, Collection<? extends NodeOperation> nodeOperations, boolean profile) {
         this.jobId = jobId;
         this.nodeOperations = nodeOperations;
+        this.profile = profile;
+    }
+
+    /**
+     * create a request which carries the node operations as template
+     *
+     * @param includeTemplateBytes if false only the fingerprint of the template is sent,
+     *                             the receiving node must have the template cached
+     */
+    public JobRequest(UUID jobId, NodeOperationTemplate template, boolean includeTemplateBytes, boolean profile) {
+        this.jobId = jobId;
+        this.templateFingerprint = template.fingerprint();
+        this.templateBytes = includeTemplateBytes ? template.bytes() : null;
+        this.templateRoutings = template.routings();
+        this.profile = profile;
     }
 
     public UUID jobId() {
         return jobId;
     }
 
+    /**
+     * @return the node operations or null if the request carries a template, see {@link #templateFingerprint()}
+     */
+    @Nullable
     public Collection<? extends NodeOperation> nodeOperations() {
         return nodeOperations;
     }
 
+    @Nullable
+    public String templateFingerprint() {
+        return templateFingerprint;
+    }
+
+    /**
+     * @return the serialized template or null if only the fingerprint has been sent
+     */
+    @Nullable
+    public BytesReference templateBytes() {
+        return templateBytes;
+    }
+
+    /**
+     * @return the routings of the node operations of the template, see {@link NodeOperationTemplate#routings()}
+     */
+    @Nullable
+    public List<Routing> templateRoutings() {
+        return templateRoutings;
+    }
+
+    /**
+     * @return true if the operations should be profiled (EXPLAIN ANALYZE)
+     */
+    public boolean profile() {
+        return profile;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
 
         jobId = new UUID(in.readLong(), in.readLong());
 
-        int numNodeOperations = in.readVInt();
-        ArrayList<NodeOperation> nodeOperations = new ArrayList<>(numNodeOperations);
-        for (int i = 0; i < numNodeOperations; i++) {
-            nodeOperations.add(new NodeOperation(in));
+        if (in.readBoolean()) {
+            templateFingerprint = in.readString();
+            if (in.readBoolean()) {
+                templateBytes = in.readBytesReference();
+            }
+            int numRoutings = in.readVInt();
+            templateRoutings = new ArrayList<>(numRoutings);
+            for (int i = 0; i < numRoutings; i++) {
+                Routing routing = null;
+                if (in.readBoolean()) {
+                    routing = new Routing();
+                    routing.readFrom(in);
+                }
+                templateRoutings.add(routing);
+            }
+        } else {
+            int numNodeOperations = in.readVInt();
+            ArrayList<NodeOperation> nodeOperations = new ArrayList<>(numNodeOperations);
+            for (int i = 0; i < numNodeOperations; i++) {
+                nodeOperations.add(new NodeOperation(in));
+            }
+            this.nodeOperations = nodeOperations;
         }
-        this.nodeOperations = nodeOperations;
+        profile = in.readBoolean();
     }
 
     @Override
@@ -73,9 +155,31 @@ public class JobRequest extends TransportRequest {
         out.writeLong(jobId.getMostSignificantBits());
         out.writeLong(jobId.getLeastSignificantBits());
 
-        out.writeVInt(nodeOperations.size());
-        for (NodeOperation nodeOperation : nodeOperations) {
-            nodeOperation.writeTo(out);
+        if (templateFingerprint == null) {
+            out.writeBoolean(false);
+            assert nodeOperations != null : "nodeOperations must not be null if there is no template";
+            out.writeVInt(nodeOperations.size());
+            for (NodeOperation nodeOperation : nodeOperations) {
+                nodeOperation.writeTo(out);
+            }
+        } else {
+            out.writeBoolean(true);
+            out.writeString(templateFingerprint);
+            out.writeBoolean(templateBytes != null);
+            if (templateBytes != null) {
+                out.writeBytesReference(templateBytes);
+            }
+            assert templateRoutings != null : "templateRoutings must not be null if there is a template";
+            out.writeVInt(templateRoutings.size());
+            for (Routing routing : templateRoutings) {
+                if (routing == null) {
+                    out.writeBoolean(false);
+                } else {
+                    out.writeBoolean(true);
+                    routing.writeTo(out);
+                }
+            }
         }
+        out.writeBoolean(profile);
     }
 }
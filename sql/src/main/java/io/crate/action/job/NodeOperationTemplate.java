@@ -0,0 +1,117 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.action.job;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import io.crate.metadata.Routing;
+import io.crate.operation.NodeOperation;
+import io.crate.planner.node.ExecutionPhases;
+import org.elasticsearch.common.bytes.BytesReference;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The node operations of a job serialized without their jobId and routing, identified by a fingerprint
+ * of the serialized bytes. The routings are kept aside, one per node operation.
+ *
+ * Jobs of the same statement with the same parameters have the same fingerprint, even if the shard copies
+ * they read from differ, so a node which has the template cached only needs to receive the fingerprint
+ * and the routings.
+ */
+public class NodeOperationTemplate {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final String fingerprint;
+    private final BytesReference bytes;
+    private final List<Routing> routings;
+
+    public static NodeOperationTemplate of(Collection<? extends NodeOperation> nodeOperations) throws IOException {
+        ExecutionPhases.TemplateStreamOutput out = new ExecutionPhases.TemplateStreamOutput();
+        out.writeVInt(nodeOperations.size());
+        List<Routing> routings = new ArrayList<>(nodeOperations.size());
+        for (NodeOperation nodeOperation : nodeOperations) {
+            nodeOperation.writeTo(out);
+            routings.add(out.takeRouting());
+        }
+        BytesReference bytes = out.bytes();
+        String fingerprint;
+        if (bytes.hasArray()) {
+            fingerprint = HASH_FUNCTION.hashBytes(bytes.array(), bytes.arrayOffset(), bytes.length()).toString();
+        } else {
+            fingerprint = HASH_FUNCTION.hashBytes(bytes.toBytes()).toString();
+        }
+        return new NodeOperationTemplate(fingerprint, bytes, routings);
+    }
+
+    NodeOperationTemplate(String fingerprint, BytesReference bytes, List<Routing> routings) {
+        this.fingerprint = fingerprint;
+        this.bytes = bytes;
+        this.routings = routings;
+    }
+
+    public String fingerprint() {
+        return fingerprint;
+    }
+
+    public BytesReference bytes() {
+        return bytes;
+    }
+
+    /**
+     * @return the routing of each node operation, null for operations without routing
+     */
+    public List<Routing> routings() {
+        return routings;
+    }
+
+    /**
+     * deserialize the node operations of a template. They don't belong to any job yet, see {@link #bind(List, UUID, List)}
+     */
+    public static List<NodeOperation> readNodeOperations(BytesReference bytes) throws IOException {
+        ExecutionPhases.TemplateStreamInput in = new ExecutionPhases.TemplateStreamInput(bytes);
+        int numNodeOperations = in.readVInt();
+        List<NodeOperation> nodeOperations = new ArrayList<>(numNodeOperations);
+        for (int i = 0; i < numNodeOperations; i++) {
+            nodeOperations.add(new NodeOperation(in));
+        }
+        return nodeOperations;
+    }
+
+    /**
+     * bind the node operations of a template to a job, the template itself remains unchanged and can be reused.
+     */
+    public static List<NodeOperation> bind(List<NodeOperation> template, UUID jobId, List<Routing> routings) {
+        assert template.size() == routings.size() : "one routing per node operation required";
+        List<NodeOperation> nodeOperations = new ArrayList<>(template.size());
+        for (int i = 0; i < template.size(); i++) {
+            nodeOperations.add(template.get(i).bind(jobId, routings.get(i)));
+        }
+        return nodeOperations;
+    }
+}
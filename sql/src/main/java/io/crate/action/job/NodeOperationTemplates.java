@@ -0,0 +1,115 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.action.job;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.crate.exceptions.NodeOperationTemplateMissingException;
+import io.crate.operation.NodeOperation;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Settings;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Caches the {@link NodeOperationTemplate}s of jobs, so that repeated statements only need to send
+ * the fingerprint of their node operations to the other nodes.
+ *
+ * On the nodes executing the operations the deserialized node operations are kept by fingerprint,
+ * each job executes copies bound to its jobId and routing.
+ * On the handler the fingerprints which have been acknowledged by a node are remembered.
+ */
+@Singleton
+public class NodeOperationTemplates {
+
+    /**
+     * number of templates kept per node; 0 disables the cache and node operations are always sent in full
+     */
+    public static final String CACHE_SIZE_SETTING = "sql.job.template_cache_size";
+    private static final int CACHE_SIZE_DEFAULT = 500;
+
+    private final int cacheSize;
+    private final Cache<String, List<NodeOperation>> templates;
+    private final Cache<String, Boolean> knownTemplates;
+
+    @Inject
+    public NodeOperationTemplates(Settings settings) {
+        cacheSize = Math.max(0, settings.getAsInt(CACHE_SIZE_SETTING, CACHE_SIZE_DEFAULT));
+        templates = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+        knownTemplates = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    public boolean enabled() {
+        return cacheSize > 0;
+    }
+
+    /**
+     * @return true if the node acknowledged the template before and presumably still has it cached
+     */
+    public boolean isCachedOn(String nodeId, NodeOperationTemplate template) {
+        return knownTemplates.getIfPresent(key(nodeId, template)) != null;
+    }
+
+    public void cachedOn(String nodeId, NodeOperationTemplate template) {
+        knownTemplates.put(key(nodeId, template), Boolean.TRUE);
+    }
+
+    public void missingOn(String nodeId, NodeOperationTemplate template) {
+        knownTemplates.invalidate(key(nodeId, template));
+    }
+
+    private static String key(String nodeId, NodeOperationTemplate template) {
+        return nodeId + '/' + template.fingerprint();
+    }
+
+    /**
+     * resolve the node operations of a request received from the handler,
+     * caching the template if the request contains one.
+     *
+     * @throws NodeOperationTemplateMissingException if the request only references a template which isn't cached
+     */
+    public Collection<? extends NodeOperation> nodeOperations(JobRequest request) throws IOException {
+        String fingerprint = request.templateFingerprint();
+        if (fingerprint == null) {
+            return request.nodeOperations();
+        }
+        List<NodeOperation> template;
+        BytesReference bytes = request.templateBytes();
+        if (bytes == null) {
+            template = templates.getIfPresent(fingerprint);
+            if (template == null) {
+                throw new NodeOperationTemplateMissingException(fingerprint);
+            }
+        } else {
+            template = NodeOperationTemplate.readNodeOperations(bytes);
+            if (enabled()) {
+                templates.put(fingerprint, template);
+            }
+        }
+        return NodeOperationTemplate.bind(template, request.jobId(), request.templateRoutings());
+    }
+}
@@ -25,6 +25,8 @@ import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.crate.core.collections.Bucket;
+import io.crate.exceptions.Exceptions;
+import io.crate.exceptions.NodeOperationTemplateMissingException;
 import io.crate.executor.transport.DefaultTransportResponseHandler;
 import io.crate.executor.transport.NodeAction;
 import io.crate.executor.transport.NodeActionRequestHandler;
@@ -32,6 +34,7 @@ import io.crate.executor.transport.Transports;
 import io.crate.jobs.JobContextService;
 import io.crate.jobs.JobExecutionContext;
 import io.crate.jobs.KeepAliveTimers;
+import io.crate.operation.NodeOperation;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.node.DiscoveryNode;
@@ -46,6 +49,8 @@ import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
 import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 
 @Singleton
@@ -62,6 +67,7 @@ public class TransportJobAction implements NodeAction<JobRequest, JobResponse> {
     private final ContextPreparer contextPreparer;
     private final KeepAliveTimers keepAliveTimers;
     private final ClusterService clusterService;
+    private final NodeOperationTemplates nodeOperationTemplates;
 
     @Inject
     public TransportJobAction(TransportService transportService,
@@ -70,13 +76,15 @@ public class TransportJobAction implements NodeAction<JobRequest, JobResponse> {
                               Transports transports,
                               JobContextService jobContextService,
                               ContextPreparer contextPreparer,
-                              KeepAliveTimers keepAliveTimers) {
+                              KeepAliveTimers keepAliveTimers,
+                              NodeOperationTemplates nodeOperationTemplates) {
         this.indicesService = indicesService;
         this.clusterService = clusterService;
         this.transports = transports;
         this.jobContextService = jobContextService;
         this.contextPreparer = contextPreparer;
         this.keepAliveTimers = keepAliveTimers;
+        this.nodeOperationTemplates = nodeOperationTemplates;
 
 
         transportService.registerHandler(ACTION_NAME, new NodeActionRequestHandler<JobRequest, JobResponse>(this) {
@@ -88,6 +96,54 @@ public class TransportJobAction implements NodeAction<JobRequest, JobResponse> {
     }
 
     public void execute(String node, final JobRequest request, final ActionListener<JobResponse> listener) {
+        if (!nodeOperationTemplates.enabled()
+            || request.nodeOperations() == null
+            || node.equals(clusterService.localNode().id())) {
+            send(node, request, listener);
+            return;
+        }
+        NodeOperationTemplate template;
+        try {
+            template = NodeOperationTemplate.of(request.nodeOperations());
+        } catch (IOException e) {
+            listener.onFailure(e);
+            return;
+        }
+        boolean cached = nodeOperationTemplates.isCachedOn(node, template);
+        sendTemplate(node, request, template, cached, listener);
+    }
+
+    /**
+     * send the request with the template of its node operations; only the fingerprint is sent if the
+     * node presumably has it cached. If it hasn't, the full template is sent again.
+     */
+    private void sendTemplate(final String node,
+                              final JobRequest request,
+                              final NodeOperationTemplate template,
+                              final boolean fingerprintOnly,
+                              final ActionListener<JobResponse> listener) {
+        JobRequest templateRequest = new JobRequest(request.jobId(), template, !fingerprintOnly, request.profile());
+        send(node, templateRequest, new ActionListener<JobResponse>() {
+            @Override
+            public void onResponse(JobResponse jobResponse) {
+                nodeOperationTemplates.cachedOn(node, template);
+                listener.onResponse(jobResponse);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                if (fingerprintOnly && Exceptions.unwrap(e) instanceof NodeOperationTemplateMissingException) {
+                    LOGGER.trace("NodeOperationTemplate {} missing on node {}, sending it again", template.fingerprint(), node);
+                    nodeOperationTemplates.missingOn(node, template);
+                    sendTemplate(node, request, template, false, listener);
+                } else {
+                    listener.onFailure(e);
+                }
+            }
+        });
+    }
+
+    private void send(String node, JobRequest request, final ActionListener<JobResponse> listener) {
         transports.executeLocalOrWithTransport(this, node, request, listener,
                 new DefaultTransportResponseHandler<JobResponse>(listener) {
                     @Override
@@ -99,11 +155,18 @@ public class TransportJobAction implements NodeAction<JobRequest, JobResponse> {
 
     @Override
     public void nodeOperation(final JobRequest request, final ActionListener<JobResponse> actionListener) {
-        JobExecutionContext.Builder contextBuilder = jobContextService.newBuilder(request.jobId());
+        Collection<? extends NodeOperation> nodeOperations;
+        try {
+            nodeOperations = nodeOperationTemplates.nodeOperations(request);
+        } catch (Throwable t) {
+            actionListener.onFailure(t);
+            return;
+        }
+        JobExecutionContext.Builder contextBuilder = jobContextService.newBuilder(request.jobId(), request.profile());
 
         SharedShardContexts sharedShardContexts = new SharedShardContexts(indicesService);
         List<ListenableFuture<Bucket>> directResponseFutures = contextPreparer.prepareOnRemote(
-                request.jobId(), request.nodeOperations(), contextBuilder, sharedShardContexts);
+                request.jobId(), nodeOperations, contextBuilder, sharedShardContexts);
 
         try {
             JobExecutionContext context = jobContextService.createContext(contextBuilder);
@@ -0,0 +1,148 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.action.job;
+
+import io.crate.executor.transport.DefaultTransportResponseHandler;
+import io.crate.executor.transport.NodeAction;
+import io.crate.executor.transport.NodeActionRequestHandler;
+import io.crate.executor.transport.Transports;
+import io.crate.jobs.JobContextService;
+import io.crate.operation.profile.JobProfiler;
+import io.crate.operation.profile.PhaseProfile;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fetches the profiles of a job that has been executed with profiling enabled (EXPLAIN ANALYZE).
+ * The profiles are removed from the nodes once they've been fetched.
+ */
+@Singleton
+public class TransportJobProfileAction implements NodeAction<JobProfileRequest, JobProfileResponse> {
+
+    public static final String ACTION_NAME = "crate/sql/job/profile";
+    private static final String EXECUTOR = ThreadPool.Names.MANAGEMENT;
+
+    private final JobContextService jobContextService;
+    private final ClusterService clusterService;
+    private final Transports transports;
+
+    @Inject
+    public TransportJobProfileAction(TransportService transportService,
+                                     ClusterService clusterService,
+                                     Transports transports,
+                                     JobContextService jobContextService) {
+        this.jobContextService = jobContextService;
+        this.clusterService = clusterService;
+        this.transports = transports;
+        transportService.registerHandler(ACTION_NAME, new NodeActionRequestHandler<JobProfileRequest, JobProfileResponse>(this) {
+            @Override
+            public JobProfileRequest newInstance() {
+                return new JobProfileRequest();
+            }
+        });
+    }
+
+    /**
+     * @param listener is called with the phase profiles by node id; nodes without profiles are omitted
+     */
+    public void profileOnAllNodes(JobProfileRequest request, final ActionListener<Map<String, List<PhaseProfile>>> listener) {
+        DiscoveryNodes nodes = clusterService.state().nodes();
+        final AtomicInteger counter = new AtomicInteger(nodes.size());
+        final AtomicReference<Throwable> lastFailure = new AtomicReference<>();
+        final Map<String, List<PhaseProfile>> profilesByNode = new TreeMap<>();
+
+        for (final DiscoveryNode node : nodes) {
+            ActionListener<JobProfileResponse> nodeListener = new ActionListener<JobProfileResponse>() {
+                @Override
+                public void onResponse(JobProfileResponse response) {
+                    if (!response.phaseProfiles().isEmpty()) {
+                        synchronized (profilesByNode) {
+                            profilesByNode.put(node.id(), response.phaseProfiles());
+                        }
+                    }
+                    countdown();
+                }
+
+                @Override
+                public void onFailure(Throwable e) {
+                    lastFailure.set(e);
+                    countdown();
+                }
+
+                private void countdown() {
+                    if (counter.decrementAndGet() == 0) {
+                        Throwable throwable = lastFailure.get();
+                        if (throwable == null) {
+                            listener.onResponse(profilesByNode);
+                        } else {
+                            listener.onFailure(throwable);
+                        }
+                    }
+                }
+            };
+            transports.executeLocalOrWithTransport(this, node.id(), request, nodeListener,
+                    new DefaultTransportResponseHandler<JobProfileResponse>(nodeListener) {
+                        @Override
+                        public JobProfileResponse newInstance() {
+                            return new JobProfileResponse();
+                        }
+                    });
+        }
+    }
+
+    @Override
+    public String actionName() {
+        return ACTION_NAME;
+    }
+
+    @Override
+    public String executorName() {
+        return EXECUTOR;
+    }
+
+    @Override
+    public void nodeOperation(JobProfileRequest request, ActionListener<JobProfileResponse> listener) {
+        try {
+            JobProfiler profiler = jobContextService.removeProfiler(request.jobId());
+            if (profiler == null) {
+                listener.onResponse(new JobProfileResponse());
+            } else {
+                listener.onResponse(new JobProfileResponse(profiler.snapshot()));
+            }
+        } catch (Throwable t) {
+            listener.onFailure(t);
+        }
+    }
+}
@@ -43,6 +43,7 @@ public abstract class SQLBaseResponse extends ActionResponse implements ToXConte
         static final XContentBuilderString COLUMNTYPES = new XContentBuilderString("colTypes");
         static final XContentBuilderString ROWS = new XContentBuilderString("rows");
         static final XContentBuilderString ROWCOUNT = new XContentBuilderString("rowcount");
+        static final XContentBuilderString CURSOR = new XContentBuilderString("cursor");
         static final XContentBuilderString DURATION = new XContentBuilderString("duration");
         static final XContentBuilderString ERROR_MESSAGE = new XContentBuilderString("error_message");
     }
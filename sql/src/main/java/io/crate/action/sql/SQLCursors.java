@@ -0,0 +1,158 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.action.sql;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.crate.executor.PagedQueryResult;
+import io.crate.executor.TaskResult;
+import io.crate.jobs.JobContextService;
+import io.crate.types.DataType;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import javax.annotation.Nullable;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the cursors of paged query results which have been created on this node.
+ *
+ * A cursor which isn't used for <code>sql.cursor.keep_alive</code> is closed,
+ * which stops the job that produces its rows.
+ * The keep alive must be below the keep alive of jobs, otherwise the paused job would be killed
+ * while its cursor can still be used.
+ */
+@Singleton
+public class SQLCursors {
+
+    public static final String KEEP_ALIVE_SETTING = "sql.cursor.keep_alive";
+    public static final TimeValue DEFAULT_KEEP_ALIVE = TimeValue.timeValueMinutes(2);
+
+    private static final ESLogger LOGGER = Loggers.getLogger(SQLCursors.class);
+
+    private final Cache<String, Cursor> cursors;
+
+    @Inject
+    public SQLCursors(Settings settings,
+                      ThreadPool threadPool,
+                      @JobContextService.JobKeepAlive TimeValue jobKeepAlive) {
+        TimeValue keepAlive = settings.getAsTime(KEEP_ALIVE_SETTING, DEFAULT_KEEP_ALIVE);
+        if (keepAlive.millis() >= jobKeepAlive.millis()) {
+            TimeValue adjustedKeepAlive = TimeValue.timeValueMillis(jobKeepAlive.millis() / 2);
+            LOGGER.warn("{} [{}] must be below the job keep alive [{}], using [{}]",
+                    KEEP_ALIVE_SETTING, keepAlive, jobKeepAlive, adjustedKeepAlive);
+            keepAlive = adjustedKeepAlive;
+        }
+        // expired cursors are only closed on clean up,
+        // so clean up often enough that they're closed before the job keep alive is reached
+        TimeValue cleanUpInterval = TimeValue.timeValueMillis(
+                Math.max(1, (jobKeepAlive.millis() - keepAlive.millis()) / 2));
+        cursors = CacheBuilder.newBuilder()
+                .expireAfterAccess(keepAlive.millis(), TimeUnit.MILLISECONDS)
+                .removalListener(new RemovalListener<String, Cursor>() {
+                    @Override
+                    public void onRemoval(RemovalNotification<String, Cursor> notification) {
+                        if (notification.wasEvicted()) {
+                            notification.getValue().close();
+                        }
+                    }
+                })
+                .build();
+        threadPool.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                cursors.cleanUp();
+            }
+        }, cleanUpInterval);
+    }
+
+    /**
+     * registers a new cursor
+     *
+     * @return the id of the cursor
+     */
+    public String open(Cursor cursor) {
+        String cursorId = UUID.randomUUID().toString();
+        cursors.put(cursorId, cursor);
+        return cursorId;
+    }
+
+    /**
+     * re-registers a cursor after its next page has been fetched
+     */
+    public void put(String cursorId, Cursor cursor) {
+        cursors.put(cursorId, cursor);
+    }
+
+    /**
+     * removes a cursor so that it can be used exclusively to fetch the next page
+     *
+     * @return the cursor or null if it's unknown or expired
+     */
+    @Nullable
+    public Cursor remove(String cursorId) {
+        return cursors.asMap().remove(cursorId);
+    }
+
+    public static class Cursor {
+
+        private final String[] outputNames;
+        private final DataType[] outputTypes;
+        private PagedQueryResult result;
+
+        public Cursor(String[] outputNames, DataType[] outputTypes, PagedQueryResult result) {
+            this.outputNames = outputNames;
+            this.outputTypes = outputTypes;
+            this.result = result;
+        }
+
+        public String[] outputNames() {
+            return outputNames;
+        }
+
+        public DataType[] outputTypes() {
+            return outputTypes;
+        }
+
+        public ListenableFuture<TaskResult> fetch() {
+            return result.fetch();
+        }
+
+        public void result(PagedQueryResult result) {
+            this.result = result;
+        }
+
+        public void close() {
+            result.close();
+        }
+    }
+}
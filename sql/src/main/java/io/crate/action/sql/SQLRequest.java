@@ -22,9 +22,11 @@
 package io.crate.action.sql;
 
 import com.google.common.base.MoreObjects;
+import org.elasticsearch.action.ActionRequestValidationException;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.Arrays;
 
@@ -34,6 +36,11 @@ import java.util.Arrays;
 public class SQLRequest extends SQLBaseRequest {
 
     public final static Object[] EMPTY_ARGS = new Object[0];
+
+    // fetch size and cursor are sent as headers to keep the serialization backward compatible
+    private static final String FETCH_SIZE_HEADER_KEY = "fetch_size";
+    private static final String CURSOR_HEADER_KEY = "cursor";
+
     private Object[] args;
 
     public SQLRequest() {} // used for serialization
@@ -72,6 +79,46 @@ public class SQLRequest extends SQLBaseRequest {
         this.args = MoreObjects.firstNonNull(args, EMPTY_ARGS);
     }
 
+    /**
+     * the number of rows per response.
+     *
+     * If the result of the statement contains more rows, the response contains a cursor id
+     * which can be used to fetch the next rows using {@link #cursorId(String)}.
+     * 0 (the default) returns all rows at once.
+     */
+    public void fetchSize(int fetchSize) {
+        if (fetchSize > 0) {
+            putHeader(FETCH_SIZE_HEADER_KEY, fetchSize);
+        }
+    }
+
+    public int fetchSize() {
+        Integer fetchSize = getHeader(FETCH_SIZE_HEADER_KEY);
+        return fetchSize == null ? 0 : fetchSize;
+    }
+
+    /**
+     * set the id of an open cursor to fetch the next rows of a previous statement instead of executing <code>stmt</code>
+     */
+    public void cursorId(@Nullable String cursorId) {
+        if (cursorId != null) {
+            putHeader(CURSOR_HEADER_KEY, cursorId);
+        }
+    }
+
+    @Nullable
+    public String cursorId() {
+        return getHeader(CURSOR_HEADER_KEY);
+    }
+
+    @Override
+    public ActionRequestValidationException validate() {
+        if (cursorId() != null) {
+            return null;
+        }
+        return super.validate();
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
@@ -104,6 +151,8 @@ public class SQLRequest extends SQLBaseRequest {
         return MoreObjects.toStringHelper(this)
                 .add("stmt", stmt)
                 .add("args", Arrays.asList(args))
+                .add("fetchSize", fetchSize())
+                .add("cursorId", cursorId())
                 .add("creationTime", creationTime).toString();
     }
 }
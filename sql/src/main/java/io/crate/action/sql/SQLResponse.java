@@ -27,15 +27,21 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
 
 public class SQLResponse extends SQLBaseResponse {
 
     public static final long NO_ROW_COUNT = -1L;
 
+    private static final String CURSOR_HEADER_KEY = "cursor";
+
     private Object[][] rows;
     private long rowCount = NO_ROW_COUNT;
+    private String cursorId;
 
     public SQLResponse() {
     }
@@ -67,6 +73,9 @@ public class SQLResponse extends SQLBaseResponse {
         }
         builder.endArray();
         builder.field(Fields.ROWCOUNT, rowCount());
+        if (cursorId != null) {
+            builder.field(Fields.CURSOR, cursorId);
+        }
         builder.endObject();
         return builder;
     }
@@ -91,10 +100,25 @@ public class SQLResponse extends SQLBaseResponse {
         this.rows = rows;
     }
 
+    /**
+     * @return the id of the cursor to fetch the remaining rows, or null if the response contains the last rows
+     */
+    @Nullable
+    public String cursorId() {
+        return cursorId;
+    }
+
+    public void cursorId(@Nullable String cursorId) {
+        this.cursorId = cursorId;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         // don't user super.readFrom to stay binary backward compatible
-        in.readBoolean(); // headers in TransportResponse
+        if (in.readBoolean()) { // headers in TransportResponse, only used for the cursor
+            Map<String, Object> headers = in.readMap();
+            cursorId = (String) headers.get(CURSOR_HEADER_KEY);
+        }
 
         boolean negative = in.readBoolean();
         rowCount = in.readVLong();
@@ -126,7 +150,12 @@ public class SQLResponse extends SQLBaseResponse {
     public void writeTo(StreamOutput out) throws IOException {
         // don't user super.writeTo to stay binary backward compatible
 
-        out.writeBoolean(false); // headers in TransportResponse
+        if (cursorId == null) {
+            out.writeBoolean(false); // headers in TransportResponse
+        } else {
+            out.writeBoolean(true);
+            out.writeMap(Collections.<String, Object>singletonMap(CURSOR_HEADER_KEY, cursorId));
+        }
         out.writeBoolean(rowCount < 0);
         out.writeVLong(Math.abs(rowCount));
         out.writeStringArray(cols);
@@ -153,6 +182,7 @@ public class SQLResponse extends SQLBaseResponse {
                 "colTypes=" + ((colTypes !=null) ? Arrays.toString(colTypes): null) +
                 ", rows=" + ((rows!=null) ? rows.length: -1)  +
                 ", rowCount=" + rowCount  +
+                ", cursorId=" + cursorId  +
                 ", duration=" + duration()  +
                 '}';
     }
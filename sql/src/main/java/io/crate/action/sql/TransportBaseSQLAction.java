@@ -21,9 +21,6 @@
 
 package io.crate.action.sql;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -35,6 +32,7 @@ import io.crate.analyze.symbol.Field;
 import io.crate.exceptions.*;
 import io.crate.executor.Executor;
 import io.crate.executor.Job;
+import io.crate.executor.PagedQueryResult;
 import io.crate.executor.TaskResult;
 import io.crate.executor.transport.kill.KillJobsRequest;
 import io.crate.executor.transport.kill.KillResponse;
@@ -45,7 +43,6 @@ import io.crate.planner.Plan;
 import io.crate.planner.PlanPrinter;
 import io.crate.planner.Planner;
 import io.crate.sql.parser.ParsingException;
-import io.crate.sql.parser.SqlParser;
 import io.crate.sql.tree.Statement;
 import io.crate.types.DataType;
 import org.elasticsearch.action.ActionListener;
@@ -86,23 +83,13 @@ public abstract class TransportBaseSQLAction<TRequest extends SQLBaseRequest, TR
     private static final int MAX_SHARD_MISSING_RETRIES = 3;
 
 
-    private final LoadingCache<String, Statement> statementCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .build(
-                    new CacheLoader<String, Statement>() {
-                        @Override
-                        public Statement load(@Nonnull String statement) throws Exception {
-                            return SqlParser.createStatement(statement);
-                        }
-                    }
-            );
-
     private final ClusterService clusterService;
     private final TransportKillJobsNodeAction transportKillJobsNodeAction;
     private final Analyzer analyzer;
     protected final Planner planner;
     private final Provider<Executor> executorProvider;
     private final StatsTables statsTables;
+    private final StatementCache statementCache;
     private volatile boolean disabled;
 
     public TransportBaseSQLAction(ClusterService clusterService,
@@ -114,8 +101,10 @@ public abstract class TransportBaseSQLAction<TRequest extends SQLBaseRequest, TR
                                   Provider<Executor> executorProvider,
                                   StatsTables statsTables,
                                   ActionFilters actionFilters,
-                                  TransportKillJobsNodeAction transportKillJobsNodeAction) {
+                                  TransportKillJobsNodeAction transportKillJobsNodeAction,
+                                  StatementCache statementCache) {
         super(settings, actionName, threadPool, actionFilters);
+        this.statementCache = statementCache;
         this.clusterService = clusterService;
         this.analyzer = analyzer;
         this.planner = planner;
@@ -126,6 +115,13 @@ public abstract class TransportBaseSQLAction<TRequest extends SQLBaseRequest, TR
 
     public abstract ParameterContext getParamContext(TRequest request);
 
+    /**
+     * @return the number of rows per page of the query result, 0 to receive all rows at once
+     */
+    protected int fetchSize(TRequest request) {
+        return 0;
+    }
+
 
     /**
      * create an empty SQLBaseResponse instance with no rows
@@ -231,7 +227,7 @@ public abstract class TransportBaseSQLAction<TRequest extends SQLBaseRequest, TR
                              final TRequest request,
                              final int attempt) {
         Executor executor = executorProvider.get();
-        Job job = executor.newJob(plan);
+        Job job = executor.newJob(plan, fetchSize(request));
 
         List<? extends ListenableFuture<TaskResult>> resultFutureList = executor.execute(job);
         Futures.addCallback(Futures.allAsList(resultFutureList), new FutureCallback<List<TaskResult>>() {
@@ -245,7 +241,12 @@ public abstract class TransportBaseSQLAction<TRequest extends SQLBaseRequest, TR
                             sendResponse(listener, buildSQLActionException(e));
                             return;
                         }
-                        statsTables.jobFinished(plan.jobId(), null);
+                        if (result != null && result.size() == 1 && result.get(0) instanceof PagedQueryResult) {
+                            // the job is still running until its cursor has been exhausted or closed
+                            finishJobOnCursorEnd(plan, (PagedQueryResult) result.get(0));
+                        } else {
+                            statsTables.jobFinished(plan.jobId(), null);
+                        }
                         sendResponse(listener, response);
                     }
 
@@ -293,6 +294,26 @@ public abstract class TransportBaseSQLAction<TRequest extends SQLBaseRequest, TR
         );
     }
 
+    private void finishJobOnCursorEnd(final Plan plan, PagedQueryResult pagedQueryResult) {
+        Futures.addCallback(pagedQueryResult.finishFuture(), new FutureCallback<Void>() {
+            @Override
+            public void onSuccess(@Nullable Void result) {
+                statsTables.jobFinished(plan.jobId(), null);
+            }
+
+            @Override
+            public void onFailure(@Nonnull Throwable t) {
+                String message;
+                if (Exceptions.unwrap(t) instanceof CancellationException) {
+                    message = Constants.KILLED_MESSAGE;
+                } else {
+                    message = Exceptions.messageOf(t);
+                }
+                statsTables.jobFinished(plan.jobId(), message);
+            }
+        });
+    }
+
     private void tracePlan(Plan plan) {
         if (logger.isTraceEnabled()) {
             PlanPrinter printer = new PlanPrinter();
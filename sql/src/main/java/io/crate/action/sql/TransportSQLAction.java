@@ -21,13 +21,17 @@
 
 package io.crate.action.sql;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import io.crate.analyze.Analyzer;
 import io.crate.analyze.ParameterContext;
 import io.crate.core.collections.Bucket;
 import io.crate.core.collections.Buckets;
 import io.crate.core.collections.Row;
 import io.crate.executor.BytesRefUtils;
+import io.crate.exceptions.CursorUnknownException;
 import io.crate.executor.Executor;
+import io.crate.executor.PagedQueryResult;
 import io.crate.executor.TaskResult;
 import io.crate.executor.transport.ResponseForwarder;
 import io.crate.executor.transport.kill.TransportKillJobsNodeAction;
@@ -46,6 +50,7 @@ import org.elasticsearch.transport.BaseTransportRequestHandler;
 import org.elasticsearch.transport.TransportChannel;
 import org.elasticsearch.transport.TransportService;
 
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.List;
 
@@ -53,6 +58,8 @@ import java.util.List;
 @Singleton
 public class TransportSQLAction extends TransportBaseSQLAction<SQLRequest, SQLResponse> {
 
+    private final SQLCursors cursors;
+
     @Inject
     protected TransportSQLAction(
             ClusterService clusterService,
@@ -64,13 +71,30 @@ public class TransportSQLAction extends TransportBaseSQLAction<SQLRequest, SQLRe
             TransportService transportService,
             StatsTables statsTables,
             ActionFilters actionFilters,
-            TransportKillJobsNodeAction transportKillJobsNodeAction) {
+            TransportKillJobsNodeAction transportKillJobsNodeAction,
+            StatementCache statementCache,
+            SQLCursors cursors) {
         super(clusterService, settings, SQLAction.NAME, threadPool,
                 analyzer, planner, executor, statsTables, actionFilters,
-                transportKillJobsNodeAction);
+                transportKillJobsNodeAction, statementCache);
+        this.cursors = cursors;
         transportService.registerHandler(SQLAction.NAME, new TransportHandler());
     }
 
+    @Override
+    protected void doExecute(SQLRequest request, ActionListener<SQLResponse> listener) {
+        if (request.cursorId() == null) {
+            super.doExecute(request, listener);
+        } else {
+            fetchNextPage(request, listener);
+        }
+    }
+
+    @Override
+    protected int fetchSize(SQLRequest request) {
+        return request.fetchSize();
+    }
+
     @Override
     public ParameterContext getParamContext(SQLRequest request) {
         return new ParameterContext(
@@ -114,7 +138,7 @@ public class TransportSQLAction extends TransportBaseSQLAction<SQLRequest, SQLRe
             objs = Buckets.materialize(rows);
         }
         BytesRefUtils.ensureStringTypesAreStrings(outputTypes, objs);
-        return new SQLResponse(
+        SQLResponse response = new SQLResponse(
                 outputNames,
                 objs,
                 outputTypes,
@@ -122,6 +146,55 @@ public class TransportSQLAction extends TransportBaseSQLAction<SQLRequest, SQLRe
                 request.creationTime(),
                 request.includeTypesOnResponse()
         );
+        if (taskResult instanceof PagedQueryResult) {
+            response.cursorId(cursors.open(new SQLCursors.Cursor(outputNames, outputTypes, (PagedQueryResult) taskResult)));
+        }
+        return response;
+    }
+
+    /**
+     * responds with the next page of an open cursor, the cursor is kept open if more rows are available
+     */
+    private void fetchNextPage(final SQLRequest request, final ActionListener<SQLResponse> listener) {
+        final String cursorId = request.cursorId();
+        final SQLCursors.Cursor cursor = cursors.remove(cursorId);
+        if (cursor == null) {
+            listener.onFailure(buildSQLActionException(new CursorUnknownException(cursorId)));
+            return;
+        }
+        Futures.addCallback(cursor.fetch(), new FutureCallback<TaskResult>() {
+            @Override
+            public void onSuccess(@Nullable TaskResult result) {
+                assert result != null : "result of a page must not be null";
+                SQLResponse response;
+                try {
+                    Object[][] rows = Buckets.materialize(result.rows());
+                    BytesRefUtils.ensureStringTypesAreStrings(cursor.outputTypes(), rows);
+                    response = new SQLResponse(
+                            cursor.outputNames(),
+                            rows,
+                            cursor.outputTypes(),
+                            rows.length,
+                            request.creationTime(),
+                            request.includeTypesOnResponse()
+                    );
+                    if (result instanceof PagedQueryResult) {
+                        cursor.result((PagedQueryResult) result);
+                        cursors.put(cursorId, cursor);
+                        response.cursorId(cursorId);
+                    }
+                } catch (Throwable e) {
+                    listener.onFailure(buildSQLActionException(e));
+                    return;
+                }
+                listener.onResponse(response);
+            }
+
+            @Override
+            public void onFailure(@Nonnull Throwable t) {
+                listener.onFailure(buildSQLActionException(t));
+            }
+        });
     }
 
     private class TransportHandler extends BaseTransportRequestHandler<SQLRequest> {
@@ -57,9 +57,10 @@ public class TransportSQLBulkAction extends TransportBaseSQLAction<SQLBulkReques
                                   TransportService transportService,
                                   StatsTables statsTables,
                                   ActionFilters actionFilters,
-                                  TransportKillJobsNodeAction transportKillJobsNodeAction) {
+                                  TransportKillJobsNodeAction transportKillJobsNodeAction,
+                                  StatementCache statementCache) {
         super(clusterService, settings, SQLBulkAction.NAME, threadPool, analyzer,
-                planner, executor, statsTables, actionFilters, transportKillJobsNodeAction);
+                planner, executor, statsTables, actionFilters, transportKillJobsNodeAction, statementCache);
         transportService.registerHandler(SQLBulkAction.NAME, new TransportHandler());
     }
 
@@ -26,6 +26,8 @@ import io.crate.metadata.NestedReferenceResolver;
 import io.crate.metadata.Schemas;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.settings.Settings;
 
 import javax.annotation.concurrent.ThreadSafe;
 
@@ -36,14 +38,29 @@ public class AnalysisMetaData {
     private final Functions functions;
     private final Schemas schemas;
     private final NestedReferenceResolver referenceResolver;
+    private final boolean approximateCountDistinct;
+
+    /**
+     * node setting, if enabled <code>count(DISTINCT x)</code> is executed as
+     * <code>hyperloglog_distinct(x)</code> instead of collecting all distinct values
+     */
+    public static final String SETTING_APPROXIMATE_COUNT_DISTINCT = "sql.count_distinct.approximate";
 
-    @Inject
     public AnalysisMetaData(Functions functions,
                             Schemas schemas,
                             NestedReferenceResolver referenceResolver) {
+        this(functions, schemas, referenceResolver, ImmutableSettings.EMPTY);
+    }
+
+    @Inject
+    public AnalysisMetaData(Functions functions,
+                            Schemas schemas,
+                            NestedReferenceResolver referenceResolver,
+                            Settings settings) {
         this.functions = functions;
         this.schemas = schemas;
         this.referenceResolver = referenceResolver;
+        this.approximateCountDistinct = settings.getAsBoolean(SETTING_APPROXIMATE_COUNT_DISTINCT, false);
     }
 
     public Functions functions() {
@@ -57,4 +74,8 @@ public class AnalysisMetaData {
     public NestedReferenceResolver referenceResolver() {
         return referenceResolver;
     }
+
+    public boolean approximateCountDistinct() {
+        return approximateCountDistinct;
+    }
 }
@@ -20,6 +20,7 @@
  */
 package io.crate.analyze;
 
+import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.sql.tree.*;
 import org.elasticsearch.common.inject.Inject;
 
@@ -121,6 +122,20 @@ public class Analyzer {
             return selectStatementAnalyzer.process(node, analysis);
         }
 
+        @Override
+        public AnalyzedStatement visitExplain(Explain node, Analysis analysis) {
+            if (!node.getOptions().isEmpty()) {
+                throw new UnsupportedFeatureException("EXPLAIN options are not supported");
+            }
+            AnalyzedStatement statement = process(node.getStatement(), analysis);
+            if (!(statement instanceof SelectAnalyzedStatement)) {
+                throw new UnsupportedFeatureException("EXPLAIN is only supported for SELECT statements");
+            }
+            ExplainAnalyzedStatement explainStatement = new ExplainAnalyzedStatement(statement, node.isAnalyze());
+            analysis.rootRelation(explainStatement);
+            return explainStatement;
+        }
+
         @Override
         public AnalyzedStatement visitDelete(Delete node, Analysis context) {
             return deleteStatementAnalyzer.analyze(node, context);
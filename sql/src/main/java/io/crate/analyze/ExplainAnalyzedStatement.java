@@ -0,0 +1,89 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.analyze;
+
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.relations.AnalyzedRelationVisitor;
+import io.crate.analyze.symbol.Field;
+import io.crate.exceptions.ColumnUnknownException;
+import io.crate.metadata.OutputName;
+import io.crate.metadata.Path;
+import io.crate.types.DataTypes;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * EXPLAIN [ANALYZE] of a statement. The result is a single text column with one row per line.
+ */
+public class ExplainAnalyzedStatement implements AnalyzedStatement, AnalyzedRelation {
+
+    private final AnalyzedStatement statement;
+    private final boolean analyze;
+    private final List<Field> fields;
+
+    public ExplainAnalyzedStatement(AnalyzedStatement statement, boolean analyze) {
+        this.statement = statement;
+        this.analyze = analyze;
+        String columnName = analyze ? "EXPLAIN ANALYZE" : "EXPLAIN";
+        this.fields = Collections.singletonList(new Field(this, new OutputName(columnName), DataTypes.STRING));
+    }
+
+    public AnalyzedStatement statement() {
+        return statement;
+    }
+
+    /**
+     * @return true if the statement is executed and profiled, false if only the plan is printed
+     */
+    public boolean isAnalyze() {
+        return analyze;
+    }
+
+    @Override
+    public <C, R> R accept(AnalyzedStatementVisitor<C, R> analyzedStatementVisitor, C context) {
+        return analyzedStatementVisitor.visitExplainStatement(this, context);
+    }
+
+    @Override
+    public <C, R> R accept(AnalyzedRelationVisitor<C, R> visitor, C context) {
+        return visitor.process(this, context);
+    }
+
+    @Nullable
+    @Override
+    public Field getField(Path path) {
+        throw new UnsupportedOperationException("getField() is not supported on ExplainAnalyzedStatement");
+    }
+
+    @Override
+    public Field getWritableField(Path path) throws UnsupportedOperationException, ColumnUnknownException {
+        throw new UnsupportedOperationException("getWritableField() is not supported on ExplainAnalyzedStatement");
+    }
+
+    @Override
+    public List<Field> fields() {
+        return fields;
+    }
+}
@@ -86,10 +86,10 @@ public class InsertFromSubQueryAnalyzer extends AbstractInsertAnalyzer {
         InsertFromSubQueryAnalyzedStatement insertStatement =
                 new InsertFromSubQueryAnalyzedStatement(source, tableInfo);
 
-        // We forbid using limit/offset or order by until we've implemented ES paging support (aka 'scroll')
+        // We forbid using limit/offset until we've implemented ES paging support (aka 'scroll')
         // TODO: move this to the consumer
-        if (source.querySpec().isLimited() || source.querySpec().orderBy().isPresent()) {
-            throw new UnsupportedFeatureException("Using limit, offset or order by is not" +
+        if (source.querySpec().isLimited()) {
+            throw new UnsupportedFeatureException("Using limit or offset is not " +
                     "supported on insert using a sub-query");
         }
 
@@ -48,6 +48,7 @@ public class TableParameterInfo {
     public static final String BLOCKS_WRITE = IndexMetaData.SETTING_BLOCKS_WRITE;
     public static final String BLOCKS_METADATA = IndexMetaData.SETTING_BLOCKS_METADATA;
     public static final String BLOBS_PATH = BlobIndices.SETTING_INDEX_BLOBS_PATH;
+    public static final String BLOBS_PACK_THRESHOLD = BlobIndices.SETTING_INDEX_BLOBS_PACK_THRESHOLD;
     public static final String FLUSH_THRESHOLD_OPS = TranslogService.INDEX_TRANSLOG_FLUSH_THRESHOLD_OPS;
     public static final String FLUSH_THRESHOLD_SIZE = TranslogService.INDEX_TRANSLOG_FLUSH_THRESHOLD_SIZE;
     public static final String FLUSH_THRESHOLD_PERIOD = TranslogService.INDEX_TRANSLOG_FLUSH_THRESHOLD_PERIOD;
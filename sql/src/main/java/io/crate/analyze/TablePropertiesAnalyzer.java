@@ -63,6 +63,7 @@ public class TablePropertiesAnalyzer {
                     .put(stripIndexPrefix(TableParameterInfo.UNASSIGNED_NODE_LEFT_DELAYED_TIMEOUT), TableParameterInfo.UNASSIGNED_NODE_LEFT_DELAYED_TIMEOUT)
                     .put(stripIndexPrefix(TableParameterInfo.NUMBER_OF_SHARDS), TableParameterInfo.NUMBER_OF_SHARDS)
                     .put("blobs_path", TableParameterInfo.BLOBS_PATH)
+                    .put("blobs_pack_threshold", TableParameterInfo.BLOBS_PACK_THRESHOLD)
                     .build();
 
     private static final ImmutableBiMap<String, String> ES_TO_CRATE_SETTINGS_MAP =
@@ -98,6 +99,7 @@ public class TablePropertiesAnalyzer {
                     .put(TableParameterInfo.UNASSIGNED_NODE_LEFT_DELAYED_TIMEOUT, new SettingsAppliers.TimeSettingsApplier(CrateTableSettings.UNASSIGNED_NODE_LEFT_DELAYED_TIMEOUT))
                     .put(TableParameterInfo.NUMBER_OF_SHARDS, new NumberOfShardsSettingsApplier())
                     .put(TableParameterInfo.BLOBS_PATH, new BlobPathSettingApplier())
+                    .put(TableParameterInfo.BLOBS_PACK_THRESHOLD, new SettingsAppliers.ByteSizeSettingsApplier(CrateTableSettings.BLOBS_PACK_THRESHOLD))
                     .build();
 
     private static final ImmutableMap<String, MappingsApplier> MAPPINGS_APPLIER =
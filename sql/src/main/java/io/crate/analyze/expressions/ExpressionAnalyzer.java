@@ -42,6 +42,8 @@ import io.crate.metadata.doc.DocTableInfo;
 import io.crate.metadata.table.ColumnPolicy;
 import io.crate.metadata.table.TableInfo;
 import io.crate.operation.aggregation.impl.CollectSetAggregation;
+import io.crate.operation.aggregation.impl.CountAggregation;
+import io.crate.operation.aggregation.impl.HyperLogLogDistinctAggregation;
 import io.crate.operation.operator.*;
 import io.crate.operation.operator.any.AnyEqOperator;
 import io.crate.operation.operator.any.AnyLikeOperator;
@@ -92,6 +94,7 @@ public class ExpressionAnalyzer {
     private final Functions functions;
     private final Schemas schemas;
     private final ParameterContext parameterContext;
+    private final boolean approximateCountDistinct;
     private boolean forWrite = false;
 
     private static final Pattern SUBSCRIPT_SPLIT_PATTERN = Pattern.compile("^([^\\.\\[]+)(\\.*)([^\\[]*)(\\['.*'\\])");
@@ -102,6 +105,7 @@ public class ExpressionAnalyzer {
                               @Nullable FieldResolver fieldResolver) {
         functions = analysisMetaData.functions();
         schemas = analysisMetaData.referenceInfos();
+        approximateCountDistinct = analysisMetaData.approximateCountDistinct();
         this.parameterContext = parameterContext;
         this.fieldProvider = fieldProvider;
         this.innerAnalyzer = new InnerExpressionAnalyzer();
@@ -342,6 +346,13 @@ public class ExpressionAnalyzer {
             if (argumentTypes.size() > 1) {
                 throw new UnsupportedOperationException("Function(DISTINCT x) does not accept more than one argument");
             }
+            if (approximateCountDistinct
+                && node.getName().toString().equals(CountAggregation.NAME)
+                && DataTypes.PRIMITIVE_TYPES.contains(argumentTypes.get(0))) {
+                // count(DISTINCT x) -> hyperloglog_distinct(x)
+                FunctionIdent ident = new FunctionIdent(HyperLogLogDistinctAggregation.NAME, argumentTypes);
+                return context.allocateFunction(getFunctionInfo(ident), arguments);
+            }
             // define the inner function. use the arguments/argumentTypes from above
             FunctionIdent innerIdent = new FunctionIdent(CollectSetAggregation.NAME, argumentTypes);
             FunctionInfo innerInfo = getFunctionInfo(innerIdent);
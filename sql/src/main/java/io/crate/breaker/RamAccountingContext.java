@@ -52,6 +52,14 @@ public class RamAccountingContext {
         this.breaker = breaker;
     }
 
+    /**
+     * creates a new context which accounts to the same breaker,
+     * e.g. for state which is built independently by another thread and has to be released separately
+     */
+    public RamAccountingContext newContext(String name) {
+        return new RamAccountingContext(contextId + ": " + name, breaker);
+    }
+
     /**
      * Add bytes to the context and maybe break
      *
@@ -104,6 +112,14 @@ public class RamAccountingContext {
         return totalBytes.get();
     }
 
+    /**
+     * @return the number of bytes that have been added to the context, including
+     * the ones which haven't been flushed to the breaker yet
+     */
+    public long usedBytes() {
+        return totalBytes.get() + flushBuffer.get();
+    }
+
     /**
      * Close the context and adjust the breaker.
      * A remaining flush buffer will not be flushed to avoid breaking on close.
@@ -30,6 +30,12 @@ public interface Executor {
 
     public Job newJob(Plan plan);
 
+    /**
+     * creates a job whose query result is split into pages of <code>fetchSize</code> rows,
+     * see {@link PagedQueryResult}
+     */
+    public Job newJob(Plan plan, int fetchSize);
+
     public List<? extends ListenableFuture<TaskResult>> execute(Job job);
 
 }
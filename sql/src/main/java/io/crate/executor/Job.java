@@ -29,16 +29,29 @@ import java.util.UUID;
 public class Job {
 
     private final UUID id;
+    private final int fetchSize;
     private List<Task> tasks = new ArrayList<>();
 
     public Job(UUID id) {
+        this(id, 0);
+    }
+
+    /**
+     * @param fetchSize the number of rows per page of a query result, 0 to receive the whole result at once
+     */
+    public Job(UUID id, int fetchSize) {
         this.id = id;
+        this.fetchSize = fetchSize;
     }
 
     public UUID id() {
         return id;
     }
 
+    public int fetchSize() {
+        return fetchSize;
+    }
+
     public void addTasks(Collection<? extends Task> tasks) {
         this.tasks.addAll(tasks);
     }
@@ -0,0 +1,77 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.executor;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import io.crate.core.collections.Bucket;
+
+/**
+ * A {@link QueryResult} which contains only one page of the result.
+ *
+ * The job which produces the rows is paused until the next page is requested using {@link #fetch()}.
+ * If the remaining rows aren't needed {@link #close()} must be called so that the job is finished.
+ */
+public class PagedQueryResult extends QueryResult {
+
+    /**
+     * the source of the pages, usually the RowReceiver of the handler node
+     */
+    public interface Pager {
+
+        /**
+         * resumes the job and returns a future which is set once the next page is ready.
+         * The last page of a result is a regular {@link QueryResult}.
+         */
+        ListenableFuture<TaskResult> fetch();
+
+        /**
+         * stops the job, remaining rows are discarded
+         */
+        void close();
+
+        /**
+         * future which is set once the last page has been produced or the result has been closed,
+         * it fails if the job fails
+         */
+        ListenableFuture<Void> finishFuture();
+    }
+
+    private final Pager pager;
+
+    public PagedQueryResult(Bucket bucket, Pager pager) {
+        super(bucket);
+        this.pager = pager;
+    }
+
+    public ListenableFuture<TaskResult> fetch() {
+        return pager.fetch();
+    }
+
+    public void close() {
+        pager.close();
+    }
+
+    public ListenableFuture<Void> finishFuture() {
+        return pager.finishFuture();
+    }
+}
@@ -62,6 +62,8 @@ public class ExecutionPhasesTask extends JobTask {
 
 
     private final List<SettableFuture<TaskResult>> results = new ArrayList<>();
+    private final int fetchSize;
+    private final boolean profile;
     private boolean hasDirectResponse;
 
     public enum OperationType {
@@ -79,7 +81,26 @@ public class ExecutionPhasesTask extends JobTask {
                                   IndicesService indicesService,
                                   TransportJobAction transportJobAction,
                                   List<NodeOperationTree> nodeOperationTrees,
-                                  OperationType operationType) {
+                                  OperationType operationType,
+                                  int fetchSize) {
+        this(jobId, clusterService, contextPreparer, jobContextService, indicesService, transportJobAction,
+                nodeOperationTrees, operationType, fetchSize, false);
+    }
+
+    /**
+     * @param profile if true the operations of the job are profiled on every involved node,
+     *                see {@link io.crate.action.job.TransportJobProfileAction}
+     */
+    protected ExecutionPhasesTask(UUID jobId,
+                                  ClusterService clusterService,
+                                  ContextPreparer contextPreparer,
+                                  JobContextService jobContextService,
+                                  IndicesService indicesService,
+                                  TransportJobAction transportJobAction,
+                                  List<NodeOperationTree> nodeOperationTrees,
+                                  OperationType operationType,
+                                  int fetchSize,
+                                  boolean profile) {
         super(jobId);
         this.clusterService = clusterService;
         this.contextPreparer = contextPreparer;
@@ -88,6 +109,8 @@ public class ExecutionPhasesTask extends JobTask {
         this.transportJobAction = transportJobAction;
         this.nodeOperationTrees = nodeOperationTrees;
         this.operationType = operationType;
+        this.fetchSize = fetchSize;
+        this.profile = profile;
 
         for (NodeOperationTree nodeOperationTree : nodeOperationTrees) {
             results.add(SettableFuture.<TaskResult>create());
@@ -124,7 +147,7 @@ public class ExecutionPhasesTask extends JobTask {
             }
         } else {
             SettableFuture<TaskResult> result = Iterables.getOnlyElement(results);
-            QueryResultRowDownstream downstream = new QueryResultRowDownstream(result);
+            QueryResultRowDownstream downstream = new QueryResultRowDownstream(result, fetchSize);
             handlerPhases.add(new Tuple<ExecutionPhase, RowReceiver>(Iterables.getOnlyElement(nodeOperationTrees).leaf(), downstream));
         }
 
@@ -173,7 +196,7 @@ public class ExecutionPhasesTask extends JobTask {
             String serverNodeId = entry.getKey();
             Collection<NodeOperation> nodeOperations = entry.getValue();
 
-            JobRequest request = new JobRequest(jobId(), nodeOperations);
+            JobRequest request = new JobRequest(jobId(), nodeOperations, profile);
             if (hasDirectResponse) {
                 transportJobAction.execute(serverNodeId, request, new DirectResponseListener(idx, pageDownstreamContexts));
             } else {
@@ -192,7 +215,7 @@ public class ExecutionPhasesTask extends JobTask {
     private List<ExecutionSubContext> createLocalContextAndStartOperation(Map<String, Collection<NodeOperation>> operationsByServer,
                                                                           List<Tuple<ExecutionPhase, RowReceiver>> handlerPhases) throws Throwable {
         String localNodeId = clusterService.localNode().id();
-        JobExecutionContext.Builder builder = jobContextService.newBuilder(jobId());
+        JobExecutionContext.Builder builder = jobContextService.newBuilder(jobId(), profile);
         Collection<NodeOperation> localNodeOperations = null;
         SharedShardContexts sharedShardContexts = null;
         if (!hasDirectResponse) {
@@ -23,12 +23,16 @@ package io.crate.executor.transport;
 
 import com.carrotsearch.hppc.IntArrayList;
 import com.google.common.base.MoreObjects;
+import io.crate.exceptions.UnhandledServerException;
 import org.elasticsearch.action.ActionResponse;
 import org.elasticsearch.action.bulk.BulkProcessorResponse;
+import org.elasticsearch.common.io.ThrowableObjectInputStream;
+import org.elasticsearch.common.io.ThrowableObjectOutputStream;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -120,6 +124,8 @@ public class ShardUpsertResponse extends ActionResponse implements BulkProcessor
     private IntArrayList locations = new IntArrayList();
     private List<Response> responses = new ArrayList<>();
     private List<Failure> failures = new ArrayList<>();
+    @Nullable
+    private Throwable failure;
 
     public ShardUpsertResponse() {
     }
@@ -150,6 +156,20 @@ public class ShardUpsertResponse extends ActionResponse implements BulkProcessor
         return failures;
     }
 
+    /**
+     * Set if the request failed after some of its items were already written,
+     * the response is only returned so that those items are replicated.
+     */
+    public void failure(Throwable failure) {
+        this.failure = failure;
+    }
+
+    @Nullable
+    @Override
+    public Throwable failure() {
+        return failure;
+    }
+
 
     @Override
     public void readFrom(StreamInput in) throws IOException {
@@ -171,6 +191,14 @@ public class ShardUpsertResponse extends ActionResponse implements BulkProcessor
                 failures.add(null);
             }
         }
+        if (in.readBoolean()) {
+            ThrowableObjectInputStream tis = new ThrowableObjectInputStream(in);
+            try {
+                failure = (Throwable) tis.readObject();
+            } catch (ClassNotFoundException e) {
+                failure = new UnhandledServerException(e);
+            }
+        }
     }
 
     @Override
@@ -192,6 +220,13 @@ public class ShardUpsertResponse extends ActionResponse implements BulkProcessor
                 failures.get(i).writeTo(out);
             }
         }
+        if (failure == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            ThrowableObjectOutputStream too = new ThrowableObjectOutputStream(out);
+            too.writeObject(failure);
+        }
     }
 
 }
@@ -31,6 +31,7 @@ import org.elasticsearch.action.bulk.BulkProcessorRequest;
 import org.elasticsearch.action.bulk.SymbolBasedBulkShardProcessor;
 import org.elasticsearch.action.support.replication.ShardReplicationOperationRequest;
 import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
@@ -75,6 +76,23 @@ public class SymbolBasedShardUpsertRequest extends ShardReplicationOperationRequ
         @Nullable
         private Streamer[] insertValuesStreamer;
 
+        /**
+         * Source which was written on the primary shard, used to replay the item on the replicas
+         */
+        @Nullable
+        private BytesReference source;
+
+        /**
+         * routing, parent, timestamp, ttl and version of the document written on the primary shard
+         */
+        @Nullable
+        private String writtenRouting;
+        @Nullable
+        private String parent;
+        @Nullable
+        private String timestamp;
+        private long ttl = -1;
+        private long writtenVersion = Versions.MATCH_ANY;
 
         Item(@Nullable Streamer[] insertValuesStreamer) {
             this.insertValuesStreamer = insertValuesStreamer;
@@ -109,6 +127,60 @@ public class SymbolBasedShardUpsertRequest extends ShardReplicationOperationRequ
             return version;
         }
 
+        /**
+         * Marks the item as written on the primary shard, the replicas will write the given source
+         * using the resulting version.
+         */
+        void written(@Nullable BytesReference source,
+                     @Nullable String routing,
+                     @Nullable String parent,
+                     @Nullable String timestamp,
+                     long ttl,
+                     long version) {
+            this.source = source;
+            this.writtenRouting = routing;
+            this.parent = parent;
+            this.timestamp = timestamp;
+            this.ttl = ttl;
+            this.writtenVersion = version;
+        }
+
+        /**
+         * Discards what a previous attempt wrote on the primary shard, so that a retried primary
+         * operation never replicates a stale source.
+         */
+        void resetWritten() {
+            written(null, null, null, null, -1, Versions.MATCH_ANY);
+        }
+
+        @Nullable
+        public BytesReference source() {
+            return source;
+        }
+
+        @Nullable
+        public String writtenRouting() {
+            return writtenRouting;
+        }
+
+        @Nullable
+        public String parent() {
+            return parent;
+        }
+
+        @Nullable
+        public String timestamp() {
+            return timestamp;
+        }
+
+        public long ttl() {
+            return ttl;
+        }
+
+        public long writtenVersion() {
+            return writtenVersion;
+        }
+
         public int retryOnConflict() {
             return version == Versions.MATCH_ANY ? Constants.UPDATE_RETRY_ON_CONFLICT : 0;
         }
@@ -149,6 +221,14 @@ public class SymbolBasedShardUpsertRequest extends ShardReplicationOperationRequ
             }
 
             version = Versions.readVersion(in);
+            if (in.readBoolean()) {
+                source = in.readBytesReference();
+                writtenRouting = in.readOptionalString();
+                parent = in.readOptionalString();
+                timestamp = in.readOptionalString();
+                ttl = in.readLong();
+                writtenVersion = Versions.readVersion(in);
+            }
         }
 
         @Override
@@ -174,6 +254,17 @@ public class SymbolBasedShardUpsertRequest extends ShardReplicationOperationRequ
             }
 
             Versions.writeVersion(version, out);
+            if (source != null) {
+                out.writeBoolean(true);
+                out.writeBytesReference(source);
+                out.writeOptionalString(writtenRouting);
+                out.writeOptionalString(parent);
+                out.writeOptionalString(timestamp);
+                out.writeLong(ttl);
+                Versions.writeVersion(writtenVersion, out);
+            } else {
+                out.writeBoolean(false);
+            }
         }
     }
 
@@ -43,14 +43,17 @@ import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
-import org.elasticsearch.action.index.TransportIndexAction;
 import org.elasticsearch.action.support.ActionFilters;
 import org.elasticsearch.action.support.TransportActions;
 import org.elasticsearch.action.support.replication.TransportShardReplicationOperationAction;
 import org.elasticsearch.client.Requests;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.action.index.MappingUpdatedAction;
 import org.elasticsearch.cluster.action.shard.ShardStateAction;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MappingMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.routing.ShardIterator;
 import org.elasticsearch.cluster.routing.operation.plain.Preference;
 import org.elasticsearch.common.collect.Tuple;
@@ -62,18 +65,24 @@ import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.common.xcontent.support.XContentMapValues;
+import org.elasticsearch.index.Index;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.engine.DocumentAlreadyExistsException;
 import org.elasticsearch.index.engine.DocumentMissingException;
 import org.elasticsearch.index.engine.DocumentSourceMissingException;
+import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.engine.VersionConflictEngineException;
 import org.elasticsearch.index.get.GetResult;
+import org.elasticsearch.index.mapper.Mapping;
+import org.elasticsearch.index.mapper.ParsedDocument;
+import org.elasticsearch.index.mapper.SourceToParse;
 import org.elasticsearch.index.mapper.internal.ParentFieldMapper;
 import org.elasticsearch.index.mapper.internal.RoutingFieldMapper;
 import org.elasticsearch.index.mapper.internal.TTLFieldMapper;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.IndexMissingException;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.search.fetch.source.FetchSourceContext;
 import org.elasticsearch.threadpool.ThreadPool;
@@ -92,7 +101,7 @@ public class SymbolBasedTransportShardUpsertAction
     private final static String ACTION_NAME = "indices:crate/data/write/upsert_symbol_based";
     private final static SymbolToFieldExtractor SYMBOL_TO_FIELD_EXTRACTOR = new SymbolToFieldExtractor(new GetResultFieldExtractorFactory());
 
-    private final TransportIndexAction indexAction;
+    private final MappingUpdatedAction mappingUpdatedAction;
     private final IndicesService indicesService;
     private final Functions functions;
     private final Multimap<UUID, KillableCallable> activeOperations = Multimaps.synchronizedMultimap(HashMultimap.<UUID, KillableCallable>create());
@@ -104,12 +113,12 @@ public class SymbolBasedTransportShardUpsertAction
                                                  TransportService transportService,
                                                  ActionFilters actionFilters,
                                                  JobContextService jobContextService,
-                                                 TransportIndexAction indexAction,
+                                                 MappingUpdatedAction mappingUpdatedAction,
                                                  IndicesService indicesService,
                                                  ShardStateAction shardStateAction,
                                                  Functions functions) {
         super(settings, ACTION_NAME, transportService, clusterService, indicesService, threadPool, shardStateAction, actionFilters);
-        this.indexAction = indexAction;
+        this.mappingUpdatedAction = mappingUpdatedAction;
         this.indicesService = indicesService;
         this.functions = functions;
         jobContextService.addListener(this);
@@ -147,7 +156,7 @@ public class SymbolBasedTransportShardUpsertAction
 
     @Override
     protected boolean ignoreReplicas() {
-        return true;
+        return false;
     }
 
     @Override
@@ -188,17 +197,64 @@ public class SymbolBasedTransportShardUpsertAction
 
     @Override
     protected void shardOperationOnReplica(ReplicaOperationRequest shardRequest) {
+        SymbolBasedShardUpsertRequest request = shardRequest.request;
+        IndexShard indexShard = indicesService.indexServiceSafe(shardRequest.shardId.getIndex())
+                .shardSafe(shardRequest.shardId.id());
+        for (SymbolBasedShardUpsertRequest.Item item : request.items()) {
+            if (item.source() == null) {
+                // item failed on the primary
+                continue;
+            }
+            try {
+                SourceToParse sourceToParse = SourceToParse.source(SourceToParse.Origin.REPLICA, item.source())
+                        .type(request.type())
+                        .id(item.id())
+                        .routing(item.writtenRouting())
+                        .parent(item.parent())
+                        .timestamp(item.timestamp())
+                        .ttl(item.ttl());
+                Engine.Index index = indexShard.prepareIndex(sourceToParse, item.writtenVersion(),
+                        VersionType.INTERNAL.versionTypeForReplicationAndRecovery(), Engine.Operation.Origin.REPLICA, false);
+                Mapping update = index.parsedDoc().dynamicMappingsUpdate();
+                if (update != null) {
+                    // the mapping update of the primary hasn't been applied on this node yet,
+                    // the replica operation is retried once a newer cluster state arrives
+                    throw new RetryOnReplicaException(shardRequest.shardId,
+                            "Mappings are not available on the replica yet, triggered update: " + update);
+                }
+                indexShard.index(index);
+            } catch (Throwable t) {
+                // e.g. version conflicts of items which were already applied by a previous attempt are ignored,
+                // everything else fails the replica
+                if (!ignoreReplicaException(t)) {
+                    throw t;
+                }
+            }
+        }
     }
 
+    /**
+     * Writes all items of the request directly on the primary shard, the written items are
+     * replicated afterwards using one replica request.
+     */
     protected ShardUpsertResponse processRequestItems(ShardId shardId,
                                                       SymbolBasedShardUpsertRequest request,
                                                       AtomicBoolean killed) {
         ShardUpsertResponse shardUpsertResponse = new ShardUpsertResponse();
+        for (SymbolBasedShardUpsertRequest.Item item : request.items()) {
+            // the primary operation might be a retry
+            item.resetWritten();
+        }
+        boolean written = false;
         for (int i = 0; i < request.itemIndices().size(); i++) {
             int location = request.itemIndices().get(i);
             SymbolBasedShardUpsertRequest.Item item = request.items().get(i);
             if (killed.get()) {
-                throw new CancellationException();
+                if (!written) {
+                    throw new CancellationException();
+                }
+                // items which are already written on the primary must still reach the replicas
+                break;
             }
             try {
                 indexItem(
@@ -209,9 +265,25 @@ public class SymbolBasedTransportShardUpsertAction
                         0);
                 shardUpsertResponse.add(location,
                         new ShardUpsertResponse.Response());
+                written = true;
             } catch (Throwable t) {
                 if (!TransportActions.isShardNotAvailableException(t) && !request.continueOnError()) {
-                    throw t;
+                    if (!written) {
+                        throw t;
+                    }
+                    // the items which are already written on the primary must still reach the replicas,
+                    // the failure is raised once they're replicated
+                    logger.debug("{} failed to execute upsert for [{}]/[{}], skipping the remaining items",
+                            t, request.shardId(), request.type(), item.id());
+                    shardUpsertResponse.failure(t);
+                    for (int j = i; j < request.itemIndices().size(); j++) {
+                        shardUpsertResponse.add(request.itemIndices().get(j),
+                                new ShardUpsertResponse.Failure(
+                                        request.items().get(j).id(),
+                                        ExceptionsHelper.detailedMessage(t),
+                                        (t instanceof VersionConflictEngineException)));
+                    }
+                    break;
                 } else {
                     logger.debug("{} failed to execute upsert for [{}]/[{}]",
                             t, request.shardId(), request.type(), item.id());
@@ -245,7 +317,7 @@ public class SymbolBasedTransportShardUpsertAction
             } else {
                 indexRequest = new IndexRequest(prepareUpdate(request, item, shardId), request);
             }
-            return indexAction.execute(indexRequest).actionGet();
+            return executeOnPrimary(indexRequest, item, shardId);
         } catch (Throwable t) {
             if (t instanceof VersionConflictEngineException
                     && retryCount < item.retryOnConflict()) {
@@ -262,6 +334,62 @@ public class SymbolBasedTransportShardUpsertAction
 
 
 
+    private IndexResponse executeOnPrimary(IndexRequest indexRequest,
+                                           SymbolBasedShardUpsertRequest.Item item,
+                                           ShardId shardId) throws ElasticsearchException {
+        MetaData metaData = clusterService.state().metaData();
+        IndexMetaData indexMetaData = metaData.index(shardId.getIndex());
+        if (indexMetaData == null) {
+            throw new IndexMissingException(new Index(shardId.getIndex()));
+        }
+        MappingMetaData mappingMd = indexMetaData.mappingOrDefault(indexRequest.type());
+        indexRequest.process(metaData, mappingMd, false, shardId.getIndex());
+
+        IndexService indexService = indicesService.indexServiceSafe(shardId.getIndex());
+        IndexShard indexShard = indexService.shardSafe(shardId.id());
+        SourceToParse sourceToParse = SourceToParse.source(SourceToParse.Origin.PRIMARY, indexRequest.source())
+                .type(indexRequest.type())
+                .id(indexRequest.id())
+                .routing(indexRequest.routing())
+                .parent(indexRequest.parent())
+                .timestamp(indexRequest.timestamp())
+                .ttl(indexRequest.ttl());
+
+        long version;
+        boolean created;
+        if (indexRequest.opType() == IndexRequest.OpType.INDEX) {
+            Engine.Index index = indexShard.prepareIndex(sourceToParse, indexRequest.version(),
+                    indexRequest.versionType(), Engine.Operation.Origin.PRIMARY, false);
+            updateMappingOnMaster(indexService, indexRequest.type(), index.parsedDoc());
+            indexShard.index(index);
+            version = index.version();
+            created = index.created();
+        } else {
+            Engine.Create create = indexShard.prepareCreate(sourceToParse, indexRequest.version(),
+                    indexRequest.versionType(), Engine.Operation.Origin.PRIMARY, false, false);
+            updateMappingOnMaster(indexService, indexRequest.type(), create.parsedDoc());
+            indexShard.create(create);
+            version = create.version();
+            created = true;
+        }
+        item.written(indexRequest.source(), indexRequest.routing(), indexRequest.parent(),
+                indexRequest.timestamp(), indexRequest.ttl(), version);
+        return new IndexResponse(shardId.getIndex(), indexRequest.type(), indexRequest.id(), version, created);
+    }
+
+    private void updateMappingOnMaster(IndexService indexService, String type, ParsedDocument parsedDoc) {
+        Mapping update = parsedDoc.dynamicMappingsUpdate();
+        if (update == null) {
+            return;
+        }
+        try {
+            mappingUpdatedAction.updateMappingOnMasterSynchronously(
+                    indexService.index().name(), indexService.indexUUID(), type, update);
+        } catch (Throwable t) {
+            throw ExceptionsHelper.convertToElastic(t);
+        }
+    }
+
     /**
      * Prepares an update request by converting it into an index request.
      *
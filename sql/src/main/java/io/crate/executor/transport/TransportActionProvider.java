@@ -22,6 +22,7 @@
 package io.crate.executor.transport;
 
 import io.crate.action.job.TransportJobAction;
+import io.crate.action.job.TransportJobProfileAction;
 import io.crate.action.sql.TransportSQLAction;
 import io.crate.executor.transport.kill.TransportKillAllNodeAction;
 import io.crate.executor.transport.kill.TransportKillJobsNodeAction;
@@ -75,6 +76,7 @@ public class TransportActionProvider {
     private final Provider<TransportJobAction> transportJobInitActionProvider;
     private final Provider<TransportKillAllNodeAction> transportKillAllNodeActionProvider;
     private final Provider<TransportKillJobsNodeAction> transportKillJobsNodeActionProvider;
+    private final Provider<TransportJobProfileAction> transportJobProfileActionProvider;
 
     private final Provider<TransportPutRepositoryAction> transportPutRepositoryActionProvider;
     private final Provider<TransportDeleteRepositoryAction> transportDeleteRepositoryActionProvider;
@@ -106,6 +108,7 @@ public class TransportActionProvider {
                                    Provider<TransportJobAction> transportJobInitActionProvider,
                                    Provider<TransportBulkCreateIndicesAction> transportBulkCreateIndicesActionProvider,
                                    Provider<TransportKillJobsNodeAction> transportKillJobsNodeActionProvider,
+                                   Provider<TransportJobProfileAction> transportJobProfileActionProvider,
                                    Provider<TransportPutRepositoryAction> transportPutRepositoryActionProvider,
                                    Provider<TransportDeleteRepositoryAction> transportDeleteRepositoryActionProvider,
                                    Provider<TransportDeleteSnapshotAction> transportDeleteSnapshotActionProvider,
@@ -132,6 +135,7 @@ public class TransportActionProvider {
         this.transportJobInitActionProvider = transportJobInitActionProvider;
         this.transportBulkCreateIndicesActionProvider = transportBulkCreateIndicesActionProvider;
         this.transportKillJobsNodeActionProvider = transportKillJobsNodeActionProvider;
+        this.transportJobProfileActionProvider = transportJobProfileActionProvider;
         this.transportPutRepositoryActionProvider = transportPutRepositoryActionProvider;
         this.transportDeleteRepositoryActionProvider = transportDeleteRepositoryActionProvider;
         this.transportDeleteSnapshotActionProvider = transportDeleteSnapshotActionProvider;
@@ -220,6 +224,10 @@ public class TransportActionProvider {
         return transportKillJobsNodeActionProvider.get();
     }
 
+    public TransportJobProfileAction transportJobProfileAction() {
+        return transportJobProfileActionProvider.get();
+    }
+
     public TransportPutRepositoryAction transportPutRepositoryAction() {
         return transportPutRepositoryActionProvider.get();
     }
@@ -43,9 +43,11 @@ import io.crate.operation.ImplementationSymbolVisitor;
 import io.crate.operation.NodeOperation;
 import io.crate.operation.NodeOperationTree;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
+import io.crate.operation.projectors.SortRunDirectory;
 import io.crate.planner.IterablePlan;
 import io.crate.planner.NoopPlan;
 import io.crate.planner.Plan;
+import io.crate.planner.PlanPrinter;
 import io.crate.planner.PlanVisitor;
 import io.crate.planner.node.ExecutionPhase;
 import io.crate.planner.node.PlanNode;
@@ -54,6 +56,7 @@ import io.crate.planner.node.ddl.*;
 import io.crate.planner.node.dml.*;
 import io.crate.planner.node.dql.*;
 import io.crate.planner.node.dql.join.NestedLoop;
+import io.crate.planner.node.management.ExplainPlan;
 import io.crate.planner.node.management.GenericShowPlan;
 import io.crate.planner.node.management.KillPlan;
 import org.elasticsearch.action.bulk.BulkRetryCoordinatorPool;
@@ -84,6 +87,7 @@ public class TransportExecutor implements Executor {
     private final ProjectionToProjectorVisitor globalProjectionToProjectionVisitor;
 
     private final static BulkNodeOperationTreeGenerator BULK_NODE_OPERATION_VISITOR = new BulkNodeOperationTreeGenerator();
+    private final static PlanPrinter PLAN_PRINTER = new PlanPrinter();
 
 
     @Inject
@@ -98,7 +102,8 @@ public class TransportExecutor implements Executor {
                              ShowStatementDispatcher showStatementDispatcherProvider,
                              ClusterService clusterService,
                              IndicesService indicesService,
-                             BulkRetryCoordinatorPool bulkRetryCoordinatorPool) {
+                             BulkRetryCoordinatorPool bulkRetryCoordinatorPool,
+                             SortRunDirectory sortRunDirectory) {
         this.jobContextService = jobContextService;
         this.contextPreparer = contextPreparer;
         this.transportActionProvider = transportActionProvider;
@@ -118,13 +123,19 @@ public class TransportExecutor implements Executor {
                 settings,
                 transportActionProvider,
                 bulkRetryCoordinatorPool,
+                sortRunDirectory,
                 globalImplementationSymbolVisitor,
                 normalizer);
     }
 
     @Override
     public Job newJob(Plan plan) {
-        final Job job = new Job(plan.jobId());
+        return newJob(plan, 0);
+    }
+
+    @Override
+    public Job newJob(Plan plan, int fetchSize) {
+        final Job job = new Job(plan.jobId(), fetchSize);
         List<? extends Task> tasks = planVisitor.process(plan, job);
         job.addTasks(tasks);
         return job;
@@ -195,6 +206,13 @@ public class TransportExecutor implements Executor {
         private ExecutionPhasesTask executionPhasesTask(Plan plan, Job job, ExecutionPhasesTask.OperationType operationType) {
             List<NodeOperationTree> nodeOperationTrees = BULK_NODE_OPERATION_VISITOR.createNodeOperationTrees(
                     plan, clusterService.localNode().id());
+            return executionPhasesTask(nodeOperationTrees, job, operationType, false);
+        }
+
+        private ExecutionPhasesTask executionPhasesTask(List<NodeOperationTree> nodeOperationTrees,
+                                                        Job job,
+                                                        ExecutionPhasesTask.OperationType operationType,
+                                                        boolean profile) {
             return new ExecutionPhasesTask(
                     job.id(),
                     clusterService,
@@ -203,10 +221,33 @@ public class TransportExecutor implements Executor {
                     indicesService,
                     transportActionProvider.transportJobInitAction(),
                     nodeOperationTrees,
-                    operationType
+                    operationType,
+                    job.fetchSize(),
+                    profile
             );
         }
 
+        @Override
+        public List<? extends Task> visitExplainPlan(ExplainPlan explainPlan, Job job) {
+            Plan subPlan = explainPlan.subPlan();
+            if (subPlan instanceof IterablePlan || subPlan instanceof NoopPlan) {
+                // not executed using execution phases, so there is nothing to profile
+                return ImmutableList.<Task>of(new ExplainTask(job.id(), PLAN_PRINTER.print(subPlan)));
+            }
+            List<NodeOperationTree> nodeOperationTrees = BULK_NODE_OPERATION_VISITOR.createNodeOperationTrees(
+                    subPlan, clusterService.localNode().id());
+            String printedPlan = PLAN_PRINTER.print(nodeOperationTrees);
+            if (!explainPlan.isAnalyze()) {
+                return ImmutableList.<Task>of(new ExplainTask(job.id(), printedPlan));
+            }
+            return ImmutableList.<Task>of(new ExplainTask(
+                    job.id(),
+                    printedPlan,
+                    executionPhasesTask(nodeOperationTrees, job, ExecutionPhasesTask.OperationType.UNKNOWN, true),
+                    transportActionProvider.transportJobProfileAction(),
+                    clusterService));
+        }
+
         @Override
         public List<Task> visitKillPlan(KillPlan killPlan, Job job) {
             Task task = killPlan.jobToKill().isPresent() ?
@@ -22,6 +22,7 @@
 package io.crate.executor.transport;
 
 import io.crate.action.job.TransportJobAction;
+import io.crate.action.job.TransportJobProfileAction;
 import io.crate.action.job.TransportKeepAliveAction;
 import io.crate.executor.Executor;
 import io.crate.executor.transport.distributed.TransportDistributedResultAction;
@@ -37,6 +38,7 @@ public class TransportExecutorModule extends AbstractModule {
 
         bind(TransportJobAction.class).asEagerSingleton();
         bind(TransportKeepAliveAction.class).asEagerSingleton();
+        bind(TransportJobProfileAction.class).asEagerSingleton();
         bind(TransportDistributedResultAction.class).asEagerSingleton();
         bind(SymbolBasedTransportShardUpsertAction.class).asEagerSingleton();
         bind(TransportShardUpsertAction.class).asEagerSingleton();
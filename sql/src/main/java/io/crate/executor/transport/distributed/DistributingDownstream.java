@@ -74,6 +74,7 @@ public class DistributingDownstream implements RowReceiver {
     private final Downstream[] downstreams;
     private final Object lock = new Object();
     private final AtomicInteger finishedDownstreams = new AtomicInteger(0);
+    private final AtomicInteger pagesSent = new AtomicInteger(0);
     private final Bucket[] buckets;
 
     private volatile boolean gatherMoreRows = true;
@@ -127,6 +128,7 @@ public class DistributingDownstream implements RowReceiver {
     }
 
     private void sendRequests(boolean isLast) {
+        pagesSent.incrementAndGet();
         requestsPending.addAndGet(downstreams.length);
         for (int i = 0; i < buckets.length; i++) {
             downstreams[i].sendRequest(buckets[i], isLast);
@@ -137,6 +139,13 @@ public class DistributingDownstream implements RowReceiver {
         upstream.pause();
     }
 
+    /**
+     * @return the number of pages which have been sent to the downstream nodes
+     */
+    public int pagesSent() {
+        return pagesSent.get();
+    }
+
     @Override
     public Set<Requirement> requirements() {
         return Requirements.NO_REQUIREMENTS;
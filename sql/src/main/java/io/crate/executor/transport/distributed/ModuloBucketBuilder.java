@@ -26,6 +26,8 @@ import io.crate.Streamer;
 import io.crate.core.collections.Bucket;
 import io.crate.core.collections.Row;
 import io.crate.executor.transport.StreamBucket;
+import io.crate.operation.join.HashJoinOperation;
+import io.crate.types.DataType;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.StringHelper;
 
@@ -43,11 +45,25 @@ public class ModuloBucketBuilder implements MultiBucketBuilder {
     private final int numBuckets;
     private final List<StreamBucket.Builder> bucketBuilders;
     private final int distributedByColumnIdx;
+    @Nullable
+    private final DataType distributedByType;
     private volatile int size = 0;
 
     public ModuloBucketBuilder(Streamer<?>[] streamers, int numBuckets, int distributedByColumnIdx) {
+        this(streamers, numBuckets, distributedByColumnIdx, null);
+    }
+
+    /**
+     * @param distributedByType if not null the values are normalized like join keys of this type before
+     *                          they're hashed, see {@link HashJoinOperation#keyValue(DataType, Object)}
+     */
+    public ModuloBucketBuilder(Streamer<?>[] streamers,
+                               int numBuckets,
+                               int distributedByColumnIdx,
+                               @Nullable DataType distributedByType) {
         this.numBuckets = numBuckets;
         this.distributedByColumnIdx = distributedByColumnIdx;
+        this.distributedByType = distributedByType;
         this.bucketBuilders = new ArrayList<>(numBuckets);
         for (int i = 0; i < numBuckets; i++) {
             bucketBuilders.add(new StreamBucket.Builder(streamers));
@@ -91,7 +107,11 @@ public class ModuloBucketBuilder implements MultiBucketBuilder {
      * get bucket number by doing modulo hashcode of the defined row-element
      */
     private int getBucket(Row row) {
-        int hash = hashCode(row.get(distributedByColumnIdx));
+        Object value = row.get(distributedByColumnIdx);
+        if (distributedByType != null) {
+            value = HashJoinOperation.keyValue(distributedByType, value);
+        }
+        int hash = hashCode(value);
         if (hash == Integer.MIN_VALUE) {
             hash = 0; // Math.abs(Integer.MIN_VALUE) == Integer.MIN_VALUE
         }
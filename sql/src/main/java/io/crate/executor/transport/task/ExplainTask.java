@@ -0,0 +1,200 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.executor.transport.task;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.crate.action.job.JobProfileRequest;
+import io.crate.action.job.TransportJobProfileAction;
+import io.crate.core.collections.ArrayBucket;
+import io.crate.executor.JobTask;
+import io.crate.executor.QueryResult;
+import io.crate.executor.Task;
+import io.crate.executor.TaskResult;
+import io.crate.operation.profile.OperationProfile;
+import io.crate.operation.profile.PhaseProfile;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Returns the printed plan of a statement, one row per line.
+ *
+ * If a profiled task is given (EXPLAIN ANALYZE) it is executed first, its result is discarded and the
+ * profiles of its execution phases are fetched from all nodes and appended to the plan.
+ */
+public class ExplainTask extends JobTask {
+
+    private final String plan;
+    private final Task profiledTask;
+    private final TransportJobProfileAction jobProfileAction;
+    private final ClusterService clusterService;
+    private final SettableFuture<TaskResult> result = SettableFuture.create();
+    private final List<ListenableFuture<TaskResult>> results = ImmutableList.<ListenableFuture<TaskResult>>of(result);
+
+    public ExplainTask(UUID jobId, String plan) {
+        this(jobId, plan, null, null, null);
+    }
+
+    public ExplainTask(UUID jobId,
+                       String plan,
+                       @Nullable Task profiledTask,
+                       @Nullable TransportJobProfileAction jobProfileAction,
+                       @Nullable ClusterService clusterService) {
+        super(jobId);
+        this.plan = plan;
+        this.profiledTask = profiledTask;
+        this.jobProfileAction = jobProfileAction;
+        this.clusterService = clusterService;
+    }
+
+    @Override
+    public void start() {
+        if (profiledTask == null) {
+            result.set(toResult(plan));
+            return;
+        }
+        profiledTask.start();
+        Futures.addCallback(Futures.allAsList(profiledTask.result()), new FutureCallback<List<TaskResult>>() {
+            @Override
+            public void onSuccess(@Nullable List<TaskResult> taskResults) {
+                fetchProfiles();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                releaseProfiles(t);
+            }
+        });
+    }
+
+    /**
+     * fetches the profiles of a failed job only to remove them from the nodes and fails with the given error
+     */
+    private void releaseProfiles(final Throwable t) {
+        assert jobProfileAction != null : "jobProfileAction is required to profile a task";
+        jobProfileAction.profileOnAllNodes(new JobProfileRequest(jobId()), new ActionListener<Map<String, List<PhaseProfile>>>() {
+            @Override
+            public void onResponse(Map<String, List<PhaseProfile>> profilesByNode) {
+                result.setException(t);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                result.setException(t);
+            }
+        });
+    }
+
+    private void fetchProfiles() {
+        assert jobProfileAction != null : "jobProfileAction is required to profile a task";
+        jobProfileAction.profileOnAllNodes(new JobProfileRequest(jobId()), new ActionListener<Map<String, List<PhaseProfile>>>() {
+            @Override
+            public void onResponse(Map<String, List<PhaseProfile>> profilesByNode) {
+                try {
+                    result.set(toResult(plan + printProfiles(profilesByNode)));
+                } catch (Throwable t) {
+                    result.setException(t);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                result.setException(e);
+            }
+        });
+    }
+
+    private String printProfiles(Map<String, List<PhaseProfile>> profilesByNode) {
+        StringBuilder sb = new StringBuilder("Profile:\n");
+        for (Map.Entry<String, List<PhaseProfile>> entry : profilesByNode.entrySet()) {
+            sb.append("  Node ").append(nodeName(entry.getKey())).append('\n');
+            for (PhaseProfile phase : entry.getValue()) {
+                long cpuNanos = 0;
+                for (OperationProfile operation : phase.operations()) {
+                    cpuNanos += operation.cpuNanos();
+                }
+                sb.append(String.format(Locale.ENGLISH,
+                        "    Phase %d: %s: wall %s, cpu %s, bytes %d, pages sent %d%s\n",
+                        phase.phaseId(),
+                        phase.name(),
+                        millis(phase.wallNanos()),
+                        millis(cpuNanos),
+                        phase.bytesUsed(),
+                        phase.pagesSent(),
+                        phase.finished() ? "" : ", unfinished"));
+                for (OperationProfile operation : phase.operations()) {
+                    sb.append(String.format(Locale.ENGLISH,
+                            "      %s: rows in %d, rows out %d, wall %s, cpu %s, paused %s\n",
+                            operation.name(),
+                            operation.rowsIn(),
+                            operation.rowsOut(),
+                            millis(operation.wallNanos()),
+                            millis(operation.cpuNanos()),
+                            millis(operation.pausedNanos())));
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private String nodeName(String nodeId) {
+        DiscoveryNode node = clusterService == null ? null : clusterService.state().nodes().get(nodeId);
+        if (node == null) {
+            return nodeId;
+        }
+        return String.format(Locale.ENGLISH, "%s (%s)", node.name(), nodeId);
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ENGLISH, "%.3f ms", nanos / 1_000_000.0);
+    }
+
+    private static QueryResult toResult(String text) {
+        String[] lines = text.split("\n");
+        Object[][] rows = new Object[lines.length][];
+        for (int i = 0; i < lines.length; i++) {
+            rows[i] = new Object[] { lines[i] };
+        }
+        return new QueryResult(new ArrayBucket(rows));
+    }
+
+    @Override
+    public List<? extends ListenableFuture<TaskResult>> result() {
+        return results;
+    }
+
+    @Override
+    public void upstreamResult(List<? extends ListenableFuture<TaskResult>> result) {
+        throw new UnsupportedOperationException("ExplainTask doesn't support upstreamResults");
+    }
+}
@@ -21,8 +21,11 @@
 
 package io.crate.jobs;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.crate.exceptions.ContextMissingException;
 import io.crate.operation.collect.StatsTables;
+import io.crate.operation.profile.JobProfiler;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.inject.BindingAnnotation;
@@ -44,6 +47,7 @@ import java.lang.annotation.Target;
 import java.util.*;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 @Singleton
@@ -75,6 +79,19 @@ public class JobContextService extends AbstractLifecycleComponent<JobContextServ
     private final TimeValue keepAlive;
     private final Reaper reaperImpl;
 
+    /**
+     * profilers of running jobs executed with EXPLAIN ANALYZE
+     */
+    private final ConcurrentMap<UUID, JobProfiler> runningProfilers = ConcurrentCollections.newConcurrentMap();
+
+    /**
+     * profilers of finished jobs; they're kept until the handler node fetched the profile,
+     * the expiry starts when the job context on this node is closed
+     */
+    private final Cache<UUID, JobProfiler> finishedProfilers = CacheBuilder.newBuilder()
+            .expireAfterWrite(5, TimeUnit.MINUTES)
+            .build();
+
     private final List<KillAllListener> killAllListeners = Collections.synchronizedList(new ArrayList<KillAllListener>());
 
     @Inject
@@ -134,6 +151,39 @@ public class JobContextService extends AbstractLifecycleComponent<JobContextServ
         return new JobExecutionContext.Builder(jobId, threadPool, statsTables);
     }
 
+    /**
+     * @param profile if true the operations of the job are profiled, see {@link #removeProfiler(UUID)}
+     */
+    public JobExecutionContext.Builder newBuilder(UUID jobId, boolean profile) {
+        if (!profile) {
+            return newBuilder(jobId);
+        }
+        JobProfiler profiler = finishedProfilers.asMap().remove(jobId);
+        if (profiler == null) {
+            profiler = new JobProfiler();
+        }
+        JobProfiler existing = runningProfilers.putIfAbsent(jobId, profiler);
+        if (existing != null) {
+            // handler and remote node operations of the same job on this node share the profiler
+            profiler = existing;
+        }
+        return new JobExecutionContext.Builder(jobId, threadPool, statsTables, profiler);
+    }
+
+    /**
+     * remove and return the profiler of a job
+     *
+     * @return the profiler or null if the job hasn't been profiled on this node
+     */
+    @Nullable
+    public JobProfiler removeProfiler(UUID jobId) {
+        JobProfiler profiler = runningProfilers.remove(jobId);
+        if (profiler == null) {
+            profiler = finishedProfilers.asMap().remove(jobId);
+        }
+        return profiler;
+    }
+
     public JobExecutionContext createContext(JobExecutionContext.Builder contextBuilder) {
         if (contextBuilder.isEmpty()) {
             throw new IllegalArgumentException("JobExecutionContext.Builder must at least contain 1 SubExecutionContext");
@@ -168,6 +218,8 @@ public class JobContextService extends AbstractLifecycleComponent<JobContextServ
                 // don't use  numKilled = activeContext.size() because the content of activeContexts could change
                 numKilled++;
             }
+            runningProfilers.clear();
+            finishedProfilers.invalidateAll();
             assert activeContexts.size() == 0 :
                     "after killing all contexts, they should have been removed from the map due to the callbacks";
         } finally {
@@ -191,6 +243,7 @@ public class JobContextService extends AbstractLifecycleComponent<JobContextServ
                     ctx.kill();
                     numKilled++;
                 }
+                removeProfiler(jobId);
             }
         } finally {
             writeLock.unlock();
@@ -202,6 +255,10 @@ public class JobContextService extends AbstractLifecycleComponent<JobContextServ
         @Override
         public void handle(JobExecutionContext context) {
             activeContexts.remove(context.jobId());
+            JobProfiler profiler = runningProfilers.remove(context.jobId());
+            if (profiler != null) {
+                finishedProfilers.put(context.jobId(), profiler);
+            }
             if (LOGGER.isTraceEnabled()) {
                 LOGGER.trace("[{}]: JobExecutionContext closed for job {} removed it -" +
                                 " {} executionContexts remaining",
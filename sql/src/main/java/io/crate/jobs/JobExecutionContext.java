@@ -30,6 +30,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import io.crate.exceptions.ContextMissingException;
 import io.crate.exceptions.Exceptions;
 import io.crate.operation.collect.StatsTables;
+import io.crate.operation.profile.JobProfiler;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.util.Callback;
@@ -81,11 +82,18 @@ public class JobExecutionContext implements KeepAliveListener {
         private final ThreadPool threadPool;
         private final StatsTables statsTables;
         private final LinkedHashMap<Integer, ExecutionSubContext> subContexts = new LinkedHashMap<>();
+        @Nullable
+        private final JobProfiler profiler;
 
         Builder(UUID jobId, ThreadPool threadPool, StatsTables statsTables) {
+            this(jobId, threadPool, statsTables, null);
+        }
+
+        Builder(UUID jobId, ThreadPool threadPool, StatsTables statsTables, @Nullable JobProfiler profiler) {
             this.jobId = jobId;
             this.threadPool = threadPool;
             this.statsTables = statsTables;
+            this.profiler = profiler;
         }
 
         public void addSubContext(ExecutionSubContext subContext) {
@@ -104,6 +112,14 @@ public class JobExecutionContext implements KeepAliveListener {
             return jobId;
         }
 
+        /**
+         * @return the profiler of the job if it is executed with profiling enabled (EXPLAIN ANALYZE), otherwise null
+         */
+        @Nullable
+        public JobProfiler profiler() {
+            return profiler;
+        }
+
         public JobExecutionContext build() {
             return new JobExecutionContext(jobId, threadPool, statsTables, subContexts);
         }
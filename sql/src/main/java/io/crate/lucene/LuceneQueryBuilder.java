@@ -22,6 +22,7 @@
 package io.crate.lucene;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
@@ -39,6 +40,7 @@ import io.crate.lucene.match.MatchQueryBuilder;
 import io.crate.lucene.match.MultiMatchQueryBuilder;
 import io.crate.metadata.DocReferenceConverter;
 import io.crate.metadata.Functions;
+import io.crate.metadata.ReferenceInfo;
 import io.crate.metadata.doc.DocSysColumns;
 import io.crate.operation.Input;
 import io.crate.operation.collect.CollectInputSymbolVisitor;
@@ -51,6 +53,12 @@ import io.crate.operation.predicate.NotPredicate;
 import io.crate.operation.reference.doc.lucene.CollectorContext;
 import io.crate.operation.reference.doc.lucene.LuceneCollectorExpression;
 import io.crate.operation.reference.doc.lucene.LuceneReferenceResolver;
+import io.crate.operation.scalar.DateTruncFunction;
+import io.crate.operation.scalar.SubstrFunction;
+import io.crate.operation.scalar.TimeZoneParser;
+import io.crate.operation.scalar.arithmetic.AbsFunction;
+import io.crate.operation.scalar.arithmetic.AddFunction;
+import io.crate.operation.scalar.arithmetic.SubtractFunction;
 import io.crate.operation.scalar.geo.DistanceFunction;
 import io.crate.operation.scalar.geo.WithinFunction;
 import io.crate.types.CollectionType;
@@ -68,6 +76,7 @@ import org.apache.lucene.spatial.query.SpatialArgs;
 import org.apache.lucene.spatial.query.SpatialOperation;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.UnicodeUtil;
 import org.apache.lucene.util.automaton.RegExp;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.common.Nullable;
@@ -84,6 +93,7 @@ import org.elasticsearch.common.lucene.docset.MatchDocIdSet;
 import org.elasticsearch.common.lucene.search.Queries;
 import org.elasticsearch.common.lucene.search.RegexpFilter;
 import org.elasticsearch.common.lucene.search.XConstantScoreQuery;
+import org.elasticsearch.common.rounding.Rounding;
 import org.elasticsearch.index.cache.IndexCache;
 import org.elasticsearch.index.fielddata.IndexFieldDataService;
 import org.elasticsearch.index.fielddata.IndexGeoPointFieldData;
@@ -98,6 +108,7 @@ import org.elasticsearch.index.search.geo.GeoPolygonFilter;
 import org.elasticsearch.index.search.geo.InMemoryGeoBoundingBoxFilter;
 
 import java.io.IOException;
+import java.math.BigInteger;
 import java.util.*;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -479,7 +490,7 @@ public class LuceneQueryBuilder {
             public Query apply(Function input, Context context) {
                 Tuple<Reference, Literal> tuple = super.prepare(input);
                 if (tuple == null) {
-                    return null;
+                    return refComparisonQuery(input, context);
                 }
                 Reference reference = tuple.v1();
                 Literal literal = tuple.v2();
@@ -642,7 +653,7 @@ public class LuceneQueryBuilder {
             public Query apply(Function input, Context context) throws IOException {
                 Tuple<Reference, Literal> tuple = super.prepare(input);
                 if (tuple == null) {
-                    return null;
+                    return refComparisonQuery(input, context);
                 }
                 return toQuery(tuple.v1(), tuple.v1().valueType(), tuple.v2().value());
             }
@@ -953,6 +964,494 @@ public class LuceneQueryBuilder {
             }
         }
 
+        /**
+         * Base for comparisons between a scalar over a single column and a literal,
+         * e.g. <pre>where abs(x) &gt; 10</pre> or <pre>where 10 &lt; x + 1</pre>
+         *
+         * The comparison is normalized so that the inner function is on the left side.
+         * Implementations rewrite it into a query on the column itself or return null
+         * to fallback to the generic function filter.
+         */
+        static abstract class InnerFunctionComparisonQuery implements InnerFunctionToQuery {
+
+            @Override
+            public Query apply(Function parent, Function inner, Context context) throws IOException {
+                if (parent.arguments().size() != 2) {
+                    return null;
+                }
+                Symbol left = parent.arguments().get(0);
+                Symbol right = parent.arguments().get(1);
+                String operator = parent.info().ident().name();
+                if (swapOperator(operator) == null) {
+                    // not a comparison
+                    return null;
+                }
+                Literal literal;
+                if (left == inner && right.symbolType() == SymbolType.LITERAL) {
+                    literal = (Literal) right;
+                } else if (right == inner && left.symbolType() == SymbolType.LITERAL) {
+                    literal = (Literal) left;
+                    operator = swapOperator(operator);
+                } else {
+                    return null;
+                }
+                if (literal.value() == null) {
+                    return null;
+                }
+                return toQuery(parent, operator, inner, literal, context);
+            }
+
+            @Nullable
+            protected abstract Query toQuery(Function parent,
+                                             String operator,
+                                             Function inner,
+                                             Literal literal,
+                                             Context context);
+        }
+
+        /**
+         * x + 1 &gt; 10  --&gt;  x &gt; 9
+         * 10 - x &lt;= 3  --&gt;  x &gt;= 7
+         *
+         * Only integral columns are supported; floating point arithmetic can't be inverted
+         * exactly because of rounding.
+         * Values of long columns for which the arithmetic would overflow are verified
+         * using the generic function filter.
+         */
+        static class ArithmeticQuery extends InnerFunctionComparisonQuery {
+
+            private static final BigInteger LONG_MIN = BigInteger.valueOf(Long.MIN_VALUE);
+            private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+
+            @Override
+            protected Query toQuery(Function parent, String operator, Function inner, Literal literal, Context context) {
+                if (!inner.valueType().equals(DataTypes.LONG) || !isIntegral(literal.valueType())) {
+                    return null;
+                }
+                Symbol left = inner.arguments().get(0);
+                Symbol right = inner.arguments().get(1);
+                Reference reference;
+                Literal operand;
+                boolean negated = false;
+                if (left instanceof Reference && right.symbolType() == SymbolType.LITERAL) {
+                    reference = (Reference) left;
+                    operand = (Literal) right;
+                } else if (right instanceof Reference && left.symbolType() == SymbolType.LITERAL) {
+                    reference = (Reference) right;
+                    operand = (Literal) left;
+                    // c - x
+                    negated = inner.info().ident().name().equals(SubtractFunction.NAME);
+                } else {
+                    return null;
+                }
+                if (isSystemColumn(reference)
+                    || !isIntegral(reference.valueType())
+                    || !isIntegral(operand.valueType())
+                    || operand.value() == null) {
+                    return null;
+                }
+
+                // inner is s * x + c with s being 1 or -1
+                BigInteger c = BigInteger.valueOf(((Number) operand.value()).longValue());
+                if (inner.info().ident().name().equals(SubtractFunction.NAME) && !negated) {
+                    c = c.negate();
+                }
+                BigInteger bound = BigInteger.valueOf(((Number) literal.value()).longValue()).subtract(c);
+                if (negated) {
+                    bound = bound.negate();
+                    operator = swapOperator(operator);
+                }
+                BigInteger[] range = inclusiveRange(operator, bound);
+                if (range == null) {
+                    return null;
+                }
+
+                // values for which s * x + c doesn't overflow
+                BigInteger[] noOverflow = negated
+                        ? new BigInteger[] { c.subtract(LONG_MAX), c.subtract(LONG_MIN) }
+                        : new BigInteger[] { LONG_MIN.subtract(c), LONG_MAX.subtract(c) };
+                BigInteger[] typeRange = typeRange(reference.valueType());
+                BigInteger[] domain = intersect(typeRange, noOverflow);
+
+                Query query = integralRangeQuery(reference, intersect(range, domain), typeRange);
+                BigInteger[] overflow = null;
+                if (domain == null) {
+                    overflow = typeRange;
+                } else if (domain[0].compareTo(typeRange[0]) > 0) {
+                    overflow = new BigInteger[] { typeRange[0], domain[0].subtract(BigInteger.ONE) };
+                } else if (domain[1].compareTo(typeRange[1]) < 0) {
+                    overflow = new BigInteger[] { domain[1].add(BigInteger.ONE), typeRange[1] };
+                }
+                if (overflow == null) {
+                    return query;
+                }
+                BooleanQuery booleanQuery = new BooleanQuery();
+                booleanQuery.setMinimumNumberShouldMatch(1);
+                booleanQuery.add(query, BooleanClause.Occur.SHOULD);
+                booleanQuery.add(new FilteredQuery(
+                        integralRangeQuery(reference, overflow, typeRange),
+                        genericFunctionFilter(parent, context)), BooleanClause.Occur.SHOULD);
+                return booleanQuery;
+            }
+
+            private static boolean isIntegral(DataType type) {
+                return type.equals(DataTypes.BYTE)
+                       || type.equals(DataTypes.SHORT)
+                       || type.equals(DataTypes.INTEGER)
+                       || type.equals(DataTypes.LONG)
+                       || type.equals(DataTypes.TIMESTAMP);
+            }
+
+            private static BigInteger[] typeRange(DataType type) {
+                if (type.equals(DataTypes.BYTE)) {
+                    return new BigInteger[] { BigInteger.valueOf(Byte.MIN_VALUE), BigInteger.valueOf(Byte.MAX_VALUE) };
+                }
+                if (type.equals(DataTypes.SHORT)) {
+                    return new BigInteger[] { BigInteger.valueOf(Short.MIN_VALUE), BigInteger.valueOf(Short.MAX_VALUE) };
+                }
+                if (type.equals(DataTypes.INTEGER)) {
+                    return new BigInteger[] { BigInteger.valueOf(Integer.MIN_VALUE), BigInteger.valueOf(Integer.MAX_VALUE) };
+                }
+                return new BigInteger[] { LONG_MIN, LONG_MAX };
+            }
+
+            /**
+             * @return the range of values matching <code>x operator bound</code> with both
+             *         ends included, an end is null if unbounded
+             */
+            @Nullable
+            private static BigInteger[] inclusiveRange(String operator, BigInteger bound) {
+                switch (operator) {
+                    case EqOperator.NAME:
+                        return new BigInteger[] { bound, bound };
+                    case LtOperator.NAME:
+                        return new BigInteger[] { null, bound.subtract(BigInteger.ONE) };
+                    case LteOperator.NAME:
+                        return new BigInteger[] { null, bound };
+                    case GtOperator.NAME:
+                        return new BigInteger[] { bound.add(BigInteger.ONE), null };
+                    case GteOperator.NAME:
+                        return new BigInteger[] { bound, null };
+                    default:
+                        return null;
+                }
+            }
+
+            @Nullable
+            private static BigInteger[] intersect(@Nullable BigInteger[] range, @Nullable BigInteger[] other) {
+                if (range == null || other == null) {
+                    return null;
+                }
+                BigInteger from = range[0] == null ? other[0] : other[0] == null ? range[0] : range[0].max(other[0]);
+                BigInteger to = range[1] == null ? other[1] : other[1] == null ? range[1] : range[1].min(other[1]);
+                if (from != null && to != null && from.compareTo(to) > 0) {
+                    return null;
+                }
+                return new BigInteger[] { from, to };
+            }
+
+            private static Query integralRangeQuery(Reference reference,
+                                                    @Nullable BigInteger[] range,
+                                                    BigInteger[] typeRange) {
+                if (range == null) {
+                    return Queries.newMatchNoDocsQuery();
+                }
+                Long from = range[0].equals(typeRange[0]) ? null : range[0].longValue();
+                Long to = range[1].equals(typeRange[1]) ? null : range[1].longValue();
+                return QueryBuilderHelper.forType(reference.valueType()).rangeQuery(
+                        reference.info().ident().columnIdent().fqn(), from, to, true, true);
+            }
+        }
+
+        /**
+         * abs(x) &gt; 10  --&gt;  x &gt; 10 or x &lt; -10
+         * abs(x) &lt;= 10  --&gt;  x &gt;= -10 and x &lt;= 10
+         */
+        static class AbsQuery extends InnerFunctionComparisonQuery {
+
+            private static final double MAX_EXACT_LONG = 1L << 53;
+
+            @Override
+            protected Query toQuery(Function parent, String operator, Function inner, Literal literal, Context context) {
+                Symbol arg = inner.arguments().get(0);
+                if (!(arg instanceof Reference) || !literal.valueType().equals(arg.valueType())) {
+                    return null;
+                }
+                Reference reference = (Reference) arg;
+                if (isSystemColumn(reference)) {
+                    return null;
+                }
+                DataType type = reference.valueType();
+                Number value = (Number) literal.value();
+                double doubleValue = value.doubleValue();
+                if (Double.isNaN(doubleValue) || (doubleValue == 0.0 && Double.compare(doubleValue, 0.0) != 0)) {
+                    // NaN and -0.0 compare differently than their range representation
+                    return null;
+                }
+                // abs() is computed on doubles, so min values aren't negated exactly
+                if (type.equals(DataTypes.INTEGER)) {
+                    if (value.intValue() == Integer.MAX_VALUE) {
+                        return null;
+                    }
+                } else if (type.equals(DataTypes.LONG)) {
+                    if (Math.abs(doubleValue) >= MAX_EXACT_LONG) {
+                        return null;
+                    }
+                } else if (!type.equals(DataTypes.DOUBLE) && !type.equals(DataTypes.FLOAT)) {
+                    return null;
+                }
+
+                String columnName = reference.info().ident().columnIdent().fqn();
+                QueryBuilderHelper builder = QueryBuilderHelper.forType(type);
+                if (doubleValue < 0) {
+                    switch (operator) {
+                        case GtOperator.NAME:
+                        case GteOperator.NAME:
+                            return builder.rangeQuery(columnName, null, null, true, true);
+                        default:
+                            return Queries.newMatchNoDocsQuery();
+                    }
+                }
+                Object negated = negate(type, value);
+                BooleanQuery booleanQuery = new BooleanQuery();
+                switch (operator) {
+                    case EqOperator.NAME:
+                        booleanQuery.setMinimumNumberShouldMatch(1);
+                        booleanQuery.add(builder.eq(columnName, value), BooleanClause.Occur.SHOULD);
+                        booleanQuery.add(builder.eq(columnName, negated), BooleanClause.Occur.SHOULD);
+                        return booleanQuery;
+                    case LtOperator.NAME:
+                        return builder.rangeQuery(columnName, negated, value, false, false);
+                    case LteOperator.NAME:
+                        return builder.rangeQuery(columnName, negated, value, true, true);
+                    case GtOperator.NAME:
+                        booleanQuery.setMinimumNumberShouldMatch(1);
+                        booleanQuery.add(builder.rangeQuery(columnName, value, null, false, false), BooleanClause.Occur.SHOULD);
+                        booleanQuery.add(builder.rangeQuery(columnName, null, negated, false, false), BooleanClause.Occur.SHOULD);
+                        return booleanQuery;
+                    case GteOperator.NAME:
+                        booleanQuery.setMinimumNumberShouldMatch(1);
+                        booleanQuery.add(builder.rangeQuery(columnName, value, null, true, false), BooleanClause.Occur.SHOULD);
+                        booleanQuery.add(builder.rangeQuery(columnName, null, negated, false, true), BooleanClause.Occur.SHOULD);
+                        return booleanQuery;
+                    default:
+                        return null;
+                }
+            }
+
+            private static Object negate(DataType type, Number value) {
+                if (type.equals(DataTypes.DOUBLE)) {
+                    return -value.doubleValue();
+                }
+                if (type.equals(DataTypes.FLOAT)) {
+                    return -value.floatValue();
+                }
+                if (type.equals(DataTypes.INTEGER)) {
+                    return -value.intValue();
+                }
+                return -value.longValue();
+            }
+        }
+
+        /**
+         * date_trunc('day', ts) = 1444435200000  --&gt;  ts &gt;= 1444435200000 and ts &lt; 1444521600000
+         *
+         * Only truncation in the default time zone (UTC) is rewritten, other time zones
+         * aren't guaranteed to round into contiguous buckets around DST changes.
+         */
+        static class DateTruncQuery extends InnerFunctionComparisonQuery {
+
+            @Override
+            protected Query toQuery(Function parent, String operator, Function inner, Literal literal, Context context) {
+                List<Symbol> args = inner.arguments();
+                Symbol interval = args.get(0);
+                Symbol timestamp = args.get(args.size() - 1);
+                if (interval.symbolType() != SymbolType.LITERAL
+                    || !(timestamp instanceof Reference)
+                    || isSystemColumn((Reference) timestamp)) {
+                    return null;
+                }
+                DataType type = timestamp.valueType();
+                if (!type.equals(DataTypes.TIMESTAMP) && !type.equals(DataTypes.LONG)) {
+                    return null;
+                }
+                if (args.size() == 3) {
+                    Symbol timeZone = args.get(1);
+                    if (timeZone.symbolType() != SymbolType.LITERAL || !isDefaultTimeZone((BytesRef) ((Literal) timeZone).value())) {
+                        return null;
+                    }
+                }
+                Rounding rounding = DateTruncFunction.defaultTimeZoneRounding((BytesRef) ((Literal) interval).value());
+                if (rounding == null) {
+                    return null;
+                }
+
+                long value = ((Number) literal.value()).longValue();
+                long floor;
+                long next;
+                try {
+                    floor = rounding.round(value);
+                    next = rounding.nextRoundingValue(floor);
+                } catch (IllegalArgumentException | ArithmeticException e) {
+                    // out of the supported date range
+                    return null;
+                }
+                long ceil = floor == value ? value : next;
+
+                String columnName = ((Reference) timestamp).info().ident().columnIdent().fqn();
+                QueryBuilderHelper builder = QueryBuilderHelper.forType(type);
+                switch (operator) {
+                    case EqOperator.NAME:
+                        if (floor != value) {
+                            return Queries.newMatchNoDocsQuery();
+                        }
+                        return builder.rangeQuery(columnName, value, next, true, false);
+                    case LtOperator.NAME:
+                        return builder.rangeQuery(columnName, null, ceil, false, false);
+                    case LteOperator.NAME:
+                        return builder.rangeQuery(columnName, null, next, false, false);
+                    case GtOperator.NAME:
+                        return builder.rangeQuery(columnName, next, null, true, false);
+                    case GteOperator.NAME:
+                        return builder.rangeQuery(columnName, ceil, null, true, false);
+                    default:
+                        return null;
+                }
+            }
+
+            private static boolean isDefaultTimeZone(@Nullable BytesRef timeZone) {
+                try {
+                    return TimeZoneParser.DEFAULT_TZ.equals(TimeZoneParser.parseTimeZone(timeZone));
+                } catch (IllegalArgumentException e) {
+                    return false;
+                }
+            }
+        }
+
+        /**
+         * substr(name, 1, 3) = 'foo'  --&gt;  name:foo*
+         */
+        static class SubstrQuery extends InnerFunctionComparisonQuery {
+
+            @Override
+            protected Query toQuery(Function parent, String operator, Function inner, Literal literal, Context context) {
+                if (!operator.equals(EqOperator.NAME)) {
+                    return null;
+                }
+                List<Symbol> args = inner.arguments();
+                Symbol arg = args.get(0);
+                if (!(arg instanceof Reference) || !arg.valueType().equals(DataTypes.STRING)) {
+                    return null;
+                }
+                Reference reference = (Reference) arg;
+                if (isSystemColumn(reference) || reference.info().indexType() != ReferenceInfo.IndexType.NOT_ANALYZED) {
+                    return null;
+                }
+                Integer begin = intValue(args.get(1));
+                if (begin == null || begin > 1) {
+                    return null;
+                }
+                String columnName = reference.info().ident().columnIdent().fqn();
+                BytesRef value = BytesRefs.toBytesRef(literal.value());
+                if (args.size() == 2) {
+                    return new TermQuery(new Term(columnName, value));
+                }
+                Integer length = intValue(args.get(2));
+                if (length == null || length < 1) {
+                    return null;
+                }
+                int numCodePoints = UnicodeUtil.codePointCount(value);
+                if (numCodePoints == length) {
+                    return new PrefixQuery(new Term(columnName, value));
+                }
+                if (numCodePoints < length) {
+                    // the whole column value is shorter than the requested substring
+                    return new TermQuery(new Term(columnName, value));
+                }
+                return Queries.newMatchNoDocsQuery();
+            }
+
+            @Nullable
+            private static Integer intValue(Symbol symbol) {
+                if (symbol.symbolType() != SymbolType.LITERAL) {
+                    return null;
+                }
+                Object value = ((Literal) symbol).value();
+                if (value == null) {
+                    return null;
+                }
+                return ((Number) value).intValue();
+            }
+        }
+
+        @Nullable
+        private static String swapOperator(String operator) {
+            switch (operator) {
+                case EqOperator.NAME:
+                    return EqOperator.NAME;
+                case LtOperator.NAME:
+                    return GtOperator.NAME;
+                case LteOperator.NAME:
+                    return GteOperator.NAME;
+                case GtOperator.NAME:
+                    return LtOperator.NAME;
+                case GteOperator.NAME:
+                    return LteOperator.NAME;
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * col1 = col2, col1 &lt; col2, ...
+         *
+         * Runs as two-phase filter: documents which don't have a value for any of the
+         * not analyzed columns are skipped using the inverted index and the comparison
+         * is only evaluated for the remaining ones, reading not analyzed columns from
+         * doc values instead of the source.
+         */
+        @Nullable
+        private static Query refComparisonQuery(Function input, Context context) {
+            Symbol left = input.arguments().get(0);
+            Symbol right = input.arguments().get(1);
+            if (!(left instanceof Reference) || !(right instanceof Reference)) {
+                return null;
+            }
+            BooleanFilter approximation = new BooleanFilter();
+            for (Reference reference : Arrays.asList((Reference) left, (Reference) right)) {
+                if (hasDocValues(reference) && !reference.valueType().equals(DataTypes.BOOLEAN)) {
+                    approximation.add(
+                            QueryBuilderHelper.forType(reference.valueType()).rangeFilter(
+                                    reference.info().ident().columnIdent().fqn(), null, null, true, true),
+                            BooleanClause.Occur.MUST);
+                }
+            }
+            Filter filter = functionFilter(input, context, WITHOUT_DOC_VALUES);
+            if (approximation.clauses().isEmpty()) {
+                return new FilteredQuery(Queries.newMatchAllQuery(), filter);
+            }
+            return new FilteredQuery(
+                    new ConstantScoreQuery(approximation), filter, FilteredQuery.QUERY_FIRST_FILTER_STRATEGY);
+        }
+
+        private static boolean isSystemColumn(Reference reference) {
+            return reference.info().ident().columnIdent().name().startsWith("_");
+        }
+
+        private static boolean hasDocValues(Reference reference) {
+            return !isSystemColumn(reference)
+                   && reference.info().indexType() == ReferenceInfo.IndexType.NOT_ANALYZED
+                   && DataTypes.PRIMITIVE_TYPES.contains(reference.valueType());
+        }
+
+        private static final Predicate<Reference> WITHOUT_DOC_VALUES = new Predicate<Reference>() {
+            @Override
+            public boolean apply(@Nullable Reference input) {
+                assert input != null;
+                return !hasDocValues(input);
+            }
+        };
+
         private static GeoPointFieldMapper getGeoPointFieldMapper(String fieldName, MapperService mapperService) {
             MapperService.SmartNameFieldMappers smartMappers = mapperService.smartName(fieldName);
             if (smartMappers == null || !smartMappers.hasMapper()) {
@@ -971,6 +1470,7 @@ public class LuceneQueryBuilder {
         private static final RangeQuery gtQuery = new RangeQuery("gt");
         private static final RangeQuery gteQuery = new RangeQuery("gte");
         private static final WithinQuery withinQuery = new WithinQuery();
+        private static final ArithmeticQuery arithmeticQuery = new ArithmeticQuery();
         private final ImmutableMap<String, FunctionToQuery> functions =
                 ImmutableMap.<String, FunctionToQuery>builder()
                         .put(WithinFunction.NAME, withinQuery)
@@ -1002,6 +1502,11 @@ public class LuceneQueryBuilder {
                 ImmutableMap.<String, InnerFunctionToQuery>builder()
                         .put(DistanceFunction.NAME, new DistanceQuery())
                         .put(WithinFunction.NAME, withinQuery)
+                        .put(AddFunction.NAME, arithmeticQuery)
+                        .put(SubtractFunction.NAME, arithmeticQuery)
+                        .put(AbsFunction.NAME, new AbsQuery())
+                        .put(DateTruncFunction.NAME, new DateTruncQuery())
+                        .put(SubstrFunction.NAME, new SubstrQuery())
                         .build();
 
         @Override
@@ -1099,14 +1604,24 @@ public class LuceneQueryBuilder {
         }
 
         private static Filter genericFunctionFilter(Function function, Context context) {
-            if (function.valueType() != DataTypes.BOOLEAN) {
-                raiseUnsupported(function);
-            }
             // avoid field-cache
             // reason1: analyzed columns or columns with index off wouldn't work
             //   substr(n, 1, 1) in the case of n => analyzed would throw an error because n would be an array
             // reason2: would have to load each value into the field cache
-            function = (Function)DocReferenceConverter.convertIf(function);
+            return functionFilter(function, context, null);
+        }
+
+        /**
+         * @param sourceLookupPredicate references matching the predicate are read from the source,
+         *                              if null all references are read from the source
+         */
+        private static Filter functionFilter(Function function,
+                                             Context context,
+                                             @Nullable Predicate<Reference> sourceLookupPredicate) {
+            if (function.valueType() != DataTypes.BOOLEAN) {
+                raiseUnsupported(function);
+            }
+            function = (Function)DocReferenceConverter.convertIf(function, sourceLookupPredicate);
 
             final CollectInputSymbolVisitor.Context ctx = context.inputSymbolVisitor.extractImplementations(function);
             assert ctx.topLevelInputs().size() == 1;
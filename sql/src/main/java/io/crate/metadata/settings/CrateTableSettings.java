@@ -209,6 +209,29 @@ public class CrateTableSettings {
     };
 
 
+    public static final ByteSizeSetting BLOBS_PACK_THRESHOLD = new ByteSizeSetting() {
+        @Override
+        public String name() {
+            return TableParameterInfo.BLOBS_PACK_THRESHOLD;
+        }
+
+        @Override
+        public ByteSizeValue defaultValue() {
+            return new ByteSizeValue(0);
+        }
+
+        @Override
+        public long minValue() {
+            return 0;
+        }
+
+        @Override
+        public boolean isRuntime() {
+            return false;
+        }
+    };
+
+
     public static final IntSetting FLUSH_THRESHOLD_OPS = new IntSetting() {
         @Override
         public String name() {
@@ -27,6 +27,8 @@ import io.crate.metadata.FunctionImplementation;
 import io.crate.metadata.Functions;
 import io.crate.metadata.Scalar;
 import io.crate.operation.aggregation.FunctionExpression;
+import io.crate.operation.compiler.CompiledExpression;
+import io.crate.operation.compiler.ExpressionCompiler;
 
 import java.util.List;
 
@@ -44,6 +46,15 @@ public class BaseImplementationSymbolVisitor<C> extends SymbolVisitor<C, Input<?
 
     @Override
     public Input<?> visitFunction(Function function, C context) {
+        CompiledExpression compiledExpression = ExpressionCompiler.compile(function);
+        if (compiledExpression != null) {
+            List<Symbol> leaves = compiledExpression.leaves();
+            Input[] leafInputs = new Input[leaves.size()];
+            for (int i = 0; i < leafInputs.length; i++) {
+                leafInputs[i] = process(leaves.get(i), context);
+            }
+            return compiledExpression.newInput(leafInputs);
+        }
         final FunctionImplementation functionImplementation = functions.get(function.info().ident());
         if (functionImplementation != null && functionImplementation instanceof Scalar<?, ?>) {
             List<Symbol> arguments = function.arguments();
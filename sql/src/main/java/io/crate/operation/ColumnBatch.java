@@ -0,0 +1,185 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation;
+
+import io.crate.core.collections.Row;
+
+/**
+ * A batch of rows whose values are stored column-wise in primitive vectors.
+ *
+ * Producers fill the columns and set the size of the batch, consumers either read the primitive values
+ * directly or use {@link #rowAt(int)} to get a row view of the batch.
+ */
+public class ColumnBatch {
+
+    public enum ElementType {
+        LONG,
+        INTEGER,
+        SHORT,
+        BYTE,
+        DOUBLE,
+        FLOAT
+    }
+
+    public static class Column {
+
+        private final ElementType elementType;
+        private final long[] longs;
+        private final double[] doubles;
+        private final boolean[] nulls;
+
+        Column(ElementType elementType, int capacity) {
+            this.elementType = elementType;
+            if (elementType == ElementType.DOUBLE || elementType == ElementType.FLOAT) {
+                longs = null;
+                doubles = new double[capacity];
+            } else {
+                longs = new long[capacity];
+                doubles = null;
+            }
+            nulls = new boolean[capacity];
+        }
+
+        public ElementType elementType() {
+            return elementType;
+        }
+
+        public void setLong(int idx, long value) {
+            longs[idx] = value;
+            nulls[idx] = false;
+        }
+
+        public void setDouble(int idx, double value) {
+            doubles[idx] = value;
+            nulls[idx] = false;
+        }
+
+        public void setNull(int idx) {
+            nulls[idx] = true;
+        }
+
+        public boolean isNull(int idx) {
+            return nulls[idx];
+        }
+
+        public long getLong(int idx) {
+            return longs[idx];
+        }
+
+        public double getDouble(int idx) {
+            return doubles[idx];
+        }
+
+        /**
+         * @return the boxed value, using the java type of the element type
+         */
+        public Object get(int idx) {
+            if (nulls[idx]) {
+                return null;
+            }
+            switch (elementType) {
+                case LONG:
+                    return longs[idx];
+                case INTEGER:
+                    return (int) longs[idx];
+                case SHORT:
+                    return (short) longs[idx];
+                case BYTE:
+                    return (byte) longs[idx];
+                case DOUBLE:
+                    return doubles[idx];
+                case FLOAT:
+                    return (float) doubles[idx];
+                default:
+                    throw new IllegalStateException("Unknown element type " + elementType);
+            }
+        }
+    }
+
+    private final Column[] columns;
+    private final int capacity;
+    private final CursorRow cursorRow = new CursorRow();
+    private int size = 0;
+
+    public ColumnBatch(ElementType[] elementTypes, int capacity) {
+        this.capacity = capacity;
+        columns = new Column[elementTypes.length];
+        for (int i = 0; i < elementTypes.length; i++) {
+            columns[i] = new Column(elementTypes[i], capacity);
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void size(int size) {
+        assert size <= capacity : "size must not exceed the capacity";
+        this.size = size;
+    }
+
+    public int numColumns() {
+        return columns.length;
+    }
+
+    public Column column(int idx) {
+        return columns[idx];
+    }
+
+    /**
+     * @return a row view of the row at the given position.
+     *         The returned instance is shared, it is changed by the next call of this method.
+     */
+    public Row rowAt(int idx) {
+        assert idx < size : "idx must be lower than the size of the batch";
+        cursorRow.idx = idx;
+        return cursorRow;
+    }
+
+    private class CursorRow implements Row {
+
+        private int idx;
+
+        @Override
+        public int size() {
+            return columns.length;
+        }
+
+        @Override
+        public Object get(int index) {
+            return columns[index].get(idx);
+        }
+
+        @Override
+        public Object[] materialize() {
+            Object[] cells = new Object[columns.length];
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = columns[i].get(idx);
+            }
+            return cells;
+        }
+    }
+}
@@ -22,6 +22,7 @@
 package io.crate.operation;
 
 import com.google.common.collect.ImmutableList;
+import io.crate.metadata.Routing;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.distribution.UpstreamPhase;
 import io.crate.planner.node.ExecutionPhase;
@@ -32,10 +33,12 @@ import org.elasticsearch.common.io.stream.Streamable;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 public class NodeOperation implements Streamable {
 
@@ -103,6 +106,16 @@ public class NodeOperation implements Streamable {
         }
     }
 
+    /**
+     * @return a copy of this operation whose phase belongs to the given job, see {@link ExecutionPhase#bind(UUID, Routing)}
+     */
+    public NodeOperation bind(UUID jobId, @Nullable Routing routing) {
+        return new NodeOperation(executionPhase.bind(jobId, routing),
+                downstreamNodes,
+                downstreamExecutionPhaseId,
+                downstreamExecutionPhaseInputId);
+    }
+
     public ExecutionPhase executionPhase() {
         return executionPhase;
     }
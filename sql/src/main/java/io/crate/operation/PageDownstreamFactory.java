@@ -37,6 +37,7 @@ import io.crate.operation.projectors.FlatProjectorChain;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
 import io.crate.operation.projectors.ProjectorFactory;
 import io.crate.operation.projectors.RowReceiver;
+import io.crate.operation.projectors.SortRunDirectory;
 import io.crate.operation.projectors.sorting.OrderingByPosition;
 import io.crate.planner.node.dql.MergePhase;
 import org.elasticsearch.action.bulk.BulkRetryCoordinatorPool;
@@ -60,6 +61,7 @@ public class PageDownstreamFactory {
                                  Settings settings,
                                  TransportActionProvider transportActionProvider,
                                  BulkRetryCoordinatorPool bulkRetryCoordinatorPool,
+                                 SortRunDirectory sortRunDirectory,
                                  NestedReferenceResolver referenceResolver,
                                  Functions functions) {
         ImplementationSymbolVisitor implementationSymbolVisitor = new ImplementationSymbolVisitor(functions);
@@ -70,6 +72,7 @@ public class PageDownstreamFactory {
                 settings,
                 transportActionProvider,
                 bulkRetryCoordinatorPool,
+                sortRunDirectory,
                 implementationSymbolVisitor,
                 normalizer
         );
@@ -84,10 +87,20 @@ public class PageDownstreamFactory {
                                                                                    boolean requiresRepeatSupport,
                                                                                    RamAccountingContext ramAccountingContext,
                                                                                    Optional<Executor> executorOptional) {
+        return createMergeNodePageDownstream(mergeNode, rowReceiver, requiresRepeatSupport, ramAccountingContext,
+                executorOptional, projectionToProjectorVisitor);
+    }
+
+    public Tuple<PageDownstream, FlatProjectorChain> createMergeNodePageDownstream(MergePhase mergeNode,
+                                                                                   RowReceiver rowReceiver,
+                                                                                   boolean requiresRepeatSupport,
+                                                                                   RamAccountingContext ramAccountingContext,
+                                                                                   Optional<Executor> executorOptional,
+                                                                                   ProjectorFactory projectorFactory) {
         FlatProjectorChain projectorChain = null;
         if (!mergeNode.projections().isEmpty()) {
             projectorChain = FlatProjectorChain.withAttachedDownstream(
-                    projectionToProjectorVisitor,
+                    projectorFactory,
                     ramAccountingContext,
                     mergeNode.projections(),
                     rowReceiver,
@@ -19,11 +19,14 @@
  * software solely pursuant to the terms of the relevant commercial agreement.
  */
 
+
 package io.crate.operation;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.crate.core.collections.CollectionBucket;
 import io.crate.core.collections.Row;
+import io.crate.executor.PagedQueryResult;
 import io.crate.executor.QueryResult;
 import io.crate.executor.TaskResult;
 import io.crate.jobs.ExecutionState;
@@ -31,37 +34,136 @@ import io.crate.operation.projectors.Requirement;
 import io.crate.operation.projectors.Requirements;
 import io.crate.operation.projectors.RowReceiver;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Set;
 
 /**
  * RowDownstream that will set a TaskResultFuture once the result is ready.
  * It will also close the associated context once it is done
+ *
+ * If a <code>fetchSize</code> is given, the result future is set with a {@link PagedQueryResult}
+ * as soon as <code>fetchSize</code> rows have been received and the upstream is paused until the next page is fetched.
+ * So usually only one page of rows has to be held in memory. Upstreams which can't pause keep sending rows,
+ * their full pages are buffered until they're fetched.
+ * If the job fails while it is paused the failure is kept and returned by the next fetch.
  */
-public class QueryResultRowDownstream implements RowReceiver {
+public class QueryResultRowDownstream implements RowReceiver, PagedQueryResult.Pager {
 
-    private final SettableFuture<TaskResult> result;
-    private final List<Object[]> rows = new ArrayList<>();
+    private final Object lock = new Object();
+    private SettableFuture<TaskResult> result;
+    private final int fetchSize;
+    private List<Object[]> rows = new ArrayList<>();
+    private final Deque<List<Object[]>> pages = new ArrayDeque<>();
+    private RowUpstream upstream;
+    private volatile boolean closed = false;
+    private boolean finished = false;
+    private volatile Throwable failure = null;
+    private final SettableFuture<Void> finishFuture = SettableFuture.create();
 
     public QueryResultRowDownstream(SettableFuture<TaskResult> result) {
+        this(result, 0);
+    }
+
+    /**
+     * @param fetchSize the number of rows per page, 0 to collect all rows into one result
+     */
+    public QueryResultRowDownstream(SettableFuture<TaskResult> result, int fetchSize) {
         this.result = result;
+        this.fetchSize = fetchSize;
     }
 
     @Override
     public boolean setNextRow(Row row) {
-        rows.add(row.materialize());
+        if (closed) {
+            return false;
+        }
+        boolean pageFull = false;
+        synchronized (lock) {
+            rows.add(row.materialize());
+            if (fetchSize > 0 && rows.size() == fetchSize) {
+                pageFull = true;
+                List<Object[]> page = rows;
+                rows = new ArrayList<>(fetchSize);
+                if (result.isDone()) {
+                    // the previous page hasn't been fetched yet
+                    pages.add(page);
+                } else {
+                    result.set(new PagedQueryResult(new CollectionBucket(page), this));
+                }
+            }
+        }
+        if (pageFull) {
+            upstream.pause();
+        }
         return true;
     }
 
+    @Override
+    public ListenableFuture<TaskResult> fetch() {
+        SettableFuture<TaskResult> nextPage = SettableFuture.create();
+        boolean resume = false;
+        synchronized (lock) {
+            result = nextPage;
+            Throwable t = failure;
+            if (t != null) {
+                nextPage.setException(t);
+            } else if (!pages.isEmpty()) {
+                nextPage.set(new PagedQueryResult(new CollectionBucket(pages.poll()), this));
+            } else if (finished) {
+                nextPage.set(new QueryResult(new CollectionBucket(rows)));
+            } else {
+                resume = true;
+            }
+        }
+        if (resume) {
+            upstream.resume(true);
+        }
+        return nextPage;
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            rows.clear();
+            pages.clear();
+        }
+        finishFuture.set(null);
+        if (failure == null) {
+            upstream.resume(true);
+        }
+    }
+
+    @Override
+    public ListenableFuture<Void> finishFuture() {
+        return finishFuture;
+    }
+
     @Override
     public void finish() {
-        result.set(new QueryResult(new CollectionBucket(rows)));
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            finished = true;
+            if (!result.isDone()) {
+                // otherwise the last rows are returned by fetch() once the buffered pages are consumed
+                result.set(new QueryResult(new CollectionBucket(rows)));
+            }
+        }
+        finishFuture.set(null);
     }
 
     @Override
     public void fail(Throwable throwable) {
-        result.setException(throwable);
+        synchronized (lock) {
+            failure = throwable;
+            result.setException(throwable);
+        }
+        finishFuture.setException(throwable);
     }
 
     @Override
@@ -75,5 +177,6 @@ public class QueryResultRowDownstream implements RowReceiver {
 
     @Override
     public void setUpstream(RowUpstream rowUpstream) {
+        this.upstream = rowUpstream;
     }
 }
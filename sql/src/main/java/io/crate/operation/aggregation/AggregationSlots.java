@@ -0,0 +1,93 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.aggregation;
+
+import io.crate.breaker.RamAccountingContext;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import java.util.Arrays;
+
+/**
+ * Columnar aggregation states of a {@link SlotAggregationFunction}.
+ *
+ * Every group (identified by a dense ordinal) owns a fixed number of long and double slots.
+ * Slots of a new group are always initialized with 0.
+ */
+public class AggregationSlots {
+
+    private final RamAccountingContext ramAccountingContext;
+    private final int longsPerGroup;
+    private final int doublesPerGroup;
+
+    private long[] longs = new long[0];
+    private double[] doubles = new double[0];
+
+    public AggregationSlots(RamAccountingContext ramAccountingContext, int longsPerGroup, int doublesPerGroup) {
+        this.ramAccountingContext = ramAccountingContext;
+        this.longsPerGroup = longsPerGroup;
+        this.doublesPerGroup = doublesPerGroup;
+    }
+
+    /**
+     * grows the slot arrays so that they can hold at least <code>numGroups</code> groups
+     */
+    public void ensureCapacity(int numGroups) {
+        int minLongs = numGroups * longsPerGroup;
+        if (longs.length < minLongs) {
+            int newLength = ArrayUtil.oversize(minLongs, RamUsageEstimator.NUM_BYTES_LONG);
+            ramAccountingContext.addBytes((long) (newLength - longs.length) * RamUsageEstimator.NUM_BYTES_LONG);
+            longs = Arrays.copyOf(longs, newLength);
+        }
+        int minDoubles = numGroups * doublesPerGroup;
+        if (doubles.length < minDoubles) {
+            int newLength = ArrayUtil.oversize(minDoubles, RamUsageEstimator.NUM_BYTES_DOUBLE);
+            ramAccountingContext.addBytes((long) (newLength - doubles.length) * RamUsageEstimator.NUM_BYTES_DOUBLE);
+            doubles = Arrays.copyOf(doubles, newLength);
+        }
+    }
+
+    public long getLong(int ordinal, int slot) {
+        return longs[ordinal * longsPerGroup + slot];
+    }
+
+    public void setLong(int ordinal, int slot, long value) {
+        longs[ordinal * longsPerGroup + slot] = value;
+    }
+
+    public void addLong(int ordinal, int slot, long value) {
+        longs[ordinal * longsPerGroup + slot] += value;
+    }
+
+    public double getDouble(int ordinal, int slot) {
+        return doubles[ordinal * doublesPerGroup + slot];
+    }
+
+    public void setDouble(int ordinal, int slot, double value) {
+        doubles[ordinal * doublesPerGroup + slot] = value;
+    }
+
+    public void addDouble(int ordinal, int slot, double value) {
+        doubles[ordinal * doublesPerGroup + slot] += value;
+    }
+}
@@ -24,7 +24,9 @@ package io.crate.operation.aggregation;
 import io.crate.analyze.symbol.Aggregation;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.operation.Input;
+import io.crate.types.DataType;
 
+import javax.annotation.Nullable;
 import java.util.Locale;
 
 /**
@@ -33,6 +35,7 @@ import java.util.Locale;
  */
 public class Aggregator {
 
+    private final RamAccountingContext ramAccountingContext;
     private final Input[] inputs;
     private final AggregationFunction aggregationFunction;
     private final FromImpl fromImpl;
@@ -72,6 +75,7 @@ public class Aggregator {
                 throw new UnsupportedOperationException(String.format(Locale.ENGLISH, "invalid to step %s", a.toStep().name()));
         }
 
+        this.ramAccountingContext = ramAccountingContext;
         this.inputs = inputs;
         this.aggregationFunction = aggregationFunction;
     }
@@ -89,6 +93,77 @@ public class Aggregator {
         return toImpl.finishCollect(state);
     }
 
+    /**
+     * @return true if the aggregation function can keep its state in {@link AggregationSlots}
+     */
+    public boolean supportsSlots() {
+        return aggregationFunction instanceof SlotAggregationFunction;
+    }
+
+    /**
+     * creates the slots for all aggregators if every one of them supports slots.
+     *
+     * @return the slots, in the same order as the aggregators, or null if at least one aggregator
+     *         requires object states
+     */
+    @Nullable
+    public static AggregationSlots[] newSlots(Aggregator[] aggregators) {
+        for (Aggregator aggregator : aggregators) {
+            if (!aggregator.supportsSlots()) {
+                return null;
+            }
+        }
+        AggregationSlots[] slots = new AggregationSlots[aggregators.length];
+        for (int i = 0; i < aggregators.length; i++) {
+            slots[i] = aggregators[i].newSlots();
+        }
+        return slots;
+    }
+
+    public AggregationSlots newSlots() {
+        SlotAggregationFunction function = (SlotAggregationFunction) aggregationFunction;
+        return new AggregationSlots(ramAccountingContext, function.longSlots(), function.doubleSlots());
+    }
+
+    public void processRow(AggregationSlots slots, int ordinal) {
+        fromImpl.processRow(slots, ordinal);
+    }
+
+    public Object finishCollect(AggregationSlots slots, int ordinal) {
+        return toImpl.finishCollect(slots, ordinal);
+    }
+
+    /**
+     * @return the state in its partial form, e.g. to write it to disk
+     */
+    public Object partialResult(Object state) {
+        return state;
+    }
+
+    public Object partialResult(AggregationSlots slots, int ordinal) {
+        return ((SlotAggregationFunction) aggregationFunction).partialResult(slots, ordinal);
+    }
+
+    /**
+     * merges a partial state into the given state, independent of the from step of this aggregator
+     */
+    @SuppressWarnings("unchecked")
+    public Object reducePartial(Object state, @Nullable Object partial) {
+        return aggregationFunction.reduce(ramAccountingContext, state, partial);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void reducePartial(AggregationSlots slots, int ordinal, @Nullable Object partial) {
+        ((SlotAggregationFunction) aggregationFunction).reduce(slots, ordinal, partial);
+    }
+
+    /**
+     * @return the type of the partial state
+     */
+    public DataType partialType() {
+        return aggregationFunction.partialType();
+    }
+
     abstract class FromImpl {
 
         protected final RamAccountingContext ramAccountingContext;
@@ -102,6 +177,8 @@ public class Aggregator {
         }
 
         public abstract Object processRow(Object value);
+
+        public abstract void processRow(AggregationSlots slots, int ordinal);
     }
 
     class FromIter extends FromImpl {
@@ -115,6 +192,11 @@ public class Aggregator {
         public Object processRow(Object value) {
             return aggregationFunction.iterate(ramAccountingContext, value, inputs);
         }
+
+        @Override
+        public void processRow(AggregationSlots slots, int ordinal) {
+            ((SlotAggregationFunction) aggregationFunction).iterate(slots, ordinal, inputs);
+        }
     }
 
     class FromPartial extends FromImpl {
@@ -128,6 +210,12 @@ public class Aggregator {
         public Object processRow(Object value) {
             return aggregationFunction.reduce(ramAccountingContext, value, inputs[0].value());
         }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void processRow(AggregationSlots slots, int ordinal) {
+            ((SlotAggregationFunction) aggregationFunction).reduce(slots, ordinal, inputs[0].value());
+        }
     }
 
     static abstract class ToImpl {
@@ -138,6 +226,8 @@ public class Aggregator {
         }
 
         public abstract Object finishCollect(Object state);
+
+        public abstract Object finishCollect(AggregationSlots slots, int ordinal);
     }
 
     class ToPartial extends ToImpl {
@@ -150,6 +240,11 @@ public class Aggregator {
         public Object finishCollect(Object state) {
             return state;
         }
+
+        @Override
+        public Object finishCollect(AggregationSlots slots, int ordinal) {
+            return ((SlotAggregationFunction) aggregationFunction).partialResult(slots, ordinal);
+        }
     }
 
     class ToFinal extends ToImpl {
@@ -163,5 +258,10 @@ public class Aggregator {
             //noinspection unchecked
             return aggregationFunction.terminatePartial(ramAccountingContext, state);
         }
+
+        @Override
+        public Object finishCollect(AggregationSlots slots, int ordinal) {
+            return ((SlotAggregationFunction) aggregationFunction).terminatePartial(slots, ordinal);
+        }
     }
 }
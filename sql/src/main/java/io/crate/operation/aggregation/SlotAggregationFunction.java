@@ -0,0 +1,70 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.aggregation;
+
+import io.crate.operation.Input;
+
+import javax.annotation.Nullable;
+
+/**
+ * An extension to the {@link AggregationFunction} contract for functions whose state fits into
+ * a fixed number of primitive long and double slots.
+ *
+ * Instead of returning a new partial state for every row, these functions mutate the slots of a group
+ * in place, so aggregating doesn't create any garbage.
+ * The partial state objects are only created if the partial result is requested.
+ *
+ * @param <TPartial> the intermediate type of the value used during aggregation
+ */
+public interface SlotAggregationFunction<TPartial> {
+
+    /**
+     * @return the number of long slots required per group
+     */
+    int longSlots();
+
+    /**
+     * @return the number of double slots required per group
+     */
+    int doubleSlots();
+
+    /**
+     * the "aggregate" function, see {@link AggregationFunction#iterate}
+     */
+    void iterate(AggregationSlots slots, int ordinal, Input... args);
+
+    /**
+     * merges a partial state into the slots of a group, see {@link AggregationFunction#reduce}
+     */
+    void reduce(AggregationSlots slots, int ordinal, @Nullable TPartial partial);
+
+    /**
+     * @return the state of the group in its partial form
+     */
+    TPartial partialResult(AggregationSlots slots, int ordinal);
+
+    /**
+     * @return the final value of the group, see {@link AggregationFunction#terminatePartial}
+     */
+    Object terminatePartial(AggregationSlots slots, int ordinal);
+}
@@ -28,6 +28,8 @@ import io.crate.metadata.FunctionIdent;
 import io.crate.metadata.FunctionInfo;
 import io.crate.operation.Input;
 import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.AggregationSlots;
+import io.crate.operation.aggregation.SlotAggregationFunction;
 import io.crate.types.DataType;
 import io.crate.types.DataTypeFactory;
 import io.crate.types.DataTypes;
@@ -37,7 +39,8 @@ import org.elasticsearch.common.io.stream.StreamOutput;
 
 import java.io.IOException;
 
-public class AverageAggregation extends AggregationFunction<AverageAggregation.AverageState, Double> {
+public class AverageAggregation extends AggregationFunction<AverageAggregation.AverageState, Double>
+        implements SlotAggregationFunction<AverageAggregation.AverageState> {
 
     public static final String[] NAMES = new String[] {"avg", "mean"};
     public static final String NAME = NAMES[0];
@@ -193,6 +196,52 @@ public class AverageAggregation extends AggregationFunction<AverageAggregation.A
         return new AverageState();
     }
 
+    @Override
+    public int longSlots() {
+        // count
+        return 1;
+    }
+
+    @Override
+    public int doubleSlots() {
+        // sum
+        return 1;
+    }
+
+    @Override
+    public void iterate(AggregationSlots slots, int ordinal, Input... args) {
+        Number value = (Number) args[0].value();
+        if (value != null) {
+            slots.addLong(ordinal, 0, 1L);
+            slots.addDouble(ordinal, 0, value.doubleValue());
+        }
+    }
+
+    @Override
+    public void reduce(AggregationSlots slots, int ordinal, AverageState partial) {
+        if (partial != null) {
+            slots.addLong(ordinal, 0, partial.count);
+            slots.addDouble(ordinal, 0, partial.sum);
+        }
+    }
+
+    @Override
+    public AverageState partialResult(AggregationSlots slots, int ordinal) {
+        AverageState state = new AverageState();
+        state.count = slots.getLong(ordinal, 0);
+        state.sum = slots.getDouble(ordinal, 0);
+        return state;
+    }
+
+    @Override
+    public Object terminatePartial(AggregationSlots slots, int ordinal) {
+        long count = slots.getLong(ordinal, 0);
+        if (count > 0) {
+            return slots.getDouble(ordinal, 0) / count;
+        }
+        return null;
+    }
+
     @Override
     public DataType partialType() {
         return AverageStateType.INSTANCE;
@@ -30,6 +30,8 @@ import io.crate.metadata.FunctionImplementation;
 import io.crate.metadata.FunctionInfo;
 import io.crate.operation.Input;
 import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.AggregationSlots;
+import io.crate.operation.aggregation.SlotAggregationFunction;
 import io.crate.planner.projection.AggregationProjection;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
@@ -37,7 +39,7 @@ import io.crate.types.DataTypes;
 import java.util.Collections;
 import java.util.List;
 
-public class CountAggregation extends AggregationFunction<Long, Long> {
+public class CountAggregation extends AggregationFunction<Long, Long> implements SlotAggregationFunction<Long> {
 
     public static final String NAME = "count";
     private final FunctionInfo info;
@@ -126,4 +128,38 @@ public class CountAggregation extends AggregationFunction<Long, Long> {
     public Long terminatePartial(RamAccountingContext ramAccountingContext, Long state) {
         return state;
     }
+
+    @Override
+    public int longSlots() {
+        return 1;
+    }
+
+    @Override
+    public int doubleSlots() {
+        return 0;
+    }
+
+    @Override
+    public void iterate(AggregationSlots slots, int ordinal, Input... args) {
+        if (!hasArgs || args[0].value() != null) {
+            slots.addLong(ordinal, 0, 1L);
+        }
+    }
+
+    @Override
+    public void reduce(AggregationSlots slots, int ordinal, Long partial) {
+        if (partial != null) {
+            slots.addLong(ordinal, 0, partial);
+        }
+    }
+
+    @Override
+    public Long partialResult(AggregationSlots slots, int ordinal) {
+        return slots.getLong(ordinal, 0);
+    }
+
+    @Override
+    public Object terminatePartial(AggregationSlots slots, int ordinal) {
+        return slots.getLong(ordinal, 0);
+    }
 }
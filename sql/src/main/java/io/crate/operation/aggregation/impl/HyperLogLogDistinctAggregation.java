@@ -0,0 +1,292 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.aggregation.impl;
+
+import com.google.common.base.Preconditions;
+import io.crate.Streamer;
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.metadata.DynamicFunctionResolver;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionImplementation;
+import io.crate.metadata.FunctionInfo;
+import io.crate.operation.Input;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.types.*;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.hash.MurmurHash3;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.search.aggregations.metrics.cardinality.HyperLogLogPlusPlus;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Approximate count of distinct values using a HyperLogLog++ sketch.
+ *
+ * Unlike <code>count(DISTINCT x)</code> the state has a fixed upper size
+ * (<code>2^precision</code> bytes) no matter how many distinct values are aggregated,
+ * and partial states are streamed in their compact sketch form.
+ */
+public class HyperLogLogDistinctAggregation extends AggregationFunction<HyperLogLogDistinctAggregation.HllState, Long> {
+
+    public static final String NAME = "hyperloglog_distinct";
+
+    /**
+     * default precision, results in a relative error of about 0.8%
+     */
+    public static final int DEFAULT_PRECISION = 14;
+
+    static {
+        DataTypes.register(HllStateType.ID, HllStateType.INSTANCE);
+    }
+
+    private final FunctionInfo info;
+    private final int valueTypeId;
+
+    public static void register(AggregationImplModule mod) {
+        mod.register(NAME, new HyperLogLogDistinctResolver());
+    }
+
+    static class HyperLogLogDistinctResolver implements DynamicFunctionResolver {
+
+        @Override
+        public FunctionImplementation<Function> getForTypes(List<DataType> dataTypes) throws IllegalArgumentException {
+            Preconditions.checkArgument(dataTypes.size() == 1 || dataTypes.size() == 2,
+                    "%s requires one or two arguments", NAME);
+            Preconditions.checkArgument(DataTypes.PRIMITIVE_TYPES.contains(dataTypes.get(0)),
+                    "%s does not support values of type %s", NAME, dataTypes.get(0).getName());
+            if (dataTypes.size() == 2) {
+                DataType precisionType = dataTypes.get(1);
+                Preconditions.checkArgument(precisionType.equals(DataTypes.INTEGER)
+                                || precisionType.equals(DataTypes.LONG)
+                                || precisionType.equals(DataTypes.SHORT),
+                        "precision argument of %s must be an integer", NAME);
+            }
+            return new HyperLogLogDistinctAggregation(new FunctionInfo(
+                    new FunctionIdent(NAME, dataTypes), DataTypes.LONG, FunctionInfo.Type.AGGREGATE));
+        }
+    }
+
+    public static class HllState implements Comparable<HllState> {
+
+        @Nullable
+        private HyperLogLogPlusPlus sketch;
+
+        public long value() {
+            if (sketch == null) {
+                return 0L;
+            }
+            return sketch.cardinality(0);
+        }
+
+        @Override
+        public int compareTo(HllState o) {
+            if (o == null) {
+                return 1;
+            }
+            return Long.compare(value(), o.value());
+        }
+    }
+
+    public static class HllStateType extends DataType<HllState>
+            implements Streamer<HllState>, DataTypeFactory {
+
+        public static final int ID = 16384;
+        public static final HllStateType INSTANCE = new HllStateType();
+
+        @Override
+        public int id() {
+            return ID;
+        }
+
+        @Override
+        public String getName() {
+            return "hyperloglog_state";
+        }
+
+        @Override
+        public Streamer<?> streamer() {
+            return this;
+        }
+
+        @Override
+        public HllState value(Object value) throws IllegalArgumentException, ClassCastException {
+            return (HllState) value;
+        }
+
+        @Override
+        public int compareValueTo(HllState val1, HllState val2) {
+            if (val1 == null) return -1;
+            return val1.compareTo(val2);
+        }
+
+        @Override
+        public DataType<?> create() {
+            return INSTANCE;
+        }
+
+        @Override
+        public HllState readValueFrom(StreamInput in) throws IOException {
+            HllState state = new HllState();
+            if (in.readBoolean()) {
+                state.sketch = HyperLogLogPlusPlus.readFrom(in, BigArrays.NON_RECYCLING_INSTANCE);
+            }
+            return state;
+        }
+
+        @Override
+        public void writeValueTo(StreamOutput out, Object v) throws IOException {
+            HllState state = (HllState) v;
+            out.writeBoolean(state.sketch != null);
+            if (state.sketch != null) {
+                state.sketch.writeTo(0, out);
+            }
+        }
+    }
+
+    HyperLogLogDistinctAggregation(FunctionInfo info) {
+        this.info = info;
+        this.valueTypeId = info.ident().argumentTypes().get(0).id();
+    }
+
+    @Override
+    public Symbol normalizeSymbol(Function symbol) {
+        if (symbol.arguments().size() == 2) {
+            Symbol precision = symbol.arguments().get(1);
+            if (!precision.symbolType().isValueSymbol()) {
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                        "precision argument of %s must be a literal", NAME));
+            }
+            precision(((Input) precision).value());
+        }
+        return symbol;
+    }
+
+    private static int precision(@Nullable Object value) {
+        if (value == null) {
+            return DEFAULT_PRECISION;
+        }
+        int precision = ((Number) value).intValue();
+        if (precision < HyperLogLogPlusPlus.MIN_PRECISION || precision > HyperLogLogPlusPlus.MAX_PRECISION) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                    "precision of %s must be between %d and %d", NAME,
+                    HyperLogLogPlusPlus.MIN_PRECISION, HyperLogLogPlusPlus.MAX_PRECISION));
+        }
+        return precision;
+    }
+
+    @Nullable
+    @Override
+    public HllState newState(RamAccountingContext ramAccountingContext) {
+        // the sketch is created lazily on the first value as the precision is an argument
+        ramAccountingContext.addBytes(16L);
+        return new HllState();
+    }
+
+    @Override
+    public HllState iterate(RamAccountingContext ramAccountingContext, HllState state, Input... args) {
+        Object value = args[0].value();
+        if (value == null) {
+            return state;
+        }
+        if (state.sketch == null) {
+            int precision = precision(args.length > 1 ? args[1].value() : null);
+            state.sketch = newSketch(ramAccountingContext, precision);
+        }
+        state.sketch.collect(0, hash(value));
+        return state;
+    }
+
+    private static HyperLogLogPlusPlus newSketch(RamAccountingContext ramAccountingContext, int precision) {
+        // a sketch never grows beyond 2^precision registers of 1 byte
+        ramAccountingContext.addBytes(1L << precision);
+        return new HyperLogLogPlusPlus(precision, BigArrays.NON_RECYCLING_INSTANCE, 1);
+    }
+
+    private long hash(Object value) {
+        switch (valueTypeId) {
+            case StringType.ID:
+            case IpType.ID:
+                BytesRef bytesRef = value instanceof BytesRef
+                        ? (BytesRef) value
+                        : new BytesRef(value.toString());
+                return MurmurHash3.hash128(bytesRef.bytes, bytesRef.offset, bytesRef.length, 0,
+                        new MurmurHash3.Hash128()).h1;
+            case DoubleType.ID:
+            case FloatType.ID:
+                return mix64(Double.doubleToLongBits(((Number) value).doubleValue()));
+            case BooleanType.ID:
+                return mix64((Boolean) value ? 1L : 0L);
+            default:
+                return mix64(((Number) value).longValue());
+        }
+    }
+
+    /**
+     * finalization step of murmur3, spreads the bits of a long value over the whole hash
+     */
+    private static long mix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    @Override
+    public HllState reduce(RamAccountingContext ramAccountingContext, HllState state1, HllState state2) {
+        if (state1 == null || state1.sketch == null) {
+            if (state2 != null && state2.sketch != null) {
+                ramAccountingContext.addBytes(1L << state2.sketch.precision());
+            }
+            return state2;
+        }
+        if (state2 == null || state2.sketch == null) {
+            return state1;
+        }
+        state1.sketch.merge(0, state2.sketch, 0);
+        return state1;
+    }
+
+    @Override
+    public Long terminatePartial(RamAccountingContext ramAccountingContext, HllState state) {
+        return state.value();
+    }
+
+    @Override
+    public DataType partialType() {
+        return HllStateType.INSTANCE;
+    }
+
+    @Override
+    public FunctionInfo info() {
+        return info;
+    }
+}
@@ -29,6 +29,8 @@ import io.crate.metadata.FunctionIdent;
 import io.crate.metadata.FunctionInfo;
 import io.crate.operation.Input;
 import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.AggregationSlots;
+import io.crate.operation.aggregation.SlotAggregationFunction;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import io.crate.types.FixedWidthType;
@@ -45,7 +47,9 @@ public abstract class MaximumAggregation extends AggregationFunction<Comparable,
             FunctionInfo functionInfo = new FunctionInfo(
                     new FunctionIdent(NAME, ImmutableList.of(dataType)), dataType, FunctionInfo.Type.AGGREGATE);
 
-            if (dataType instanceof FixedWidthType) {
+            if (PrimitiveSlots.supports(dataType)) {
+                mod.register(new PrimitiveMaximumAggregation(functionInfo));
+            } else if (dataType instanceof FixedWidthType) {
                 mod.register(new FixedMaximumAggregation(functionInfo));
             } else {
                 mod.register(new VariableMaximumAggregation(functionInfo));
@@ -116,6 +120,63 @@ public abstract class MaximumAggregation extends AggregationFunction<Comparable,
         }
     }
 
+    /**
+     * Maximum aggregation on numeric or timestamp values which keeps its state in primitive slots
+     */
+    private static class PrimitiveMaximumAggregation extends FixedMaximumAggregation implements SlotAggregationFunction<Comparable> {
+
+        private final PrimitiveSlots primitiveSlots;
+
+        PrimitiveMaximumAggregation(FunctionInfo info) {
+            super(info);
+            primitiveSlots = new PrimitiveSlots(partialType());
+        }
+
+        @Override
+        public int longSlots() {
+            return primitiveSlots.longSlots();
+        }
+
+        @Override
+        public int doubleSlots() {
+            return primitiveSlots.doubleSlots();
+        }
+
+        @Override
+        public void iterate(AggregationSlots slots, int ordinal, Input... args) {
+            reduce(slots, ordinal, (Comparable) args[0].value());
+        }
+
+        @Override
+        public void reduce(AggregationSlots slots, int ordinal, Comparable partial) {
+            if (partial == null) {
+                return;
+            }
+            Number value = (Number) partial;
+            if (primitiveSlots.isFloatingPoint()) {
+                double doubleValue = value.doubleValue();
+                if (!primitiveSlots.hasValue(slots, ordinal) || Double.compare(doubleValue, slots.getDouble(ordinal, 0)) > 0) {
+                    primitiveSlots.setValue(slots, ordinal, doubleValue);
+                }
+            } else {
+                long longValue = value.longValue();
+                if (!primitiveSlots.hasValue(slots, ordinal) || longValue > slots.getLong(ordinal, PrimitiveSlots.VALUE)) {
+                    primitiveSlots.setValue(slots, ordinal, longValue);
+                }
+            }
+        }
+
+        @Override
+        public Comparable partialResult(AggregationSlots slots, int ordinal) {
+            return primitiveSlots.value(slots, ordinal);
+        }
+
+        @Override
+        public Object terminatePartial(AggregationSlots slots, int ordinal) {
+            return primitiveSlots.value(slots, ordinal);
+        }
+    }
+
     MaximumAggregation(FunctionInfo info) {
         this.info = info;
     }
@@ -0,0 +1,312 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.aggregation.impl;
+
+import com.google.common.base.Preconditions;
+import io.crate.Streamer;
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.metadata.DynamicFunctionResolver;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionImplementation;
+import io.crate.metadata.FunctionInfo;
+import io.crate.operation.Input;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.types.*;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.search.aggregations.metrics.percentiles.tdigest.TDigestState;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Approximate percentiles using a t-digest.
+ *
+ * The digest has a bounded number of centroids, so every group needs a fixed amount of memory,
+ * and partial digests can be merged on the reducer without transferring the raw values.
+ */
+public class PercentileAggregation extends AggregationFunction<PercentileAggregation.PercentileState, Object> {
+
+    public static final String NAME = "percentile";
+
+    /**
+     * compression of the t-digest, a digest holds at most about 5 * compression centroids
+     */
+    public static final double COMPRESSION = 100.0;
+
+    /**
+     * estimated size of a single centroid in the digest
+     */
+    private static final int CENTROID_SIZE = 40;
+
+    static {
+        DataTypes.register(PercentileStateType.ID, PercentileStateType.INSTANCE);
+    }
+
+    private static final DataType DOUBLE_ARRAY = new ArrayType(DataTypes.DOUBLE);
+
+    private final FunctionInfo info;
+
+    public static void register(AggregationImplModule mod) {
+        mod.register(NAME, new PercentileResolver());
+    }
+
+    static class PercentileResolver implements DynamicFunctionResolver {
+
+        @Override
+        public FunctionImplementation<Function> getForTypes(List<DataType> dataTypes) throws IllegalArgumentException {
+            Preconditions.checkArgument(dataTypes.size() == 2, "%s requires two arguments", NAME);
+            DataType valueType = dataTypes.get(0);
+            Preconditions.checkArgument(DataTypes.NUMERIC_PRIMITIVE_TYPES.contains(valueType)
+                            || valueType.equals(DataTypes.TIMESTAMP),
+                    "%s does not support values of type %s", NAME, valueType.getName());
+
+            DataType fractionType = dataTypes.get(1);
+            DataType returnType;
+            if (fractionType.equals(DataTypes.DOUBLE)) {
+                returnType = DataTypes.DOUBLE;
+            } else if (fractionType instanceof ArrayType
+                       && ((ArrayType) fractionType).innerType().equals(DataTypes.DOUBLE)) {
+                returnType = DOUBLE_ARRAY;
+            } else {
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                        "fraction argument of %s must be a double or an array of doubles", NAME));
+            }
+            return new PercentileAggregation(new FunctionInfo(
+                    new FunctionIdent(NAME, dataTypes), returnType, FunctionInfo.Type.AGGREGATE));
+        }
+    }
+
+    public static class PercentileState implements Comparable<PercentileState> {
+
+        /**
+         * null until the first value is aggregated
+         */
+        @Nullable
+        private double[] fractions;
+        private boolean multipleFractions;
+        private TDigestState digest;
+        private int accountedCentroids = 0;
+
+        @Override
+        public int compareTo(PercentileState o) {
+            if (o == null) {
+                return 1;
+            }
+            long size = digest == null ? 0L : digest.size();
+            long otherSize = o.digest == null ? 0L : o.digest.size();
+            return Long.compare(size, otherSize);
+        }
+    }
+
+    public static class PercentileStateType extends DataType<PercentileState>
+            implements Streamer<PercentileState>, DataTypeFactory {
+
+        public static final int ID = 32768;
+        public static final PercentileStateType INSTANCE = new PercentileStateType();
+
+        @Override
+        public int id() {
+            return ID;
+        }
+
+        @Override
+        public String getName() {
+            return "percentile_state";
+        }
+
+        @Override
+        public Streamer<?> streamer() {
+            return this;
+        }
+
+        @Override
+        public PercentileState value(Object value) throws IllegalArgumentException, ClassCastException {
+            return (PercentileState) value;
+        }
+
+        @Override
+        public int compareValueTo(PercentileState val1, PercentileState val2) {
+            if (val1 == null) return -1;
+            return val1.compareTo(val2);
+        }
+
+        @Override
+        public DataType<?> create() {
+            return INSTANCE;
+        }
+
+        @Override
+        public PercentileState readValueFrom(StreamInput in) throws IOException {
+            PercentileState state = new PercentileState();
+            if (in.readBoolean()) {
+                state.multipleFractions = in.readBoolean();
+                state.fractions = new double[in.readVInt()];
+                for (int i = 0; i < state.fractions.length; i++) {
+                    state.fractions[i] = in.readDouble();
+                }
+                state.digest = TDigestState.read(in);
+            }
+            return state;
+        }
+
+        @Override
+        public void writeValueTo(StreamOutput out, Object v) throws IOException {
+            PercentileState state = (PercentileState) v;
+            out.writeBoolean(state.digest != null);
+            if (state.digest != null) {
+                out.writeBoolean(state.multipleFractions);
+                out.writeVInt(state.fractions.length);
+                for (double fraction : state.fractions) {
+                    out.writeDouble(fraction);
+                }
+                TDigestState.write(state.digest, out);
+            }
+        }
+    }
+
+    PercentileAggregation(FunctionInfo info) {
+        this.info = info;
+    }
+
+    @Override
+    public Symbol normalizeSymbol(Function symbol) {
+        Symbol fractions = symbol.arguments().get(1);
+        if (!fractions.symbolType().isValueSymbol()) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                    "fraction argument of %s must be a literal", NAME));
+        }
+        fractions(((Input) fractions).value());
+        return symbol;
+    }
+
+    private static double[] fractions(@Nullable Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                    "fraction argument of %s must not be null", NAME));
+        }
+        double[] fractions;
+        if (value instanceof Object[]) {
+            Object[] values = (Object[]) value;
+            Preconditions.checkArgument(values.length > 0, "fraction argument of %s must not be empty", NAME);
+            fractions = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                fractions[i] = fraction(values[i]);
+            }
+        } else {
+            fractions = new double[]{fraction(value)};
+        }
+        return fractions;
+    }
+
+    private static double fraction(@Nullable Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                    "fraction argument of %s must not contain null", NAME));
+        }
+        double fraction = ((Number) value).doubleValue();
+        if (fraction < 0.0 || fraction > 1.0) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                    "fraction of %s must be between 0 and 1, got %s", NAME, fraction));
+        }
+        return fraction;
+    }
+
+    @Nullable
+    @Override
+    public PercentileState newState(RamAccountingContext ramAccountingContext) {
+        // the digest is created lazily on the first value as the fractions are an argument
+        ramAccountingContext.addBytes(32L);
+        return new PercentileState();
+    }
+
+    @Override
+    public PercentileState iterate(RamAccountingContext ramAccountingContext, PercentileState state, Input... args) {
+        Number value = (Number) args[0].value();
+        if (value == null) {
+            return state;
+        }
+        if (state.digest == null) {
+            Object fractionsValue = args[1].value();
+            state.fractions = fractions(fractionsValue);
+            state.multipleFractions = fractionsValue instanceof Object[];
+            state.digest = new TDigestState(COMPRESSION);
+        }
+        state.digest.add(value.doubleValue());
+        accountCentroids(ramAccountingContext, state);
+        return state;
+    }
+
+    private static void accountCentroids(RamAccountingContext ramAccountingContext, PercentileState state) {
+        int centroids = state.digest.centroidCount();
+        if (centroids > state.accountedCentroids) {
+            ramAccountingContext.addBytes((centroids - state.accountedCentroids) * CENTROID_SIZE);
+            state.accountedCentroids = centroids;
+        }
+    }
+
+    @Override
+    public PercentileState reduce(RamAccountingContext ramAccountingContext, PercentileState state1, PercentileState state2) {
+        if (state1 == null || state1.digest == null) {
+            if (state2 != null && state2.digest != null) {
+                accountCentroids(ramAccountingContext, state2);
+            }
+            return state2;
+        }
+        if (state2 == null || state2.digest == null) {
+            return state1;
+        }
+        state1.digest.add(state2.digest);
+        accountCentroids(ramAccountingContext, state1);
+        return state1;
+    }
+
+    @Override
+    public Object terminatePartial(RamAccountingContext ramAccountingContext, PercentileState state) {
+        if (state.digest == null) {
+            return null;
+        }
+        if (!state.multipleFractions) {
+            return state.digest.quantile(state.fractions[0]);
+        }
+        Object[] percentiles = new Object[state.fractions.length];
+        for (int i = 0; i < state.fractions.length; i++) {
+            percentiles[i] = state.digest.quantile(state.fractions[i]);
+        }
+        return percentiles;
+    }
+
+    @Override
+    public DataType partialType() {
+        return PercentileStateType.INSTANCE;
+    }
+
+    @Override
+    public FunctionInfo info() {
+        return info;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.aggregation.impl;
+
+import io.crate.operation.aggregation.AggregationSlots;
+import io.crate.types.*;
+
+/**
+ * Slot layout for aggregations which keep a single numeric or timestamp value per group.
+ *
+ * The first long slot flags if the group has a value at all,
+ * the value itself is stored in a second long slot or, for floating point types, in a double slot.
+ */
+class PrimitiveSlots {
+
+    static final int HAS_VALUE = 0;
+    static final int VALUE = 1;
+
+    private final DataType type;
+    private final boolean floatingPoint;
+
+    PrimitiveSlots(DataType type) {
+        assert supports(type) : "type must be numeric or timestamp";
+        this.type = type;
+        this.floatingPoint = type.id() == DoubleType.ID || type.id() == FloatType.ID;
+    }
+
+    static boolean supports(DataType type) {
+        return DataTypes.NUMERIC_PRIMITIVE_TYPES.contains(type) || type.id() == TimestampType.ID;
+    }
+
+    boolean isFloatingPoint() {
+        return floatingPoint;
+    }
+
+    int longSlots() {
+        return floatingPoint ? 1 : 2;
+    }
+
+    int doubleSlots() {
+        return floatingPoint ? 1 : 0;
+    }
+
+    boolean hasValue(AggregationSlots slots, int ordinal) {
+        return slots.getLong(ordinal, HAS_VALUE) == 1L;
+    }
+
+    void setValue(AggregationSlots slots, int ordinal, long value) {
+        slots.setLong(ordinal, HAS_VALUE, 1L);
+        slots.setLong(ordinal, VALUE, value);
+    }
+
+    void setValue(AggregationSlots slots, int ordinal, double value) {
+        slots.setLong(ordinal, HAS_VALUE, 1L);
+        slots.setDouble(ordinal, 0, value);
+    }
+
+    /**
+     * @return the value of the group converted to the java type of the data type, or null if it has no value
+     */
+    Comparable value(AggregationSlots slots, int ordinal) {
+        if (!hasValue(slots, ordinal)) {
+            return null;
+        }
+        if (floatingPoint) {
+            return (Comparable) type.value(slots.getDouble(ordinal, 0));
+        }
+        return (Comparable) type.value(slots.getLong(ordinal, VALUE));
+    }
+}
@@ -28,11 +28,15 @@ import io.crate.metadata.FunctionIdent;
 import io.crate.metadata.FunctionInfo;
 import io.crate.operation.Input;
 import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.AggregationSlots;
+import io.crate.operation.aggregation.SlotAggregationFunction;
 import io.crate.operation.aggregation.statistics.moment.StandardDeviation;
+import io.crate.operation.aggregation.statistics.moment.Variance;
 import io.crate.types.DataType;
 import io.crate.types.DataTypeFactory;
 import io.crate.types.DataTypes;
 import io.crate.types.FixedWidthType;
+import org.apache.commons.math3.util.FastMath;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -40,7 +44,8 @@ import org.elasticsearch.common.io.stream.StreamOutput;
 import javax.annotation.Nullable;
 import java.io.IOException;
 
-public class StandardDeviationAggregation extends AggregationFunction<StandardDeviationAggregation.StdDevState, Double> {
+public class StandardDeviationAggregation extends AggregationFunction<StandardDeviationAggregation.StdDevState, Double>
+        implements SlotAggregationFunction<StandardDeviationAggregation.StdDevState> {
 
     public static final String NAME = "stddev";
 
@@ -178,6 +183,52 @@ public class StandardDeviationAggregation extends AggregationFunction<StandardDe
         return state.value();
     }
 
+    @Override
+    public int longSlots() {
+        // count
+        return 1;
+    }
+
+    @Override
+    public int doubleSlots() {
+        // sum of squares, sum
+        return 2;
+    }
+
+    @Override
+    public void iterate(AggregationSlots slots, int ordinal, Input... args) {
+        Number value = (Number) args[0].value();
+        if (value != null) {
+            double doubleValue = value.doubleValue();
+            slots.addDouble(ordinal, 0, doubleValue * doubleValue);
+            slots.addDouble(ordinal, 1, doubleValue);
+            slots.addLong(ordinal, 0, 1L);
+        }
+    }
+
+    @Override
+    public void reduce(AggregationSlots slots, int ordinal, StdDevState partial) {
+        if (partial != null) {
+            slots.addDouble(ordinal, 0, partial.stdDev.sumOfSqrs());
+            slots.addDouble(ordinal, 1, partial.stdDev.sum());
+            slots.addLong(ordinal, 0, partial.stdDev.count());
+        }
+    }
+
+    @Override
+    public StdDevState partialResult(AggregationSlots slots, int ordinal) {
+        StdDevState state = new StdDevState();
+        state.stdDev.merge(slots.getDouble(ordinal, 0), slots.getDouble(ordinal, 1), slots.getLong(ordinal, 0));
+        return state;
+    }
+
+    @Override
+    public Object terminatePartial(AggregationSlots slots, int ordinal) {
+        double result = FastMath.sqrt(
+                Variance.result(slots.getDouble(ordinal, 0), slots.getDouble(ordinal, 1), slots.getLong(ordinal, 0)));
+        return (Double.isNaN(result) ? null : result);
+    }
+
     @Override
     public DataType partialType() {
         return StdDevStateType.INSTANCE;
@@ -27,11 +27,13 @@ import io.crate.metadata.FunctionIdent;
 import io.crate.metadata.FunctionInfo;
 import io.crate.operation.Input;
 import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.AggregationSlots;
+import io.crate.operation.aggregation.SlotAggregationFunction;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
 
-public class SumAggregation extends AggregationFunction<Double, Double> {
+public class SumAggregation extends AggregationFunction<Double, Double> implements SlotAggregationFunction<Double> {
 
     public static final String NAME = "sum";
 
@@ -76,6 +78,47 @@ public class SumAggregation extends AggregationFunction<Double, Double> {
         return null;
     }
 
+    @Override
+    public int longSlots() {
+        // 1 if any value has been summed up
+        return 1;
+    }
+
+    @Override
+    public int doubleSlots() {
+        return 1;
+    }
+
+    @Override
+    public void iterate(AggregationSlots slots, int ordinal, Input... args) {
+        Object value = args[0].value();
+        if (value != null) {
+            slots.setLong(ordinal, 0, 1L);
+            slots.addDouble(ordinal, 0, DataTypes.DOUBLE.value(value));
+        }
+    }
+
+    @Override
+    public void reduce(AggregationSlots slots, int ordinal, Double partial) {
+        if (partial != null) {
+            slots.setLong(ordinal, 0, 1L);
+            slots.addDouble(ordinal, 0, partial);
+        }
+    }
+
+    @Override
+    public Double partialResult(AggregationSlots slots, int ordinal) {
+        if (slots.getLong(ordinal, 0) == 0L) {
+            return null;
+        }
+        return slots.getDouble(ordinal, 0);
+    }
+
+    @Override
+    public Object terminatePartial(AggregationSlots slots, int ordinal) {
+        return partialResult(slots, ordinal);
+    }
+
     @Override
     public DataType partialType() {
         return info.returnType();
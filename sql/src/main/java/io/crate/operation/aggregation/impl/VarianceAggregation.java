@@ -28,6 +28,8 @@ import io.crate.metadata.FunctionIdent;
 import io.crate.metadata.FunctionInfo;
 import io.crate.operation.Input;
 import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.AggregationSlots;
+import io.crate.operation.aggregation.SlotAggregationFunction;
 import io.crate.operation.aggregation.statistics.moment.Variance;
 import io.crate.types.DataType;
 import io.crate.types.DataTypeFactory;
@@ -41,7 +43,8 @@ import javax.annotation.Nullable;
 import java.io.IOException;
 
 
-public class VarianceAggregation extends AggregationFunction<VarianceAggregation.VarianceState, Double> {
+public class VarianceAggregation extends AggregationFunction<VarianceAggregation.VarianceState, Double>
+        implements SlotAggregationFunction<VarianceAggregation.VarianceState> {
 
     public static final String NAME = "variance";
 
@@ -180,6 +183,51 @@ public class VarianceAggregation extends AggregationFunction<VarianceAggregation
         return state.value();
     }
 
+    @Override
+    public int longSlots() {
+        // count
+        return 1;
+    }
+
+    @Override
+    public int doubleSlots() {
+        // sum of squares, sum
+        return 2;
+    }
+
+    @Override
+    public void iterate(AggregationSlots slots, int ordinal, Input... args) {
+        Number value = (Number) args[0].value();
+        if (value != null) {
+            double doubleValue = value.doubleValue();
+            slots.addDouble(ordinal, 0, doubleValue * doubleValue);
+            slots.addDouble(ordinal, 1, doubleValue);
+            slots.addLong(ordinal, 0, 1L);
+        }
+    }
+
+    @Override
+    public void reduce(AggregationSlots slots, int ordinal, VarianceState partial) {
+        if (partial != null) {
+            slots.addDouble(ordinal, 0, partial.variance.sumOfSqrs());
+            slots.addDouble(ordinal, 1, partial.variance.sum());
+            slots.addLong(ordinal, 0, partial.variance.count());
+        }
+    }
+
+    @Override
+    public VarianceState partialResult(AggregationSlots slots, int ordinal) {
+        VarianceState state = new VarianceState();
+        state.variance.merge(slots.getDouble(ordinal, 0), slots.getDouble(ordinal, 1), slots.getLong(ordinal, 0));
+        return state;
+    }
+
+    @Override
+    public Object terminatePartial(AggregationSlots slots, int ordinal) {
+        double result = Variance.result(slots.getDouble(ordinal, 0), slots.getDouble(ordinal, 1), slots.getLong(ordinal, 0));
+        return (Double.isNaN(result) ? null : result);
+    }
+
     @Override
     public DataType partialType() {
         return VarianceStateType.INSTANCE;
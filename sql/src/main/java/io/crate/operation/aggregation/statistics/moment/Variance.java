@@ -46,6 +46,13 @@ public class Variance implements Streamable {
     }
 
     public synchronized double result() {
+        return result(sumOfSqrs, sum, count);
+    }
+
+    /**
+     * computes the variance from its moments, NaN if count is 0
+     */
+    public static double result(double sumOfSqrs, double sum, long count) {
         if (count == 0) {
             return Double.NaN;
         }
@@ -53,9 +60,25 @@ public class Variance implements Streamable {
     }
 
     public void merge(Variance other) {
-        sumOfSqrs += other.sumOfSqrs;
-        sum += other.sum;
-        count += other.count;
+        merge(other.sumOfSqrs, other.sum, other.count);
+    }
+
+    public void merge(double sumOfSqrs, double sum, long count) {
+        this.sumOfSqrs += sumOfSqrs;
+        this.sum += sum;
+        this.count += count;
+    }
+
+    public double sumOfSqrs() {
+        return sumOfSqrs;
+    }
+
+    public double sum() {
+        return sum;
+    }
+
+    public long count() {
+        return count;
     }
 
     @Override
@@ -32,6 +32,7 @@ import io.crate.breaker.RamAccountingContext;
 import io.crate.jobs.AbstractExecutionSubContext;
 import io.crate.jobs.ExecutionState;
 import io.crate.jobs.KeepAliveListener;
+import io.crate.operation.profile.PhaseProfiler;
 import io.crate.operation.projectors.ListenableRowReceiver;
 import io.crate.operation.projectors.RowReceiver;
 import io.crate.operation.projectors.RowReceivers;
@@ -54,6 +55,8 @@ public class JobCollectContext extends AbstractExecutionSubContext implements Ex
     private final IntObjectOpenHashMap<CrateSearchContext> searchContexts = new IntObjectOpenHashMap<>();
     private final Object subContextLock = new Object();
     private final ListenableRowReceiver listenableRowReceiver;
+    @Nullable
+    private final PhaseProfiler profiler;
 
     private Collection<CrateCollector> collectors;
 
@@ -62,11 +65,21 @@ public class JobCollectContext extends AbstractExecutionSubContext implements Ex
                              RamAccountingContext queryPhaseRamAccountingContext,
                              final RowReceiver rowReceiver,
                              SharedShardContexts sharedShardContexts) {
+        this(collectPhase, collectOperation, queryPhaseRamAccountingContext, rowReceiver, sharedShardContexts, null);
+    }
+
+    public JobCollectContext(final CollectPhase collectPhase,
+                             MapSideDataCollectOperation collectOperation,
+                             RamAccountingContext queryPhaseRamAccountingContext,
+                             final RowReceiver rowReceiver,
+                             SharedShardContexts sharedShardContexts,
+                             @Nullable PhaseProfiler profiler) {
         super(collectPhase.executionPhaseId());
         this.collectPhase = collectPhase;
         this.collectOperation = collectOperation;
         this.queryPhaseRamAccountingContext = queryPhaseRamAccountingContext;
         this.sharedShardContexts = sharedShardContexts;
+        this.profiler = profiler;
 
         listenableRowReceiver = RowReceivers.listenableRowReceiver(rowReceiver);
         Futures.addCallback(listenableRowReceiver.finishFuture(), new FutureCallback<Void>() {
@@ -191,6 +204,14 @@ public class JobCollectContext extends AbstractExecutionSubContext implements Ex
         return sharedShardContexts;
     }
 
+    /**
+     * @return the profiler of the collect phase, null if the job isn't profiled
+     */
+    @Nullable
+    public PhaseProfiler profiler() {
+        return profiler;
+    }
+
 
     /**
      * active by default, because as long its operation is running
@@ -28,6 +28,7 @@ import io.crate.analyze.WhereClause;
 import io.crate.jobs.JobContextService;
 import io.crate.lucene.LuceneQueryBuilder;
 import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.Query;
 import org.elasticsearch.cache.recycler.CacheRecycler;
 import org.elasticsearch.cache.recycler.PageCacheRecycler;
 import org.elasticsearch.cluster.ClusterService;
@@ -116,4 +117,16 @@ public class SearchContextFactory {
 
         return searchContext;
     }
+
+    /**
+     * Builds another instance of the query of a search context created by
+     * {@link #createContext(int, IndexShard, Engine.Searcher, WhereClause)}.
+     * Queries may keep per segment state, so every collector which runs concurrently
+     * on the same shard needs its own instance.
+     */
+    public Query createQuery(IndexShard indexShard, WhereClause whereClause) {
+        IndexService indexService = indexShard.indexService();
+        return luceneQueryBuilder.convert(
+                whereClause, indexService.mapperService(), indexService.fieldData(), indexService.cache()).query();
+    }
 }
@@ -40,12 +40,18 @@ import io.crate.operation.Input;
 import io.crate.operation.collect.blobs.BlobDocCollector;
 import io.crate.operation.collect.collectors.CollectorFieldsVisitor;
 import io.crate.operation.collect.collectors.CrateDocCollector;
+import io.crate.operation.collect.collectors.LeafGroups;
 import io.crate.operation.collect.collectors.OrderedDocCollector;
+import io.crate.operation.profile.PhaseProfiler;
+import io.crate.operation.projectors.ProjectorFactory;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
 import io.crate.operation.projectors.RowReceiver;
 import io.crate.operation.projectors.ShardProjectorChain;
+import io.crate.operation.projectors.SortRunDirectory;
 import io.crate.operation.reference.doc.lucene.CollectorContext;
 import io.crate.planner.node.dql.CollectPhase;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.search.Query;
 import org.elasticsearch.action.bulk.BulkRetryCoordinatorPool;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.common.inject.Inject;
@@ -56,11 +62,12 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.fielddata.IndexFieldDataService;
 import org.elasticsearch.index.mapper.MapperService;
-import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Executor;
 
@@ -89,6 +96,7 @@ public class ShardCollectService {
                                Settings settings,
                                TransportActionProvider transportActionProvider,
                                BulkRetryCoordinatorPool bulkRetryCoordinatorPool,
+                               SortRunDirectory sortRunDirectory,
                                ShardId shardId,
                                Functions functions,
                                ShardReferenceResolver referenceResolver,
@@ -121,6 +129,7 @@ public class ShardCollectService {
                 settings,
                 transportActionProvider,
                 bulkRetryCoordinatorPool,
+                sortRunDirectory,
                 shardImplementationSymbolVisitor,
                 shardNormalizer,
                 shardId
@@ -147,31 +156,57 @@ public class ShardCollectService {
     }
 
     /**
-     * get a collector
+     * prepare the collectors for this shard
+     *
+     * The segments of the shard are split into groups right away, so the number of collectors is known
+     * before the projector chain their rows are merged into is created.
      *
      * @param collectPhase describes the collectOperation
-     * @param projectorChain the shard projector chain to get the downstream from
-     * @return collector wrapping different collect implementations, call {@link io.crate.operation.collect.CrateCollector#doCollect()} )} to start
-     * collecting with this collector
+     * @param maxCollectors the maximum number of collectors which may collect the segments of this shard concurrently
+     * @return the prepared collectors, call {@link DocCollectors#create(ShardProjectorChain)} to create them
      */
-    public CrateCollector getDocCollector(CollectPhase collectPhase,
-                                          ShardProjectorChain projectorChain,
-                                          JobCollectContext jobCollectContext) throws Exception {
-        assert collectPhase.orderBy() == null : "getDocCollector shouldn't be called if there is an orderBy on the collectPhase";
+    public DocCollectors prepareDocCollectors(CollectPhase collectPhase,
+                                              JobCollectContext jobCollectContext,
+                                              int maxCollectors) throws Exception {
+        assert collectPhase.orderBy() == null : "prepareDocCollectors shouldn't be called if there is an orderBy on the collectPhase";
         CollectPhase normalizedCollectNode = collectPhase.normalize(shardNormalizer);
 
         if (normalizedCollectNode.whereClause().noMatch()) {
-            RowReceiver downstream = projectorChain.newShardDownstreamProjector(projectorVisitor);
-            return RowsCollector.empty(downstream);
+            return new DocCollectors(normalizedCollectNode, jobCollectContext, null, null);
         }
 
         assert normalizedCollectNode.maxRowGranularity() == RowGranularity.DOC : "granularity must be DOC";
         if (isBlobShard) {
-            RowReceiver downstream = projectorChain.newShardDownstreamProjector(projectorVisitor);
-            return getBlobIndexCollector(normalizedCollectNode, downstream);
-        } else {
-            return getLuceneIndexCollector(threadPool, normalizedCollectNode, projectorChain, jobCollectContext);
+            return new DocCollectors(normalizedCollectNode, jobCollectContext, null, null);
         }
+
+        SharedShardContext sharedShardContext = jobCollectContext.sharedShardContexts().getOrCreateContext(shardId);
+        Engine.Searcher searcher = sharedShardContext.searcher();
+        CrateSearchContext searchContext = null;
+        try {
+            searchContext = searchContextFactory.createContext(
+                    sharedShardContext.readerId(),
+                    sharedShardContext.indexShard(),
+                    searcher,
+                    normalizedCollectNode.whereClause()
+            );
+            jobCollectContext.addSearchContext(sharedShardContext.readerId(), searchContext);
+        } catch (Throwable t) {
+            if (searchContext == null) {
+                searcher.close();
+            } else {
+                searchContext.close(); // will close searcher too
+            }
+            throw t;
+        }
+        // the search context is registered on the jobCollectContext which closes it from now on
+        List<List<AtomicReaderContext>> leafGroups =
+                LeafGroups.group(searchContext.searcher().getTopReaderContext().leaves(), maxCollectors);
+        return new DocCollectors(normalizedCollectNode, jobCollectContext, searchContext, leafGroups);
+    }
+
+    private ProjectorFactory projectorFactory(JobCollectContext jobCollectContext) {
+        return PhaseProfiler.projectorFactory(jobCollectContext.profiler(), projectorVisitor);
     }
 
     private CrateCollector getBlobIndexCollector(CollectPhase collectNode, RowReceiver downstream) {
@@ -191,41 +226,76 @@ public class ShardCollectService {
         );
     }
 
-    private CrateCollector getLuceneIndexCollector(ThreadPool threadPool,
-                                                   final CollectPhase collectNode,
-                                                   final ShardProjectorChain projectorChain,
-                                                   final JobCollectContext jobCollectContext) throws Exception {
-        SharedShardContext sharedShardContext = jobCollectContext.sharedShardContexts().getOrCreateContext(shardId);
-        Engine.Searcher searcher = sharedShardContext.searcher();
-        IndexShard indexShard = sharedShardContext.indexShard();
-        CrateSearchContext searchContext = null;
-        try {
-             searchContext = searchContextFactory.createContext(
-                    sharedShardContext.readerId(),
-                    indexShard,
-                    searcher,
-                    collectNode.whereClause()
-            );
-            jobCollectContext.addSearchContext(sharedShardContext.readerId(), searchContext);
-            CollectInputSymbolVisitor.Context docCtx = docInputSymbolVisitor.extractImplementations(collectNode);
-            Executor executor = threadPool.executor(ThreadPool.Names.SEARCH);
+    /**
+     * The collectors of a shard whose number is already known but which aren't connected to a downstream yet.
+     */
+    public class DocCollectors {
 
-            return new CrateDocCollector(
-                    searchContext,
-                    executor,
-                    jobCollectContext.keepAliveListener(),
-                    jobCollectContext.queryPhaseRamAccountingContext(),
-                    projectorChain.newShardDownstreamProjector(projectorVisitor),
-                    docCtx.topLevelInputs(),
-                    docCtx.docLevelExpressions()
-            );
-        } catch (Throwable t) {
+        private final CollectPhase collectNode;
+        private final JobCollectContext jobCollectContext;
+        @Nullable
+        private final CrateSearchContext searchContext;
+        @Nullable
+        private final List<List<AtomicReaderContext>> leafGroups;
+
+        private DocCollectors(CollectPhase collectNode,
+                              JobCollectContext jobCollectContext,
+                              @Nullable CrateSearchContext searchContext,
+                              @Nullable List<List<AtomicReaderContext>> leafGroups) {
+            this.collectNode = collectNode;
+            this.jobCollectContext = jobCollectContext;
+            this.searchContext = searchContext;
+            this.leafGroups = leafGroups;
+        }
+
+        /**
+         * @return the number of collectors {@link #create(ShardProjectorChain)} will return
+         */
+        public int size() {
+            return leafGroups == null ? 1 : leafGroups.size();
+        }
+
+        /**
+         * @param projectorChain the shard projector chain to get the downstreams from, every collector gets its own
+         * @return collectors wrapping different collect implementations, call {@link io.crate.operation.collect.CrateCollector#doCollect()} )} to start
+         * collecting with these collectors
+         */
+        public List<CrateCollector> create(ShardProjectorChain projectorChain) throws Exception {
+            if (collectNode.whereClause().noMatch()) {
+                RowReceiver downstream = projectorChain.newShardDownstreamProjector(projectorFactory(jobCollectContext));
+                return Collections.<CrateCollector>singletonList(RowsCollector.empty(downstream));
+            }
             if (searchContext == null) {
-                searcher.close();
-            } else {
-                searchContext.close(); // will close searcher too
+                RowReceiver downstream = projectorChain.newShardDownstreamProjector(projectorFactory(jobCollectContext));
+                return Collections.singletonList(getBlobIndexCollector(collectNode, downstream));
             }
-            throw t;
+            assert leafGroups != null : "leafGroups must not be null if there is a searchContext";
+
+            Executor executor = threadPool.executor(ThreadPool.Names.SEARCH);
+            CrateDocCollector.ShardCollectors shardCollectors = new CrateDocCollector.ShardCollectors(leafGroups.size());
+            List<CrateCollector> collectors = new ArrayList<>(leafGroups.size());
+            for (List<AtomicReaderContext> leafGroup : leafGroups) {
+                Query query = collectors.isEmpty()
+                        ? searchContext.query()
+                        : searchContextFactory.createQuery(searchContext.indexShard(), collectNode.whereClause());
+                CollectInputSymbolVisitor.Context docCtx = docInputSymbolVisitor.extractImplementations(collectNode);
+                collectors.add(new CrateDocCollector(
+                        searchContext,
+                        query,
+                        leafGroup,
+                        shardCollectors,
+                        executor,
+                        jobCollectContext.keepAliveListener(),
+                        jobCollectContext.queryPhaseRamAccountingContext(),
+                        projectorChain.newShardDownstreamProjector(projectorFactory(jobCollectContext)),
+                        docCtx.topLevelInputs(),
+                        docCtx.docLevelExpressions()
+                ));
+            }
+            if (LOGGER.isTraceEnabled() && collectors.size() > 1) {
+                LOGGER.trace("[{}] collecting {} segment groups concurrently", shardId, collectors.size());
+            }
+            return collectors;
         }
     }
 
@@ -27,18 +27,22 @@ import io.crate.breaker.CrateCircuitBreakerService;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.core.collections.Row;
 import io.crate.jobs.KeepAliveListener;
+import io.crate.operation.ColumnBatch;
 import io.crate.operation.Input;
 import io.crate.operation.InputRow;
 import io.crate.operation.collect.CollectionFinishedEarlyException;
 import io.crate.operation.collect.CollectionPauseException;
 import io.crate.operation.collect.CrateCollector;
 import io.crate.operation.collect.UnexpectedCollectionTerminatedException;
+import io.crate.operation.projectors.BatchRowReceiver;
 import io.crate.operation.projectors.RowReceiver;
 import io.crate.operation.reference.doc.lucene.CollectorContext;
+import io.crate.operation.reference.doc.lucene.ColumnVectorExpression;
 import io.crate.operation.reference.doc.lucene.LuceneCollectorExpression;
 import org.apache.lucene.index.AtomicReaderContext;
 import org.apache.lucene.search.BulkScorer;
 import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.Weight;
 import org.elasticsearch.common.logging.ESLogger;
@@ -53,6 +57,7 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CrateDocCollector implements CrateCollector {
 
@@ -60,13 +65,25 @@ public class CrateDocCollector implements CrateCollector {
 
     private final CollectorContext collectorContext;
     private final CrateSearchContext searchContext;
+    private final Query query;
+    private final List<AtomicReaderContext> leaves;
+    private final ShardCollectors shardCollectors;
     private final RowReceiver rowReceiver;
     private final Collection<? extends LuceneCollectorExpression<?>> expressions;
+    private final LuceneDocCollector docCollector;
     private final Collector luceneCollector;
     private final TopRowUpstream upstreamState;
     private final State state = new State();
 
+    /**
+     * @param query the query to collect, must not be used by any other collector
+     * @param leaves the leaves of the shard this collector is responsible for
+     * @param shardCollectors shared by all collectors which collect leaves of the same shard
+     */
     public CrateDocCollector(final CrateSearchContext searchContext,
+                             Query query,
+                             final List<AtomicReaderContext> leaves,
+                             ShardCollectors shardCollectors,
                              Executor executor,
                              KeepAliveListener keepAliveListener,
                              RamAccountingContext ramAccountingContext,
@@ -74,6 +91,9 @@ public class CrateDocCollector implements CrateCollector {
                              List<Input<?>> inputs,
                              Collection<? extends LuceneCollectorExpression<?>> expressions) {
         this.searchContext = searchContext;
+        this.query = query;
+        this.leaves = leaves;
+        this.shardCollectors = shardCollectors;
         this.rowReceiver = rowReceiver;
         upstreamState = new TopRowUpstream(
                 executor,
@@ -88,10 +108,9 @@ public class CrateDocCollector implements CrateCollector {
                     @Override
                     public void run() {
                         debugLog("repeat collect");
-                        ContextIndexSearcher indexSearcher = searchContext.searcher();
-                        indexSearcher.inStage(ContextIndexSearcher.Stage.MAIN_QUERY);
-                        Iterator<AtomicReaderContext> iterator = indexSearcher.getTopReaderContext().leaves().iterator();
-                        innerCollect(state.collector, state.weight, iterator, null);
+                        CrateDocCollector.this.shardCollectors.repeat();
+                        searchContext.searcher().inStage(ContextIndexSearcher.Stage.MAIN_QUERY);
+                        innerCollect(state.collector, state.weight, leaves.iterator(), null);
                     }
                 }
         );
@@ -104,20 +123,49 @@ public class CrateDocCollector implements CrateCollector {
                 ((int) searchContext.id())
         );
         rowReceiver.setUpstream(upstreamState);
-        Collector collector = new LuceneDocCollector(
+        docCollector = new LuceneDocCollector(
                 keepAliveListener,
                 ramAccountingContext,
                 upstreamState,
                 rowReceiver,
                 new InputRow(inputs),
-                expressions
+                expressions,
+                columnVectorExpressions(rowReceiver, inputs, expressions)
         );
+        Collector collector = docCollector;
         if (searchContext.minimumScore() != null) {
             collector = new MinimumScoreCollector(collector, searchContext.minimumScore());
         }
         luceneCollector = collector;
     }
 
+    /**
+     * @return the inputs as ColumnVectorExpressions if the rows can be collected in batches, otherwise null
+     */
+    @Nullable
+    private static ColumnVectorExpression[] columnVectorExpressions(RowReceiver rowReceiver,
+                                                                    List<Input<?>> inputs,
+                                                                    Collection<? extends LuceneCollectorExpression<?>> expressions) {
+        if (!(rowReceiver instanceof BatchRowReceiver) || inputs.isEmpty()) {
+            return null;
+        }
+        ColumnVectorExpression[] vectorExpressions = new ColumnVectorExpression[inputs.size()];
+        for (int i = 0; i < vectorExpressions.length; i++) {
+            Input<?> input = inputs.get(i);
+            if (!(input instanceof ColumnVectorExpression)) {
+                return null;
+            }
+            vectorExpressions[i] = (ColumnVectorExpression) input;
+        }
+        // all expressions must be read in batches, otherwise their per document state would be missing
+        for (LuceneCollectorExpression<?> expression : expressions) {
+            if (!inputs.contains(expression)) {
+                return null;
+            }
+        }
+        return vectorExpressions;
+    }
+
     private void debugLog(String message) {
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("{} {} {}", Thread.currentThread().getName(), searchContext.indexShard().shardId(), message);
@@ -143,10 +191,8 @@ public class CrateDocCollector implements CrateCollector {
         contextIndexSearcher.inStage(ContextIndexSearcher.Stage.MAIN_QUERY);
 
         Weight weight;
-        Iterator<AtomicReaderContext> leavesIt;
         try {
-            weight = searchContext.engineSearcher().searcher().createNormalizedWeight(searchContext.query());
-            leavesIt = contextIndexSearcher.getTopReaderContext().leaves().iterator();
+            weight = searchContext.engineSearcher().searcher().createNormalizedWeight(query);
         } catch (IOException e) {
             fail(e);
             return;
@@ -156,7 +202,7 @@ public class CrateDocCollector implements CrateCollector {
         state.collector = collector;
         state.weight = weight;
 
-        innerCollect(collector, weight, leavesIt, null);
+        innerCollect(collector, weight, leaves.iterator(), null);
     }
 
     private void innerCollect(Collector collector, Weight weight, Iterator<AtomicReaderContext> leavesIt, @Nullable BulkScorer scorer) {
@@ -175,18 +221,23 @@ public class CrateDocCollector implements CrateCollector {
 
     private void fail(Throwable t) {
         debugLog("finished collect with failure");
-        searchContext.searcher().finishStage(ContextIndexSearcher.Stage.MAIN_QUERY);
-        searchContext.clearReleasables(SearchContext.Lifetime.PHASE);
+        finishSearchContext();
         rowReceiver.fail(t);
     }
 
     private void finishCollect() {
         debugLog("finished collect");
-        searchContext.searcher().finishStage(ContextIndexSearcher.Stage.MAIN_QUERY);
-        searchContext.clearReleasables(SearchContext.Lifetime.PHASE);
+        finishSearchContext();
         rowReceiver.finish();
     }
 
+    private void finishSearchContext() {
+        if (shardCollectors.finished()) {
+            searchContext.searcher().finishStage(ContextIndexSearcher.Stage.MAIN_QUERY);
+            searchContext.clearReleasables(SearchContext.Lifetime.PHASE);
+        }
+    }
+
     private Result collectLeaves(Collector collector,
                                  Weight weight,
                                  Iterator<AtomicReaderContext> leaves,
@@ -204,6 +255,8 @@ public class CrateDocCollector implements CrateCollector {
                 }
                 if (processScorer(collector, leaves, scorer)) return Result.PAUSED;
             }
+            // the values of the last buffered documents must be read before the collection resources are released
+            docCollector.flushBatch(false);
         } finally {
             searchContext.clearReleasables(SearchContext.Lifetime.COLLECTION);
         }
@@ -227,6 +280,27 @@ public class CrateDocCollector implements CrateCollector {
         upstreamState.kill(throwable);
     }
 
+    /**
+     * Counts the collectors which concurrently collect the leaves of the same shard.
+     * The search context is only finished once the last of them is done.
+     */
+    public static class ShardCollectors {
+
+        private final AtomicInteger active;
+
+        public ShardCollectors(int numCollectors) {
+            active = new AtomicInteger(numCollectors);
+        }
+
+        void repeat() {
+            active.incrementAndGet();
+        }
+
+        boolean finished() {
+            return active.decrementAndGet() == 0;
+        }
+    }
+
     static class State {
         BulkScorer scorer;
         Iterator<AtomicReaderContext> leaveIt;
@@ -237,6 +311,7 @@ public class CrateDocCollector implements CrateCollector {
     static class LuceneDocCollector extends Collector {
 
         private static final int KEEP_ALIVE_AFTER_ROWS = 1_000_000;
+        private static final int BATCH_SIZE = 1024;
         private final KeepAliveListener keepAliveListener;
         private final RamAccountingContext ramAccountingContext;
         private final TopRowUpstream topRowUpstream;
@@ -244,20 +319,46 @@ public class CrateDocCollector implements CrateCollector {
         private final Row inputRow;
         private final Collection<? extends LuceneCollectorExpression<?>> expressions;
 
+        @Nullable
+        private final ColumnVectorExpression[] vectorExpressions;
+        @Nullable
+        private final ColumnBatch batch;
+        @Nullable
+        private final int[] docIds;
+        private int numDocs = 0;
+
         private int rowCount;
 
+        /**
+         * @param vectorExpressions if not null the documents are collected in batches, the values of
+         *                          the rows are read using these expressions and passed to the rowReceiver
+         *                          which must be a {@link BatchRowReceiver}
+         */
         public LuceneDocCollector(KeepAliveListener keepAliveListener,
                                   RamAccountingContext ramAccountingContext,
                                   TopRowUpstream topRowUpstream,
                                   RowReceiver rowReceiver,
                                   Row inputRow,
-                                  Collection<? extends LuceneCollectorExpression<?>> expressions) {
+                                  Collection<? extends LuceneCollectorExpression<?>> expressions,
+                                  @Nullable ColumnVectorExpression[] vectorExpressions) {
             this.keepAliveListener = keepAliveListener;
             this.ramAccountingContext = ramAccountingContext;
             this.topRowUpstream = topRowUpstream;
             this.rowReceiver = rowReceiver;
             this.inputRow = inputRow;
             this.expressions = expressions;
+            this.vectorExpressions = vectorExpressions;
+            if (vectorExpressions == null) {
+                batch = null;
+                docIds = null;
+            } else {
+                ColumnBatch.ElementType[] elementTypes = new ColumnBatch.ElementType[vectorExpressions.length];
+                for (int i = 0; i < vectorExpressions.length; i++) {
+                    elementTypes[i] = vectorExpressions[i].elementType();
+                }
+                batch = new ColumnBatch(elementTypes, BATCH_SIZE);
+                docIds = new int[BATCH_SIZE];
+            }
         }
 
         @Override
@@ -269,6 +370,13 @@ public class CrateDocCollector implements CrateCollector {
 
         @Override
         public void collect(int doc) throws IOException {
+            if (batch != null) {
+                docIds[numDocs++] = doc;
+                if (numDocs == docIds.length) {
+                    flushBatch(true);
+                }
+                return;
+            }
             topRowUpstream.throwIfKilled();
             checkCircuitBreaker();
 
@@ -288,6 +396,40 @@ public class CrateDocCollector implements CrateCollector {
             }
         }
 
+        /**
+         * reads the values of the buffered documents into the batch and passes it to the rowReceiver.
+         * Must be called before the reader changes and once all documents have been collected.
+         *
+         * @param checkPause if the rowReceiver may have paused the collection.
+         *                   Must be false if there are no further documents.
+         */
+        void flushBatch(boolean checkPause) {
+            if (numDocs == 0) {
+                return;
+            }
+            assert batch != null && vectorExpressions != null : "batch must be present if there are buffered documents";
+            topRowUpstream.throwIfKilled();
+            checkCircuitBreaker();
+
+            if ((rowCount % KEEP_ALIVE_AFTER_ROWS) + numDocs >= KEEP_ALIVE_AFTER_ROWS) {
+                keepAliveListener.keepAlive();
+            }
+            rowCount += numDocs;
+            for (int i = 0; i < vectorExpressions.length; i++) {
+                vectorExpressions[i].fillColumn(docIds, numDocs, batch.column(i));
+            }
+            batch.size(numDocs);
+            numDocs = 0;
+
+            boolean wantMore = ((BatchRowReceiver) rowReceiver).setNextBatch(batch);
+            if (checkPause && topRowUpstream.shouldPause()) {
+                throw CollectionPauseException.INSTANCE;
+            }
+            if (!wantMore) {
+                throw CollectionFinishedEarlyException.INSTANCE;
+            }
+        }
+
         private void checkCircuitBreaker() throws UnexpectedCollectionTerminatedException {
             if (ramAccountingContext != null && ramAccountingContext.trippedBreaker()) {
                 // stop collecting because breaker limit was reached
@@ -302,6 +444,8 @@ public class CrateDocCollector implements CrateCollector {
             // trigger keep-alive here as well
             // in case we have a long running query without actual matches
             keepAliveListener.keepAlive();
+            // the buffered documents belong to the previous reader
+            flushBatch(false);
             for (LuceneCollectorExpression<?> expression : expressions) {
                 expression.setNextReader(context);
             }
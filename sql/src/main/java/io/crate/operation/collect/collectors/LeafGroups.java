@@ -0,0 +1,121 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.collect.collectors;
+
+import org.apache.lucene.index.AtomicReaderContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Splits the leaves (segments) of a shard into groups which can be collected concurrently.
+ */
+public final class LeafGroups {
+
+    /**
+     * groups with less documents aren't worth the overhead of an additional collector
+     */
+    static final int MIN_DOCS_PER_GROUP = 100_000;
+
+    private LeafGroups() {}
+
+    /**
+     * @param maxGroups the maximum number of groups to create
+     * @return at least one group, the leaves inside a group keep their original order
+     */
+    public static List<List<AtomicReaderContext>> group(List<AtomicReaderContext> leaves, int maxGroups) {
+        int[] numDocs = new int[leaves.size()];
+        for (int i = 0; i < numDocs.length; i++) {
+            numDocs[i] = leaves.get(i).reader().numDocs();
+        }
+        int[][] groups = group(numDocs, maxGroups, MIN_DOCS_PER_GROUP);
+        List<List<AtomicReaderContext>> leafGroups = new ArrayList<>(groups.length);
+        for (int[] group : groups) {
+            List<AtomicReaderContext> leafGroup = new ArrayList<>(group.length);
+            for (int leaf : group) {
+                leafGroup.add(leaves.get(leaf));
+            }
+            leafGroups.add(leafGroup);
+        }
+        return leafGroups;
+    }
+
+    /**
+     * Assigns the leaves, biggest first, to the group which has the least documents so far.
+     *
+     * @param numDocs the number of documents per leaf
+     * @return the indices of the leaves per group in ascending order
+     */
+    static int[][] group(final int[] numDocs, int maxGroups, int minDocsPerGroup) {
+        long totalDocs = 0;
+        for (int docs : numDocs) {
+            totalDocs += docs;
+        }
+        int numGroups = (int) Math.min(Math.min(maxGroups, numDocs.length), totalDocs / minDocsPerGroup);
+        if (numGroups <= 1) {
+            int[] all = new int[numDocs.length];
+            for (int i = 0; i < all.length; i++) {
+                all[i] = i;
+            }
+            return new int[][] { all };
+        }
+
+        Integer[] bySize = new Integer[numDocs.length];
+        for (int i = 0; i < bySize.length; i++) {
+            bySize[i] = i;
+        }
+        Arrays.sort(bySize, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return Integer.compare(numDocs[o2], numDocs[o1]);
+            }
+        });
+        long[] groupDocs = new long[numGroups];
+        int[] groupSizes = new int[numGroups];
+        int[] groupOfLeaf = new int[numDocs.length];
+        for (Integer leaf : bySize) {
+            int smallest = 0;
+            for (int g = 1; g < numGroups; g++) {
+                if (groupDocs[g] < groupDocs[smallest]
+                    || (groupDocs[g] == groupDocs[smallest] && groupSizes[g] < groupSizes[smallest])) {
+                    smallest = g;
+                }
+            }
+            groupOfLeaf[leaf] = smallest;
+            groupDocs[smallest] += numDocs[leaf];
+            groupSizes[smallest]++;
+        }
+
+        int[][] groups = new int[numGroups][];
+        for (int g = 0; g < numGroups; g++) {
+            groups[g] = new int[groupSizes[g]];
+            groupSizes[g] = 0;
+        }
+        for (int leaf = 0; leaf < numDocs.length; leaf++) {
+            int g = groupOfLeaf[leaf];
+            groups[g][groupSizes[g]++] = leaf;
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.GeoPointType;
+import io.crate.types.IpType;
+import io.crate.types.ObjectType;
+import io.crate.types.StringType;
+import org.elasticsearch.ElasticsearchParseException;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parses delimiter separated lines, the first line of a file is the header containing the column names.
+ * Values of known columns are converted to the type of the column, values of unknown columns are kept as strings.
+ * Values of object, array and geo_point columns are expected to be JSON.
+ * An empty unquoted value is null.
+ */
+class CsvLineParser {
+
+    private final char delimiter;
+    private final Map<String, DataType> columnTypes;
+    private final StringBuilder field = new StringBuilder();
+
+    private String[] columnNames;
+    private DataType[] types;
+
+    CsvLineParser(char delimiter, Map<String, DataType> columnTypes) {
+        this.delimiter = delimiter;
+        this.columnTypes = columnTypes;
+    }
+
+    void parseHeader(byte[] bytes, int offset, int length) {
+        List<String> names = split(bytes, offset, length);
+        columnNames = new String[names.size()];
+        types = new DataType[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            if (name == null) {
+                throw new IllegalArgumentException("Column names in the header must not be empty");
+            }
+            columnNames[i] = name;
+            types[i] = columnTypes.get(name);
+        }
+    }
+
+    boolean hasHeader() {
+        return columnNames != null;
+    }
+
+    void resetHeader() {
+        columnNames = null;
+        types = null;
+    }
+
+    String[] columnNames() {
+        return columnNames;
+    }
+
+    Object[] parse(byte[] bytes, int offset, int length) {
+        assert columnNames != null : "header must be parsed first";
+        List<String> values = split(bytes, offset, length);
+        if (values.size() > columnNames.length) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                    "Line has %d values but the header only defines %d columns", values.size(), columnNames.length));
+        }
+        Object[] result = new Object[columnNames.length];
+        for (int i = 0; i < values.size(); i++) {
+            result[i] = convert(values.get(i), types[i]);
+        }
+        return result;
+    }
+
+    @Nullable
+    private static Object convert(@Nullable String value, @Nullable DataType type) {
+        if (value == null || type == null || type.id() == StringType.ID || type.id() == IpType.ID) {
+            return value;
+        }
+        try {
+            if (type.id() == ObjectType.ID) {
+                try (XContentParser parser = XContentFactory.xContent(XContentType.JSON).createParser(value)) {
+                    return parser.map();
+                }
+            }
+            if (DataTypes.isCollectionType(type) || type.id() == GeoPointType.ID) {
+                try (XContentParser parser = XContentFactory.xContent(XContentType.JSON).createParser(value)) {
+                    return parser.list();
+                }
+            }
+            return type.value(value);
+        } catch (IllegalArgumentException | IOException | ElasticsearchParseException e) {
+            // keep the string, the value will be rejected when the document is indexed
+            return value;
+        }
+    }
+
+    /**
+     * splits a line into its values, quotes (") may be used to include delimiters in a value
+     * and two quotes within a quoted value are read as one quote.
+     */
+    private List<String> split(byte[] bytes, int offset, int length) {
+        String line = new String(bytes, offset, length, StandardCharsets.UTF_8);
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == delimiter) {
+                addField(fields, wasQuoted);
+                wasQuoted = false;
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted value in line: " + line);
+        }
+        addField(fields, wasQuoted);
+        return fields;
+    }
+
+    private void addField(List<String> fields, boolean wasQuoted) {
+        if (field.length() == 0 && !wasQuoted) {
+            fields.add(null);
+        } else {
+            fields.add(field.toString());
+        }
+        field.setLength(0);
+    }
+}
@@ -21,6 +21,7 @@
 
 package io.crate.operation.collect.files;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
@@ -32,20 +33,19 @@ import io.crate.operation.InputRow;
 import io.crate.operation.RowUpstream;
 import io.crate.operation.collect.CrateCollector;
 import io.crate.operation.projectors.RowReceiver;
+import io.crate.types.DataType;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 
 import javax.annotation.Nullable;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.SocketTimeoutException;
 import java.net.URI;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.CancellationException;
 import java.util.regex.Matcher;
@@ -56,12 +56,22 @@ public class FileReadingCollector implements CrateCollector, RowUpstream {
 
     private static final ESLogger LOGGER = Loggers.getLogger(FileReadingCollector.class);
     public static final int MAX_SOCKET_TIMEOUT_RETRIES = 5;
+
+    /**
+     * uncompressed files of at least this size are split into byte ranges if there are multiple local readers
+     */
+    public static final long MIN_SPLIT_SIZE = 16 * 1024 * 1024;
     private final Map<String, FileInputFactory> fileInputFactoryMap;
     private final URI fileUri;
     private final Predicate<URI> globPredicate;
     private final Boolean shared;
     private final int numReaders;
     private final int readerNumber;
+    private final int numLocalReaders;
+    private final int localReaderNumber;
+    private long minSplitSize = MIN_SPLIT_SIZE;
+    @Nullable
+    private final CsvLineParser csvLineParser;
     private final InputRow row;
     private final KeepAliveListener keepAliveListener;
     private URI preGlobUri;
@@ -97,7 +107,18 @@ public class FileReadingCollector implements CrateCollector, RowUpstream {
     }
 
     public enum FileFormat {
-        JSON
+        JSON,
+        CSV,
+        TSV;
+
+        public static FileFormat fromString(String format) {
+            try {
+                return valueOf(format.toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                        "Unsupported file format \"%s\", supported are: json, csv and tsv", format));
+            }
+        }
     }
 
     public FileReadingCollector(String fileUri,
@@ -111,6 +132,31 @@ public class FileReadingCollector implements CrateCollector, RowUpstream {
                                 KeepAliveListener keepAliveListener,
                                 int numReaders,
                                 int readerNumber) {
+        this(fileUri, inputs, collectorExpressions, downstream, format, ImmutableMap.<String, DataType>of(), compression,
+                additionalFileInputFactories, shared, keepAliveListener, numReaders, readerNumber, 1, 0);
+    }
+
+    /**
+     * @param columnTypes types of the top level columns of the target table, used to convert CSV values
+     * @param numReaders number of nodes reading the files
+     * @param readerNumber number of the local node within the reading nodes
+     * @param numLocalReaders number of collectors reading the files of this node concurrently
+     * @param localReaderNumber number of this collector within the local collectors
+     */
+    public FileReadingCollector(String fileUri,
+                                List<Input<?>> inputs,
+                                List<LineCollectorExpression<?>> collectorExpressions,
+                                RowReceiver downstream,
+                                FileFormat format,
+                                Map<String, DataType> columnTypes,
+                                String compression,
+                                Map<String, FileInputFactory> additionalFileInputFactories,
+                                Boolean shared,
+                                KeepAliveListener keepAliveListener,
+                                int numReaders,
+                                int readerNumber,
+                                int numLocalReaders,
+                                int localReaderNumber) {
         this.keepAliveListener = keepAliveListener;
         if (fileUri.startsWith("/")) {
             // using Paths.get().toUri instead of new URI(...) as it also encodes umlauts and other special characters
@@ -130,6 +176,16 @@ public class FileReadingCollector implements CrateCollector, RowUpstream {
         this.downstream = downstream;
         downstream.setUpstream(this);
         this.compressed = compression != null && compression.equalsIgnoreCase("gzip");
+        switch (format) {
+            case CSV:
+                csvLineParser = new CsvLineParser(',', columnTypes);
+                break;
+            case TSV:
+                csvLineParser = new CsvLineParser('\t', columnTypes);
+                break;
+            default:
+                csvLineParser = null;
+        }
         this.row = new InputRow(inputs);
         this.collectorExpressions = collectorExpressions;
         this.fileInputFactoryMap = new HashMap<>(ImmutableMap.of(
@@ -151,6 +207,8 @@ public class FileReadingCollector implements CrateCollector, RowUpstream {
         this.shared = shared;
         this.numReaders = numReaders;
         this.readerNumber = readerNumber;
+        this.numLocalReaders = numLocalReaders;
+        this.localReaderNumber = localReaderNumber;
         Matcher hasGlobMatcher = HAS_GLOBS_PATTERN.matcher(this.fileUri.toString());
         if (!hasGlobMatcher.matches()) {
             globPredicate = null;
@@ -200,8 +258,13 @@ public class FileReadingCollector implements CrateCollector, RowUpstream {
 
         try {
             uris = getUris(fileInput, uriPredicate);
-            for (URI uri : uris) {
-                readLines(fileInput, collectorContext, uri, 0, 0);
+            for (int i = 0; i < uris.size(); i++) {
+                URI uri = uris.get(i);
+                if (isSplittable(fileInput, uri)) {
+                    readRange((SplittableFileInput) fileInput, collectorContext, uri);
+                } else if (i % numLocalReaders == localReaderNumber) {
+                    readLines(fileInput, collectorContext, uri, 0, 0);
+                }
             }
             downstream.finish();
         } catch (Throwable e) {
@@ -214,6 +277,84 @@ public class FileReadingCollector implements CrateCollector, RowUpstream {
         killed = true;
     }
 
+    private boolean isSplittable(FileInput fileInput, URI uri) throws IOException {
+        return numLocalReaders > 1
+               && !compressed
+               && fileInput instanceof SplittableFileInput
+               && ((SplittableFileInput) fileInput).size(uri) >= minSplitSize;
+    }
+
+    @VisibleForTesting
+    void minSplitSize(long minSplitSize) {
+        this.minSplitSize = minSplitSize;
+    }
+
+    /**
+     * reads the lines starting within the byte range of this reader.
+     * A line crossing the end of the range is read completely, the next reader skips it.
+     */
+    private void readRange(SplittableFileInput fileInput,
+                           CollectorContext collectorContext,
+                           URI uri) throws IOException {
+        long size = fileInput.size(uri);
+        long rangeStart = size * localReaderNumber / numLocalReaders;
+        long rangeEnd = size * (localReaderNumber + 1) / numLocalReaders;
+        // start one byte early, so a line starting exactly at rangeStart isn't skipped
+        long streamStart = rangeStart == 0 ? 0 : rangeStart - 1;
+        InputStream inputStream = fileInput.getStream(uri, streamStart);
+        if (inputStream == null) {
+            return;
+        }
+        if (csvLineParser != null) {
+            csvLineParser.resetHeader();
+            if (rangeStart > 0) {
+                readHeader(fileInput, uri);
+            }
+        }
+        try (InputStream stream = inputStream) {
+            LineScanner scanner = new LineScanner(stream, streamStart);
+            if (rangeStart > 0 && !scanner.nextLine()) {
+                // skip the remainder of the line the previous reader is responsible for
+                return;
+            }
+            int keepAliveCount = 0;
+            while (scanner.nextLine() && scanner.linePosition() < rangeEnd) {
+                if (killed) {
+                    throw new CancellationException();
+                }
+                keepAliveCount++;
+                if (keepAliveCount > 100_00) {
+                    keepAliveListener.keepAlive();
+                    keepAliveCount = 0;
+                }
+                if (!emitLine(collectorContext, scanner)) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.info("Error during COPY FROM '{}'", e, uri.toString());
+            throw e;
+        }
+    }
+
+    /**
+     * reads the header of a file whose first line is read by another reader
+     */
+    private void readHeader(SplittableFileInput fileInput, URI uri) throws IOException {
+        try (InputStream stream = fileInput.getStream(uri, 0L)) {
+            if (stream == null) {
+                return;
+            }
+            LineScanner scanner = new LineScanner(stream, 0L);
+            while (scanner.nextLine()) {
+                if (scanner.lineLength() > 0) {
+                    csvLineParser.parseHeader(scanner.buffer(), scanner.lineOffset(), scanner.lineLength());
+                    return;
+                }
+            }
+        }
+    }
+
     private void readLines(FileInput fileInput,
                            CollectorContext collectorContext,
                            URI uri,
@@ -223,12 +364,15 @@ public class FileReadingCollector implements CrateCollector, RowUpstream {
         if (inputStream == null) {
             return;
         }
+        if (csvLineParser != null && retry == 0) {
+            csvLineParser.resetHeader();
+        }
 
-        String line;
         long linesRead = 0L;
         int keepAliveCount = 0;
-        try (BufferedReader reader = createReader(inputStream)) {
-            while ((line = reader.readLine()) != null) {
+        try (InputStream stream = createStream(inputStream)) {
+            LineScanner scanner = new LineScanner(stream, 0L);
+            while (scanner.nextLine()) {
                 if (killed) {
                     throw new CancellationException();
                 }
@@ -243,11 +387,7 @@ public class FileReadingCollector implements CrateCollector, RowUpstream {
                 if (linesRead < startLine) {
                     continue;
                 }
-                if (line.length() == 0) { // skip empty lines
-                    continue;
-                }
-                collectorContext.lineContext().rawSource(line.getBytes(StandardCharsets.UTF_8));
-                if (!downstream.setNextRow(row)) {
+                if (!emitLine(collectorContext, scanner)) {
                     break;
                 }
             }
@@ -266,15 +406,30 @@ public class FileReadingCollector implements CrateCollector, RowUpstream {
         }
     }
 
-    private BufferedReader createReader(InputStream inputStream) throws IOException {
-        BufferedReader reader;
-        if (compressed) {
-            reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(inputStream),
-                    StandardCharsets.UTF_8));
+    /**
+     * @return false if the downstream doesn't need any more rows
+     */
+    private boolean emitLine(CollectorContext collectorContext, LineScanner scanner) {
+        if (scanner.lineLength() == 0) { // skip empty lines
+            return true;
+        }
+        if (csvLineParser == null) {
+            collectorContext.lineContext().rawSource(scanner.buffer(), scanner.lineOffset(), scanner.lineLength());
+        } else if (csvLineParser.hasHeader()) {
+            collectorContext.lineContext().values(csvLineParser.columnNames(),
+                    csvLineParser.parse(scanner.buffer(), scanner.lineOffset(), scanner.lineLength()));
         } else {
-            reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+            csvLineParser.parseHeader(scanner.buffer(), scanner.lineOffset(), scanner.lineLength());
+            return true;
+        }
+        return downstream.setNextRow(row);
+    }
+
+    private InputStream createStream(InputStream inputStream) throws IOException {
+        if (compressed) {
+            return new GZIPInputStream(inputStream);
         }
-        return reader;
+        return inputStream;
     }
 
     private List<URI> getUris(FileInput fileInput, Predicate<URI> uriPredicate) throws IOException {
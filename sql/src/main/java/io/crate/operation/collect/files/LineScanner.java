@@ -0,0 +1,136 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Reads lines from an {@link InputStream} into a reusable byte buffer without decoding them.
+ * A line is exposed as a region of {@link #buffer()} which is only valid until the next call
+ * to {@link #nextLine()}. Line terminators (<code>\n</code> or <code>\r\n</code>) are not part of the line.
+ */
+class LineScanner {
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private int start;
+    private int end;
+    private long bufferPosition;
+    private boolean eof = false;
+
+    private int lineOffset;
+    private int lineLength;
+    private long linePosition;
+
+    /**
+     * @param position the byte offset within the file the stream starts at
+     */
+    LineScanner(InputStream in, long position) {
+        this.in = in;
+        this.bufferPosition = position;
+    }
+
+    /**
+     * @return true if a line has been read, false if the end of the stream is reached
+     */
+    boolean nextLine() throws IOException {
+        int scanFrom = start;
+        while (true) {
+            for (int i = scanFrom; i < end; i++) {
+                if (buffer[i] == '\n') {
+                    setLine(start, i);
+                    start = i + 1;
+                    return true;
+                }
+            }
+            if (eof) {
+                if (start < end) {
+                    setLine(start, end);
+                    start = end;
+                    return true;
+                }
+                return false;
+            }
+            // bytes up to the current end are already scanned, continue after them
+            int scanned = end;
+            scanFrom = scanned - fill();
+        }
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+
+    int lineOffset() {
+        return lineOffset;
+    }
+
+    int lineLength() {
+        return lineLength;
+    }
+
+    /**
+     * @return the byte offset within the file at which the current line starts
+     */
+    long linePosition() {
+        return linePosition;
+    }
+
+    private void setLine(int from, int to) {
+        if (to > from && buffer[to - 1] == '\r') {
+            to--;
+        }
+        lineOffset = from;
+        lineLength = to - from;
+        linePosition = bufferPosition + from;
+    }
+
+    /**
+     * reads more bytes into the buffer, either after moving the unconsumed bytes to the front
+     * or after growing the buffer if a single line doesn't fit into it.
+     *
+     * @return the number of positions the unconsumed bytes have been moved
+     */
+    private int fill() throws IOException {
+        int shift = start;
+        if (start > 0) {
+            int remaining = end - start;
+            System.arraycopy(buffer, start, buffer, 0, remaining);
+            bufferPosition += start;
+            start = 0;
+            end = remaining;
+        } else if (end == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int read = in.read(buffer, end, buffer.length - end);
+        if (read == -1) {
+            eof = true;
+        } else {
+            end += read;
+        }
+        return shift;
+    }
+}
@@ -31,7 +31,7 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.List;
 
-public class LocalFsFileInput implements FileInput {
+public class LocalFsFileInput implements SplittableFileInput {
 
     @Override
     public List<URI> listUris(final URI fileUri, final Predicate<URI> uriPredicate) throws IOException {
@@ -81,6 +81,27 @@ public class LocalFsFileInput implements FileInput {
         }
     }
 
+    @Override
+    public long size(URI uri) throws IOException {
+        Path path = Paths.get(uri);
+        if (Files.notExists(path)) {
+            return 0L;
+        }
+        return Files.size(path);
+    }
+
+    @Override
+    public InputStream getStream(URI uri, long position) throws IOException {
+        FileInputStream inputStream;
+        try {
+            inputStream = new FileInputStream(new File(uri));
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+        inputStream.getChannel().position(position);
+        return inputStream;
+    }
+
     @Override
     public boolean sharedStorageDefault() {
         return false;
@@ -39,6 +39,7 @@ import io.crate.operation.collect.JobCollectContext;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
 import io.crate.operation.projectors.ProjectorFactory;
 import io.crate.operation.projectors.RowReceiver;
+import io.crate.operation.projectors.SortRunDirectory;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.FileUriCollectPhase;
 import org.elasticsearch.action.bulk.BulkRetryCoordinatorPool;
@@ -71,6 +72,7 @@ public class CollectSourceResolver {
                                  ThreadPool threadPool,
                                  TransportActionProvider transportActionProvider,
                                  BulkRetryCoordinatorPool bulkRetryCoordinatorPool,
+                                 SortRunDirectory sortRunDirectory,
                                  InformationSchemaInfo informationSchemaInfo,
                                  SysSchemaInfo sysSchemaInfo,
                                  ShardCollectSource shardCollectSource,
@@ -86,6 +88,7 @@ public class CollectSourceResolver {
                 settings,
                 transportActionProvider,
                 bulkRetryCoordinatorPool,
+                sortRunDirectory,
                 nodeImplementationSymbolVisitor,
                 normalizer
         );
@@ -25,12 +25,14 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.crate.analyze.symbol.ValueSymbolVisitor;
 import io.crate.metadata.Functions;
+import io.crate.operation.RowDownstream;
 import io.crate.operation.collect.CrateCollector;
 import io.crate.operation.collect.JobCollectContext;
 import io.crate.operation.collect.RowsCollector;
 import io.crate.operation.collect.files.FileCollectInputSymbolVisitor;
 import io.crate.operation.collect.files.FileInputFactory;
 import io.crate.operation.collect.files.FileReadingCollector;
+import io.crate.operation.projectors.RowMergers;
 import io.crate.operation.projectors.RowReceiver;
 import io.crate.operation.reference.file.FileLineReferenceResolver;
 import io.crate.planner.node.dql.CollectPhase;
@@ -38,20 +40,32 @@ import io.crate.planner.node.dql.FileUriCollectPhase;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 @Singleton
 public class FileCollectSource implements CollectSource {
 
+    /**
+     * number of collectors reading the files of a node concurrently
+     */
+    public static final String READERS_PER_NODE_SETTING = "sql.copy_from.readers_per_node";
+
     private final ClusterService clusterService;
     private final FileCollectInputSymbolVisitor fileInputSymbolVisitor;
+    private final int readersPerNode;
 
     @Inject
-    public FileCollectSource(Functions functions, ClusterService clusterService) {
+    public FileCollectSource(Settings settings, Functions functions, ClusterService clusterService) {
         fileInputSymbolVisitor = new FileCollectInputSymbolVisitor(functions, FileLineReferenceResolver.INSTANCE);
         this.clusterService = clusterService;
+        this.readersPerNode = Math.max(1, settings.getAsInt(READERS_PER_NODE_SETTING,
+                Math.min(4, EsExecutors.boundedNumberOfProcessors(settings))));
     }
 
     @Override
@@ -61,7 +75,6 @@ public class FileCollectSource implements CollectSource {
             return ImmutableList.<CrateCollector>of(RowsCollector.empty(downstream));
         }
 
-        FileCollectInputSymbolVisitor.Context context = fileInputSymbolVisitor.extractImplementations(collectPhase.toCollect());
         FileUriCollectPhase fileUriCollectPhase = (FileUriCollectPhase) collectPhase;
 
         // FileUriCollectPhase is only used in copy plans which never require ordering
@@ -70,18 +83,46 @@ public class FileCollectSource implements CollectSource {
         String[] readers = fileUriCollectPhase.executionNodes().toArray(
                 new String[fileUriCollectPhase.executionNodes().size()]);
         Arrays.sort(readers);
-        return ImmutableList.<CrateCollector>of(new FileReadingCollector(
-                    ValueSymbolVisitor.STRING.process(fileUriCollectPhase.targetUri()),
-                    context.topLevelInputs(),
-                    context.expressions(),
-                    downstream,
-                    fileUriCollectPhase.fileFormat(),
-                    fileUriCollectPhase.compression(),
-                    ImmutableMap.<String, FileInputFactory>of(),
-                    fileUriCollectPhase.sharedStorage(),
-                    jobCollectContext.keepAliveListener(),
-                    readers.length,
-                    Arrays.binarySearch(readers, clusterService.state().nodes().localNodeId())
-        ));
+        int readerNumber = Arrays.binarySearch(readers, clusterService.state().nodes().localNodeId());
+        if (readersPerNode == 1) {
+            return ImmutableList.<CrateCollector>of(
+                    createCollector(fileUriCollectPhase, downstream, jobCollectContext, readers.length, readerNumber, 1, 0));
+        }
+
+        RowDownstream rowMerger = RowMergers.passThroughRowMerger(downstream);
+        List<CrateCollector> collectors = new ArrayList<>(readersPerNode);
+        for (int i = 0; i < readersPerNode; i++) {
+            collectors.add(createCollector(fileUriCollectPhase, rowMerger.newRowReceiver(), jobCollectContext,
+                    readers.length, readerNumber, readersPerNode, i));
+        }
+        return collectors;
+    }
+
+    private FileReadingCollector createCollector(FileUriCollectPhase fileUriCollectPhase,
+                                                 RowReceiver downstream,
+                                                 JobCollectContext jobCollectContext,
+                                                 int numReaders,
+                                                 int readerNumber,
+                                                 int numLocalReaders,
+                                                 int localReaderNumber) {
+        // every collector needs its own expressions as they are bound to the line of their collector
+        FileCollectInputSymbolVisitor.Context context =
+                fileInputSymbolVisitor.extractImplementations(fileUriCollectPhase.toCollect());
+        return new FileReadingCollector(
+                ValueSymbolVisitor.STRING.process(fileUriCollectPhase.targetUri()),
+                context.topLevelInputs(),
+                context.expressions(),
+                downstream,
+                fileUriCollectPhase.fileFormat(),
+                fileUriCollectPhase.columnTypes(),
+                fileUriCollectPhase.compression(),
+                ImmutableMap.<String, FileInputFactory>of(),
+                fileUriCollectPhase.sharedStorage(),
+                jobCollectContext.keepAliveListener(),
+                numReaders,
+                readerNumber,
+                numLocalReaders,
+                localReaderNumber
+        );
     }
 }
@@ -23,6 +23,7 @@ package io.crate.operation.collect.sources;
 
 import io.crate.operation.collect.CrateCollector;
 import io.crate.operation.collect.JobCollectContext;
+import io.crate.operation.profile.PhaseProfiler;
 import io.crate.operation.projectors.FlatProjectorChain;
 import io.crate.operation.projectors.ProjectorFactory;
 import io.crate.operation.projectors.RowReceiver;
@@ -46,7 +47,7 @@ public class ProjectorSetupCollectSource implements CollectSource {
             return sourceDelegate.getCollectors(collectPhase, downstream, jobCollectContext);
         }
         FlatProjectorChain projectorChain = FlatProjectorChain.withAttachedDownstream(
-                projectorFactory,
+                PhaseProfiler.projectorFactory(jobCollectContext.profiler(), projectorFactory),
                 jobCollectContext.queryPhaseRamAccountingContext(),
                 collectPhase.projections(),
                 downstream,
@@ -45,6 +45,7 @@ import io.crate.operation.collect.RowsCollector;
 import io.crate.operation.collect.ShardCollectService;
 import io.crate.operation.collect.collectors.MultiShardScoreDocCollector;
 import io.crate.operation.collect.collectors.OrderedDocCollector;
+import io.crate.operation.profile.PhaseProfiler;
 import io.crate.operation.projectors.*;
 import io.crate.operation.projectors.sorting.OrderingByPosition;
 import io.crate.operation.reference.sys.node.NodeSysExpression;
@@ -58,6 +59,7 @@ import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Injector;
 import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.IndexShardMissingException;
 import org.elasticsearch.index.shard.IllegalIndexShardStateException;
@@ -81,6 +83,7 @@ public class ShardCollectSource implements CollectSource {
     private final SystemCollectSource systemCollectSource;
     private final TransportActionProvider transportActionProvider;
     private final BulkRetryCoordinatorPool bulkRetryCoordinatorPool;
+    private final SortRunDirectory sortRunDirectory;
     private final NodeSysExpression nodeSysExpression;
     private final ListeningExecutorService executor;
 
@@ -92,6 +95,7 @@ public class ShardCollectSource implements CollectSource {
                               ThreadPool threadPool,
                               TransportActionProvider transportActionProvider,
                               BulkRetryCoordinatorPool bulkRetryCoordinatorPool,
+                              SortRunDirectory sortRunDirectory,
                               SystemCollectSource systemCollectSource,
                               NodeSysExpression nodeSysExpression) {
         this.settings = settings;
@@ -103,6 +107,7 @@ public class ShardCollectSource implements CollectSource {
         this.executor = MoreExecutors.listeningDecorator((ExecutorService) threadPool.executor(ThreadPool.Names.SEARCH));
         this.transportActionProvider = transportActionProvider;
         this.bulkRetryCoordinatorPool = bulkRetryCoordinatorPool;
+        this.sortRunDirectory = sortRunDirectory;
         this.nodeSysExpression = nodeSysExpression;
     }
 
@@ -121,6 +126,7 @@ public class ShardCollectSource implements CollectSource {
                 settings,
                 transportActionProvider,
                 bulkRetryCoordinatorPool,
+                sortRunDirectory,
                 implementationSymbolVisitor,
                 nodeNormalizer
         );
@@ -131,7 +137,7 @@ public class ShardCollectSource implements CollectSource {
             FlatProjectorChain flatProjectorChain;
             if (normalizedPhase.hasProjections()) {
                 flatProjectorChain = FlatProjectorChain.withAttachedDownstream(
-                        projectorFactory,
+                        PhaseProfiler.projectorFactory(jobCollectContext.profiler(), projectorFactory),
                         jobCollectContext.queryPhaseRamAccountingContext(),
                         normalizedPhase.projections(),
                         downstream,
@@ -151,35 +157,72 @@ public class ShardCollectSource implements CollectSource {
 
         // actual shards might be less if table is partitioned and a partition has been deleted meanwhile
         int maxNumShards = normalizedPhase.routing().numShards(localNodeId);
-
-        ShardProjectorChain projectorChain = ShardProjectorChain.passThroughMerge(
-                normalizedPhase.jobId(),
-                maxNumShards,
-                normalizedPhase.projections(),
-                downstream,
-                projectorFactory,
-                jobCollectContext.queryPhaseRamAccountingContext());
+        int collectorsPerShard = 1;
+        if (normalizedPhase.maxRowGranularity() == RowGranularity.DOC) {
+            collectorsPerShard = collectorsPerShard(maxNumShards, downstream);
+        }
 
         Map<String, Map<String, List<Integer>>> locations = normalizedPhase.routing().locations();
         if (locations == null) {
             throw new IllegalStateException("locations must not be null");
         }
-        final List<CrateCollector> shardCollectors = new ArrayList<>(maxNumShards);
 
         if (normalizedPhase.maxRowGranularity() == RowGranularity.SHARD) {
-            shardCollectors.add(
-                    getShardsCollector(collectPhase, normalizedPhase, projectorFactory, localNodeId, projectorChain));
-        } else {
-            Map<String, List<Integer>> indexShards = locations.get(localNodeId);
-            if (indexShards != null) {
-                shardCollectors.addAll(
-                        getDocCollectors(jobCollectContext, normalizedPhase, projectorChain, indexShards));
+            ShardProjectorChain projectorChain = shardProjectorChain(
+                    normalizedPhase, maxNumShards, downstream, projectorFactory, jobCollectContext);
+            CrateCollector shardsCollector =
+                    getShardsCollector(collectPhase, normalizedPhase, projectorFactory, localNodeId, projectorChain);
+            projectorChain.prepare(jobCollectContext);
+            return ImmutableList.of(shardsCollector);
+        }
+
+        // the segments of the shards are grouped first, so the projector chain only merges the collectors which exist
+        List<ShardCollectService.DocCollectors> docCollectors = ImmutableList.of();
+        Map<String, List<Integer>> indexShards = locations.get(localNodeId);
+        if (indexShards != null) {
+            try {
+                docCollectors = prepareDocCollectors(jobCollectContext, normalizedPhase, indexShards, collectorsPerShard);
+            } catch (Throwable t) {
+                downstream.fail(t);
+                throw t;
+            }
+        }
+        int numCollectors = 0;
+        for (ShardCollectService.DocCollectors shardDocCollectors : docCollectors) {
+            numCollectors += shardDocCollectors.size();
+        }
+        ShardProjectorChain projectorChain = shardProjectorChain(
+                normalizedPhase, numCollectors, downstream, projectorFactory, jobCollectContext);
+        final List<CrateCollector> shardCollectors = new ArrayList<>(numCollectors);
+        for (ShardCollectService.DocCollectors shardDocCollectors : docCollectors) {
+            try {
+                shardCollectors.addAll(shardDocCollectors.create(projectorChain));
+            } catch (CancellationException e) {
+                projectorChain.fail(e);
+                throw e;
+            } catch (Throwable t) {
+                projectorChain.fail(t);
+                throw new UnhandledServerException(t);
             }
         }
         projectorChain.prepare(jobCollectContext);
         return shardCollectors;
     }
 
+    private ShardProjectorChain shardProjectorChain(CollectPhase collectPhase,
+                                                    int numUpstreams,
+                                                    RowReceiver downstream,
+                                                    ProjectorFactory projectorFactory,
+                                                    JobCollectContext jobCollectContext) {
+        return ShardProjectorChain.passThroughMerge(
+                collectPhase.jobId(),
+                numUpstreams,
+                collectPhase.projections(),
+                downstream,
+                projectorFactory,
+                jobCollectContext.queryPhaseRamAccountingContext());
+    }
+
     private CrateCollector createMultiShardScoreDocCollector(CollectPhase collectPhase,
                                                              FlatProjectorChain flatProjectorChain,
                                                              JobCollectContext jobCollectContext,
@@ -229,12 +272,24 @@ public class ShardCollectSource implements CollectSource {
         );
     }
 
-    private Collection<CrateCollector> getDocCollectors(JobCollectContext jobCollectContext,
-                                                        CollectPhase collectPhase,
-                                                        ShardProjectorChain projectorChain,
-                                                        Map<String, List<Integer>> indexShards) {
+    /**
+     * If there are less shards than processors the segments of a shard are collected by
+     * multiple collectors concurrently. Their rows are merged like the rows of different shards,
+     * so this is only done if the downstream doesn't need to repeat.
+     */
+    private int collectorsPerShard(int numShards, RowReceiver downstream) {
+        if (numShards == 0 || downstream.requirements().contains(Requirement.REPEAT)) {
+            return 1;
+        }
+        return Math.max(1, EsExecutors.boundedNumberOfProcessors(settings) / numShards);
+    }
 
-        List<CrateCollector> crateCollectors = new ArrayList<>();
+    private List<ShardCollectService.DocCollectors> prepareDocCollectors(JobCollectContext jobCollectContext,
+                                                                          CollectPhase collectPhase,
+                                                                          Map<String, List<Integer>> indexShards,
+                                                                          int collectorsPerShard) {
+
+        List<ShardCollectService.DocCollectors> docCollectors = new ArrayList<>();
         for (Map.Entry<String, List<Integer>> entry : indexShards.entrySet()) {
             String indexName = entry.getKey();
             IndexService indexService;
@@ -252,22 +307,19 @@ public class ShardCollectSource implements CollectSource {
                 try {
                     shardInjector = indexService.shardInjectorSafe(shardId);
                     ShardCollectService shardCollectService = shardInjector.getInstance(ShardCollectService.class);
-                    CrateCollector collector = shardCollectService.getDocCollector(
+                    docCollectors.add(shardCollectService.prepareDocCollectors(
                             collectPhase,
-                            projectorChain,
-                            jobCollectContext
-                    );
-                    crateCollectors.add(collector);
+                            jobCollectContext,
+                            collectorsPerShard
+                    ));
                 } catch (IndexShardMissingException | CancellationException | IllegalIndexShardStateException e) {
-                    projectorChain.fail(e);
                     throw e;
                 } catch (Throwable t) {
-                    projectorChain.fail(t);
                     throw new UnhandledServerException(t);
                 }
             }
         }
-        return crateCollectors;
+        return docCollectors;
     }
 
     private CrateCollector getShardsCollector(CollectPhase collectPhase,
@@ -0,0 +1,66 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.compiler;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.operation.Input;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+
+/**
+ * A compiled expression which can be instantiated for every consumer of the expression.
+ * The symbols returned by {@link #leaves()} are not part of the generated code,
+ * their inputs have to be passed to {@link #newInput(Input[])} in the same order.
+ * The values of the literals of the expression are passed to every new instance of the generated class.
+ */
+public class CompiledExpression {
+
+    private final Constructor<? extends CompiledInput> constructor;
+    private final List<Symbol> leaves;
+    private final Object[] constants;
+
+    CompiledExpression(Constructor<? extends CompiledInput> constructor, List<Symbol> leaves, Object[] constants) {
+        this.constructor = constructor;
+        this.leaves = leaves;
+        this.constants = constants;
+    }
+
+    public List<Symbol> leaves() {
+        return leaves;
+    }
+
+    public Input<?> newInput(Input<?>[] leafInputs) {
+        Preconditions.checkArgument(leafInputs.length == leaves.size(),
+                "expected %s leaf inputs but got %s", leaves.size(), leafInputs.length);
+        try {
+            return constructor.newInstance(leafInputs, constants);
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw Throwables.propagate(e);
+        } catch (InvocationTargetException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+}
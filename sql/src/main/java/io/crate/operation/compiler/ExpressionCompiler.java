@@ -0,0 +1,655 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.compiler;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.operation.Input;
+import io.crate.operation.operator.*;
+import io.crate.operation.predicate.IsNullPredicate;
+import io.crate.operation.predicate.NotPredicate;
+import io.crate.operation.scalar.arithmetic.*;
+import io.crate.operation.scalar.cast.CastFunctionResolver;
+import io.crate.types.*;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.logging.Loggers;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.commons.GeneratorAdapter;
+import org.objectweb.asm.commons.Method;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compiles trees of arithmetic, comparison, boolean and cast functions into a generated
+ * {@link CompiledInput} class. The generated code works on primitive longs, doubles and booleans
+ * and only boxes the final result, instead of evaluating every node of the tree through a
+ * {@link io.crate.metadata.Scalar} with boxed arguments.
+ * <p>
+ * Arguments which can't be compiled (references, input columns, other functions, ...) become
+ * leaves of the compiled expression. Their values are read using the inputs passed to
+ * {@link CompiledExpression#newInput(Input[])}.
+ * <p>
+ * Literals aren't compiled into the code, they're passed to the constructor of the generated class and
+ * kept in fields. So all functions of the same shape (functions, types and leaves) share one generated class,
+ * no matter which literal values they contain.
+ * <p>
+ * The results match the ones of the interpreted functions, with one difference:
+ * <code>AND</code> and <code>OR</code> don't evaluate their second argument if the first one already
+ * determines the result.
+ */
+public class ExpressionCompiler {
+
+    private static final ESLogger LOGGER = Loggers.getLogger(ExpressionCompiler.class);
+
+    private static final Type OBJECT_TYPE = Type.getType(Object.class);
+    private static final Type NUMBER_TYPE = Type.getType(Number.class);
+    private static final Type BOOLEAN_OBJECT_TYPE = Type.getType(Boolean.class);
+    private static final Type LONG_OBJECT_TYPE = Type.getType(Long.class);
+    private static final Type DOUBLE_OBJECT_TYPE = Type.getType(Double.class);
+    private static final Type INPUT_TYPE = Type.getType(Input.class);
+    private static final Type INPUT_ARRAY_TYPE = Type.getType(Input[].class);
+    private static final Type OBJECT_ARRAY_TYPE = Type.getType(Object[].class);
+    private static final Type COMPILED_INPUT_TYPE = Type.getType(CompiledInput.class);
+
+    private static final Method SUPER_CONSTRUCTOR = new Method("<init>", Type.VOID_TYPE, new Type[]{INPUT_ARRAY_TYPE});
+    private static final Method CONSTRUCTOR = new Method("<init>", Type.VOID_TYPE, new Type[]{INPUT_ARRAY_TYPE, OBJECT_ARRAY_TYPE});
+    private static final Method VALUE = Method.getMethod("Object value()");
+    private static final Method LONG_VALUE = Method.getMethod("long longValue()");
+    private static final Method DOUBLE_VALUE = Method.getMethod("double doubleValue()");
+    private static final Method BOOLEAN_VALUE = Method.getMethod("boolean booleanValue()");
+    private static final Method DOUBLE_COMPARE = Method.getMethod("int compare(double, double)");
+    private static final Method LONG_VALUE_OF = Method.getMethod("Long valueOf(long)");
+    private static final Method DOUBLE_VALUE_OF = Method.getMethod("Double valueOf(double)");
+    private static final Method BOOLEAN_VALUE_OF = Method.getMethod("Boolean valueOf(boolean)");
+
+    private static final AtomicLong CLASS_COUNTER = new AtomicLong();
+
+    /**
+     * constructors of the generated classes by the key of the {@link Shape},
+     * if the functions of a shape couldn't be compiled the value is absent.
+     */
+    private static final Cache<String, Optional<Constructor<? extends CompiledInput>>> CACHE = CacheBuilder.newBuilder()
+            .maximumSize(1000)
+            .build();
+
+    private enum Kind {
+        LONG(Type.LONG_TYPE),
+        DOUBLE(Type.DOUBLE_TYPE),
+        BOOLEAN(Type.BOOLEAN_TYPE);
+
+        private final Type type;
+
+        Kind(Type type) {
+            this.type = type;
+        }
+    }
+
+    private ExpressionCompiler() {
+    }
+
+    /**
+     * @return the compiled expression or null if the given function can't be compiled
+     */
+    @Nullable
+    public static CompiledExpression compile(final Function function) {
+        if (compiledKind(function) == null) {
+            return null;
+        }
+        final Shape shape = new Shape(function);
+        Constructor<? extends CompiledInput> constructor;
+        try {
+            constructor = CACHE.get(shape.key(), new Callable<Optional<Constructor<? extends CompiledInput>>>() {
+                @Override
+                public Optional<Constructor<? extends CompiledInput>> call() throws Exception {
+                    return Optional.<Constructor<? extends CompiledInput>>fromNullable(generate(function, shape));
+                }
+            }).orNull();
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+        if (constructor == null) {
+            return null;
+        }
+        return new CompiledExpression(constructor, shape.leaves(), shape.constants());
+    }
+
+    @Nullable
+    private static Constructor<? extends CompiledInput> generate(Function function, Shape shape) {
+        String className = COMPILED_INPUT_TYPE.getInternalName() + "_" + CLASS_COUNTER.incrementAndGet();
+        try {
+            ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+                @Override
+                protected String getCommonSuperClass(String type1, String type2) {
+                    // the only reference type used in locals is Object, no need to load any classes
+                    return OBJECT_TYPE.getInternalName();
+                }
+            };
+            classWriter.visit(Opcodes.V1_7,
+                    Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC,
+                    className, null, COMPILED_INPUT_TYPE.getInternalName(), null);
+
+            Type classType = Type.getObjectType(className);
+            GeneratorAdapter method = new GeneratorAdapter(
+                    Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL, VALUE, null, null, classWriter);
+            CodeGenerator codeGenerator = new CodeGenerator(method, classType, shape);
+            codeGenerator.generateValueMethod(function);
+            List<Kind> constantKinds = codeGenerator.constantKinds;
+            assert constantKinds.size() == shape.constants().length : "every constant of the shape must be used";
+
+            // every constant is unboxed once into a field of its kind
+            GeneratorAdapter constructor = new GeneratorAdapter(Opcodes.ACC_PUBLIC, CONSTRUCTOR, null, null, classWriter);
+            constructor.loadThis();
+            constructor.loadArg(0);
+            constructor.invokeConstructor(COMPILED_INPUT_TYPE, SUPER_CONSTRUCTOR);
+            for (int i = 0; i < constantKinds.size(); i++) {
+                Kind kind = constantKinds.get(i);
+                classWriter.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL,
+                        constantField(i), kind.type.getDescriptor(), null, null).visitEnd();
+                constructor.loadThis();
+                constructor.loadArg(1);
+                constructor.push(i);
+                constructor.arrayLoad(OBJECT_TYPE);
+                unbox(constructor, kind);
+                constructor.putField(classType, constantField(i), kind.type);
+            }
+            constructor.returnValue();
+            constructor.endMethod();
+            classWriter.visitEnd();
+
+            byte[] bytes = classWriter.toByteArray();
+            Class<? extends CompiledInput> clazz = new Loader(ExpressionCompiler.class.getClassLoader())
+                    .define(className.replace('/', '.'), bytes);
+            Constructor<? extends CompiledInput> ctor = clazz.getConstructor(Input[].class, Object[].class);
+
+            // instantiate once, so that the class is verified now and not on first use
+            ctor.newInstance(new Input[shape.leaves().size()], shape.constants());
+            return ctor;
+        } catch (Exception | LinkageError e) {
+            LOGGER.warn("Couldn't compile expression {}, it will be interpreted", e, function);
+            return null;
+        }
+    }
+
+    /**
+     * @return the kind of the value of the symbol if it is a function which can be compiled, otherwise null
+     */
+    @Nullable
+    private static Kind compiledKind(Symbol symbol) {
+        if (!(symbol instanceof Function)) {
+            return null;
+        }
+        Function function = (Function) symbol;
+        Kind kind = kindOf(function.valueType());
+        if (kind == null) {
+            return null;
+        }
+        List<Symbol> arguments = function.arguments();
+        switch (function.info().ident().name()) {
+            case AddFunction.NAME:
+            case SubtractFunction.NAME:
+            case MultiplyFunction.NAME:
+            case DivideFunction.NAME:
+            case ModulusFunction.NAME:
+                if (arguments.size() != 2 || kind == Kind.BOOLEAN) {
+                    return null;
+                }
+                for (Symbol argument : arguments) {
+                    Kind argumentKind = kindOf(argument.valueType());
+                    if (argumentKind == null || argumentKind == Kind.BOOLEAN
+                        || (kind == Kind.LONG && argumentKind == Kind.DOUBLE)) {
+                        return null;
+                    }
+                }
+                return kind;
+
+            case EqOperator.NAME:
+            case GtOperator.NAME:
+            case GteOperator.NAME:
+            case LtOperator.NAME:
+            case LteOperator.NAME:
+                if (arguments.size() != 2 || kind != Kind.BOOLEAN) {
+                    return null;
+                }
+                Kind leftKind = kindOf(arguments.get(0).valueType());
+                if (leftKind == null || leftKind != kindOf(arguments.get(1).valueType())) {
+                    return null;
+                }
+                return kind;
+
+            case AndOperator.NAME:
+            case OrOperator.NAME:
+            case NotPredicate.NAME:
+                if (kind != Kind.BOOLEAN) {
+                    return null;
+                }
+                for (Symbol argument : arguments) {
+                    if (kindOf(argument.valueType()) != Kind.BOOLEAN) {
+                        return null;
+                    }
+                }
+                return kind;
+
+            case IsNullPredicate.NAME:
+                return arguments.size() == 1 && kind == Kind.BOOLEAN ? kind : null;
+
+            case CastFunctionResolver.FunctionNames.TO_LONG:
+            case CastFunctionResolver.FunctionNames.TO_DOUBLE:
+                if (arguments.size() != 1 || kind == Kind.BOOLEAN) {
+                    return null;
+                }
+                Kind argumentKind = kindOf(arguments.get(0).valueType());
+                if (argumentKind == null || argumentKind == Kind.BOOLEAN) {
+                    return null;
+                }
+                return kind;
+
+            default:
+                return null;
+        }
+    }
+
+    private static String constantField(int idx) {
+        return "constant" + idx;
+    }
+
+    /**
+     * pops an Object from the stack and pushes its primitive value of the given kind
+     */
+    private static void unbox(GeneratorAdapter method, Kind kind) {
+        switch (kind) {
+            case LONG:
+                method.checkCast(NUMBER_TYPE);
+                method.invokeVirtual(NUMBER_TYPE, LONG_VALUE);
+                break;
+            case DOUBLE:
+                method.checkCast(NUMBER_TYPE);
+                method.invokeVirtual(NUMBER_TYPE, DOUBLE_VALUE);
+                break;
+            case BOOLEAN:
+                method.checkCast(BOOLEAN_OBJECT_TYPE);
+                method.invokeVirtual(BOOLEAN_OBJECT_TYPE, BOOLEAN_VALUE);
+                break;
+        }
+    }
+
+    @Nullable
+    private static Kind kindOf(@Nullable DataType dataType) {
+        if (dataType == null) {
+            return null;
+        }
+        switch (dataType.id()) {
+            case LongType.ID:
+            case IntegerType.ID:
+            case ShortType.ID:
+            case ByteType.ID:
+            case TimestampType.ID:
+                return Kind.LONG;
+            case DoubleType.ID:
+            case FloatType.ID:
+                return Kind.DOUBLE;
+            case BooleanType.ID:
+                return Kind.BOOLEAN;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * The shape of a compilable function: its functions, the types of all symbols and the positions of its leaves,
+     * without the values of its constants. The code generated for a function only depends on its shape.
+     *
+     * Leaves and constants are numbered in the order in which the {@link CodeGenerator} emits them:
+     * depth first and from left to right, a leaf which occurs more than once keeps its first number.
+     */
+    private static class Shape {
+
+        private final StringBuilder key = new StringBuilder();
+        private final Map<Symbol, Integer> leaves = new LinkedHashMap<>();
+        private final List<Object> constants = new ArrayList<>();
+
+        Shape(Function function) {
+            add(function, false);
+        }
+
+        private void add(Symbol symbol, boolean constantAllowed) {
+            if (compiledKind(symbol) != null) {
+                Function function = (Function) symbol;
+                String name = function.info().ident().name();
+                key.append(name).append('<').append(function.valueType().id()).append(">(");
+                // the argument of IS NULL is always read as leaf, see CodeGenerator#emitIsNull
+                boolean constantArguments = !IsNullPredicate.NAME.equals(name);
+                for (Symbol argument : function.arguments()) {
+                    add(argument, constantArguments);
+                    key.append(',');
+                }
+                key.append(')');
+            } else if (constantAllowed && symbol instanceof Literal && ((Literal) symbol).value() != null) {
+                constants.add(((Literal) symbol).value());
+                key.append("?<").append(symbol.valueType().id()).append('>');
+            } else {
+                key.append('$').append(leafIndex(symbol)).append('<').append(symbol.valueType().id()).append('>');
+            }
+        }
+
+        int leafIndex(Symbol symbol) {
+            Integer idx = leaves.get(symbol);
+            if (idx == null) {
+                idx = leaves.size();
+                leaves.put(symbol, idx);
+            }
+            return idx;
+        }
+
+        String key() {
+            return key.toString();
+        }
+
+        List<Symbol> leaves() {
+            return ImmutableList.copyOf(leaves.keySet());
+        }
+
+        Object[] constants() {
+            return constants.toArray();
+        }
+    }
+
+    /**
+     * Generates the value method.
+     * Every emit method pushes exactly one value onto the stack or jumps to the given null label.
+     * Intermediate values are stored in locals so that the stack is always empty when jumping to a null label.
+     */
+    private static class CodeGenerator {
+
+        private final GeneratorAdapter method;
+        private final Type classType;
+        private final Shape shape;
+        private final List<Kind> constantKinds = new ArrayList<>();
+
+        CodeGenerator(GeneratorAdapter method, Type classType, Shape shape) {
+            this.method = method;
+            this.classType = classType;
+            this.shape = shape;
+        }
+
+        void generateValueMethod(Function function) {
+            Kind kind = compiledKind(function);
+            assert kind != null : "function must be compilable";
+            Label returnNull = method.newLabel();
+            emitFunction(function, kind, returnNull);
+            switch (kind) {
+                case LONG:
+                    method.invokeStatic(LONG_OBJECT_TYPE, LONG_VALUE_OF);
+                    break;
+                case DOUBLE:
+                    method.invokeStatic(DOUBLE_OBJECT_TYPE, DOUBLE_VALUE_OF);
+                    break;
+                case BOOLEAN:
+                    method.invokeStatic(BOOLEAN_OBJECT_TYPE, BOOLEAN_VALUE_OF);
+                    break;
+            }
+            method.returnValue();
+            method.mark(returnNull);
+            method.visitInsn(Opcodes.ACONST_NULL);
+            method.returnValue();
+            method.endMethod();
+        }
+
+        /**
+         * pushes the value of the symbol converted to the given kind
+         */
+        private void emit(Symbol symbol, Kind kind, Label ifNull) {
+            Kind compiledKind = compiledKind(symbol);
+            if (compiledKind != null) {
+                emitFunction((Function) symbol, compiledKind, ifNull);
+                convert(compiledKind, kind);
+                return;
+            }
+            if (symbol instanceof Literal && ((Literal) symbol).value() != null) {
+                pushConstant(kind);
+                return;
+            }
+            pushLeafValue(symbol);
+            int value = method.newLocal(OBJECT_TYPE);
+            method.storeLocal(value);
+            method.loadLocal(value);
+            method.ifNull(ifNull);
+            method.loadLocal(value);
+            unbox(method, kind);
+        }
+
+        private void emitFunction(Function function, Kind kind, Label ifNull) {
+            List<Symbol> arguments = function.arguments();
+            switch (function.info().ident().name()) {
+                case AddFunction.NAME:
+                    emitArithmetic(arguments, kind, GeneratorAdapter.ADD, ifNull);
+                    break;
+                case SubtractFunction.NAME:
+                    emitArithmetic(arguments, kind, GeneratorAdapter.SUB, ifNull);
+                    break;
+                case MultiplyFunction.NAME:
+                    emitArithmetic(arguments, kind, GeneratorAdapter.MUL, ifNull);
+                    break;
+                case DivideFunction.NAME:
+                    emitArithmetic(arguments, kind, GeneratorAdapter.DIV, ifNull);
+                    break;
+                case ModulusFunction.NAME:
+                    emitArithmetic(arguments, kind, GeneratorAdapter.REM, ifNull);
+                    break;
+                case EqOperator.NAME:
+                    emitComparison(arguments, GeneratorAdapter.EQ, ifNull);
+                    break;
+                case GtOperator.NAME:
+                    emitComparison(arguments, GeneratorAdapter.GT, ifNull);
+                    break;
+                case GteOperator.NAME:
+                    emitComparison(arguments, GeneratorAdapter.GE, ifNull);
+                    break;
+                case LtOperator.NAME:
+                    emitComparison(arguments, GeneratorAdapter.LT, ifNull);
+                    break;
+                case LteOperator.NAME:
+                    emitComparison(arguments, GeneratorAdapter.LE, ifNull);
+                    break;
+                case AndOperator.NAME:
+                    emitLogical(arguments, false, ifNull);
+                    break;
+                case OrOperator.NAME:
+                    emitLogical(arguments, true, ifNull);
+                    break;
+                case NotPredicate.NAME:
+                    emitNot(arguments.get(0));
+                    break;
+                case IsNullPredicate.NAME:
+                    emitIsNull(arguments.get(0));
+                    break;
+                case CastFunctionResolver.FunctionNames.TO_LONG:
+                case CastFunctionResolver.FunctionNames.TO_DOUBLE:
+                    emit(arguments.get(0), kind, ifNull);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Function " + function.info().ident().name() + " can't be compiled");
+            }
+        }
+
+        private void emitArithmetic(List<Symbol> arguments, Kind kind, int op, Label ifNull) {
+            int left = emitToLocal(arguments.get(0), kind, ifNull);
+            int right = emitToLocal(arguments.get(1), kind, ifNull);
+            method.loadLocal(left);
+            method.loadLocal(right);
+            method.math(op, kind.type);
+        }
+
+        private void emitComparison(List<Symbol> arguments, int mode, Label ifNull) {
+            Kind kind = kindOf(arguments.get(0).valueType());
+            assert kind != null : "comparison arguments must have a primitive type";
+            int left = emitToLocal(arguments.get(0), kind, ifNull);
+            int right = emitToLocal(arguments.get(1), kind, ifNull);
+            method.loadLocal(left);
+            method.loadLocal(right);
+
+            Label isTrue = method.newLabel();
+            Label end = method.newLabel();
+            if (kind == Kind.DOUBLE) {
+                // same semantic as Double.compareTo for NaN and -0.0
+                method.invokeStatic(DOUBLE_OBJECT_TYPE, DOUBLE_COMPARE);
+                method.ifZCmp(mode, isTrue);
+            } else {
+                method.ifCmp(kind.type, mode, isTrue);
+            }
+            method.push(false);
+            method.goTo(end);
+            method.mark(isTrue);
+            method.push(true);
+            method.mark(end);
+        }
+
+        /**
+         * three valued AND / OR:
+         * the first argument which equals the short-circuit value determines the result,
+         * otherwise the result is null if any argument is null.
+         */
+        private void emitLogical(List<Symbol> arguments, boolean shortCircuitValue, Label ifNull) {
+            Label shortCircuit = method.newLabel();
+            Label end = method.newLabel();
+            int nullSeen = method.newLocal(Type.BOOLEAN_TYPE);
+            method.push(false);
+            method.storeLocal(nullSeen);
+
+            for (Symbol argument : arguments) {
+                Label argumentNull = method.newLabel();
+                Label next = method.newLabel();
+                emit(argument, Kind.BOOLEAN, argumentNull);
+                method.ifZCmp(shortCircuitValue ? GeneratorAdapter.NE : GeneratorAdapter.EQ, shortCircuit);
+                method.goTo(next);
+                method.mark(argumentNull);
+                method.push(true);
+                method.storeLocal(nullSeen);
+                method.mark(next);
+            }
+            method.loadLocal(nullSeen);
+            method.ifZCmp(GeneratorAdapter.NE, ifNull);
+            method.push(!shortCircuitValue);
+            method.goTo(end);
+            method.mark(shortCircuit);
+            method.push(shortCircuitValue);
+            method.mark(end);
+        }
+
+        /**
+         * NOT with the semantic of {@link NotPredicate}: NOT null is true
+         */
+        private void emitNot(Symbol argument) {
+            Label argumentNull = method.newLabel();
+            Label end = method.newLabel();
+            emit(argument, Kind.BOOLEAN, argumentNull);
+            method.push(true);
+            method.math(GeneratorAdapter.XOR, Type.INT_TYPE);
+            method.goTo(end);
+            method.mark(argumentNull);
+            method.push(true);
+            method.mark(end);
+        }
+
+        private void emitIsNull(Symbol argument) {
+            Label isNull = method.newLabel();
+            Label end = method.newLabel();
+            Kind kind = compiledKind(argument);
+            if (kind == null) {
+                pushLeafValue(argument);
+                method.ifNull(isNull);
+            } else {
+                emitFunction((Function) argument, kind, isNull);
+                if (kind == Kind.BOOLEAN) {
+                    method.pop();
+                } else {
+                    method.pop2();
+                }
+            }
+            method.push(false);
+            method.goTo(end);
+            method.mark(isNull);
+            method.push(true);
+            method.mark(end);
+        }
+
+        private int emitToLocal(Symbol symbol, Kind kind, Label ifNull) {
+            emit(symbol, kind, ifNull);
+            int local = method.newLocal(kind.type);
+            method.storeLocal(local);
+            return local;
+        }
+
+        private void pushLeafValue(Symbol symbol) {
+            int idx = shape.leafIndex(symbol);
+            method.loadThis();
+            method.getField(COMPILED_INPUT_TYPE, "inputs", INPUT_ARRAY_TYPE);
+            method.push(idx);
+            method.arrayLoad(INPUT_TYPE);
+            method.invokeInterface(INPUT_TYPE, VALUE);
+        }
+
+        /**
+         * pushes the next constant, which is read from the field that is set by the constructor
+         */
+        private void pushConstant(Kind kind) {
+            int idx = constantKinds.size();
+            constantKinds.add(kind);
+            method.loadThis();
+            method.getField(classType, constantField(idx), kind.type);
+        }
+
+        private void convert(Kind from, Kind to) {
+            if (from != to) {
+                assert from != Kind.BOOLEAN && to != Kind.BOOLEAN : "booleans can't be converted";
+                method.cast(from.type, to.type);
+            }
+        }
+    }
+
+    private static class Loader extends ClassLoader {
+
+        Loader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<? extends CompiledInput> define(String className, byte[] bytes) {
+            return defineClass(className, bytes, 0, bytes.length).asSubclass(CompiledInput.class);
+        }
+    }
+}
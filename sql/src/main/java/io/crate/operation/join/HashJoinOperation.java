@@ -0,0 +1,380 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.join;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.core.collections.Row;
+import io.crate.core.collections.RowN;
+import io.crate.jobs.ExecutionState;
+import io.crate.operation.RowUpstream;
+import io.crate.operation.projectors.ListenableRowReceiver;
+import io.crate.operation.projectors.Requirement;
+import io.crate.operation.projectors.Requirements;
+import io.crate.operation.projectors.RowReceiver;
+import io.crate.types.DataType;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.logging.Loggers;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Joins two relations on equality conditions.
+ *
+ * All rows of the build side are materialized into a hash table which is keyed by the join keys.
+ * Once the build side has finished the rows of the probe side are looked up in the table
+ * and every match is emitted. Until then the probe side is paused.
+ *
+ * The emitted rows always contain the columns of the left side followed by the columns of the right side.
+ * Rows with a <code>NULL</code> join key never match.
+ * The key values of both sides are converted to the join key types before they're hashed,
+ * so that keys which are equal in SQL are equal within the hash table (e.g. <code>-0.0 = 0.0</code>).
+ */
+public class HashJoinOperation implements RowUpstream {
+
+    private final static ESLogger LOGGER = Loggers.getLogger(HashJoinOperation.class);
+
+    private static final int ENTRY_OVERHEAD = RamUsageEstimator.NUM_BYTES_OBJECT_HEADER
+                                              + 2 * RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+
+    private final RowReceiver downstream;
+    private final RamAccountingContext ramAccountingContext;
+    private final boolean buildLeft;
+    private final DataType[] joinKeyTypes;
+    private final BuildRowReceiver buildSide;
+    private final ProbeRowReceiver probeSide;
+    private final Map<Object, List<Row>> table = new HashMap<>();
+    private final AtomicBoolean failed = new AtomicBoolean(false);
+
+    private final Object lock = new Object();
+    private boolean buildFinished = false;
+    private boolean probeFinished = false;
+    private Row pendingProbeRow = null;
+
+    private volatile boolean downstreamWantsMore = true;
+
+    /**
+     * @param leftJoinKeys indices of the join keys in the rows of the left side
+     * @param rightJoinKeys indices of the join keys in the rows of the right side
+     * @param joinKeyTypes types the key values of both sides are converted to
+     * @param buildLeft if true the hash table is built from the left side, otherwise from the right side
+     */
+    public HashJoinOperation(RowReceiver rowReceiver,
+                             RamAccountingContext ramAccountingContext,
+                             int[] leftJoinKeys,
+                             int[] rightJoinKeys,
+                             List<DataType> joinKeyTypes,
+                             boolean buildLeft) {
+        assert leftJoinKeys.length == rightJoinKeys.length : "number of join keys must match";
+        assert leftJoinKeys.length == joinKeyTypes.size() : "number of join key types must match";
+        assert leftJoinKeys.length > 0 : "hash join requires at least one join key";
+        this.downstream = rowReceiver;
+        this.ramAccountingContext = ramAccountingContext;
+        this.buildLeft = buildLeft;
+        this.joinKeyTypes = joinKeyTypes.toArray(new DataType[joinKeyTypes.size()]);
+        downstream.setUpstream(this);
+        if (buildLeft) {
+            buildSide = new BuildRowReceiver(leftJoinKeys);
+            probeSide = new ProbeRowReceiver(rightJoinKeys);
+        } else {
+            buildSide = new BuildRowReceiver(rightJoinKeys);
+            probeSide = new ProbeRowReceiver(leftJoinKeys);
+        }
+    }
+
+    public ListenableRowReceiver leftRowReceiver() {
+        return buildLeft ? buildSide : probeSide;
+    }
+
+    public ListenableRowReceiver rightRowReceiver() {
+        return buildLeft ? probeSide : buildSide;
+    }
+
+    @Override
+    public void pause() {
+        probeSide.upstream.pause();
+    }
+
+    @Override
+    public void resume(boolean async) {
+        probeSide.upstream.resume(async);
+    }
+
+    @Override
+    public void repeat() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @return the join key of the row or null if any of the key values is null
+     */
+    @Nullable
+    private Object joinKey(Row row, int[] keyIndices) {
+        if (keyIndices.length == 1) {
+            return keyValue(joinKeyTypes[0], row.get(keyIndices[0]));
+        }
+        Object[] key = new Object[keyIndices.length];
+        for (int i = 0; i < keyIndices.length; i++) {
+            Object value = keyValue(joinKeyTypes[i], row.get(keyIndices[i]));
+            if (value == null) {
+                return null;
+            }
+            key[i] = value;
+        }
+        return Arrays.asList(key);
+    }
+
+    /**
+     * converts a join key value to the join key type; values which are equal in SQL are equal afterwards
+     * and have the same hashCode.
+     */
+    @Nullable
+    public static Object keyValue(DataType type, @Nullable Object value) {
+        if (value == null) {
+            return null;
+        }
+        Object converted = type.value(value);
+        // -0.0 and 0.0 are equal in SQL but neither their equals() nor their hashCode() match
+        if (converted instanceof Double && (Double) converted == 0.0d) {
+            return 0.0d;
+        }
+        if (converted instanceof Float && (Float) converted == 0.0f) {
+            return 0.0f;
+        }
+        return converted;
+    }
+
+    private static long estimateSize(Object[] cells) {
+        long size = RamUsageEstimator.NUM_BYTES_ARRAY_HEADER
+                    + cells.length * RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+        for (Object cell : cells) {
+            if (cell == null) {
+                continue;
+            }
+            if (cell instanceof BytesRef) {
+                size += RamUsageEstimator.NUM_BYTES_OBJECT_HEADER + 16 + ((BytesRef) cell).length;
+            } else if (cell instanceof Number || cell instanceof Boolean) {
+                size += RamUsageEstimator.NUM_BYTES_OBJECT_HEADER + 8;
+            } else {
+                size += RamUsageEstimator.shallowSizeOf(cell);
+            }
+        }
+        return RamAccountingContext.roundUp(size);
+    }
+
+    private void fail(Throwable throwable) {
+        downstreamWantsMore = false;
+        if (failed.compareAndSet(false, true)) {
+            downstream.fail(throwable);
+        }
+    }
+
+    private abstract class AbstractRowReceiver implements ListenableRowReceiver {
+
+        final SettableFuture<Void> finished = SettableFuture.create();
+        final int[] joinKeys;
+        volatile RowUpstream upstream;
+
+        AbstractRowReceiver(int[] joinKeys) {
+            this.joinKeys = joinKeys;
+        }
+
+        @Override
+        public ListenableFuture<Void> finishFuture() {
+            return finished;
+        }
+
+        @Override
+        public void prepare(ExecutionState executionState) {
+        }
+
+        @Override
+        public void setUpstream(RowUpstream rowUpstream) {
+            assert rowUpstream != null : "rowUpstream must not be null";
+            this.upstream = rowUpstream;
+        }
+
+        @Override
+        public void fail(Throwable throwable) {
+            HashJoinOperation.this.fail(throwable);
+            finished.setException(throwable);
+        }
+    }
+
+    private class BuildRowReceiver extends AbstractRowReceiver {
+
+        BuildRowReceiver(int[] joinKeys) {
+            super(joinKeys);
+        }
+
+        @Override
+        public boolean setNextRow(Row row) {
+            if (!downstreamWantsMore) {
+                return false;
+            }
+            // the key is taken from the materialized row as the upstream might re-use the values
+            Object[] cells = row.materialize();
+            Row materializedRow = new RowN(cells);
+            Object key = joinKey(materializedRow, joinKeys);
+            if (key == null) {
+                return true;
+            }
+            List<Row> rows = table.get(key);
+            if (rows == null) {
+                rows = new ArrayList<>(1);
+                table.put(key, rows);
+                ramAccountingContext.addBytes(ENTRY_OVERHEAD + RamUsageEstimator.NUM_BYTES_OBJECT_HEADER);
+            }
+            rows.add(materializedRow);
+            ramAccountingContext.addBytes(estimateSize(cells) + RamUsageEstimator.NUM_BYTES_OBJECT_REF);
+            return true;
+        }
+
+        @Override
+        public void fail(Throwable throwable) {
+            super.fail(throwable);
+            Row pending;
+            synchronized (lock) {
+                buildFinished = true;
+                pending = pendingProbeRow;
+                pendingProbeRow = null;
+            }
+            // the probe side must not wait for a hash table which is never completed
+            probeSide.finished.setException(throwable);
+            if (pending != null) {
+                probeSide.upstream.resume(false);
+            }
+        }
+
+        @Override
+        public void finish() {
+            LOGGER.trace("build side finished with {} keys", table.size());
+            Row pending;
+            boolean finishDownstream;
+            synchronized (lock) {
+                buildFinished = true;
+                pending = pendingProbeRow;
+                pendingProbeRow = null;
+                finishDownstream = probeFinished;
+            }
+            finished.set(null);
+            if (pending != null) {
+                probeSide.probe(pending);
+                probeSide.upstream.resume(false);
+            } else if (finishDownstream && !failed.get()) {
+                downstream.finish();
+            }
+        }
+
+        @Override
+        public Set<Requirement> requirements() {
+            return Requirements.NO_REQUIREMENTS;
+        }
+    }
+
+    private class ProbeRowReceiver extends AbstractRowReceiver {
+
+        private final Set<Requirement> requirements;
+        private final NestedLoopOperation.CombinedRow combinedRow = new NestedLoopOperation.CombinedRow();
+
+        // non-volatile copy for faster access once the hash table is complete
+        private boolean tableComplete = false;
+
+        ProbeRowReceiver(int[] joinKeys) {
+            super(joinKeys);
+            requirements = Requirements.remove(downstream.requirements(), Requirement.REPEAT);
+        }
+
+        @Override
+        public boolean setNextRow(Row row) {
+            if (!tableComplete) {
+                synchronized (lock) {
+                    if (!buildFinished) {
+                        LOGGER.trace("probe side received a row before the build side finished, pausing");
+                        pendingProbeRow = new RowN(row.materialize());
+                        upstream.pause();
+                        return true;
+                    }
+                }
+                tableComplete = true;
+            }
+            return probe(row);
+        }
+
+        boolean probe(Row row) {
+            if (!downstreamWantsMore) {
+                return false;
+            }
+            if (table.isEmpty()) {
+                // inner join without any rows on the build side can't produce any rows
+                return false;
+            }
+            Object key = joinKey(row, joinKeys);
+            if (key == null) {
+                return true;
+            }
+            List<Row> matches = table.get(key);
+            if (matches == null) {
+                return true;
+            }
+            for (Row match : matches) {
+                if (buildLeft) {
+                    combinedRow.outerRow = match;
+                    combinedRow.innerRow = row;
+                } else {
+                    combinedRow.outerRow = row;
+                    combinedRow.innerRow = match;
+                }
+                if (!downstream.setNextRow(combinedRow)) {
+                    LOGGER.trace("downstream doesn't need any more rows");
+                    downstreamWantsMore = false;
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void finish() {
+            LOGGER.trace("probe side finished");
+            boolean finishDownstream;
+            synchronized (lock) {
+                probeFinished = true;
+                finishDownstream = buildFinished;
+            }
+            finished.set(null);
+            if (finishDownstream && !failed.get()) {
+                downstream.finish();
+            }
+        }
+
+        @Override
+        public Set<Requirement> requirements() {
+            return requirements;
+        }
+    }
+}
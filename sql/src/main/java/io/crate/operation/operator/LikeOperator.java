@@ -22,20 +22,26 @@
 package io.crate.operation.operator;
 
 import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.Literal;
 import io.crate.analyze.symbol.Symbol;
+import io.crate.analyze.symbol.SymbolType;
 import io.crate.metadata.FunctionInfo;
 import io.crate.metadata.Scalar;
 import io.crate.operation.Input;
+import io.crate.operation.scalar.regex.PatternMatcher;
 import io.crate.types.DataTypes;
 import org.apache.lucene.util.BytesRef;
 
-import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+import java.util.List;
 
 public class LikeOperator extends Operator<BytesRef> {
 
     public static final String NAME = "op_like";
 
     private FunctionInfo info;
+    @Nullable
+    private final PatternMatcher matcher;
 
     public static final char DEFAULT_ESCAPE = '\\';
 
@@ -44,7 +50,12 @@ public class LikeOperator extends Operator<BytesRef> {
     }
 
     public LikeOperator(FunctionInfo info) {
+        this(info, null);
+    }
+
+    private LikeOperator(FunctionInfo info, @Nullable PatternMatcher matcher) {
         this.info = info;
+        this.matcher = matcher;
     }
 
     @Override
@@ -60,6 +71,17 @@ public class LikeOperator extends Operator<BytesRef> {
         return Scalar.evaluateIfLiterals(this, symbol);
     }
 
+    @Override
+    public Scalar<Boolean, BytesRef> compile(List<Symbol> arguments) {
+        assert arguments.size() == 2 : "invalid number of arguments";
+
+        Symbol pattern = arguments.get(1);
+        if (pattern.symbolType() != SymbolType.LITERAL || ((Literal) pattern).value() == null) {
+            return this;
+        }
+        return new LikeOperator(info, PatternMatcher.like((BytesRef) ((Literal) pattern).value()));
+    }
+
     @Override
     public Boolean evaluate(Input<BytesRef>... args) {
         assert (args != null);
@@ -71,12 +93,10 @@ public class LikeOperator extends Operator<BytesRef> {
             return null;
         }
 
-        return matches(expression.utf8ToString(), pattern.utf8ToString());
-    }
-
-    private boolean matches(String expression, String pattern) {
-        return Pattern.compile(
-                patternToRegex(pattern, DEFAULT_ESCAPE, true), Pattern.DOTALL).matcher(expression).matches();
+        if (matcher != null) {
+            return matcher.matches(expression);
+        }
+        return PatternMatcher.like(pattern).matches(expression);
     }
 
     public static String patternToRegex(String patternString, char escapeChar, boolean shouldEscape) {
@@ -24,14 +24,16 @@ package io.crate.operation.operator;
 import io.crate.analyze.symbol.Function;
 import io.crate.analyze.symbol.Literal;
 import io.crate.analyze.symbol.Symbol;
+import io.crate.analyze.symbol.SymbolType;
 import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.Scalar;
 import io.crate.operation.Input;
+import io.crate.operation.scalar.regex.PatternMatcher;
 import io.crate.types.DataTypes;
 import org.apache.lucene.util.BytesRef;
-import org.apache.lucene.util.automaton.ByteRunAutomaton;
-import org.apache.lucene.util.automaton.RegExp;
 
-import static io.crate.operation.scalar.regex.RegexMatcher.isPcrePattern;
+import javax.annotation.Nullable;
+import java.util.List;
 
 
 public class RegexpMatchOperator extends Operator<BytesRef> {
@@ -43,6 +45,27 @@ public class RegexpMatchOperator extends Operator<BytesRef> {
         module.registerOperatorFunction(new RegexpMatchOperator());
     }
 
+    @Nullable
+    private final PatternMatcher matcher;
+
+    public RegexpMatchOperator() {
+        this(null);
+    }
+
+    private RegexpMatchOperator(@Nullable PatternMatcher matcher) {
+        this.matcher = matcher;
+    }
+
+    @Override
+    public Scalar<Boolean, BytesRef> compile(List<Symbol> arguments) {
+        assert arguments.size() == 2 : "invalid number of arguments";
+
+        Symbol pattern = arguments.get(1);
+        if (pattern.symbolType() != SymbolType.LITERAL || ((Literal) pattern).value() == null) {
+            return this;
+        }
+        return new RegexpMatchOperator(PatternMatcher.regexp((BytesRef) ((Literal) pattern).value()));
+    }
 
     @Override
     public Boolean evaluate(Input<BytesRef>... args) {
@@ -55,13 +78,10 @@ public class RegexpMatchOperator extends Operator<BytesRef> {
         if (pattern == null) {
             return null;
         }
-        if (isPcrePattern(pattern)) {
-            return source.utf8ToString().matches(pattern.utf8ToString());
-        } else {
-            RegExp regexp = new RegExp(pattern.utf8ToString());
-            ByteRunAutomaton regexpRunAutomaton = new ByteRunAutomaton(regexp.toAutomaton());
-            return regexpRunAutomaton.run(source.bytes, source.offset, source.length);
+        if (matcher != null) {
+            return matcher.matches(source);
         }
+        return PatternMatcher.regexp(pattern).matches(source);
     }
 
     @Override
@@ -22,6 +22,7 @@
 package io.crate.operation.operator.any;
 
 import io.crate.metadata.FunctionInfo;
+import io.crate.operation.scalar.regex.PatternMatcher;
 import org.apache.lucene.util.BytesRef;
 
 public abstract class AbstractAnyLikeOperator<T extends AbstractAnyLikeOperator<?>> extends AnyOperator<T> {
@@ -37,8 +38,7 @@ public abstract class AbstractAnyLikeOperator<T extends AbstractAnyLikeOperator<
 
     @Override
     protected Boolean doEvaluate(Object left, Iterable<?> rightIterable) {
-        BytesRef rightBytesRef = (BytesRef) left;
-        String pattern = rightBytesRef.utf8ToString();
+        PatternMatcher matcher = PatternMatcher.like((BytesRef) left);
 
         boolean hasNull = false;
         for (Object elem : rightIterable) {
@@ -48,18 +48,18 @@ public abstract class AbstractAnyLikeOperator<T extends AbstractAnyLikeOperator<
             }
             assert (elem instanceof BytesRef || elem instanceof String);
 
-            String elemValue;
+            BytesRef elemValue;
             if (elem instanceof BytesRef) {
-                elemValue = ((BytesRef) elem).utf8ToString();
+                elemValue = (BytesRef) elem;
             } else {
-                elemValue = (String)elem;
+                elemValue = new BytesRef((String) elem);
             }
-            if (matches(elemValue, pattern)) {
+            if (matches(elemValue, matcher)) {
                 return true;
             }
         }
         return hasNull ? null : false;
     }
 
-    protected abstract boolean matches(String expression, String pattern);
+    protected abstract boolean matches(BytesRef expression, PatternMatcher matcher);
 }
@@ -24,10 +24,9 @@ package io.crate.operation.operator.any;
 import io.crate.analyze.symbol.Function;
 import io.crate.metadata.FunctionImplementation;
 import io.crate.metadata.FunctionInfo;
-import io.crate.operation.operator.LikeOperator;
 import io.crate.operation.operator.OperatorModule;
-
-import java.util.regex.Pattern;
+import io.crate.operation.scalar.regex.PatternMatcher;
+import org.apache.lucene.util.BytesRef;
 
 public class AnyNotLikeOperator extends AbstractAnyLikeOperator<AnyNotLikeOperator> {
 
@@ -55,10 +54,7 @@ public class AnyNotLikeOperator extends AbstractAnyLikeOperator<AnyNotLikeOperat
     }
 
     @Override
-    protected boolean matches(String expression, String pattern) {
-        return !Pattern.matches(
-                LikeOperator.patternToRegex(pattern, LikeOperator.DEFAULT_ESCAPE, true),
-                expression
-        );
+    protected boolean matches(BytesRef expression, PatternMatcher matcher) {
+        return !matcher.matches(expression);
     }
 }
@@ -0,0 +1,68 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.profile;
+
+import io.crate.planner.node.ExecutionPhase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the {@link PhaseProfiler}s of a profiled job on the local node.
+ */
+public class JobProfiler {
+
+    private static final Comparator<PhaseProfile> PHASE_ID_COMPARATOR = new Comparator<PhaseProfile>() {
+        @Override
+        public int compare(PhaseProfile o1, PhaseProfile o2) {
+            return Integer.compare(o1.phaseId(), o2.phaseId());
+        }
+    };
+
+    private final ConcurrentMap<Integer, PhaseProfiler> phaseProfilers = new ConcurrentHashMap<>();
+
+    public PhaseProfiler phaseProfiler(ExecutionPhase phase) {
+        PhaseProfiler profiler = phaseProfilers.get(phase.executionPhaseId());
+        if (profiler == null) {
+            profiler = new PhaseProfiler(phase);
+            PhaseProfiler existing = phaseProfilers.putIfAbsent(phase.executionPhaseId(), profiler);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return profiler;
+    }
+
+    public List<PhaseProfile> snapshot() {
+        List<PhaseProfile> profiles = new ArrayList<>(phaseProfilers.size());
+        for (PhaseProfiler profiler : phaseProfilers.values()) {
+            profiles.add(profiler.snapshot());
+        }
+        Collections.sort(profiles, PHASE_ID_COMPARATOR);
+        return profiles;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.profile;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Streamable;
+
+import java.io.IOException;
+
+/**
+ * Statistics of a profiled operation: a projector or the output of an execution phase.
+ * Times are exclusive, the time spent in the downstream of the operation is not included.
+ */
+public class OperationProfile implements Streamable {
+
+    private String name;
+    private long rowsIn;
+    private long rowsOut;
+    private long wallNanos;
+    private long cpuNanos;
+    private long pausedNanos;
+
+    public static OperationProfile fromStream(StreamInput in) throws IOException {
+        OperationProfile profile = new OperationProfile();
+        profile.readFrom(in);
+        return profile;
+    }
+
+    public OperationProfile(String name, long rowsIn, long rowsOut, long wallNanos, long cpuNanos, long pausedNanos) {
+        this.name = name;
+        this.rowsIn = rowsIn;
+        this.rowsOut = rowsOut;
+        this.wallNanos = wallNanos;
+        this.cpuNanos = cpuNanos;
+        this.pausedNanos = pausedNanos;
+    }
+
+    private OperationProfile() {
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long rowsIn() {
+        return rowsIn;
+    }
+
+    public long rowsOut() {
+        return rowsOut;
+    }
+
+    public long wallNanos() {
+        return wallNanos;
+    }
+
+    public long cpuNanos() {
+        return cpuNanos;
+    }
+
+    /**
+     * @return the time the operation kept its upstream paused
+     */
+    public long pausedNanos() {
+        return pausedNanos;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        name = in.readString();
+        rowsIn = in.readVLong();
+        rowsOut = in.readVLong();
+        wallNanos = in.readVLong();
+        cpuNanos = in.readVLong();
+        pausedNanos = in.readVLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeString(name);
+        out.writeVLong(rowsIn);
+        out.writeVLong(rowsOut);
+        out.writeVLong(wallNanos);
+        out.writeVLong(cpuNanos);
+        out.writeVLong(pausedNanos);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.profile;
+
+import io.crate.operation.RowUpstream;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the statistics of a single operation (a projector or the output of a phase).
+ *
+ * The same profiler may be shared by several row receivers (e.g. one shard projector per shard),
+ * so all counters are updated atomically.
+ */
+public class OperationProfiler {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME_SUPPORTED =
+            THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_MX_BEAN.isThreadCpuTimeEnabled();
+
+    private final String name;
+    private final AtomicLong rowsIn = new AtomicLong();
+    private final AtomicLong rowsOut = new AtomicLong();
+    private final AtomicLong wallNanos = new AtomicLong();
+    private final AtomicLong cpuNanos = new AtomicLong();
+    private final AtomicLong downstreamWallNanos = new AtomicLong();
+    private final AtomicLong downstreamCpuNanos = new AtomicLong();
+    private final AtomicLong pausedNanos = new AtomicLong();
+    private volatile long finishedNanos = 0L;
+
+    public OperationProfiler(String name) {
+        this.name = name;
+    }
+
+    static long cpuTime() {
+        return CPU_TIME_SUPPORTED ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0L;
+    }
+
+    void rowIn(int numRows) {
+        rowsIn.addAndGet(numRows);
+    }
+
+    void rowOut() {
+        rowsOut.incrementAndGet();
+    }
+
+    void addTime(long startWall, long startCpu) {
+        wallNanos.addAndGet(System.nanoTime() - startWall);
+        cpuNanos.addAndGet(cpuTime() - startCpu);
+    }
+
+    void addDownstreamTime(long startWall, long startCpu) {
+        downstreamWallNanos.addAndGet(System.nanoTime() - startWall);
+        downstreamCpuNanos.addAndGet(cpuTime() - startCpu);
+    }
+
+    void finished() {
+        finishedNanos = System.nanoTime();
+    }
+
+    /**
+     * @return the time {@link #finished()} has been called, 0 if the operation is still running
+     */
+    long finishedNanos() {
+        return finishedNanos;
+    }
+
+    /**
+     * wrap the upstream of the profiled operation in order to measure the time it has been paused
+     */
+    RowUpstream trackPauses(RowUpstream upstream) {
+        return new PauseTrackingUpstream(upstream);
+    }
+
+    /**
+     * @return the statistics collected so far; times spent in the downstream of the operation are excluded
+     */
+    public OperationProfile snapshot() {
+        return new OperationProfile(
+                name,
+                rowsIn.get(),
+                rowsOut.get(),
+                Math.max(0L, wallNanos.get() - downstreamWallNanos.get()),
+                Math.max(0L, cpuNanos.get() - downstreamCpuNanos.get()),
+                pausedNanos.get());
+    }
+
+    private class PauseTrackingUpstream implements RowUpstream {
+
+        private final RowUpstream upstream;
+        private final AtomicLong pausedAt = new AtomicLong();
+
+        PauseTrackingUpstream(RowUpstream upstream) {
+            this.upstream = upstream;
+        }
+
+        @Override
+        public void pause() {
+            pausedAt.compareAndSet(0L, System.nanoTime());
+            upstream.pause();
+        }
+
+        @Override
+        public void resume(boolean async) {
+            long pausedSince = pausedAt.getAndSet(0L);
+            if (pausedSince > 0L) {
+                pausedNanos.addAndGet(System.nanoTime() - pausedSince);
+            }
+            upstream.resume(async);
+        }
+
+        @Override
+        public void repeat() {
+            upstream.repeat();
+        }
+    }
+}
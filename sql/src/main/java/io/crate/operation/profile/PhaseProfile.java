@@ -0,0 +1,137 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.profile;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Streamable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Statistics of an execution phase on a single node.
+ */
+public class PhaseProfile implements Streamable {
+
+    private int phaseId;
+    private String name;
+    private long wallNanos;
+    private boolean finished;
+    private long bytesUsed;
+    private long pagesSent;
+    private List<OperationProfile> operations;
+
+    public static PhaseProfile fromStream(StreamInput in) throws IOException {
+        PhaseProfile profile = new PhaseProfile();
+        profile.readFrom(in);
+        return profile;
+    }
+
+    public PhaseProfile(int phaseId,
+                        String name,
+                        long wallNanos,
+                        boolean finished,
+                        long bytesUsed,
+                        long pagesSent,
+                        List<OperationProfile> operations) {
+        this.phaseId = phaseId;
+        this.name = name;
+        this.wallNanos = wallNanos;
+        this.finished = finished;
+        this.bytesUsed = bytesUsed;
+        this.pagesSent = pagesSent;
+        this.operations = operations;
+    }
+
+    private PhaseProfile() {
+    }
+
+    public int phaseId() {
+        return phaseId;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the time from the preparation of the phase until its output finished,
+     *         or until now if the phase is still running
+     */
+    public long wallNanos() {
+        return wallNanos;
+    }
+
+    public boolean finished() {
+        return finished;
+    }
+
+    /**
+     * @return the bytes accounted by the RamAccountingContext of the phase
+     */
+    public long bytesUsed() {
+        return bytesUsed;
+    }
+
+    /**
+     * @return the number of pages sent to downstream nodes
+     */
+    public long pagesSent() {
+        return pagesSent;
+    }
+
+    public List<OperationProfile> operations() {
+        return operations;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        phaseId = in.readVInt();
+        name = in.readString();
+        wallNanos = in.readVLong();
+        finished = in.readBoolean();
+        bytesUsed = in.readVLong();
+        pagesSent = in.readVLong();
+        int numOperations = in.readVInt();
+        operations = new ArrayList<>(numOperations);
+        for (int i = 0; i < numOperations; i++) {
+            operations.add(OperationProfile.fromStream(in));
+        }
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVInt(phaseId);
+        out.writeString(name);
+        out.writeVLong(wallNanos);
+        out.writeBoolean(finished);
+        out.writeVLong(bytesUsed);
+        out.writeVLong(pagesSent);
+        out.writeVInt(operations.size());
+        for (OperationProfile operation : operations) {
+            operation.writeTo(out);
+        }
+    }
+}
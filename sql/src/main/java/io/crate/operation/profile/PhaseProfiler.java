@@ -0,0 +1,126 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.profile;
+
+import io.crate.breaker.RamAccountingContext;
+import io.crate.executor.transport.distributed.DistributingDownstream;
+import io.crate.operation.projectors.ProjectorFactory;
+import io.crate.operation.projectors.RowReceiver;
+import io.crate.planner.node.ExecutionPhase;
+import io.crate.planner.projection.Projection;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Collects the statistics of one {@link ExecutionPhase} on the local node.
+ */
+public class PhaseProfiler {
+
+    private final int phaseId;
+    private final String name;
+    private final long startNanos = System.nanoTime();
+
+    private final List<Projection> projections = new ArrayList<>();
+    private final List<OperationProfiler> projectionProfilers = new ArrayList<>();
+    private final List<OperationProfiler> outputProfilers = new ArrayList<>();
+    private final List<DistributingDownstream> distributingDownstreams = new ArrayList<>();
+
+    @Nullable
+    private volatile RamAccountingContext ramAccountingContext;
+
+    PhaseProfiler(ExecutionPhase phase) {
+        this.phaseId = phase.executionPhaseId();
+        this.name = String.format(Locale.ENGLISH, "%s (%s)", phase.name(), phase.type());
+    }
+
+    /**
+     * @return a projector factory which profiles the projectors created by the given factory,
+     *         or the given factory if profiling is disabled
+     */
+    public static ProjectorFactory projectorFactory(@Nullable PhaseProfiler profiler, ProjectorFactory projectorFactory) {
+        if (profiler == null) {
+            return projectorFactory;
+        }
+        return new ProfilingProjectorFactory(projectorFactory, profiler);
+    }
+
+    public void ramAccountingContext(RamAccountingContext ramAccountingContext) {
+        this.ramAccountingContext = ramAccountingContext;
+    }
+
+    /**
+     * wrap the {@link RowReceiver} the phase emits its rows to
+     */
+    public RowReceiver profileOutput(RowReceiver rowReceiver) {
+        OperationProfiler profiler = new OperationProfiler(rowReceiver.getClass().getSimpleName());
+        synchronized (this) {
+            outputProfilers.add(profiler);
+            if (rowReceiver instanceof DistributingDownstream) {
+                distributingDownstreams.add((DistributingDownstream) rowReceiver);
+            }
+        }
+        return new ProfilingRowReceiver(rowReceiver, profiler);
+    }
+
+    /**
+     * @return the profiler for all projectors created for the given projection
+     */
+    synchronized OperationProfiler projectionProfiler(Projection projection) {
+        for (int i = 0; i < projections.size(); i++) {
+            if (projections.get(i) == projection) {
+                return projectionProfilers.get(i);
+            }
+        }
+        OperationProfiler profiler = new OperationProfiler(projection.projectionType().name());
+        projections.add(projection);
+        projectionProfilers.add(profiler);
+        return profiler;
+    }
+
+    public synchronized PhaseProfile snapshot() {
+        List<OperationProfile> operations = new ArrayList<>(projectionProfilers.size() + outputProfilers.size());
+        for (OperationProfiler profiler : projectionProfilers) {
+            operations.add(profiler.snapshot());
+        }
+        boolean finished = !outputProfilers.isEmpty();
+        long endNanos = 0L;
+        for (OperationProfiler profiler : outputProfilers) {
+            operations.add(profiler.snapshot());
+            long finishedNanos = profiler.finishedNanos();
+            finished &= finishedNanos != 0L;
+            endNanos = Math.max(endNanos, finishedNanos);
+        }
+        long wallNanos = (finished ? endNanos : System.nanoTime()) - startNanos;
+
+        long pagesSent = 0L;
+        for (DistributingDownstream distributingDownstream : distributingDownstreams) {
+            pagesSent += distributingDownstream.pagesSent();
+        }
+        RamAccountingContext ramAccountingContext = this.ramAccountingContext;
+        long bytesUsed = ramAccountingContext == null ? 0L : ramAccountingContext.usedBytes();
+        return new PhaseProfile(phaseId, name, wallNanos, finished, bytesUsed, pagesSent, operations);
+    }
+}
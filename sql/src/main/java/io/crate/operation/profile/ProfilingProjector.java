@@ -0,0 +1,156 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.profile;
+
+import io.crate.core.collections.Row;
+import io.crate.jobs.ExecutionState;
+import io.crate.operation.ColumnBatch;
+import io.crate.operation.RowUpstream;
+import io.crate.operation.projectors.BatchRowReceiver;
+import io.crate.operation.projectors.Projector;
+import io.crate.operation.projectors.Requirement;
+import io.crate.operation.projectors.RowReceiver;
+
+import java.util.Set;
+
+/**
+ * A {@link Projector} decorator which records rows in/out and the time spent in the projector itself.
+ *
+ * The downstream of the projector is wrapped as well, so that the time spent in the downstream
+ * can be subtracted from the time measured around the calls to the projector.
+ */
+class ProfilingProjector extends ProfilingRowReceiver implements Projector {
+
+    static Projector wrap(Projector projector, OperationProfiler profiler) {
+        if (projector instanceof BatchRowReceiver) {
+            return new BatchProfilingProjector(projector, profiler);
+        }
+        return new ProfilingProjector(projector, profiler);
+    }
+
+    private ProfilingProjector(Projector delegate, OperationProfiler profiler) {
+        super(delegate, profiler);
+    }
+
+    @Override
+    public void downstream(RowReceiver rowDownstreamHandle) {
+        ((Projector) delegate).downstream(new DownstreamRowReceiver(rowDownstreamHandle, profiler));
+    }
+
+    @Override
+    public void pause() {
+        ((Projector) delegate).pause();
+    }
+
+    @Override
+    public void resume(boolean async) {
+        ((Projector) delegate).resume(async);
+    }
+
+    @Override
+    public void repeat() {
+        ((Projector) delegate).repeat();
+    }
+
+    private static class BatchProfilingProjector extends ProfilingProjector implements BatchRowReceiver {
+
+        private BatchProfilingProjector(Projector delegate, OperationProfiler profiler) {
+            super(delegate, profiler);
+        }
+
+        @Override
+        public boolean setNextBatch(ColumnBatch batch) {
+            profiler.rowIn(batch.size());
+            long wall = System.nanoTime();
+            long cpu = OperationProfiler.cpuTime();
+            try {
+                return ((BatchRowReceiver) delegate).setNextBatch(batch);
+            } finally {
+                profiler.addTime(wall, cpu);
+            }
+        }
+    }
+
+    /**
+     * counts the rows emitted by the profiled projector and measures the time spent downstream
+     */
+    private static class DownstreamRowReceiver implements RowReceiver {
+
+        private final RowReceiver delegate;
+        private final OperationProfiler profiler;
+
+        DownstreamRowReceiver(RowReceiver delegate, OperationProfiler profiler) {
+            this.delegate = delegate;
+            this.profiler = profiler;
+        }
+
+        @Override
+        public boolean setNextRow(Row row) {
+            profiler.rowOut();
+            long wall = System.nanoTime();
+            long cpu = OperationProfiler.cpuTime();
+            try {
+                return delegate.setNextRow(row);
+            } finally {
+                profiler.addDownstreamTime(wall, cpu);
+            }
+        }
+
+        @Override
+        public void finish() {
+            long wall = System.nanoTime();
+            long cpu = OperationProfiler.cpuTime();
+            try {
+                delegate.finish();
+            } finally {
+                profiler.addDownstreamTime(wall, cpu);
+            }
+        }
+
+        @Override
+        public void fail(Throwable throwable) {
+            long wall = System.nanoTime();
+            long cpu = OperationProfiler.cpuTime();
+            try {
+                delegate.fail(throwable);
+            } finally {
+                profiler.addDownstreamTime(wall, cpu);
+            }
+        }
+
+        @Override
+        public void prepare(ExecutionState executionState) {
+            delegate.prepare(executionState);
+        }
+
+        @Override
+        public void setUpstream(RowUpstream rowUpstream) {
+            delegate.setUpstream(rowUpstream);
+        }
+
+        @Override
+        public Set<Requirement> requirements() {
+            return delegate.requirements();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.profile;
+
+import io.crate.core.collections.Row;
+import io.crate.jobs.ExecutionState;
+import io.crate.operation.RowUpstream;
+import io.crate.operation.projectors.Requirement;
+import io.crate.operation.projectors.RowReceiver;
+
+import java.util.Set;
+
+/**
+ * A {@link RowReceiver} which counts the rows it receives and measures the time spent in its delegate.
+ */
+class ProfilingRowReceiver implements RowReceiver {
+
+    final RowReceiver delegate;
+    final OperationProfiler profiler;
+
+    ProfilingRowReceiver(RowReceiver delegate, OperationProfiler profiler) {
+        this.delegate = delegate;
+        this.profiler = profiler;
+    }
+
+    @Override
+    public boolean setNextRow(Row row) {
+        profiler.rowIn(1);
+        long wall = System.nanoTime();
+        long cpu = OperationProfiler.cpuTime();
+        try {
+            return delegate.setNextRow(row);
+        } finally {
+            profiler.addTime(wall, cpu);
+        }
+    }
+
+    @Override
+    public void finish() {
+        long wall = System.nanoTime();
+        long cpu = OperationProfiler.cpuTime();
+        try {
+            delegate.finish();
+        } finally {
+            profiler.addTime(wall, cpu);
+            profiler.finished();
+        }
+    }
+
+    @Override
+    public void fail(Throwable throwable) {
+        long wall = System.nanoTime();
+        long cpu = OperationProfiler.cpuTime();
+        try {
+            delegate.fail(throwable);
+        } finally {
+            profiler.addTime(wall, cpu);
+            profiler.finished();
+        }
+    }
+
+    @Override
+    public void prepare(ExecutionState executionState) {
+        delegate.prepare(executionState);
+    }
+
+    @Override
+    public void setUpstream(RowUpstream rowUpstream) {
+        delegate.setUpstream(profiler.trackPauses(rowUpstream));
+    }
+
+    @Override
+    public Set<Requirement> requirements() {
+        return delegate.requirements();
+    }
+}
@@ -25,18 +25,21 @@ import io.crate.breaker.RamAccountingContext;
 import io.crate.core.collections.Row;
 import io.crate.core.collections.RowN;
 import io.crate.operation.AggregationContext;
+import io.crate.operation.ColumnBatch;
+import io.crate.operation.aggregation.AggregationSlots;
 import io.crate.operation.aggregation.Aggregator;
 import io.crate.operation.collect.CollectExpression;
 
 import java.util.Set;
 
-public class AggregationPipe extends AbstractProjector {
+public class AggregationPipe extends AbstractProjector implements BatchRowReceiver {
 
     private final Aggregator[] aggregators;
     private final Set<CollectExpression<Row, ?>> collectExpressions;
     private final Object[] cells;
     private final Row row;
     private final Object[] states;
+    private final AggregationSlots[] slots;
 
     public AggregationPipe(Set<CollectExpression<Row, ?>> collectExpressions,
                            AggregationContext[] aggregations,
@@ -53,9 +56,19 @@ public class AggregationPipe extends AbstractProjector {
                     aggregations[i].function(),
                     aggregations[i].inputs()
             );
-            // prepareState creates the aggregationState. In case of the AggregationProjector
-            // we only want to have 1 global state not 1 state per node/shard or even document.
-            states[i] = aggregators[i].prepareState();
+        }
+        slots = Aggregator.newSlots(aggregators);
+        if (slots != null) {
+            // all states are kept in the slots of the single global group
+            for (AggregationSlots aggregationSlots : slots) {
+                aggregationSlots.ensureCapacity(1);
+            }
+        } else {
+            for (int i = 0; i < aggregators.length; i++) {
+                // prepareState creates the aggregationState. In case of the AggregationProjector
+                // we only want to have 1 global state not 1 state per node/shard or even document.
+                states[i] = aggregators[i].prepareState();
+            }
         }
     }
 
@@ -64,9 +77,23 @@ public class AggregationPipe extends AbstractProjector {
         for (CollectExpression<Row, ?> collectExpression : collectExpressions) {
             collectExpression.setNextRow(row);
         }
-        for (int i = 0; i < aggregators.length; i++) {
-            Aggregator aggregator = aggregators[i];
-            states[i] = aggregator.processRow(states[i]);
+        if (slots != null) {
+            for (int i = 0; i < aggregators.length; i++) {
+                aggregators[i].processRow(slots[i], 0);
+            }
+        } else {
+            for (int i = 0; i < aggregators.length; i++) {
+                Aggregator aggregator = aggregators[i];
+                states[i] = aggregator.processRow(states[i]);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean setNextBatch(ColumnBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            setNextRow(batch.rowAt(i));
         }
         return true;
     }
@@ -79,7 +106,11 @@ public class AggregationPipe extends AbstractProjector {
     @Override
     public void finish() {
         for (int i = 0; i < aggregators.length; i++) {
-            cells[i] = aggregators[i].finishCollect(states[i]);
+            if (slots != null) {
+                cells[i] = aggregators[i].finishCollect(slots[i], 0);
+            } else {
+                cells[i] = aggregators[i].finishCollect(states[i]);
+            }
         }
         downstream.setNextRow(row);
         downstream.finish();
@@ -0,0 +1,45 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import io.crate.operation.ColumnBatch;
+
+/**
+ * A {@link RowReceiver} which is able to consume whole batches of rows.
+ *
+ * Upstreams which are able to produce {@link ColumnBatch}es may use {@link #setNextBatch(ColumnBatch)}
+ * instead of calling {@link #setNextRow(io.crate.core.collections.Row)} for every row.
+ * Other upstreams keep using the row-at-a-time interface.
+ *
+ * Implementations must process a batch entirely, they must not pause their upstream while
+ * a batch is processed.
+ */
+public interface BatchRowReceiver extends RowReceiver {
+
+    /**
+     * Feed the receiver with the next batch of rows.
+     * The batch is re-used by the upstream after this call returns.
+     *
+     * @return false if the receiver does not need any more rows, true otherwise.
+     */
+    boolean setNextBatch(ColumnBatch batch);
+}
@@ -0,0 +1,383 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.Sets;
+import io.crate.Streamer;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.core.collections.Row;
+import io.crate.core.collections.RowN;
+import io.crate.operation.Input;
+import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.merge.NumberedIterable;
+import io.crate.operation.merge.SortedPagingIterator;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.logging.Loggers;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Sorts all rows without a limit.
+ *
+ * Rows are buffered in memory until the buffer exceeds <code>spillThreshold</code> bytes,
+ * then the buffer is sorted and written as a run to a file in the {@link SortRunDirectory} using the
+ * {@link Streamer}s of the columns. On finish the runs and the remaining buffer are merged lazily using a
+ * {@link SortedPagingIterator}, so only one row per run has to be kept in memory.
+ * If there are more runs than <code>mergeFanIn</code>, they're first merged into bigger runs,
+ * so no more than <code>mergeFanIn</code> run files are open at the same time.
+ *
+ * The run files are removed once all rows have been emitted or the projector failed.
+ */
+public class ExternalSortingProjector extends AbstractProjector {
+
+    private static final ESLogger LOGGER = Loggers.getLogger(ExternalSortingProjector.class);
+
+    /**
+     * node setting to change the number of bytes the buffer may use before it is spilled to disk
+     */
+    public static final String SPILL_THRESHOLD_SETTING = "sql.sort.spill_threshold";
+
+    /**
+     * default number of bytes the buffer may use before it is spilled to disk
+     */
+    public static final long DEFAULT_SPILL_THRESHOLD = 64 * 1024 * 1024;
+
+    /**
+     * default maximum number of runs that are merged at once
+     */
+    public static final int DEFAULT_MERGE_FAN_IN = 64;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Collection<? extends Input<?>> inputs;
+    private final Iterable<? extends CollectExpression<Row, ?>> collectExpressions;
+    private final int numOutputs;
+    private final Ordering<Object[]> ordering;
+    private final int offset;
+    private final Streamer<?>[] streamers;
+    private final RamAccountingContext ramAccountingContext;
+    private final SortRunDirectory runDirectory;
+    private final UUID jobId;
+    private final long spillThreshold;
+    private final int mergeFanIn;
+
+    private final List<Object[]> buffer = new ArrayList<>();
+    private long bufferedBytes = 0;
+    private final List<Run> runs = new ArrayList<>();
+    private Path directory;
+    private Set<Requirement> requirements;
+
+    /**
+     * @param inputs             contains output {@link io.crate.operation.Input}s and orderBy {@link io.crate.operation.Input}s
+     * @param collectExpressions gathered from outputs and orderBy inputs
+     * @param numOutputs         <code>inputs</code> contains this much output {@link io.crate.operation.Input}s starting form index 0
+     * @param ordering           ordering that is used to compare the rows, reversed like for the {@link SortingTopNProjector}
+     * @param offset             the initial offset, this number of rows are skipped
+     * @param streamers          streamers for all <code>inputs</code> used to write the runs
+     * @param runDirectory       directory in which the runs are written
+     * @param jobId              id of the job the projector belongs to, used to remove its runs if the job is killed
+     * @param spillThreshold     number of bytes the buffered rows may use before they're written to disk
+     * @param mergeFanIn         maximum number of runs that are merged at once
+     */
+    public ExternalSortingProjector(Collection<? extends Input<?>> inputs,
+                                    Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
+                                    int numOutputs,
+                                    Ordering<Object[]> ordering,
+                                    int offset,
+                                    Streamer<?>[] streamers,
+                                    RamAccountingContext ramAccountingContext,
+                                    SortRunDirectory runDirectory,
+                                    UUID jobId,
+                                    long spillThreshold,
+                                    int mergeFanIn) {
+        Preconditions.checkArgument(offset >= 0, "invalid offset");
+        Preconditions.checkArgument(streamers.length == inputs.size(), "a streamer is required for every input");
+        Preconditions.checkArgument(spillThreshold > 0, "spillThreshold must be greater than 0");
+        Preconditions.checkArgument(mergeFanIn > 1, "mergeFanIn must be greater than 1");
+        this.inputs = inputs;
+        this.collectExpressions = collectExpressions;
+        this.numOutputs = numOutputs;
+        // the given ordering is reversed (as used by the priority queue of the SortingTopNProjector)
+        this.ordering = ordering.reverse();
+        this.offset = offset;
+        this.streamers = streamers;
+        this.ramAccountingContext = ramAccountingContext;
+        this.runDirectory = runDirectory;
+        this.jobId = jobId;
+        this.spillThreshold = spillThreshold;
+        this.mergeFanIn = mergeFanIn;
+    }
+
+    @Override
+    public boolean setNextRow(Row row) {
+        for (CollectExpression<Row, ?> collectExpression : collectExpressions) {
+            collectExpression.setNextRow(row);
+        }
+        Object[] cells = new Object[inputs.size()];
+        int i = 0;
+        for (Input<?> input : inputs) {
+            cells[i++] = input.value();
+        }
+        buffer.add(cells);
+        long rowSize = estimateSize(cells);
+        bufferedBytes += rowSize;
+        ramAccountingContext.addBytes(rowSize);
+        if (bufferedBytes >= spillThreshold) {
+            try {
+                spill();
+            } catch (IOException e) {
+                fail(e);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long estimateSize(Object[] cells) {
+        long size = RamUsageEstimator.NUM_BYTES_ARRAY_HEADER
+                    + cells.length * RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+        for (Object cell : cells) {
+            if (cell instanceof BytesRef) {
+                size += RamUsageEstimator.NUM_BYTES_OBJECT_HEADER + 16 + ((BytesRef) cell).length;
+            } else if (cell != null) {
+                size += RamUsageEstimator.NUM_BYTES_OBJECT_HEADER + 8;
+            }
+        }
+        return RamAccountingContext.roundUp(size);
+    }
+
+    /**
+     * sort the buffer and write it as a new run
+     */
+    private void spill() throws IOException {
+        Collections.sort(buffer, ordering);
+        LOGGER.debug("spilling {} rows ({} bytes)", buffer.size(), bufferedBytes);
+        runs.add(writeRun(buffer.iterator()));
+        buffer.clear();
+        ramAccountingContext.addBytes(-bufferedBytes);
+        bufferedBytes = 0;
+    }
+
+    /**
+     * write the given sorted rows to a new file in the directory of this projector
+     */
+    private Run writeRun(Iterator<Object[]> sortedRows) throws IOException {
+        if (directory == null) {
+            directory = runDirectory.newDirectory(jobId);
+        }
+        Path path = Files.createTempFile(directory, "run-", ".run");
+        int numRows = 0;
+        try (StreamOutput out = new OutputStreamStreamOutput(
+                new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE))) {
+            while (sortedRows.hasNext()) {
+                Object[] cells = sortedRows.next();
+                for (int i = 0; i < cells.length; i++) {
+                    streamers[i].writeValueTo(out, cells[i]);
+                }
+                numRows++;
+            }
+        }
+        return new Run(path, numRows);
+    }
+
+    /**
+     * merge the oldest runs into a new run until the remaining runs and the buffer
+     * can be merged at once without exceeding <code>mergeFanIn</code>
+     */
+    private void mergeRuns() throws IOException {
+        while (runs.size() >= mergeFanIn) {
+            List<Run> toMerge = new ArrayList<>(runs.subList(0, mergeFanIn));
+            runs.subList(0, mergeFanIn).clear();
+            try {
+                List<NumberedIterable<Object[]>> iterables = new ArrayList<>(toMerge.size());
+                int number = 0;
+                for (Run run : toMerge) {
+                    iterables.add(new NumberedIterable<>(number++, run));
+                }
+                SortedPagingIterator<Object[]> sortedIterator = new SortedPagingIterator<>(ordering, false);
+                sortedIterator.merge(iterables);
+                sortedIterator.finish();
+                runs.add(writeRun(sortedIterator));
+            } finally {
+                for (Run run : toMerge) {
+                    run.close();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void finish() {
+        Collections.sort(buffer, ordering);
+        try {
+            mergeRuns();
+        } catch (Throwable t) {
+            fail(t);
+            return;
+        }
+        List<NumberedIterable<Object[]>> iterables = new ArrayList<>(runs.size() + 1);
+        int number = 0;
+        for (Run run : runs) {
+            iterables.add(new NumberedIterable<>(number++, run));
+        }
+        iterables.add(new NumberedIterable<>(number, buffer));
+
+        SortedPagingIterator<Object[]> sortedIterator = new SortedPagingIterator<>(ordering, false);
+        sortedIterator.merge(iterables);
+        sortedIterator.finish();
+        Iterators.advance(sortedIterator, offset);
+
+        final Iterator<Object[]> cellsIterator = sortedIterator;
+        final RowN row = new RowN(numOutputs);
+        Iterable<Row> rows = new Iterable<Row>() {
+            @Override
+            public Iterator<Row> iterator() {
+                return new AbstractIterator<Row>() {
+                    @Override
+                    protected Row computeNext() {
+                        if (!cellsIterator.hasNext()) {
+                            return endOfData();
+                        }
+                        row.cells(cellsIterator.next());
+                        return row;
+                    }
+                };
+            }
+        };
+        RowReceiver cleanupReceiver = new ForwardingRowReceiver(downstream) {
+            @Override
+            public void finish() {
+                closeRuns();
+                super.finish();
+            }
+
+            @Override
+            public void fail(Throwable throwable) {
+                closeRuns();
+                super.fail(throwable);
+            }
+        };
+        new IterableRowEmitter(cleanupReceiver, executionState, rows).run();
+    }
+
+    @Override
+    public void fail(Throwable t) {
+        closeRuns();
+        downstream.fail(t);
+    }
+
+    private void closeRuns() {
+        for (Run run : runs) {
+            run.close();
+        }
+        runs.clear();
+        if (directory != null) {
+            SortRunDirectory.delete(directory);
+            directory = null;
+        }
+        buffer.clear();
+        ramAccountingContext.addBytes(-bufferedBytes);
+        bufferedBytes = 0;
+    }
+
+    @Override
+    public Set<Requirement> requirements() {
+        if (requirements == null) {
+            requirements = Sets.newEnumSet(downstream.requirements(), Requirement.class);
+            requirements.remove(Requirement.REPEAT);
+        }
+        return requirements;
+    }
+
+    /**
+     * a sorted run written to a file, can be iterated once
+     */
+    private class Run implements Iterable<Object[]>, Closeable {
+
+        private final Path path;
+        private final int numRows;
+        private StreamInput in;
+
+        Run(Path path, int numRows) {
+            this.path = path;
+            this.numRows = numRows;
+        }
+
+        @Override
+        public Iterator<Object[]> iterator() {
+            try {
+                in = new InputStreamStreamInput(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
+            } catch (IOException e) {
+                throw Throwables.propagate(e);
+            }
+            return new AbstractIterator<Object[]>() {
+
+                private int readRows = 0;
+
+                @Override
+                protected Object[] computeNext() {
+                    if (readRows == numRows) {
+                        close();
+                        return endOfData();
+                    }
+                    Object[] cells = new Object[streamers.length];
+                    try {
+                        for (int i = 0; i < cells.length; i++) {
+                            cells[i] = streamers[i].readValueFrom(in);
+                        }
+                    } catch (IOException e) {
+                        throw Throwables.propagate(e);
+                    }
+                    readRows++;
+                    return cells;
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (in != null) {
+                    in.close();
+                    in = null;
+                }
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                LOGGER.warn("couldn't delete sort run {}", e, path);
+            }
+        }
+    }
+}
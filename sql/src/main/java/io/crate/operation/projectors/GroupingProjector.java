@@ -21,64 +21,177 @@
 
 package io.crate.operation.projectors;
 
-import com.google.common.base.Function;
 import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
+import io.crate.Streamer;
 import io.crate.breaker.RamAccountingContext;
-import io.crate.breaker.SizeEstimator;
-import io.crate.breaker.SizeEstimatorFactory;
 import io.crate.core.collections.Row;
 import io.crate.core.collections.RowN;
-import io.crate.jobs.ExecutionState;
 import io.crate.operation.AggregationContext;
+import io.crate.operation.ColumnBatch;
 import io.crate.operation.Input;
+import io.crate.operation.aggregation.AggregationSlots;
 import io.crate.operation.aggregation.Aggregator;
 import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.projectors.grouping.GroupKeyTable;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.unit.ByteSizeValue;
 
 import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class GroupingProjector extends AbstractProjector {
+/**
+ * Groups rows by their key values and aggregates them.
+ *
+ * The groups are kept in memory until they use more than <code>spillThreshold</code> bytes
+ * (or half of the circuit breaker limit, whatever is lower). Then the projector switches to a partitioned mode:
+ * the keys and partial states of all groups are hash-partitioned by their key into node-local temporary files
+ * and the in-memory groups are released. Further input is aggregated into fresh groups which are spilled the same way.
+ * On finish the partitions are merged one after another, so only the groups of one partition have to fit into memory.
+ */
+public class GroupingProjector extends AbstractProjector implements BatchRowReceiver {
 
 
     private static final ESLogger logger = Loggers.getLogger(GroupingProjector.class);
+
+    /**
+     * node setting to change the number of bytes the groups may use before they're spilled to disk
+     */
+    public static final String SPILL_THRESHOLD_SETTING = "sql.group_by.spill_threshold";
+
+    /**
+     * default number of bytes the groups may use before they're spilled to disk
+     */
+    public static final long DEFAULT_SPILL_THRESHOLD = 64 * 1024 * 1024;
+
+    /**
+     * share of the circuit breaker limit the groups may use before they're spilled to disk
+     */
+    private static final double BREAKER_LIMIT_RATIO = 0.5;
+
+    static final int NUM_PARTITIONS = 16;
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private static final long MIN_SHARED_SPILL_THRESHOLD = 1024 * 1024;
+
     private final RamAccountingContext ramAccountingContext;
+    private final List<? extends DataType> keyTypes;
+    private final List<Input<?>> keyInputs;
+    private final CollectExpression[] collectExpressions;
+    private final Aggregator[] aggregators;
+    private final Streamer[] keyStreamers;
+    private final Streamer[] partialStreamers;
+    private long spillThreshold;
+
+    /**
+     * bytes accounted by this grouper before the groups were created, everything above is released on spill
+     */
+    private final long baselineBytes;
 
-    private final Grouper grouper;
+    private List<Input<?>> groupKeyInputs;
+    private Groups groups;
+    @Nullable
+    private Partition[] partitions;
     private EnumSet<Requirement> requirements;
 
+    private boolean emitPartials = false;
+    @Nullable
+    private Object[] mergeKeyValues;
+    @Nullable
+    private Object[] mergePartials;
+
     public GroupingProjector(List<? extends DataType> keyTypes,
                              List<Input<?>> keyInputs,
                              CollectExpression[] collectExpressions,
                              AggregationContext[] aggregations,
                              RamAccountingContext ramAccountingContext) {
+        this(keyTypes, keyInputs, collectExpressions, aggregations, ramAccountingContext, DEFAULT_SPILL_THRESHOLD);
+    }
+
+    /**
+     * @param spillThreshold number of bytes the groups may use before they're written to disk,
+     *                       0 disables spilling
+     */
+    public GroupingProjector(List<? extends DataType> keyTypes,
+                             List<Input<?>> keyInputs,
+                             CollectExpression[] collectExpressions,
+                             AggregationContext[] aggregations,
+                             RamAccountingContext ramAccountingContext,
+                             long spillThreshold) {
         assert keyTypes.size() == keyInputs.size() : "number of key types must match with number of key inputs";
         assert allTypesKnown(keyTypes) : "must have a known type for each key input";
-        this.ramAccountingContext = ramAccountingContext;
-
-        Aggregator[] aggregators = new Aggregator[aggregations.length];
+        // other projectors of the phase account against the same context,
+        // only the bytes of this grouper must trigger a spill and may be released
+        this.ramAccountingContext = new GrouperRamAccountingContext(ramAccountingContext);
+        this.keyTypes = keyTypes;
+        this.keyInputs = keyInputs;
+        this.collectExpressions = collectExpressions;
+
+        aggregators = new Aggregator[aggregations.length];
+        partialStreamers = new Streamer[aggregations.length];
         for (int i = 0; i < aggregations.length; i++) {
             aggregators[i] = new Aggregator(
-                    ramAccountingContext,
+                    this.ramAccountingContext,
                     aggregations[i].symbol(),
                     aggregations[i].function(),
                     aggregations[i].inputs()
             );
+            partialStreamers[i] = aggregators[i].partialType().streamer();
+        }
+        keyStreamers = new Streamer[keyTypes.size()];
+        for (int i = 0; i < keyStreamers.length; i++) {
+            keyStreamers[i] = keyTypes.get(i).streamer();
         }
 
+        long breakerLimit = this.ramAccountingContext.limit();
+        if (spillThreshold > 0 && breakerLimit > 0) {
+            spillThreshold = Math.min(spillThreshold, (long) (breakerLimit * BREAKER_LIMIT_RATIO));
+        }
+        this.spillThreshold = spillThreshold;
+
         // grouper object size overhead
-        ramAccountingContext.addBytes(8);
-        if (keyInputs.size() == 1) {
-            grouper = new SingleKeyGrouper(keyInputs.get(0), keyTypes.get(0), collectExpressions, aggregators);
-        } else {
-            grouper = new ManyKeyGrouper(keyInputs, keyTypes, collectExpressions, aggregators);
+        this.ramAccountingContext.addBytes(8);
+        baselineBytes = this.ramAccountingContext.usedBytes();
+        groupKeyInputs = keyInputs;
+        groups = new Groups(groupKeyInputs);
+    }
+
+    /**
+     * makes this projector emit the key values followed by the partial aggregation states
+     * instead of the aggregation results, so that the rows can be merged using {@link #mergePartialRow(Row)}
+     */
+    void emitPartials() {
+        emitPartials = true;
+    }
+
+    /**
+     * reduces the spill threshold if the memory is shared with other groupers
+     */
+    void shareSpillThreshold(int numGroupers) {
+        if (spillThreshold > 0 && numGroupers > 1) {
+            spillThreshold = Math.min(spillThreshold,
+                    Math.max(MIN_SHARED_SPILL_THRESHOLD, spillThreshold / numGroupers));
         }
     }
 
@@ -92,268 +205,436 @@ public class GroupingProjector extends AbstractProjector {
     }
 
     @Override
-    public void prepare(ExecutionState executionState) {
-        super.prepare(executionState);
-        grouper.prepare(executionState);
+    public boolean setNextRow(Row row) {
+        for (CollectExpression collectExpression : collectExpressions) {
+            collectExpression.setNextRow(row);
+        }
+        groups.processRow();
+        if (spillRequired()) {
+            try {
+                spill();
+            } catch (IOException e) {
+                fail(e);
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
-    public boolean setNextRow(Row row) {
-        return grouper.setNextRow(row);
+    public boolean setNextBatch(ColumnBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            if (!setNextRow(batch.rowAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    @Override
-    public void finish() {
-        grouper.finish();
-        if (logger.isDebugEnabled()) {
-            logger.debug("grouping operation size is: {}", new ByteSizeValue(ramAccountingContext.totalBytes()));
+    /**
+     * merges a row emitted by a grouper with {@link #emitPartials() partial output} into the groups.
+     * Must not be mixed with {@link #setNextRow(Row)} and must not be called concurrently.
+     */
+    void mergePartialRow(Row row) throws IOException {
+        if (mergeKeyValues == null) {
+            assert groups.size() == 0 : "mergePartialRow must not be mixed with setNextRow";
+            mergeKeyValues = new Object[keyTypes.size()];
+            mergePartials = new Object[aggregators.length];
+            groups.close();
+            groupKeyInputs = arrayInputs(mergeKeyValues);
+            groups = new Groups(groupKeyInputs);
+        }
+        for (int i = 0; i < mergeKeyValues.length; i++) {
+            mergeKeyValues[i] = row.get(i);
+        }
+        for (int i = 0; i < mergePartials.length; i++) {
+            mergePartials[i] = row.get(mergeKeyValues.length + i);
+        }
+        groups.reduce(mergePartials);
+        if (spillRequired()) {
+            spill();
         }
     }
 
-    @Override
-    public void fail(Throwable throwable) {
-        downstream.fail(throwable);
+    private boolean spillRequired() {
+        return spillThreshold > 0 && ramAccountingContext.usedBytes() - baselineBytes >= spillThreshold;
     }
 
     /**
-     * transform map entry into pre-allocated object array.
+     * @return inputs which return the current values of the given array
      */
-    private static void transformToRow(Map.Entry<List<Object>, Object[]> entry,
-                                       Object[] row,
-                                       Aggregator[] aggregators) {
-        int c = 0;
+    private static List<Input<?>> arrayInputs(final Object[] values) {
+        List<Input<?>> inputs = new ArrayList<>(values.length);
+        for (int i = 0; i < values.length; i++) {
+            final int idx = i;
+            inputs.add(new Input<Object>() {
+                @Override
+                public Object value() {
+                    return values[idx];
+                }
+            });
+        }
+        return inputs;
+    }
 
-        for (Object o : entry.getKey()) {
-            row[c] = o;
-            c++;
+    /**
+     * writes the keys and partial states of all groups to their partition and releases the groups
+     */
+    private void spill() throws IOException {
+        if (partitions == null) {
+            partitions = new Partition[NUM_PARTITIONS];
+            for (int i = 0; i < partitions.length; i++) {
+                partitions[i] = new Partition();
+            }
+        }
+        logger.debug("spilling {} groups ({})", groups.size(),
+                new ByteSizeValue(ramAccountingContext.usedBytes() - baselineBytes));
+        Object[] keyValues = new Object[keyStreamers.length];
+        for (int ordinal = 0; ordinal < groups.size(); ordinal++) {
+            groups.keyValues(ordinal, keyValues);
+            Partition partition = partitions[(Arrays.deepHashCode(keyValues) & Integer.MAX_VALUE) % partitions.length];
+            for (int i = 0; i < keyValues.length; i++) {
+                //noinspection unchecked
+                keyStreamers[i].writeValueTo(partition.out, keyValues[i]);
+            }
+            for (int i = 0; i < aggregators.length; i++) {
+                //noinspection unchecked
+                partialStreamers[i].writeValueTo(partition.out, groups.partialResult(ordinal, i));
+            }
+            partition.numEntries++;
         }
+        groups.close();
+        releaseGroups();
+        groups = new Groups(groupKeyInputs);
+    }
 
-        Object[] states = entry.getValue();
-        for (int i = 0; i < states.length; i++) {
-            row[c] = aggregators[i].finishCollect(states[i]);
-            c++;
+    private void releaseGroups() {
+        long bytes = ramAccountingContext.usedBytes() - baselineBytes;
+        if (bytes > 0) {
+            ramAccountingContext.addBytes(-bytes);
         }
     }
 
-    private static void singleTransformToRow(Map.Entry<Object, Object[]> entry,
-                                             Object[] row,
-                                             Aggregator[] aggregators) {
-        int c = 0;
-        row[c] = entry.getKey();
-        c++;
-        Object[] states = entry.getValue();
-        for (int i = 0; i < states.length; i++) {
-            row[c] = aggregators[i].finishCollect(states[i]);
-            c++;
+    @Override
+    public void finish() {
+        if (partitions == null) {
+            finishInMemory();
+        } else {
+            finishPartitioned();
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("grouping operation size is: {}", new ByteSizeValue(ramAccountingContext.totalBytes()));
         }
     }
 
-    private interface Grouper extends AutoCloseable {
-        boolean setNextRow(final Row row);
+    private void finishInMemory() {
+        final int numKeys = keyTypes.size();
+        try {
+            // account the multi-dimension `rows` array
+            // 1st level
+            ramAccountingContext.addBytes(RamAccountingContext.roundUp(12 + groups.size() * 4));
+            // 2nd level
+            ramAccountingContext.addBytes(RamAccountingContext.roundUp(12 +
+                    (numKeys + aggregators.length) * 4));
+        } catch (CircuitBreakingException e) {
+            downstream.fail(e);
+            return;
+        }
 
-        void finish();
-        void prepare(ExecutionState executionState);
+        IterableRowEmitter rowEmitter = new IterableRowEmitter(
+                downstream, executionState, new Iterable<Row>() {
+            @Override
+            public Iterator<Row> iterator() {
+                return new Iterator<Row>() {
+
+                    final RowN row = new RowN(numKeys + aggregators.length);
+                    final Object[] cells = new Object[row.size()];
+                    int ordinal = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return ordinal < groups.size();
+                    }
+
+                    @Override
+                    public Row next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        groups.fillRow(ordinal, cells);
+                        ordinal++;
+                        row.cells(cells);
+                        return row;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException("remove is not supported");
+                    }
+                };
+            }
+        });
+        rowEmitter.run();
     }
 
-    private class SingleKeyGrouper implements Grouper {
+    private void finishPartitioned() {
+        try {
+            if (groups.size() > 0) {
+                spill();
+            }
+        } catch (IOException e) {
+            fail(e);
+            return;
+        }
+        RowReceiver cleanupReceiver = new ForwardingRowReceiver(downstream) {
+            @Override
+            public void finish() {
+                closePartitions();
+                super.finish();
+            }
 
-        private final Map<Object, Object[]> result;
-        private final Aggregator[] aggregators;
-        private final Input keyInput;
-        private final CollectExpression[] collectExpressions;
-        private final SizeEstimator<Object> sizeEstimator;
-        private ExecutionState executionState;
+            @Override
+            public void fail(Throwable throwable) {
+                closePartitions();
+                super.fail(throwable);
+            }
+        };
+        new IterableRowEmitter(cleanupReceiver, executionState, new Iterable<Row>() {
+            @Override
+            public Iterator<Row> iterator() {
+                return new AbstractIterator<Row>() {
+
+                    final RowN row = new RowN(keyTypes.size() + aggregators.length);
+                    final Object[] cells = new Object[row.size()];
+                    int partitionIdx = 0;
+                    int ordinal = 0;
+
+                    @Override
+                    protected Row computeNext() {
+                        while (ordinal == groups.size()) {
+                            groups.close();
+                            releaseGroups();
+                            if (partitionIdx == partitions.length) {
+                                return endOfData();
+                            }
+                            groups = mergePartition(partitions[partitionIdx++]);
+                            ordinal = 0;
+                        }
+                        groups.fillRow(ordinal, cells);
+                        ordinal++;
+                        row.cells(cells);
+                        return row;
+                    }
+                };
+            }
+        }).run();
+    }
 
-        public SingleKeyGrouper(Input keyInput,
-                                DataType keyInputType,
-                                CollectExpression[] collectExpressions,
-                                Aggregator[] aggregators) {
-            this.collectExpressions = collectExpressions;
-            this.result = new HashMap<>();
-            this.keyInput = keyInput;
-            this.aggregators = aggregators;
-            sizeEstimator = SizeEstimatorFactory.create(keyInputType);
+    /**
+     * reads the spilled entries of a partition and reduces the partial states of equal keys
+     */
+    private Groups mergePartition(Partition partition) {
+        Object[] keyValues = new Object[keyStreamers.length];
+        Groups merged = new Groups(arrayInputs(keyValues));
+        Object[] partials = new Object[aggregators.length];
+        try (StreamInput in = partition.openInput()) {
+            for (int entry = 0; entry < partition.numEntries; entry++) {
+                for (int i = 0; i < keyValues.length; i++) {
+                    keyValues[i] = keyStreamers[i].readValueFrom(in);
+                }
+                for (int i = 0; i < partials.length; i++) {
+                    partials[i] = partialStreamers[i].readValueFrom(in);
+                }
+                merged.reduce(partials);
+            }
+        } catch (IOException e) {
+            merged.close();
+            throw Throwables.propagate(e);
+        } finally {
+            partition.close();
         }
+        return merged;
+    }
 
-        @Override
-        public boolean setNextRow(Row row) {
-            for (CollectExpression collectExpression : collectExpressions) {
-                collectExpression.setNextRow(row);
+    @Override
+    public void fail(Throwable throwable) {
+        closePartitions();
+        downstream.fail(throwable);
+    }
+
+    private void closePartitions() {
+        if (partitions != null) {
+            for (Partition partition : partitions) {
+                partition.close();
             }
+        }
+    }
 
-            Object key = keyInput.value();
+    /**
+     * the groups which are currently held in memory
+     */
+    private class Groups {
+
+        private final GroupKeyTable keyTable;
 
-            // HashMap.get requires some objects (iterators) and at least 2 integers
-            ramAccountingContext.addBytes(32);
-            Object[] states = result.get(key);
-            ramAccountingContext.addBytes(-32);
-            if (states == null) {
-                states = new Object[aggregators.length];
+        /**
+         * aggregation states of all groups, indexed by <code>ordinal * aggregators.length + aggregatorIdx</code>
+         */
+        private Object[] states = new Object[0];
+
+        /**
+         * columnar aggregation states per aggregator, only used if all aggregators support slots
+         */
+        private final AggregationSlots[] slots;
+
+        public Groups(List<Input<?>> keyInputs) {
+            this.keyTable = GroupKeyTable.create(keyTypes, keyInputs, ramAccountingContext);
+            this.slots = Aggregator.newSlots(aggregators);
+        }
+
+        /**
+         * aggregates the current row into the group of the current key values
+         */
+        public void processRow() {
+            int ordinal = keyTable.add();
+            if (slots != null) {
+                ordinal = slotOrdinal(ordinal);
+                for (int i = 0; i < aggregators.length; i++) {
+                    aggregators[i].processRow(slots[i], ordinal);
+                }
+            } else if (ordinal >= 0) {
+                int offset = ordinal * aggregators.length;
+                ensureCapacity(offset + aggregators.length);
                 for (int i = 0; i < aggregators.length; i++) {
                     Object state = aggregators[i].prepareState();
-                    states[i] = aggregators[i].processRow(state);
+                    states[offset + i] = aggregators[i].processRow(state);
                 }
-                ramAccountingContext.addBytes(
-                        RamAccountingContext.roundUp(sizeEstimator.estimateSize(key)) + 24); // 24 bytes overhead per entry
-                result.put(key, states);
             } else {
+                int offset = (-1 - ordinal) * aggregators.length;
                 for (int i = 0; i < aggregators.length; i++) {
-                    states[i] = aggregators[i].processRow(states[i]);
+                    states[offset + i] = aggregators[i].processRow(states[offset + i]);
                 }
             }
-
-            return true;
         }
 
-        @Override
-        public void finish() {
-            try {
-                // TODO: check ram accounting
-                // account the multi-dimension `rows` array
-                // 1st level
-                ramAccountingContext.addBytes(RamAccountingContext.roundUp(12 + result.size() * 4));
-                // 2nd level
-                ramAccountingContext.addBytes(RamAccountingContext.roundUp(
-                        (1 + aggregators.length) * 4 + 12));
-            } catch (CircuitBreakingException e) {
-                downstream.fail(e);
-                return;
+        /**
+         * merges the given partial states into the group of the current key values
+         */
+        public void reduce(Object[] partials) {
+            int ordinal = keyTable.add();
+            if (slots != null) {
+                ordinal = slotOrdinal(ordinal);
+                for (int i = 0; i < aggregators.length; i++) {
+                    aggregators[i].reducePartial(slots[i], ordinal, partials[i]);
+                }
+            } else if (ordinal >= 0) {
+                int offset = ordinal * aggregators.length;
+                ensureCapacity(offset + aggregators.length);
+                for (int i = 0; i < aggregators.length; i++) {
+                    Object state = aggregators[i].prepareState();
+                    states[offset + i] = aggregators[i].reducePartial(state, partials[i]);
+                }
+            } else {
+                int offset = (-1 - ordinal) * aggregators.length;
+                for (int i = 0; i < aggregators.length; i++) {
+                    states[offset + i] = aggregators[i].reducePartial(states[offset + i], partials[i]);
+                }
             }
+        }
 
-            IterableRowEmitter rowEmitter = new IterableRowEmitter(
-                    downstream, executionState, Iterables.transform(result.entrySet(), new Function<Map.Entry<Object, Object[]>, Row>() {
-
-                RowN row = new RowN(1 + aggregators.length); // 1 for key
-                Object[] cells = new Object[row.size()];
-
-                @Nullable
-                @Override
-                public Row apply(@Nullable Map.Entry<Object, Object[]> input) {
-                    assert input != null : "input must not be null";
-                    singleTransformToRow(input, cells, aggregators);
-                    row.cells(cells);
-                    return row;
+        private int slotOrdinal(int ordinal) {
+            if (ordinal >= 0) {
+                for (AggregationSlots aggregationSlots : slots) {
+                    aggregationSlots.ensureCapacity(ordinal + 1);
                 }
-            }));
-            rowEmitter.run();
+                return ordinal;
+            }
+            return -1 - ordinal;
         }
 
-        @Override
-        public void prepare(ExecutionState executionState) {
-            this.executionState = executionState;
+        private void ensureCapacity(int minSize) {
+            if (states.length < minSize) {
+                int newLength = ArrayUtil.oversize(minSize, RamUsageEstimator.NUM_BYTES_OBJECT_REF);
+                // 4 bytes per state reference
+                ramAccountingContext.addBytes((newLength - states.length) * 4);
+                states = Arrays.copyOf(states, newLength);
+            }
         }
 
-        @Override
-        public void close() throws Exception {
-            result.clear();
+        public int size() {
+            return keyTable.size();
         }
-    }
 
-    private class ManyKeyGrouper implements Grouper {
-
-        private final Aggregator[] aggregators;
-        private final Map<List<Object>, Object[]> result;
-        private final List<Input<?>> keyInputs;
-        private ExecutionState executionState;
-        private final CollectExpression[] collectExpressions;
-        private final List<SizeEstimator<Object>> sizeEstimators;
-
-        public ManyKeyGrouper(List<Input<?>> keyInputs,
-                              List<? extends DataType> keyTypes,
-                              CollectExpression[] collectExpressions,
-                              Aggregator[] aggregators) {
-            this.collectExpressions = collectExpressions;
-            this.result = new HashMap<>();
-            this.keyInputs = keyInputs;
-            this.aggregators = aggregators;
-            sizeEstimators = new ArrayList<>(keyTypes.size());
-            for (DataType dataType : keyTypes) {
-                sizeEstimators.add(SizeEstimatorFactory.create(dataType));
-            }
+        public void keyValues(int ordinal, Object[] cells) {
+            keyTable.keyValues(ordinal, cells);
         }
 
-        @Override
-        public boolean setNextRow(Row row) {
-            for (CollectExpression collectExpression : collectExpressions) {
-                collectExpression.setNextRow(row);
-            }
-
-            // key list ram accounting
-            ramAccountingContext.addBytes(12);
-            // TODO: use something with better equals() performance for the keys
-            List<Object> key = new ArrayList<>(keyInputs.size());
-            int keyIdx = 0;
-            for (Input keyInput : keyInputs) {
-                key.add(keyInput.value());
-                // 4 bytes overhead per list entry + 4 bytes overhead for later hashCode
-                // calculation while using list.get()
-                ramAccountingContext.addBytes(RamAccountingContext.roundUp(
-                        sizeEstimators.get(keyIdx).estimateSize(keyInput.value()) + 4) + 4);
-                keyIdx++;
+        public Object partialResult(int ordinal, int aggregatorIdx) {
+            if (slots != null) {
+                return aggregators[aggregatorIdx].partialResult(slots[aggregatorIdx], ordinal);
             }
+            return aggregators[aggregatorIdx].partialResult(states[ordinal * aggregators.length + aggregatorIdx]);
+        }
 
-            // HashMap.get requires some objects (iterators) and at least 2 integers
-            ramAccountingContext.addBytes(32);
-            Object[] states = result.get(key);
-            ramAccountingContext.addBytes(-32);
-            if (states == null) {
-                states = new Object[aggregators.length];
+        /**
+         * writes the key values followed by the aggregation results (or partial states) of a group into <code>cells</code>
+         */
+        public void fillRow(int ordinal, Object[] cells) {
+            int numKeys = keyTable.numKeys();
+            keyTable.keyValues(ordinal, cells);
+            if (emitPartials) {
                 for (int i = 0; i < aggregators.length; i++) {
-                    Object state = aggregators[i].prepareState();
-                    state = aggregators[i].processRow(state);
-                    states[i] = state;
+                    cells[numKeys + i] = partialResult(ordinal, i);
+                }
+            } else if (slots != null) {
+                for (int i = 0; i < aggregators.length; i++) {
+                    cells[numKeys + i] = aggregators[i].finishCollect(slots[i], ordinal);
                 }
-                ramAccountingContext.addBytes(24); // 24 bytes overhead per map entry
-                result.put(key, states);
             } else {
+                int offset = ordinal * aggregators.length;
                 for (int i = 0; i < aggregators.length; i++) {
-                    states[i] = aggregators[i].processRow(states[i]);
+                    cells[numKeys + i] = aggregators[i].finishCollect(states[offset + i]);
                 }
             }
-
-            return true;
         }
 
-        @Override
-        public void finish() {
-            try {
-                // account the multi-dimension `rows` array
-                // 1st level
-                ramAccountingContext.addBytes(RamAccountingContext.roundUp(12 + result.size() * 4));
-                // 2nd level
-                ramAccountingContext.addBytes(RamAccountingContext.roundUp(12 +
-                        (keyInputs.size() + aggregators.length) * 4));
-            } catch (CircuitBreakingException e) {
-                downstream.fail(e);
-                return;
-            }
+        public void close() {
+            keyTable.close();
+            states = new Object[0];
+        }
+    }
 
-            IterableRowEmitter rowEmitter = new IterableRowEmitter(
-                    downstream, executionState, Iterables.transform(result.entrySet(), new Function<Map.Entry<List<Object>, Object[]>, Row>() {
+    /**
+     * a node-local temporary file containing the spilled keys and partial states of one hash partition
+     */
+    private static class Partition implements Closeable {
 
-                RowN row = new RowN(keyInputs.size() + aggregators.length);
-                Object[] cells = new Object[row.size()];
+        private final Path path;
+        private StreamOutput out;
+        private int numEntries = 0;
 
-                @Nullable
-                @Override
-                public Row apply(@Nullable Map.Entry<List<Object>, Object[]> input) {
-                    assert input != null : "input must not be null";
-                    transformToRow(input, cells, aggregators);
-                    row.cells(cells);
-                    return row;
-                }
-            }));
-            rowEmitter.run();
+        Partition() throws IOException {
+            path = Files.createTempFile("crate-group-", ".partition");
+            out = new OutputStreamStreamOutput(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE));
         }
 
-        @Override
-        public void prepare(ExecutionState executionState) {
-            this.executionState = executionState;
+        StreamInput openInput() throws IOException {
+            out.close();
+            out = null;
+            return new InputStreamStreamInput(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
         }
 
         @Override
-        public void close() throws Exception {
-            result.clear();
+        public void close() {
+            try {
+                if (out != null) {
+                    out.close();
+                    out = null;
+                }
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                logger.warn("couldn't delete group partition {}", e, path);
+            }
         }
     }
 
@@ -365,4 +646,56 @@ public class GroupingProjector extends AbstractProjector {
         }
         return requirements;
     }
+
+    /**
+     * accounts to the context of the phase but keeps track of the bytes which were accounted through it,
+     * so that {@link #usedBytes()} only returns the bytes of this grouper
+     */
+    private static class GrouperRamAccountingContext extends RamAccountingContext {
+
+        private final RamAccountingContext delegate;
+        private final AtomicLong usedBytes = new AtomicLong(0);
+
+        GrouperRamAccountingContext(RamAccountingContext delegate) {
+            super(delegate.contextId(), null);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void addBytes(long bytes) throws CircuitBreakingException {
+            // the delegate keeps the bytes even if the breaker trips, so they're counted beforehand
+            usedBytes.addAndGet(bytes);
+            delegate.addBytes(bytes);
+        }
+
+        @Override
+        public long totalBytes() {
+            return usedBytes.get();
+        }
+
+        @Override
+        public long usedBytes() {
+            return usedBytes.get();
+        }
+
+        @Override
+        public RamAccountingContext newContext(String name) {
+            return delegate.newContext(name);
+        }
+
+        @Override
+        public void close() {
+            // the bytes are released once the context of the phase is closed
+        }
+
+        @Override
+        public boolean trippedBreaker() {
+            return delegate.trippedBreaker();
+        }
+
+        @Override
+        public long limit() {
+            return delegate.limit();
+        }
+    }
 }
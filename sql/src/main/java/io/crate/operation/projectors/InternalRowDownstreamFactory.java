@@ -73,7 +73,9 @@ public class InternalRowDownstreamFactory implements RowDownstreamFactory {
                     multiBucketBuilder = new BroadcastingBucketBuilder(streamers, nodeOperation.downstreamNodes().size());
                 } else {
                     multiBucketBuilder = new ModuloBucketBuilder(streamers,
-                            nodeOperation.downstreamNodes().size(), distributionInfo.distributeByColumn());
+                            nodeOperation.downstreamNodes().size(),
+                            distributionInfo.distributeByColumn(),
+                            distributionInfo.distributeByType());
                 }
                 break;
             case BROADCAST:
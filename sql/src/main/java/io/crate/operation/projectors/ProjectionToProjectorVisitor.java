@@ -21,6 +21,7 @@
 
 package io.crate.operation.projectors;
 
+import com.google.common.collect.Ordering;
 import io.crate.analyze.EvaluatingNormalizer;
 import io.crate.analyze.symbol.*;
 import io.crate.breaker.RamAccountingContext;
@@ -32,10 +33,13 @@ import io.crate.operation.Input;
 import io.crate.operation.collect.CollectExpression;
 import io.crate.operation.projectors.sorting.OrderingByPosition;
 import io.crate.planner.projection.*;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
 import io.crate.types.StringType;
 import org.elasticsearch.action.bulk.BulkRetryCoordinatorPool;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.threadpool.ThreadPool;
 
@@ -51,6 +55,7 @@ public class ProjectionToProjectorVisitor
     private final Settings settings;
     private final TransportActionProvider transportActionProvider;
     private final BulkRetryCoordinatorPool bulkRetryCoordinatorPool;
+    private final SortRunDirectory sortRunDirectory;
     private final ImplementationSymbolVisitor symbolVisitor;
     private final EvaluatingNormalizer normalizer;
 
@@ -62,6 +67,7 @@ public class ProjectionToProjectorVisitor
                                         Settings settings,
                                         TransportActionProvider transportActionProvider,
                                         BulkRetryCoordinatorPool bulkRetryCoordinatorPool,
+                                        SortRunDirectory sortRunDirectory,
                                         ImplementationSymbolVisitor symbolVisitor,
                                         EvaluatingNormalizer normalizer,
                                         @Nullable ShardId shardId) {
@@ -70,6 +76,7 @@ public class ProjectionToProjectorVisitor
         this.settings = settings;
         this.transportActionProvider = transportActionProvider;
         this.bulkRetryCoordinatorPool = bulkRetryCoordinatorPool;
+        this.sortRunDirectory = sortRunDirectory;
         this.symbolVisitor = symbolVisitor;
         this.normalizer = normalizer;
         this.shardId = shardId;
@@ -80,9 +87,11 @@ public class ProjectionToProjectorVisitor
                                         Settings settings,
                                         TransportActionProvider transportActionProvider,
                                         BulkRetryCoordinatorPool bulkRetryCoordinatorPool,
+                                        SortRunDirectory sortRunDirectory,
                                         ImplementationSymbolVisitor symbolVisitor,
                                         EvaluatingNormalizer normalizer) {
-        this(clusterService, threadPool, settings, transportActionProvider, bulkRetryCoordinatorPool, symbolVisitor, normalizer, null);
+        this(clusterService, threadPool, settings, transportActionProvider, bulkRetryCoordinatorPool,
+                sortRunDirectory, symbolVisitor, normalizer, null);
     }
 
     @Override
@@ -109,14 +118,35 @@ public class ProjectionToProjectorVisitor
                 orderByIndices[idx++] = i;
             }
 
-            projector = new SortingTopNProjector(
-                    inputs,
-                    collectExpressions,
-                    numOutputs,
-                    OrderingByPosition.arrayOrdering(orderByIndices, projection.reverseFlags(), projection.nullsFirst()),
-                    projection.limit(),
-                    projection.offset()
-            );
+            Ordering<Object[]> ordering = OrderingByPosition.arrayOrdering(
+                    orderByIndices, projection.reverseFlags(), projection.nullsFirst());
+            if (projection.limit() == TopN.NO_LIMIT) {
+                List<DataType> types = new ArrayList<>(Symbols.extractTypes(projection.outputs()));
+                types.addAll(Symbols.extractTypes(projection.orderBy()));
+                projector = new ExternalSortingProjector(
+                        inputs,
+                        collectExpressions,
+                        numOutputs,
+                        ordering,
+                        projection.offset(),
+                        DataTypes.getStreamer(types),
+                        context.ramAccountingContext,
+                        sortRunDirectory,
+                        context.jobId,
+                        settings.getAsBytesSize(ExternalSortingProjector.SPILL_THRESHOLD_SETTING,
+                                new ByteSizeValue(ExternalSortingProjector.DEFAULT_SPILL_THRESHOLD)).bytes(),
+                        ExternalSortingProjector.DEFAULT_MERGE_FAN_IN
+                );
+            } else {
+                projector = new SortingTopNProjector(
+                        inputs,
+                        collectExpressions,
+                        numOutputs,
+                        ordering,
+                        projection.limit(),
+                        projection.offset()
+                );
+            }
         } else {
             projector = new SimpleTopNProjector(
                     inputs,
@@ -140,7 +170,9 @@ public class ProjectionToProjectorVisitor
                 keyInputs,
                 symbolContext.collectExpressions().toArray(new CollectExpression[symbolContext.collectExpressions().size()]),
                 symbolContext.aggregations(),
-                context.ramAccountingContext
+                context.ramAccountingContext,
+                settings.getAsBytesSize(GroupingProjector.SPILL_THRESHOLD_SETTING,
+                        new ByteSizeValue(GroupingProjector.DEFAULT_SPILL_THRESHOLD)).bytes()
         );
     }
 
@@ -182,6 +214,7 @@ public class ProjectionToProjectorVisitor
                 sb.append("/");
             }
             sb.append(fileName);
+            sb.append('.').append(projection.outputFormat().name().toLowerCase(Locale.ENGLISH));
             if (projection.settings().get("compression", "").equalsIgnoreCase("gzip")) {
                 sb.append(".gz");
             }
@@ -192,8 +225,11 @@ public class ProjectionToProjectorVisitor
                 uri,
                 projection.settings(),
                 inputs,
+                projection.outputNames(),
                 symbolContext.collectExpressions(),
-                overwrites
+                overwrites,
+                projection.outputFormat(),
+                projection.maxFileSize()
         );
     }
 
@@ -23,6 +23,7 @@
 package io.crate.operation.projectors;
 
 import com.google.common.collect.Sets;
+import io.crate.breaker.RamAccountingContext;
 import io.crate.core.collections.ArrayRow;
 import io.crate.core.collections.Row;
 import io.crate.jobs.ExecutionState;
@@ -31,7 +32,9 @@ import io.crate.operation.RowUpstream;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -46,6 +49,27 @@ public class RowMergers {
         return new MultiUpstreamRowReceiver(delegate);
     }
 
+    /**
+     * creates a RowDownstream which gives every upstream its own grouper, so rows are aggregated without any locking.
+     * Once an upstream has finished, the partial states of its grouper are merged into <code>delegate</code>.
+     *
+     * @param expectedUpstreams the expected number of upstreams, used to share the spill threshold between the groupers
+     */
+    static PreAggregatingRowMerger preAggregatingRowMerger(GroupingProjector delegate,
+                                                          GrouperFactory grouperFactory,
+                                                          RamAccountingContext ramAccountingContext,
+                                                          int expectedUpstreams) {
+        return new PreAggregatingRowMerger(delegate, grouperFactory, ramAccountingContext, expectedUpstreams);
+    }
+
+    interface GrouperFactory {
+
+        /**
+         * @return a new grouper for the same projection as the delegate of the row merger
+         */
+        GroupingProjector create(RamAccountingContext ramAccountingContext);
+    }
+
     static class MultiUpstreamRowReceiver implements RowReceiver, RowMerger {
 
         private static final ESLogger LOGGER = Loggers.getLogger(MultiUpstreamRowReceiver.class);
@@ -198,4 +222,131 @@ public class RowMergers {
             return this;
         }
     }
+
+    static class PreAggregatingRowMerger implements RowDownstream, RowUpstream {
+
+        private final GroupingProjector delegate;
+        private final GrouperFactory grouperFactory;
+        private final RamAccountingContext ramAccountingContext;
+        private final int expectedUpstreams;
+        private final List<GroupingProjector> groupers = new ArrayList<>();
+        private final AtomicInteger activeUpstreams = new AtomicInteger(0);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final Object lock = new Object();
+        private ExecutionState executionState;
+
+        private PreAggregatingRowMerger(GroupingProjector delegate,
+                                        GrouperFactory grouperFactory,
+                                        RamAccountingContext ramAccountingContext,
+                                        int expectedUpstreams) {
+            this.delegate = delegate;
+            this.grouperFactory = grouperFactory;
+            this.ramAccountingContext = ramAccountingContext;
+            this.expectedUpstreams = expectedUpstreams;
+            delegate.setUpstream(this);
+        }
+
+        @Override
+        public RowReceiver newRowReceiver() {
+            activeUpstreams.incrementAndGet();
+            RamAccountingContext grouperContext = ramAccountingContext.newContext("grouper " + groupers.size());
+            GroupingProjector grouper = grouperFactory.create(grouperContext);
+            grouper.emitPartials();
+            grouper.shareSpillThreshold(expectedUpstreams);
+            grouper.downstream(new MergingRowReceiver(grouperContext));
+            if (executionState != null) {
+                grouper.prepare(executionState);
+            }
+            groupers.add(grouper);
+            return grouper;
+        }
+
+        public void prepare(ExecutionState executionState) {
+            this.executionState = executionState;
+            for (GroupingProjector grouper : groupers) {
+                grouper.prepare(executionState);
+            }
+        }
+
+        @Override
+        public void pause() {
+            // groupers only emit rows once they're finished, nothing to pause
+        }
+
+        @Override
+        public void resume(boolean async) {
+        }
+
+        @Override
+        public void repeat() {
+            throw new UnsupportedOperationException("PreAggregatingRowMerger doesn't support repeat");
+        }
+
+        private void countdown() {
+            int remainingUpstreams = activeUpstreams.decrementAndGet();
+            assert remainingUpstreams >= 0 : "activeUpstreams must not get negative: " + remainingUpstreams;
+            if (remainingUpstreams == 0) {
+                Throwable t = failure.get();
+                if (t == null) {
+                    delegate.finish();
+                } else {
+                    delegate.fail(t);
+                }
+            }
+        }
+
+        /**
+         * receives the partial rows of a grouper and merges them into the delegate
+         */
+        private class MergingRowReceiver implements RowReceiver {
+
+            private final RamAccountingContext grouperContext;
+
+            MergingRowReceiver(RamAccountingContext grouperContext) {
+                this.grouperContext = grouperContext;
+            }
+
+            @Override
+            public boolean setNextRow(Row row) {
+                if (failure.get() != null) {
+                    return false;
+                }
+                try {
+                    synchronized (lock) {
+                        delegate.mergePartialRow(row);
+                    }
+                    return true;
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                    return false;
+                }
+            }
+
+            @Override
+            public void finish() {
+                grouperContext.close();
+                countdown();
+            }
+
+            @Override
+            public void fail(Throwable throwable) {
+                failure.compareAndSet(null, throwable);
+                grouperContext.close();
+                countdown();
+            }
+
+            @Override
+            public void prepare(ExecutionState executionState) {
+            }
+
+            @Override
+            public void setUpstream(RowUpstream rowUpstream) {
+            }
+
+            @Override
+            public Set<Requirement> requirements() {
+                return delegate.requirements();
+            }
+        }
+    }
 }
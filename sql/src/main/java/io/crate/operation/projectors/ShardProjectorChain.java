@@ -31,6 +31,7 @@ import io.crate.planner.projection.Projection;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -60,7 +61,7 @@ import java.util.UUID;
  * <ul>
  *  <li> construct one from a list of projections</li>
  *  <li> get a shard projector by calling {@linkplain #newShardDownstreamProjector(ProjectorFactory)}
- *       from a shard context. do this for every shard you have
+ *       from a shard context. do this for every shard collector you have
  *  </li>
  *  <li> call {@linkplain #prepare(ExecutionState)}</li>
  *  <li> feed data to the shard projectors</li>
@@ -80,10 +81,12 @@ public class ShardProjectorChain {
     private int shardProjectionsIndex = -1;
 
     private final RowDownstream rowDownstream;
+    @Nullable
+    private RowMergers.PreAggregatingRowMerger preAggregatingRowMerger;
 
 
     public static ShardProjectorChain passThroughMerge(UUID jobId,
-                                                       int maxNumShards,
+                                                       int maxNumUpstreams,
                                                        List<? extends Projection> projections,
                                                        RowReceiver finalDownstream,
                                                        ProjectorFactory projectorFactory,
@@ -91,7 +94,7 @@ public class ShardProjectorChain {
         return new ShardProjectorChain(
                 jobId,
                 projections,
-                maxNumShards,
+                maxNumUpstreams,
                 finalDownstream,
                 projectorFactory,
                 ramAccountingContext
@@ -101,7 +104,7 @@ public class ShardProjectorChain {
 
     private ShardProjectorChain(UUID jobId,
                                 List<? extends Projection> projections,
-                                int maxNumShards,
+                                int maxNumUpstreams,
                                 RowReceiver finalDownstream,
                                 ProjectorFactory projectorFactory,
                                 RamAccountingContext ramAccountingContext) {
@@ -141,24 +144,39 @@ public class ShardProjectorChain {
             nodeProjectors.get(nodeProjectors.size()-1).downstream(finalDownstream);
         }
 
-        rowDownstream = getRowDownstream(maxNumShards);
+        rowDownstream = getRowDownstream(maxNumUpstreams, projectorFactory);
 
         if (shardProjectionsIndex >= 0) {
             // shardProjector will be created later
-            shardProjectors = new ArrayList<>((shardProjectionsIndex + 1) * maxNumShards);
+            shardProjectors = new ArrayList<>((shardProjectionsIndex + 1) * maxNumUpstreams);
         } else {
             shardProjectors = ImmutableList.of();
         }
     }
 
-    private RowDownstream getRowDownstream(int maxNumShards) {
-        if (maxNumShards == 1) {
+    private RowDownstream getRowDownstream(int maxNumUpstreams, final ProjectorFactory projectorFactory) {
+        if (maxNumUpstreams == 1) {
             LOGGER.debug("Getting RowDownstream for 1 upstream, repeat support: " + firstNodeProjector.requirements());
             if (firstNodeProjector.requirements().contains(Requirement.REPEAT)) {
                 return RowMergers.passThroughRowMerger(firstNodeProjector);
             } else {
                 return new SingleUpstreamRowDownstream(firstNodeProjector);
             }
+        } else if (firstNodeProjector instanceof GroupingProjector) {
+            LOGGER.debug("Getting pre-aggregating RowDownstream for multiple upstreams");
+            final Projection groupProjection = projections.get(shardProjectionsIndex + 1);
+            preAggregatingRowMerger = RowMergers.preAggregatingRowMerger(
+                    (GroupingProjector) firstNodeProjector,
+                    new RowMergers.GrouperFactory() {
+                        @Override
+                        public GroupingProjector create(RamAccountingContext ramAccountingContext) {
+                            return (GroupingProjector) projectorFactory.create(groupProjection, ramAccountingContext, jobId);
+                        }
+                    },
+                    ramAccountingContext,
+                    maxNumUpstreams
+            );
+            return preAggregatingRowMerger;
         } else {
             LOGGER.debug("Getting RowDownstream for multiple upstreams; unsorted; repeat support: "
                     + firstNodeProjector.requirements());
@@ -196,6 +214,9 @@ public class ShardProjectorChain {
         for (Projector projector : Lists.reverse(nodeProjectors)) {
             projector.prepare(executionState);
         }
+        if (preAggregatingRowMerger != null) {
+            preAggregatingRowMerger.prepare(executionState);
+        }
         if (shardProjectionsIndex >= 0) {
             for (Projector p : shardProjectors) {
                 p.prepare(executionState);
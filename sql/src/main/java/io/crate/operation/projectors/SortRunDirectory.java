@@ -0,0 +1,113 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import io.crate.jobs.JobContextService;
+import io.crate.jobs.KillAllListener;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.io.FileSystemUtils;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.env.NodeEnvironment;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+/**
+ * Node-local directory which contains the sorted runs written by the {@link ExternalSortingProjector}s.
+ *
+ * Every projector writes its runs into a directory of its own whose name starts with the job id,
+ * so the runs of a killed job are removed even if its projectors don't receive a failure.
+ * Runs left over by a previous process of the node are removed on startup.
+ */
+@Singleton
+public class SortRunDirectory implements KillAllListener {
+
+    private static final ESLogger LOGGER = Loggers.getLogger(SortRunDirectory.class);
+    private static final String DIRECTORY_NAME = "sort";
+
+    private final Path root;
+
+    @Inject
+    public SortRunDirectory(NodeEnvironment nodeEnvironment, JobContextService jobContextService) {
+        this(rootPath(nodeEnvironment));
+        jobContextService.addListener(this);
+    }
+
+    public SortRunDirectory(Path root) {
+        this.root = root;
+        if (Files.exists(root)) {
+            FileSystemUtils.deleteRecursively(root.toFile(), false);
+        }
+    }
+
+    private static Path rootPath(NodeEnvironment nodeEnvironment) {
+        if (nodeEnvironment.hasNodeFile()) {
+            return nodeEnvironment.nodeDataPaths()[0].resolve(DIRECTORY_NAME);
+        }
+        // nodes without local storage (e.g. client nodes) still sort on the handler
+        return Paths.get(System.getProperty("java.io.tmpdir"), "crate-" + DIRECTORY_NAME + "-" + UUID.randomUUID());
+    }
+
+    /**
+     * create a new directory for the runs of one projector of the given job
+     */
+    public Path newDirectory(UUID jobId) throws IOException {
+        Files.createDirectories(root);
+        return Files.createTempDirectory(root, jobId.toString() + "-");
+    }
+
+    /**
+     * remove a directory created by {@link #newDirectory(UUID)} including all of its runs
+     */
+    public static void delete(Path directory) {
+        if (Files.exists(directory) && !FileSystemUtils.deleteRecursively(directory.toFile())) {
+            LOGGER.warn("couldn't delete sort runs in {}", directory);
+        }
+    }
+
+    @Override
+    public void killAllJobs(long timestamp) {
+        if (Files.exists(root)) {
+            FileSystemUtils.deleteRecursively(root.toFile(), false);
+        }
+    }
+
+    @Override
+    public void killJob(UUID jobId) {
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(root, jobId.toString() + "-*")) {
+            for (Path directory : directories) {
+                delete(directory);
+            }
+        } catch (NoSuchFileException e) {
+            // nothing has been spilled on this node yet
+        } catch (IOException e) {
+            LOGGER.warn("couldn't delete sort runs of job {}", e, jobId);
+        }
+    }
+}
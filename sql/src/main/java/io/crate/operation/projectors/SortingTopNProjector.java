@@ -24,7 +24,6 @@ package io.crate.operation.projectors;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
-import io.crate.Constants;
 import io.crate.core.collections.ArrayBucket;
 import io.crate.core.collections.Row;
 import io.crate.operation.Input;
@@ -50,7 +49,8 @@ public class SortingTopNProjector extends AbstractProjector {
      * @param collectExpressions gathered from outputs and orderBy inputs
      * @param numOutputs         <code>inputs</code> contains this much output {@link io.crate.operation.Input}s starting form index 0
      * @param ordering           ordering that is used to compare the rows
-     * @param limit              the number of rows to gather, pass to upStream
+     * @param limit              the number of rows to gather, pass to upStream.
+     *                           Sorting without a limit is done by the {@link ExternalSortingProjector}
      * @param offset             the initial offset, this number of rows are skipped
      */
     public SortingTopNProjector(Collection<? extends Input<?>> inputs,
@@ -59,17 +59,13 @@ public class SortingTopNProjector extends AbstractProjector {
                                 Ordering<Object[]> ordering,
                                 int limit,
                                 int offset) {
-        Preconditions.checkArgument(limit >= TopN.NO_LIMIT, "invalid limit");
+        Preconditions.checkArgument(limit > TopN.NO_LIMIT, "invalid limit");
         Preconditions.checkArgument(offset >= 0, "invalid offset");
 
         this.inputs = inputs;
         this.numOutputs = numOutputs;
         this.collectExpressions = collectExpressions;
         this.offset = offset;
-
-        if (limit == TopN.NO_LIMIT) {
-            limit = Constants.DEFAULT_SELECT_LIMIT;
-        }
         int maxSize = this.offset + limit;
         pq = new RowPriorityQueue<>(maxSize, ordering);
     }
@@ -21,8 +21,10 @@
 
 package io.crate.operation.projectors;
 
+import com.google.common.io.CountingOutputStream;
 import io.crate.core.collections.Row;
 import io.crate.core.collections.Row1;
+import io.crate.core.collections.RowN;
 import io.crate.exceptions.UnhandledServerException;
 import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.exceptions.ValidationException;
@@ -33,6 +35,7 @@ import io.crate.operation.collect.CollectExpression;
 import io.crate.operation.projectors.writer.Output;
 import io.crate.operation.projectors.writer.OutputFile;
 import io.crate.operation.projectors.writer.OutputS3;
+import io.crate.planner.projection.WriterProjection;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentBuilder;
@@ -44,22 +47,45 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class WriterProjector extends AbstractProjector {
 
     private static final byte NEW_LINE = (byte) '\n';
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_PENDING_BATCHES = 4;
+    private static final List<Object[]> END_OF_ROWS = Collections.unmodifiableList(new ArrayList<Object[]>(0));
 
+    private final ExecutorService executorService;
     private final URI uri;
+    private final Settings settings;
     private final Set<CollectExpression<Row, ?>> collectExpressions;
     private final List<Input<?>> inputs;
     private final Map<String, Object> overwrites;
-    private Output output;
+    private final WriterProjection.OutputFormat outputFormat;
+    private final long maxFileSize;
+    @Nullable
+    private final List<String> outputNames;
+    private final Output output;
 
     protected final AtomicLong counter = new AtomicLong();
+
+    /**
+     * rows are serialized and written by a separate task, the collecting thread only
+     * materializes them into batches which are handed over using this queue
+     */
+    private final BlockingQueue<List<Object[]>> pendingBatches = new ArrayBlockingQueue<>(MAX_PENDING_BATCHES);
+    private List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+    private Future<?> writerFuture;
+    private volatile Throwable writerFailure;
+
+    // only accessed by the writer task once it has been started
+    private CountingOutputStream outputStream;
     private RowWriter rowWriter;
+    private int part;
 
     /**
      * @param inputs a list of {@link io.crate.operation.Input}.
@@ -75,23 +101,64 @@ public class WriterProjector extends AbstractProjector {
                            @Nullable List<Input<?>> inputs,
                            Set<CollectExpression<Row, ?>> collectExpressions,
                            Map<ColumnIdent, Object> overwrites) {
+        this(executorService, uri, settings, inputs, null, collectExpressions, overwrites,
+                WriterProjection.OutputFormat.JSON, -1L);
+    }
+
+    /**
+     * @param outputNames  names of the inputs, written as header line if the output format is CSV
+     * @param maxFileSize  number of uncompressed bytes after which the output is continued in a new file
+     *                     whose name contains the part number (e.g. out.json, out.1.json, out.2.json ...).
+     *                     -1 to write everything into a single file.
+     */
+    public WriterProjector(ExecutorService executorService,
+                           String uri,
+                           Settings settings,
+                           @Nullable List<Input<?>> inputs,
+                           @Nullable List<String> outputNames,
+                           Set<CollectExpression<Row, ?>> collectExpressions,
+                           Map<ColumnIdent, Object> overwrites,
+                           WriterProjection.OutputFormat outputFormat,
+                           long maxFileSize) {
+        this.executorService = executorService;
+        this.settings = settings;
         this.collectExpressions = collectExpressions;
         this.inputs = inputs;
+        this.outputNames = outputNames;
         this.overwrites = toNestedStringObjectMap(overwrites);
+        this.outputFormat = outputFormat;
+        this.maxFileSize = maxFileSize;
         try {
             this.uri = new URI(uri);
         } catch (URISyntaxException e) {
             throw new ValidationException(String.format("Invalid uri '%s'", uri), e);
         }
-        if (this.uri.getScheme() == null || this.uri.getScheme().equals("file")) {
-            this.output = new OutputFile(this.uri, settings);
-        } else if (this.uri.getScheme().equalsIgnoreCase("s3")) {
-            this.output = new OutputS3(executorService, this.uri, settings);
+        this.output = createOutput(this.uri);
+    }
+
+    private Output createOutput(URI uri) {
+        if (uri.getScheme() == null || uri.getScheme().equals("file")) {
+            return new OutputFile(uri, settings);
+        } else if (uri.getScheme().equalsIgnoreCase("s3")) {
+            return new OutputS3(executorService, uri, settings);
         } else {
-            throw new UnsupportedFeatureException(String.format("Unknown scheme '%s'", this.uri.getScheme()));
+            throw new UnsupportedFeatureException(String.format("Unknown scheme '%s'", uri.getScheme()));
         }
     }
 
+    /**
+     * inserts the part number in front of the file extension: out.json.gz -&gt; out.1.json.gz
+     */
+    static URI partUri(URI uri, int part) {
+        String uriString = uri.toString();
+        int nameStart = uriString.lastIndexOf('/') + 1;
+        int extensionStart = uriString.indexOf('.', nameStart);
+        if (extensionStart < 0) {
+            return URI.create(uriString + "." + part);
+        }
+        return URI.create(uriString.substring(0, extensionStart) + "." + part + uriString.substring(extensionStart));
+    }
+
     protected static Map<String, Object> toNestedStringObjectMap(Map<ColumnIdent, Object> columnIdentObjectMap) {
         Map<String, Object> nestedMap = new HashMap<>();
         Map<String, Object> parent = nestedMap;
@@ -132,51 +199,151 @@ public class WriterProjector extends AbstractProjector {
     @Override
     public void prepare(ExecutionState executionState) {
         counter.set(0);
+        part = 0;
         try {
-            if (!overwrites.isEmpty()) {
-                rowWriter = new DocWriter(
-                        output.acquireOutputStream(), collectExpressions, overwrites);
-            } else if (inputs != null && !inputs.isEmpty()) {
-                rowWriter = new ColumnRowWriter(output.acquireOutputStream(), collectExpressions, inputs);
+            openOutput(output);
+        } catch (IOException e) {
+            throw new UnhandledServerException(String.format("Failed to open output: '%s'", e.getMessage()), e);
+        }
+        writerFuture = executorService.submit(new Runnable() {
+            @Override
+            public void run() {
+                writePendingBatches();
+            }
+        });
+    }
+
+    private void openOutput(Output output) throws IOException {
+        outputStream = new CountingOutputStream(output.acquireOutputStream());
+        if (!overwrites.isEmpty()) {
+            rowWriter = new DocWriter(outputStream, collectExpressions, overwrites);
+        } else if (inputs != null && !inputs.isEmpty()) {
+            if (outputFormat == WriterProjection.OutputFormat.CSV) {
+                rowWriter = new CsvRowWriter(outputStream, collectExpressions, inputs, outputNames);
             } else {
-                rowWriter = new RawRowWriter(output.acquireOutputStream());
+                rowWriter = new ColumnRowWriter(outputStream, collectExpressions, inputs);
             }
+        } else {
+            rowWriter = new RawRowWriter(outputStream);
+        }
+    }
+
+    private void writePendingBatches() {
+        try {
+            RowN row = null;
+            while (true) {
+                List<Object[]> rows = pendingBatches.take();
+                if (rows == END_OF_ROWS) {
+                    return;
+                }
+                for (Object[] cells : rows) {
+                    if (row == null) {
+                        row = new RowN(cells.length);
+                    }
+                    row.cells(cells);
+                    if (maxFileSize > 0 && outputStream.getCount() >= maxFileSize) {
+                        rotateOutput();
+                    }
+                    rowWriter.write(row);
+                }
+            }
+        } catch (Throwable t) {
+            writerFailure = t;
+        }
+    }
+
+    private void rotateOutput() {
+        part++;
+        URI partUri = partUri(uri, part);
+        try {
+            rowWriter.close();
+            openOutput(createOutput(partUri));
         } catch (IOException e) {
-            throw new UnhandledServerException(String.format("Failed to open output: '%s'", e.getMessage()), e);
+            rowWriter = null;
+            throw new UnhandledServerException(String.format("Failed to open output '%s': '%s'", partUri, e.getMessage()), e);
         }
     }
 
     @Override
     public boolean setNextRow(Row row) {
-        rowWriter.write(row);
+        if (writerFailure != null) {
+            return false;
+        }
+        batch.add(row.materialize());
         counter.incrementAndGet();
+        if (batch.size() >= BATCH_SIZE) {
+            List<Object[]> rows = batch;
+            batch = new ArrayList<>(BATCH_SIZE);
+            return enqueue(rows);
+        }
         return true;
     }
 
+    /**
+     * hands the rows over to the writer task, blocks if the writer can't keep up.
+     *
+     * @return false if the writer task has stopped
+     */
+    private boolean enqueue(List<Object[]> rows) {
+        try {
+            while (!pendingBatches.offer(rows, 100, TimeUnit.MILLISECONDS)) {
+                if (writerFailure != null || writerFuture.isDone()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
     @Override
     public void finish() {
-        if (closeWriterAndOutput()) return;
-
+        Throwable failure = stopWriterAndCloseOutput();
+        if (failure != null) {
+            downstream.fail(failure);
+            return;
+        }
         downstream.setNextRow(new Row1(counter.get()));
         downstream.finish();
     }
 
-    private boolean closeWriterAndOutput() {
+    @Nullable
+    private Throwable stopWriterAndCloseOutput() {
+        if (writerFuture == null) {
+            return null;
+        }
+        if (!batch.isEmpty()) {
+            enqueue(batch);
+            batch = new ArrayList<>(BATCH_SIZE);
+        }
+        enqueue(END_OF_ROWS);
+        try {
+            writerFuture.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writerFuture.cancel(true);
+            return e;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+        Throwable failure = writerFailure;
         try {
             if (rowWriter != null) {
                 rowWriter.close();
             }
         } catch (IOException e) {
-            downstream.fail(new UnhandledServerException("Failed to close output", e));
-            return true;
+            if (failure == null) {
+                failure = new UnhandledServerException("Failed to close output", e);
+            }
         }
-        return false;
+        return failure;
     }
 
     @Override
     public void fail(Throwable throwable) {
-        if (closeWriterAndOutput()) return;
-
+        stopWriterAndCloseOutput();
         downstream.fail(throwable);
     }
 
@@ -250,6 +417,105 @@ public class WriterProjector extends AbstractProjector {
         }
     }
 
+    static class CsvRowWriter implements RowWriter {
+
+        private static final char DELIMITER = ',';
+
+        private final OutputStream outputStream;
+        private final Set<CollectExpression<Row, ?>> collectExpressions;
+        private final List<Input<?>> inputs;
+        private final StringBuilder line = new StringBuilder();
+
+        CsvRowWriter(OutputStream outputStream,
+                     Set<CollectExpression<Row, ?>> collectExpressions,
+                     List<Input<?>> inputs,
+                     @Nullable List<String> columnNames) throws IOException {
+            this.outputStream = outputStream;
+            this.collectExpressions = collectExpressions;
+            this.inputs = inputs;
+            if (columnNames != null) {
+                line.setLength(0);
+                for (int i = 0; i < columnNames.size(); i++) {
+                    if (i > 0) {
+                        line.append(DELIMITER);
+                    }
+                    appendValue(columnNames.get(i));
+                }
+                writeLine();
+            }
+        }
+
+        @Override
+        public void write(Row row) {
+            for (CollectExpression<Row, ?> collectExpression : collectExpressions) {
+                collectExpression.setNextRow(row);
+            }
+            try {
+                line.setLength(0);
+                for (int i = 0; i < inputs.size(); i++) {
+                    if (i > 0) {
+                        line.append(DELIMITER);
+                    }
+                    appendValue(inputs.get(i).value());
+                }
+                writeLine();
+            } catch (IOException e) {
+                throw new UnhandledServerException("Failed to write row to output", e);
+            }
+        }
+
+        private void writeLine() throws IOException {
+            line.append((char) NEW_LINE);
+            outputStream.write(line.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * appends the value, quoted if required. null values are written as empty unquoted value,
+         * objects and arrays as JSON.
+         */
+        private void appendValue(@Nullable Object value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            String stringValue;
+            if (value instanceof BytesRef) {
+                stringValue = ((BytesRef) value).utf8ToString();
+            } else if (value instanceof Map || value instanceof Collection || value instanceof Object[]) {
+                stringValue = XContentFactory.jsonBuilder().value(value).string();
+            } else {
+                stringValue = value.toString();
+            }
+            if (stringValue.isEmpty() || requiresQuotes(stringValue)) {
+                line.append('"');
+                for (int i = 0; i < stringValue.length(); i++) {
+                    char c = stringValue.charAt(i);
+                    if (c == '"') {
+                        line.append('"');
+                    }
+                    line.append(c);
+                }
+                line.append('"');
+            } else {
+                line.append(stringValue);
+            }
+        }
+
+        private static boolean requiresQuotes(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == DELIMITER || c == '"' || c == '\n' || c == '\r') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            outputStream.close();
+        }
+    }
+
     static class ColumnRowWriter implements RowWriter {
 
         private final Set<CollectExpression<Row, ?>> collectExpressions;
@@ -0,0 +1,122 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.projectors.grouping;
+
+import com.carrotsearch.hppc.ObjectIntOpenHashMap;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.operation.Input;
+import io.crate.types.DataType;
+import io.crate.types.IpType;
+import io.crate.types.StringType;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import java.util.Arrays;
+
+/**
+ * GroupKeyTable for a single string or ip key.
+ * Lookups are done with the BytesRef provided by the input, only new keys are copied.
+ */
+class BytesRefGroupKeyTable extends GroupKeyTable {
+
+    // key reference + int ordinal + boolean allocated flag
+    private static final int BYTES_PER_SLOT = REFERENCE_SIZE + 4 + 1;
+    // BytesRef object + byte array header
+    private static final int BYTES_REF_OVERHEAD = 32;
+
+    private final Input<?> keyInput;
+    private final DataType keyType;
+    private final ObjectIntOpenHashMap<BytesRef> ordinals = new ObjectIntOpenHashMap<>();
+
+    private BytesRef[] keys = new BytesRef[0];
+    private int size = 0;
+    private int nullOrdinal = -1;
+    private int capacity;
+
+    BytesRefGroupKeyTable(Input<?> keyInput, DataType keyType, RamAccountingContext ramAccountingContext) {
+        super(ramAccountingContext);
+        this.keyInput = keyInput;
+        this.keyType = keyType;
+        capacity = accountResize(0, ordinals.keys.length, BYTES_PER_SLOT);
+    }
+
+    static boolean supports(DataType keyType) {
+        return keyType.id() == StringType.ID || keyType.id() == IpType.ID;
+    }
+
+    @Override
+    public int add() {
+        Object value = keyInput.value();
+        if (value == null) {
+            if (nullOrdinal == -1) {
+                nullOrdinal = newOrdinal(null);
+                return nullOrdinal;
+            }
+            return -1 - nullOrdinal;
+        }
+        BytesRef key = value instanceof BytesRef ? (BytesRef) value : (BytesRef) keyType.value(value);
+        if (ordinals.containsKey(key)) {
+            return -1 - ordinals.lget();
+        }
+        key = BytesRef.deepCopyOf(key);
+        ramAccountingContext.addBytes(RamAccountingContext.roundUp(key.length + BYTES_REF_OVERHEAD));
+        int ordinal = newOrdinal(key);
+        ordinals.put(key, ordinal);
+        capacity = accountResize(capacity, ordinals.keys.length, BYTES_PER_SLOT);
+        return ordinal;
+    }
+
+    private int newOrdinal(BytesRef key) {
+        if (size == keys.length) {
+            int newLength = ArrayUtil.oversize(size + 1, RamUsageEstimator.NUM_BYTES_OBJECT_REF);
+            ramAccountingContext.addBytes((newLength - keys.length) * REFERENCE_SIZE);
+            keys = Arrays.copyOf(keys, newLength);
+        }
+        keys[size] = key;
+        return size++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int numKeys() {
+        return 1;
+    }
+
+    @Override
+    public void keyValues(int ordinal, Object[] cells) {
+        cells[0] = keys[ordinal];
+    }
+
+    @Override
+    public void close() {
+        ordinals.clear();
+        keys = new BytesRef[0];
+        size = 0;
+        nullOrdinal = -1;
+    }
+}
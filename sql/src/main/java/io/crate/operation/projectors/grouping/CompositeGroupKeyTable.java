@@ -0,0 +1,245 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.projectors.grouping;
+
+import com.carrotsearch.hppc.ObjectIntOpenHashMap;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.operation.Input;
+import io.crate.types.*;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * GroupKeyTable for many primitive keys.
+ *
+ * The values of all keys are encoded into a single composite BytesRef:
+ * every value is prefixed by a null marker byte followed by its fixed width
+ * representation, strings are written as int length followed by their utf-8 bytes.
+ * Lookups use a re-used scratch buffer, so only new groups allocate.
+ */
+class CompositeGroupKeyTable extends GroupKeyTable {
+
+    // key reference + int ordinal + boolean allocated flag
+    private static final int BYTES_PER_SLOT = REFERENCE_SIZE + 4 + 1;
+    // BytesRef object + byte array header
+    private static final int BYTES_REF_OVERHEAD = 32;
+
+    private static final byte NULL = 0;
+    private static final byte NOT_NULL = 1;
+
+    private final List<Input<?>> keyInputs;
+    private final int[] keyTypeIds;
+    private final DataType[] keyTypes;
+    private final Object[] values;
+    private final ObjectIntOpenHashMap<BytesRef> ordinals = new ObjectIntOpenHashMap<>();
+    private final ByteArrayDataOutput out = new ByteArrayDataOutput();
+    private final ByteArrayDataInput in = new ByteArrayDataInput();
+    private final BytesRef spare = new BytesRef();
+
+    private byte[] scratch = new byte[64];
+    private BytesRef[] keys = new BytesRef[0];
+    private int size = 0;
+    private int capacity;
+
+    CompositeGroupKeyTable(List<Input<?>> keyInputs,
+                           List<? extends DataType> keyTypes,
+                           RamAccountingContext ramAccountingContext) {
+        super(ramAccountingContext);
+        this.keyInputs = keyInputs;
+        this.keyTypes = keyTypes.toArray(new DataType[keyTypes.size()]);
+        this.keyTypeIds = new int[keyTypes.size()];
+        for (int i = 0; i < keyTypeIds.length; i++) {
+            keyTypeIds[i] = keyTypes.get(i).id();
+        }
+        this.values = new Object[keyTypes.size()];
+        capacity = accountResize(0, ordinals.keys.length, BYTES_PER_SLOT);
+    }
+
+    static boolean supports(List<? extends DataType> keyTypes) {
+        for (DataType keyType : keyTypes) {
+            if (!DataTypes.PRIMITIVE_TYPES.contains(keyType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int add() {
+        int length = 0;
+        for (int i = 0; i < values.length; i++) {
+            Object value = keyInputs.get(i).value();
+            if (value != null && (keyTypeIds[i] == StringType.ID || keyTypeIds[i] == IpType.ID)
+                && !(value instanceof BytesRef)) {
+                value = keyTypes[i].value(value);
+            }
+            values[i] = value;
+            length += encodedLength(keyTypeIds[i], value);
+        }
+        if (scratch.length < length) {
+            scratch = new byte[ArrayUtil.oversize(length, 1)];
+        }
+        out.reset(scratch);
+        for (int i = 0; i < values.length; i++) {
+            encode(keyTypeIds[i], values[i]);
+        }
+        assert out.getPosition() == length : "encoded length must match the calculated length";
+        spare.bytes = scratch;
+        spare.offset = 0;
+        spare.length = length;
+
+        if (ordinals.containsKey(spare)) {
+            return -1 - ordinals.lget();
+        }
+        BytesRef key = BytesRef.deepCopyOf(spare);
+        ramAccountingContext.addBytes(RamAccountingContext.roundUp(key.length + BYTES_REF_OVERHEAD));
+        if (size == keys.length) {
+            int newLength = ArrayUtil.oversize(size + 1, RamUsageEstimator.NUM_BYTES_OBJECT_REF);
+            ramAccountingContext.addBytes((newLength - keys.length) * REFERENCE_SIZE);
+            keys = Arrays.copyOf(keys, newLength);
+        }
+        int ordinal = size++;
+        keys[ordinal] = key;
+        ordinals.put(key, ordinal);
+        capacity = accountResize(capacity, ordinals.keys.length, BYTES_PER_SLOT);
+        return ordinal;
+    }
+
+    private static int encodedLength(int typeId, Object value) {
+        if (value == null) {
+            return 1;
+        }
+        switch (typeId) {
+            case ByteType.ID:
+            case BooleanType.ID:
+                return 2;
+            case ShortType.ID:
+                return 3;
+            case IntegerType.ID:
+            case FloatType.ID:
+                return 5;
+            case StringType.ID:
+            case IpType.ID:
+                // null marker + length + bytes
+                return 1 + 4 + ((BytesRef) value).length;
+            default:
+                return 9;
+        }
+    }
+
+    private void encode(int typeId, Object value) {
+        if (value == null) {
+            out.writeByte(NULL);
+            return;
+        }
+        out.writeByte(NOT_NULL);
+        switch (typeId) {
+            case ByteType.ID:
+                out.writeByte(((Number) value).byteValue());
+                break;
+            case BooleanType.ID:
+                out.writeByte(((Boolean) value) ? (byte) 1 : (byte) 0);
+                break;
+            case ShortType.ID:
+                out.writeShort(((Number) value).shortValue());
+                break;
+            case IntegerType.ID:
+                out.writeInt(((Number) value).intValue());
+                break;
+            case FloatType.ID:
+                out.writeInt(Float.floatToIntBits(((Number) value).floatValue()));
+                break;
+            case DoubleType.ID:
+                out.writeLong(Double.doubleToLongBits(((Number) value).doubleValue()));
+                break;
+            case StringType.ID:
+            case IpType.ID:
+                BytesRef bytesRef = (BytesRef) value;
+                out.writeInt(bytesRef.length);
+                out.writeBytes(bytesRef.bytes, bytesRef.offset, bytesRef.length);
+                break;
+            default:
+                out.writeLong(((Number) value).longValue());
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int numKeys() {
+        return keyTypeIds.length;
+    }
+
+    @Override
+    public void keyValues(int ordinal, Object[] cells) {
+        BytesRef key = keys[ordinal];
+        in.reset(key.bytes, key.offset, key.length);
+        for (int i = 0; i < keyTypeIds.length; i++) {
+            cells[i] = decode(keyTypeIds[i]);
+        }
+    }
+
+    private Object decode(int typeId) {
+        if (in.readByte() == NULL) {
+            return null;
+        }
+        switch (typeId) {
+            case ByteType.ID:
+                return in.readByte();
+            case BooleanType.ID:
+                return in.readByte() == 1;
+            case ShortType.ID:
+                return in.readShort();
+            case IntegerType.ID:
+                return in.readInt();
+            case FloatType.ID:
+                return Float.intBitsToFloat(in.readInt());
+            case DoubleType.ID:
+                return Double.longBitsToDouble(in.readLong());
+            case StringType.ID:
+            case IpType.ID:
+                int length = in.readInt();
+                byte[] bytes = new byte[length];
+                in.readBytes(bytes, 0, length);
+                return new BytesRef(bytes);
+            default:
+                return in.readLong();
+        }
+    }
+
+    @Override
+    public void close() {
+        ordinals.clear();
+        keys = new BytesRef[0];
+        size = 0;
+    }
+}
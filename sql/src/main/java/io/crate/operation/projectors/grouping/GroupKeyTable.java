@@ -0,0 +1,113 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.projectors.grouping;
+
+import io.crate.breaker.RamAccountingContext;
+import io.crate.operation.Input;
+import io.crate.types.*;
+
+import java.util.List;
+
+/**
+ * A hash table which maps the current values of one or more key inputs to a dense group ordinal.
+ *
+ * Ordinals are assigned in insertion order starting at 0, so callers can keep per-group data
+ * in plain arrays indexed by the ordinal instead of boxing it into map entries.
+ */
+public abstract class GroupKeyTable {
+
+    /**
+     * estimated overhead for a reference to an object
+     */
+    static final int REFERENCE_SIZE = 4;
+
+    protected final RamAccountingContext ramAccountingContext;
+
+    protected GroupKeyTable(RamAccountingContext ramAccountingContext) {
+        this.ramAccountingContext = ramAccountingContext;
+    }
+
+    /**
+     * creates a table which is specialized for the given key types.
+     * Single numeric keys use a primitive long table, single string keys a BytesRef table,
+     * and many primitive keys are encoded into a single composite BytesRef.
+     */
+    public static GroupKeyTable create(List<? extends DataType> keyTypes,
+                                       List<Input<?>> keyInputs,
+                                       RamAccountingContext ramAccountingContext) {
+        assert keyTypes.size() == keyInputs.size() : "number of key types must match with number of key inputs";
+        if (keyInputs.size() == 1) {
+            DataType keyType = keyTypes.get(0);
+            if (LongGroupKeyTable.supports(keyType)) {
+                return new LongGroupKeyTable(keyInputs.get(0), keyType, ramAccountingContext);
+            }
+            if (BytesRefGroupKeyTable.supports(keyType)) {
+                return new BytesRefGroupKeyTable(keyInputs.get(0), keyType, ramAccountingContext);
+            }
+        } else if (CompositeGroupKeyTable.supports(keyTypes)) {
+            return new CompositeGroupKeyTable(keyInputs, keyTypes, ramAccountingContext);
+        }
+        return new ObjectGroupKeyTable(keyInputs, keyTypes, ramAccountingContext);
+    }
+
+    /**
+     * reads the current values of the key inputs and looks them up.
+     *
+     * @return the ordinal of the group if the key was added to the table,
+     *         or <code>-1 - ordinal</code> if the key already existed.
+     */
+    public abstract int add();
+
+    /**
+     * @return the number of distinct keys in the table
+     */
+    public abstract int size();
+
+    /**
+     * @return the number of key columns
+     */
+    public abstract int numKeys();
+
+    /**
+     * writes the key values of the group with the given ordinal into <code>cells</code>,
+     * starting at index 0.
+     */
+    public abstract void keyValues(int ordinal, Object[] cells);
+
+    /**
+     * releases the table
+     */
+    public abstract void close();
+
+    /**
+     * accounts the memory of grown table slots.
+     *
+     * @return the new capacity
+     */
+    protected int accountResize(int oldCapacity, int newCapacity, int bytesPerSlot) {
+        if (newCapacity != oldCapacity) {
+            ramAccountingContext.addBytes(RamAccountingContext.roundUp((long) (newCapacity - oldCapacity) * bytesPerSlot));
+        }
+        return newCapacity;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.projectors.grouping;
+
+import com.carrotsearch.hppc.LongIntOpenHashMap;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.operation.Input;
+import io.crate.types.*;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import java.util.Arrays;
+
+/**
+ * GroupKeyTable for a single numeric, boolean or timestamp key.
+ * Keys are encoded into a primitive long (floating point values by their raw bits)
+ * so neither lookups nor table entries have to box the key.
+ */
+class LongGroupKeyTable extends GroupKeyTable {
+
+    // long key + int ordinal + boolean allocated flag
+    private static final int BYTES_PER_SLOT = 8 + 4 + 1;
+
+    private final Input<?> keyInput;
+    private final int keyTypeId;
+    private final LongIntOpenHashMap ordinals = new LongIntOpenHashMap();
+
+    private long[] keys = new long[0];
+    private int size = 0;
+    private int nullOrdinal = -1;
+    private int capacity;
+
+    LongGroupKeyTable(Input<?> keyInput, DataType keyType, RamAccountingContext ramAccountingContext) {
+        super(ramAccountingContext);
+        this.keyInput = keyInput;
+        this.keyTypeId = keyType.id();
+        capacity = accountResize(0, ordinals.keys.length, BYTES_PER_SLOT);
+    }
+
+    static boolean supports(DataType keyType) {
+        switch (keyType.id()) {
+            case ByteType.ID:
+            case ShortType.ID:
+            case IntegerType.ID:
+            case LongType.ID:
+            case TimestampType.ID:
+            case FloatType.ID:
+            case DoubleType.ID:
+            case BooleanType.ID:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public int add() {
+        Object value = keyInput.value();
+        if (value == null) {
+            if (nullOrdinal == -1) {
+                nullOrdinal = newOrdinal(0L);
+                return nullOrdinal;
+            }
+            return -1 - nullOrdinal;
+        }
+        long key = encode(value);
+        if (ordinals.containsKey(key)) {
+            return -1 - ordinals.lget();
+        }
+        int ordinal = newOrdinal(key);
+        ordinals.put(key, ordinal);
+        capacity = accountResize(capacity, ordinals.keys.length, BYTES_PER_SLOT);
+        return ordinal;
+    }
+
+    private int newOrdinal(long key) {
+        if (size == keys.length) {
+            int newLength = ArrayUtil.oversize(size + 1, RamUsageEstimator.NUM_BYTES_LONG);
+            ramAccountingContext.addBytes((newLength - keys.length) * RamUsageEstimator.NUM_BYTES_LONG);
+            keys = Arrays.copyOf(keys, newLength);
+        }
+        keys[size] = key;
+        return size++;
+    }
+
+    private long encode(Object value) {
+        switch (keyTypeId) {
+            case FloatType.ID:
+                return Float.floatToIntBits(((Number) value).floatValue());
+            case DoubleType.ID:
+                return Double.doubleToLongBits(((Number) value).doubleValue());
+            case BooleanType.ID:
+                return ((Boolean) value) ? 1L : 0L;
+            default:
+                return ((Number) value).longValue();
+        }
+    }
+
+    private Object decode(long key) {
+        switch (keyTypeId) {
+            case ByteType.ID:
+                return (byte) key;
+            case ShortType.ID:
+                return (short) key;
+            case IntegerType.ID:
+                return (int) key;
+            case FloatType.ID:
+                return Float.intBitsToFloat((int) key);
+            case DoubleType.ID:
+                return Double.longBitsToDouble(key);
+            case BooleanType.ID:
+                return key != 0L;
+            default:
+                return key;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int numKeys() {
+        return 1;
+    }
+
+    @Override
+    public void keyValues(int ordinal, Object[] cells) {
+        if (ordinal == nullOrdinal) {
+            cells[0] = null;
+        } else {
+            cells[0] = decode(keys[ordinal]);
+        }
+    }
+
+    @Override
+    public void close() {
+        ordinals.clear();
+        keys = new long[0];
+        size = 0;
+        nullOrdinal = -1;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.projectors.grouping;
+
+import com.carrotsearch.hppc.ObjectIntOpenHashMap;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.breaker.SizeEstimator;
+import io.crate.breaker.SizeEstimatorFactory;
+import io.crate.operation.Input;
+import io.crate.types.DataType;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * GroupKeyTable for key types which can't be encoded into primitives (e.g. objects or arrays).
+ * A single key is used as is, many keys are wrapped into a list.
+ */
+class ObjectGroupKeyTable extends GroupKeyTable {
+
+    // key reference + int ordinal + boolean allocated flag
+    private static final int BYTES_PER_SLOT = REFERENCE_SIZE + 4 + 1;
+
+    private final List<Input<?>> keyInputs;
+    private final List<SizeEstimator<Object>> sizeEstimators;
+    private final ObjectIntOpenHashMap<Object> ordinals = new ObjectIntOpenHashMap<>();
+
+    private Object[] keys = new Object[0];
+    private int size = 0;
+    private int capacity;
+
+    ObjectGroupKeyTable(List<Input<?>> keyInputs,
+                        List<? extends DataType> keyTypes,
+                        RamAccountingContext ramAccountingContext) {
+        super(ramAccountingContext);
+        this.keyInputs = keyInputs;
+        sizeEstimators = new ArrayList<>(keyTypes.size());
+        for (DataType dataType : keyTypes) {
+            sizeEstimators.add(SizeEstimatorFactory.create(dataType));
+        }
+        capacity = accountResize(0, ordinals.keys.length, BYTES_PER_SLOT);
+    }
+
+    @Override
+    public int add() {
+        Object key;
+        if (keyInputs.size() == 1) {
+            key = keyInputs.get(0).value();
+        } else {
+            List<Object> keyList = new ArrayList<>(keyInputs.size());
+            for (Input<?> keyInput : keyInputs) {
+                keyList.add(keyInput.value());
+            }
+            key = keyList;
+        }
+        if (ordinals.containsKey(key)) {
+            return -1 - ordinals.lget();
+        }
+        accountKey(key);
+        if (size == keys.length) {
+            int newLength = ArrayUtil.oversize(size + 1, RamUsageEstimator.NUM_BYTES_OBJECT_REF);
+            ramAccountingContext.addBytes((newLength - keys.length) * REFERENCE_SIZE);
+            keys = Arrays.copyOf(keys, newLength);
+        }
+        int ordinal = size++;
+        keys[ordinal] = key;
+        ordinals.put(key, ordinal);
+        capacity = accountResize(capacity, ordinals.keys.length, BYTES_PER_SLOT);
+        return ordinal;
+    }
+
+    private void accountKey(Object key) {
+        if (keyInputs.size() == 1) {
+            ramAccountingContext.addBytes(RamAccountingContext.roundUp(sizeEstimators.get(0).estimateSize(key)));
+        } else {
+            List keyList = (List) key;
+            // list overhead
+            long bytes = 12;
+            for (int i = 0; i < keyList.size(); i++) {
+                // 4 bytes overhead per list entry
+                bytes += RamAccountingContext.roundUp(sizeEstimators.get(i).estimateSize(keyList.get(i)) + 4);
+            }
+            ramAccountingContext.addBytes(bytes);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int numKeys() {
+        return keyInputs.size();
+    }
+
+    @Override
+    public void keyValues(int ordinal, Object[] cells) {
+        if (keyInputs.size() == 1) {
+            cells[0] = keys[ordinal];
+        } else {
+            List keyList = (List) keys[ordinal];
+            for (int i = 0; i < keyList.size(); i++) {
+                cells[i] = keyList.get(i);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        ordinals.clear();
+        keys = new Object[0];
+        size = 0;
+    }
+}
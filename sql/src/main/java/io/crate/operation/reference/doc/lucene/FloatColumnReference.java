@@ -22,11 +22,13 @@
 package io.crate.operation.reference.doc.lucene;
 
 import io.crate.exceptions.GroupByOnArrayUnsupportedException;
+import io.crate.operation.ColumnBatch;
 import org.apache.lucene.index.AtomicReaderContext;
 import org.elasticsearch.index.fielddata.IndexNumericFieldData;
 import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
 
-public class FloatColumnReference extends FieldCacheExpression<IndexNumericFieldData, Float> {
+public class FloatColumnReference extends FieldCacheExpression<IndexNumericFieldData, Float>
+        implements ColumnVectorExpression {
 
     private SortedNumericDoubleValues values;
 
@@ -58,6 +60,28 @@ public class FloatColumnReference extends FieldCacheExpression<IndexNumericField
         values.setDocument(docId);
     }
 
+    @Override
+    public ColumnBatch.ElementType elementType() {
+        return ColumnBatch.ElementType.FLOAT;
+    }
+
+    @Override
+    public void fillColumn(int[] docIds, int numDocs, ColumnBatch.Column column) {
+        for (int i = 0; i < numDocs; i++) {
+            values.setDocument(docIds[i]);
+            switch (values.count()) {
+                case 0:
+                    column.setNull(i);
+                    break;
+                case 1:
+                    column.setDouble(i, values.valueAt(0));
+                    break;
+                default:
+                    throw new GroupByOnArrayUnsupportedException(columnName());
+            }
+        }
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == null)
@@ -22,11 +22,13 @@
 package io.crate.operation.reference.doc.lucene;
 
 import io.crate.exceptions.GroupByOnArrayUnsupportedException;
+import io.crate.operation.ColumnBatch;
 import org.apache.lucene.index.AtomicReaderContext;
 import org.apache.lucene.index.SortedNumericDocValues;
 import org.elasticsearch.index.fielddata.IndexNumericFieldData;
 
-public class IntegerColumnReference extends FieldCacheExpression<IndexNumericFieldData, Integer> {
+public class IntegerColumnReference extends FieldCacheExpression<IndexNumericFieldData, Integer>
+        implements ColumnVectorExpression {
 
     private SortedNumericDocValues values;
 
@@ -58,6 +60,28 @@ public class IntegerColumnReference extends FieldCacheExpression<IndexNumericFie
         values = indexFieldData.load(context).getLongValues();
     }
 
+    @Override
+    public ColumnBatch.ElementType elementType() {
+        return ColumnBatch.ElementType.INTEGER;
+    }
+
+    @Override
+    public void fillColumn(int[] docIds, int numDocs, ColumnBatch.Column column) {
+        for (int i = 0; i < numDocs; i++) {
+            values.setDocument(docIds[i]);
+            switch (values.count()) {
+                case 0:
+                    column.setNull(i);
+                    break;
+                case 1:
+                    column.setLong(i, values.valueAt(0));
+                    break;
+                default:
+                    throw new GroupByOnArrayUnsupportedException(columnName());
+            }
+        }
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == null)
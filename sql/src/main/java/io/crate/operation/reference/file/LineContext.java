@@ -23,46 +23,86 @@ package io.crate.operation.reference.file;
 
 import io.crate.metadata.ColumnIdent;
 import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.ElasticsearchParseException;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
 
 import javax.annotation.Nullable;
-import java.util.LinkedList;
-import java.util.Map;
+import java.io.IOException;
+import java.util.*;
 
 public class LineContext {
 
     private byte[] rawSource;
+    private int offset;
+    private int length;
     private Map<String, Object> parsedSource;
+    private boolean parsedCompletely;
+
+    /**
+     * already parsed top level values of the line, e.g. of a CSV record, used instead of rawSource if set
+     */
+    private String[] columnNames;
+    private Object[] values;
+
+    /**
+     * top level columns which are extracted using {@link #get(ColumnIdent)}, only these are parsed
+     */
+    private final Set<String> columns = new HashSet<>();
 
     @Nullable
     public BytesRef sourceAsBytesRef() {
+        if (values != null) {
+            return buildSource();
+        }
         if (rawSource != null) {
-            return new BytesRef(rawSource);
+            // the raw source may be a region of a reused buffer
+            return new BytesRef(Arrays.copyOfRange(rawSource, offset, offset + length));
         }
         return null;
     }
 
     public Map<String, Object> sourceAsMap() {
-        if (parsedSource == null) {
-            try {
-                parsedSource = XContentHelper.convertToMap(rawSource, false).v2();
-            } catch (NullPointerException e) {
+        if (!parsedCompletely) {
+            if (values != null) {
+                parsedSource = new HashMap<>(values.length);
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] != null) {
+                        parsedSource.put(columnNames[i], values[i]);
+                    }
+                }
+                parsedCompletely = true;
+                return parsedSource;
+            }
+            if (rawSource == null) {
                 return null;
             }
+            parsedSource = XContentHelper.convertToMap(rawSource, offset, length, false).v2();
+            parsedCompletely = true;
         }
         return parsedSource;
     }
 
+    /**
+     * registers a column which will be extracted using {@link #get(ColumnIdent)}
+     */
+    public void addColumn(ColumnIdent columnIdent) {
+        columns.add(columnIdent.name());
+    }
+
     public Object get(ColumnIdent columnIdent) {
+        if (values != null) {
+            return getValue(columnIdent);
+        }
         // TODO: change interface in order to not compute the path for every row
         if (parsedSource == null) {
-            // TODO: optimize if collectorContext has prefetchColumns
-
-            try {
-                parsedSource = XContentHelper.convertToMap(rawSource, false).v2();
-            } catch (NullPointerException e) {
+            if (rawSource == null) {
                 return null;
             }
+            parsedSource = parseColumns();
         }
 
         LinkedList<String> path = new LinkedList<>(columnIdent.path());
@@ -81,8 +121,112 @@ public class LineContext {
         return parentMap.get(path.peekFirst());
     }
 
+    private Object getValue(ColumnIdent columnIdent) {
+        for (int i = 0; i < columnNames.length; i++) {
+            if (columnNames[i].equals(columnIdent.name())) {
+                Object value = values[i];
+                for (String key : columnIdent.path()) {
+                    if (!(value instanceof Map)) {
+                        return null;
+                    }
+                    value = ((Map) value).get(key);
+                }
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private BytesRef buildSource() {
+        try {
+            XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    builder.field(columnNames[i], values[i]);
+                }
+            }
+            return builder.endObject().bytes().toBytesRef();
+        } catch (IOException e) {
+            throw new ElasticsearchParseException("Failed to build source", e);
+        }
+    }
+
+    /**
+     * parses the values of the registered columns, all other values are skipped without being materialized
+     */
+    private Map<String, Object> parseColumns() {
+        if (columns.isEmpty()) {
+            return sourceAsMap();
+        }
+        Map<String, Object> values = new HashMap<>(columns.size());
+        try (XContentParser parser = XContentFactory.xContent(XContentType.JSON).createParser(rawSource, offset, length)) {
+            XContentParser.Token token = parser.nextToken();
+            if (token != XContentParser.Token.START_OBJECT) {
+                throw new ElasticsearchParseException("Failed to parse content to map, expected an object");
+            }
+            while ((token = parser.nextToken()) == XContentParser.Token.FIELD_NAME) {
+                String name = parser.currentName();
+                token = parser.nextToken();
+                if (columns.contains(name)) {
+                    values.put(name, readValue(parser, token));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new ElasticsearchParseException("Failed to parse content to map", e);
+        }
+        return values;
+    }
+
+    @Nullable
+    private static Object readValue(XContentParser parser, XContentParser.Token token) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+                return parser.map();
+            case START_ARRAY:
+                return parser.list();
+            case VALUE_STRING:
+                return parser.text();
+            case VALUE_NUMBER:
+                return parser.numberValue();
+            case VALUE_BOOLEAN:
+                return parser.booleanValue();
+            case VALUE_EMBEDDED_OBJECT:
+                return parser.binaryValue();
+            default:
+                return null;
+        }
+    }
+
     public void rawSource(byte[] bytes) {
+        rawSource(bytes, 0, bytes.length);
+    }
+
+    /**
+     * sets the source of the current line to a region of the given array.
+     * The array is not copied, the region must stay unchanged until the next line is set.
+     */
+    public void rawSource(byte[] bytes, int offset, int length) {
         this.rawSource = bytes;
+        this.offset = offset;
+        this.length = length;
+        this.columnNames = null;
+        this.values = null;
+        this.parsedSource = null;
+        this.parsedCompletely = false;
+    }
+
+    /**
+     * sets the current line to already parsed top level values.
+     * The source of the line is built from these values without parsing it again.
+     */
+    public void values(String[] columnNames, Object[] values) {
+        assert columnNames.length == values.length : "number of column names and values must match";
+        this.columnNames = columnNames;
+        this.values = values;
+        this.rawSource = null;
         this.parsedSource = null;
+        this.parsedCompletely = false;
     }
 }
@@ -21,6 +21,7 @@
 
 package io.crate.operation.reference.sys.node;
 
+import io.crate.action.sql.StatementCache;
 import io.crate.metadata.ReferenceImplementation;
 import io.crate.metadata.sys.SysNodesTableInfo;
 import io.crate.operation.reference.NestedObjectExpression;
@@ -62,7 +63,8 @@ public class NodeSysExpression extends NestedObjectExpression {
                              NetworkService networkService,
                              NodeEnvironment nodeEnvironment,
                              Discovery discovery,
-                             ThreadPool threadPool) {
+                             ThreadPool threadPool,
+                             StatementCache statementCache) {
         this.nodeService = nodeService;
         this.osService = osService;
         this.jvmService = jvmService;
@@ -85,6 +87,8 @@ public class NodeSysExpression extends NestedObjectExpression {
                 new NodeThreadPoolsExpression(threadPool));
         childImplementations.put(SysNodesTableInfo.SYS_COL_OS_INFO,
                 new NodeOsInfoExpression(osService.info()));
+        childImplementations.put(SysNodesTableInfo.SYS_COL_STATEMENT_CACHE,
+                new NodeStatementCacheExpression(statementCache));
     }
 
     @Override
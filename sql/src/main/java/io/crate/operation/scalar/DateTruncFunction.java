@@ -39,6 +39,7 @@ import org.elasticsearch.common.rounding.Rounding;
 import org.elasticsearch.common.rounding.TimeZoneRounding;
 import org.joda.time.DateTimeZone;
 
+import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Locale;
 
@@ -166,7 +167,10 @@ public class DateTruncFunction extends Scalar<Long, Object> {
     protected Rounding rounding(BytesRef interval, BytesRef timeZoneString) {
         DateTimeUnit intervalAsUnit = intervalAsUnit(interval);
         DateTimeZone timeZone = TimeZoneParser.parseTimeZone(timeZoneString);
+        return rounding(intervalAsUnit, timeZone);
+    }
 
+    private static Rounding rounding(DateTimeUnit intervalAsUnit, DateTimeZone timeZone) {
         TimeZoneRounding.Builder tzRoundingBuilder = TimeZoneRounding.builder(intervalAsUnit);
         return tzRoundingBuilder
                 .preZone(timeZone)
@@ -174,6 +178,19 @@ public class DateTruncFunction extends Scalar<Long, Object> {
                 .build();
     }
 
+    /**
+     * Returns the rounding which is used to truncate timestamps to <code>interval</code>
+     * in the default time zone or null if the interval is invalid.
+     */
+    @Nullable
+    public static Rounding defaultTimeZoneRounding(BytesRef interval) {
+        DateTimeUnit intervalAsUnit = DATE_FIELD_PARSERS.get(interval);
+        if (intervalAsUnit == null) {
+            return null;
+        }
+        return rounding(intervalAsUnit, TimeZoneParser.DEFAULT_TZ);
+    }
+
     /**
      * Truncates given <code>timestamp</code> down to the given <code>interval</code>.
      * The <code>timestamp</code> is expected to be in milliseconds.
@@ -0,0 +1,331 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.scalar.regex;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.crate.operation.operator.LikeOperator;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.automaton.Automaton;
+import org.apache.lucene.util.automaton.ByteRunAutomaton;
+import org.apache.lucene.util.automaton.RegExp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Matches UTF-8 encoded values against a LIKE pattern or a regular expression.
+ * <p>
+ * LIKE patterns without <code>_</code> (an exact string, a prefix, a suffix or strings which must be
+ * contained in order) are matched by comparing the bytes of the value. All other patterns are compiled
+ * once into an automaton which runs on the bytes as well, only regular expressions using PCRE features
+ * require the value to be decoded.
+ * <p>
+ * Matchers are immutable and may be shared between threads.
+ */
+public abstract class PatternMatcher {
+
+    private static final int CACHE_SIZE = 1000;
+
+    private static final Cache<BytesRef, PatternMatcher> LIKE_MATCHERS = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_SIZE)
+            .build();
+    private static final Cache<BytesRef, PatternMatcher> REGEXP_MATCHERS = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_SIZE)
+            .build();
+
+    /**
+     * @return true if the whole value matches the pattern
+     */
+    public abstract boolean matches(BytesRef value);
+
+    /**
+     * get the matcher for a LIKE pattern using {@link LikeOperator#DEFAULT_ESCAPE}.
+     * Matchers of recently used patterns are cached, so this can be called for every row.
+     */
+    public static PatternMatcher like(BytesRef pattern) {
+        PatternMatcher matcher = LIKE_MATCHERS.getIfPresent(pattern);
+        if (matcher == null) {
+            // the pattern might be a re-used buffer, the cache needs its own copy
+            BytesRef key = BytesRef.deepCopyOf(pattern);
+            matcher = compileLike(key.utf8ToString(), LikeOperator.DEFAULT_ESCAPE);
+            LIKE_MATCHERS.put(key, matcher);
+        }
+        return matcher;
+    }
+
+    /**
+     * get the matcher for a regular expression, see {@link #compileRegexp(String)}.
+     * Matchers of recently used patterns are cached, so this can be called for every row.
+     */
+    public static PatternMatcher regexp(BytesRef pattern) {
+        PatternMatcher matcher = REGEXP_MATCHERS.getIfPresent(pattern);
+        if (matcher == null) {
+            BytesRef key = BytesRef.deepCopyOf(pattern);
+            matcher = compileRegexp(key.utf8ToString());
+            REGEXP_MATCHERS.put(key, matcher);
+        }
+        return matcher;
+    }
+
+    /**
+     * compile a LIKE pattern. <code>%</code> matches any number of characters, <code>_</code> exactly one
+     * and the escape character turns the character following it into a literal one.
+     */
+    public static PatternMatcher compileLike(String pattern, char escapeChar) {
+        // literal strings separated by '%'
+        List<StringBuilder> parts = new ArrayList<>();
+        StringBuilder part = new StringBuilder();
+        // the same pattern in the syntax of lucene regular expressions
+        StringBuilder regexp = new StringBuilder(pattern.length() * 2);
+        boolean anyChar = false;
+        boolean escaped = false;
+        for (int i = 0; i < pattern.length(); ) {
+            int codePoint = pattern.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (!escaped && codePoint == escapeChar) {
+                escaped = true;
+                continue;
+            }
+            if (!escaped && codePoint == '%') {
+                parts.add(part);
+                part = new StringBuilder();
+                regexp.append(".*");
+            } else if (!escaped && codePoint == '_') {
+                anyChar = true;
+                regexp.append('.');
+            } else {
+                part.appendCodePoint(codePoint);
+                if (!Character.isLetterOrDigit(codePoint)) {
+                    regexp.append('\\');
+                }
+                regexp.appendCodePoint(codePoint);
+            }
+            escaped = false;
+        }
+        parts.add(part);
+
+        if (anyChar) {
+            return new AutomatonMatcher(new RegExp(regexp.toString()).toAutomaton());
+        }
+        if (parts.size() == 1) {
+            return new ExactMatcher(new BytesRef(parts.get(0)));
+        }
+        BytesRef prefix = new BytesRef(parts.get(0));
+        BytesRef suffix = new BytesRef(parts.get(parts.size() - 1));
+        List<BytesRef> infixes = new ArrayList<>(parts.size() - 2);
+        for (StringBuilder infix : parts.subList(1, parts.size() - 1)) {
+            if (infix.length() > 0) {
+                infixes.add(new BytesRef(infix));
+            }
+        }
+        if (infixes.isEmpty()) {
+            if (prefix.length == 0 && suffix.length == 0) {
+                return MatchAllMatcher.INSTANCE;
+            }
+            if (suffix.length == 0) {
+                return new PrefixMatcher(prefix);
+            }
+            if (prefix.length == 0) {
+                return new SuffixMatcher(suffix);
+            }
+        } else if (infixes.size() == 1 && prefix.length == 0 && suffix.length == 0) {
+            return new ContainsMatcher(infixes.get(0));
+        }
+        return new SequenceMatcher(prefix, infixes.toArray(new BytesRef[infixes.size()]), suffix);
+    }
+
+    /**
+     * compile a regular expression which must match the whole value.
+     * Patterns using PCRE features (see {@link RegexMatcher#isPcrePattern(String)}) are evaluated using
+     * {@link java.util.regex.Pattern}, all others using the lucene regular expression syntax.
+     */
+    public static PatternMatcher compileRegexp(String pattern) {
+        if (RegexMatcher.isPcrePattern(pattern)) {
+            return new JavaPatternMatcher(Pattern.compile(pattern));
+        }
+        return new AutomatonMatcher(new RegExp(pattern).toAutomaton());
+    }
+
+    private static boolean regionMatches(BytesRef value, int offset, BytesRef other) {
+        byte[] bytes = value.bytes;
+        byte[] otherBytes = other.bytes;
+        int otherOffset = other.offset;
+        for (int i = 0; i < other.length; i++) {
+            if (bytes[offset + i] != otherBytes[otherOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the position of the first occurrence of <code>other</code> in the value which
+     *         starts at or after <code>from</code> and ends before <code>to</code> or -1
+     */
+    private static int indexOf(BytesRef value, int from, int to, BytesRef other) {
+        if (other.length == 0) {
+            return from;
+        }
+        byte first = other.bytes[other.offset];
+        byte[] bytes = value.bytes;
+        for (int i = from, last = to - other.length; i <= last; i++) {
+            if (bytes[i] == first && regionMatches(value, i, other)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static class MatchAllMatcher extends PatternMatcher {
+
+        static final MatchAllMatcher INSTANCE = new MatchAllMatcher();
+
+        @Override
+        public boolean matches(BytesRef value) {
+            return true;
+        }
+    }
+
+    static class ExactMatcher extends PatternMatcher {
+
+        private final BytesRef string;
+
+        ExactMatcher(BytesRef string) {
+            this.string = string;
+        }
+
+        @Override
+        public boolean matches(BytesRef value) {
+            return string.bytesEquals(value);
+        }
+    }
+
+    static class PrefixMatcher extends PatternMatcher {
+
+        private final BytesRef prefix;
+
+        PrefixMatcher(BytesRef prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public boolean matches(BytesRef value) {
+            return value.length >= prefix.length && regionMatches(value, value.offset, prefix);
+        }
+    }
+
+    static class SuffixMatcher extends PatternMatcher {
+
+        private final BytesRef suffix;
+
+        SuffixMatcher(BytesRef suffix) {
+            this.suffix = suffix;
+        }
+
+        @Override
+        public boolean matches(BytesRef value) {
+            return value.length >= suffix.length
+                   && regionMatches(value, value.offset + value.length - suffix.length, suffix);
+        }
+    }
+
+    static class ContainsMatcher extends PatternMatcher {
+
+        private final BytesRef infix;
+
+        ContainsMatcher(BytesRef infix) {
+            this.infix = infix;
+        }
+
+        @Override
+        public boolean matches(BytesRef value) {
+            return indexOf(value, value.offset, value.offset + value.length, infix) >= 0;
+        }
+    }
+
+    /**
+     * matches <code>prefix%infix1%...%infixN%suffix</code>.
+     * As '%' matches anything, taking the first occurrence of every infix is sufficient.
+     */
+    static class SequenceMatcher extends PatternMatcher {
+
+        private final BytesRef prefix;
+        private final BytesRef[] infixes;
+        private final BytesRef suffix;
+
+        SequenceMatcher(BytesRef prefix, BytesRef[] infixes, BytesRef suffix) {
+            this.prefix = prefix;
+            this.infixes = infixes;
+            this.suffix = suffix;
+        }
+
+        @Override
+        public boolean matches(BytesRef value) {
+            if (value.length < prefix.length + suffix.length) {
+                return false;
+            }
+            int end = value.offset + value.length - suffix.length;
+            if (!regionMatches(value, value.offset, prefix) || !regionMatches(value, end, suffix)) {
+                return false;
+            }
+            int pos = value.offset + prefix.length;
+            for (BytesRef infix : infixes) {
+                int idx = indexOf(value, pos, end, infix);
+                if (idx < 0) {
+                    return false;
+                }
+                pos = idx + infix.length;
+            }
+            return true;
+        }
+    }
+
+    static class AutomatonMatcher extends PatternMatcher {
+
+        private final ByteRunAutomaton automaton;
+
+        AutomatonMatcher(Automaton automaton) {
+            this.automaton = new ByteRunAutomaton(automaton);
+        }
+
+        @Override
+        public boolean matches(BytesRef value) {
+            return automaton.run(value.bytes, value.offset, value.length);
+        }
+    }
+
+    static class JavaPatternMatcher extends PatternMatcher {
+
+        private final Pattern pattern;
+
+        JavaPatternMatcher(Pattern pattern) {
+            this.pattern = pattern;
+        }
+
+        @Override
+        public boolean matches(BytesRef value) {
+            return pattern.matcher(value.utf8ToString()).matches();
+        }
+    }
+}
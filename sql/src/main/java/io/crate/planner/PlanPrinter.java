@@ -30,6 +30,11 @@ import io.crate.analyze.symbol.Aggregation;
 import io.crate.analyze.symbol.Symbol;
 import io.crate.analyze.symbol.SymbolFormatter;
 import io.crate.analyze.symbol.SymbolVisitor;
+import io.crate.operation.NodeOperation;
+import io.crate.operation.NodeOperationTree;
+import io.crate.planner.distribution.DistributionInfo;
+import io.crate.planner.distribution.UpstreamPhase;
+import io.crate.planner.node.ExecutionPhase;
 import io.crate.planner.node.PlanNode;
 import io.crate.planner.node.PlanNodeVisitor;
 import io.crate.planner.node.dml.SymbolBasedUpsertByIdNode;
@@ -38,6 +43,10 @@ import io.crate.planner.node.dql.*;
 import io.crate.planner.projection.*;
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import static java.lang.String.format;
 
@@ -266,6 +275,58 @@ public class PlanPrinter extends PlanVisitor<PlanPrinter.PrintContext, Void> {
         return output.toString();
     }
 
+    /**
+     * prints the execution phases of the given trees, starting with the phase which provides the final result.
+     * Upstream phases are printed indented below the phase they're sending their rows to.
+     */
+    public String print(List<NodeOperationTree> nodeOperationTrees) {
+        StringBuilder output = new StringBuilder();
+        PrintContext context = new PrintContext(output);
+        for (NodeOperationTree nodeOperationTree : nodeOperationTrees) {
+            Set<Integer> printedPhases = new HashSet<>();
+            printPhase(nodeOperationTree.leaf(), nodeOperationTree.nodeOperations(), printedPhases, context);
+            for (NodeOperation nodeOperation : nodeOperationTree.nodeOperations()) {
+                // phases without downstream, e.g. fetch phases
+                if (!printedPhases.contains(nodeOperation.executionPhase().executionPhaseId())) {
+                    printPhase(nodeOperation.executionPhase(), nodeOperationTree.nodeOperations(), printedPhases, context);
+                }
+            }
+        }
+        return output.toString();
+    }
+
+    private void printPhase(ExecutionPhase phase,
+                            Collection<NodeOperation> nodeOperations,
+                            Set<Integer> printedPhases,
+                            PrintContext context) {
+        printedPhases.add(phase.executionPhaseId());
+        context.print("Phase %d: %s (%s)", phase.executionPhaseId(), phase.name(), phase.type());
+        context.indent();
+        if (phase.executionNodes().isEmpty()) {
+            context.print("nodes: handler");
+        } else {
+            context.print("nodes: %s", Joiner.on(", ").join(phase.executionNodes()));
+        }
+        if (phase instanceof UpstreamPhase) {
+            DistributionInfo distributionInfo = ((UpstreamPhase) phase).distributionInfo();
+            context.print("distribution: %s", distributionInfo.distributionType());
+        }
+        if (phase instanceof DQLPlanNode && ((DQLPlanNode) phase).hasProjections()) {
+            context.print("projections:");
+            context.indent();
+            for (Projection projection : ((DQLPlanNode) phase).projections()) {
+                projectionPrinter.process(projection, context);
+            }
+            context.dedent();
+        }
+        for (NodeOperation nodeOperation : nodeOperations) {
+            if (nodeOperation.downstreamExecutionPhaseId() == phase.executionPhaseId()
+                && !printedPhases.contains(nodeOperation.executionPhase().executionPhaseId())) {
+                printPhase(nodeOperation.executionPhase(), nodeOperations, printedPhases, context);
+            }
+        }
+        context.dedent();
+    }
 
     private void processProjections(DQLPlanNode node, PrintContext context) {
         if (node.hasProjections()) {
@@ -26,6 +26,7 @@ import io.crate.planner.node.dml.InsertFromSubQuery;
 import io.crate.planner.node.dml.Upsert;
 import io.crate.planner.node.dql.*;
 import io.crate.planner.node.dql.join.NestedLoop;
+import io.crate.planner.node.management.ExplainPlan;
 import io.crate.planner.node.management.GenericShowPlan;
 import io.crate.planner.node.management.KillPlan;
 import org.elasticsearch.common.Nullable;
@@ -84,6 +85,10 @@ public class PlanVisitor<C, R> {
         return visitPlan(killPlan, context);
     }
 
+    public R visitExplainPlan(ExplainPlan explainPlan, C context) {
+        return visitPlan(explainPlan, context);
+    }
+
     public R visitGenericShowPlan(GenericShowPlan genericShowPlan, C context) {
         return visitPlan(genericShowPlan, context);
     }
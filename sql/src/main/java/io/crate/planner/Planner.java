@@ -36,6 +36,7 @@ import io.crate.analyze.relations.PlannedAnalyzedRelation;
 import io.crate.analyze.symbol.InputColumn;
 import io.crate.analyze.symbol.Reference;
 import io.crate.analyze.symbol.Symbol;
+import io.crate.analyze.symbol.SymbolFormatter;
 import io.crate.analyze.where.DocKeys;
 import io.crate.core.collections.TreeMapBuilder;
 import io.crate.exceptions.UnhandledServerException;
@@ -44,6 +45,7 @@ import io.crate.metadata.doc.DocSysColumns;
 import io.crate.metadata.doc.DocTableInfo;
 import io.crate.metadata.table.TableInfo;
 import io.crate.operation.aggregation.impl.CountAggregation;
+import io.crate.operation.collect.files.FileReadingCollector;
 import io.crate.planner.consumer.ConsumerContext;
 import io.crate.planner.consumer.ConsumingPlanner;
 import io.crate.planner.consumer.UpdateConsumer;
@@ -58,11 +60,13 @@ import io.crate.planner.node.dql.CollectAndMerge;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.FileUriCollectPhase;
 import io.crate.planner.node.dql.MergePhase;
+import io.crate.planner.node.management.ExplainPlan;
 import io.crate.planner.node.management.GenericShowPlan;
 import io.crate.planner.node.management.KillPlan;
 import io.crate.planner.projection.Projection;
 import io.crate.planner.projection.SourceIndexWriterProjection;
 import io.crate.planner.projection.WriterProjection;
+import io.crate.types.DataType;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
@@ -371,18 +375,40 @@ public class Planner extends AnalyzedStatementVisitor<Planner.Context, Plan> {
         projection.uri(analysis.uri());
         projection.isDirectoryUri(analysis.directoryUri());
         projection.settings(analysis.settings());
+        // validate the output settings before any file is written
+        WriterProjection.OutputFormat outputFormat = projection.outputFormat();
+        projection.maxFileSize();
 
         List<Symbol> outputs;
         String partitionIdent = analysis.partitionIdent();
 
-        if (analysis.selectedColumns() != null && !analysis.selectedColumns().isEmpty()) {
-            outputs = new ArrayList<>(analysis.selectedColumns().size());
-            List<Symbol> columnSymbols = new ArrayList<>(analysis.selectedColumns().size());
-            for (int i = 0; i < analysis.selectedColumns().size(); i++) {
-                outputs.add(DocReferenceConverter.convertIfPossible(analysis.selectedColumns().get(i), analysis.table()));
+        List<Symbol> selectedColumns = analysis.selectedColumns();
+        if ((selectedColumns == null || selectedColumns.isEmpty())
+            && outputFormat == WriterProjection.OutputFormat.CSV) {
+            // csv requires a fixed set of columns, use all top level columns of the table
+            selectedColumns = new ArrayList<>();
+            for (ReferenceInfo referenceInfo : analysis.table().columns()) {
+                if (referenceInfo.ident().isColumn()) {
+                    selectedColumns.add(new Reference(referenceInfo));
+                }
+            }
+        }
+        if (selectedColumns != null && !selectedColumns.isEmpty()) {
+            outputs = new ArrayList<>(selectedColumns.size());
+            List<Symbol> columnSymbols = new ArrayList<>(selectedColumns.size());
+            List<String> outputNames = new ArrayList<>(selectedColumns.size());
+            for (int i = 0; i < selectedColumns.size(); i++) {
+                Symbol column = selectedColumns.get(i);
+                outputs.add(DocReferenceConverter.convertIfPossible(column, analysis.table()));
                 columnSymbols.add(new InputColumn(i, null));
+                if (column instanceof Reference) {
+                    outputNames.add(((Reference) column).info().ident().columnIdent().sqlFqn());
+                } else {
+                    outputNames.add(SymbolFormatter.format(column));
+                }
             }
             projection.inputs(columnSymbols);
+            projection.outputNames(outputNames);
         } else {
             Reference sourceRef;
             if (analysis.table().isPartitioned() && partitionIdent == null) {
@@ -508,6 +534,8 @@ public class Planner extends AnalyzedStatementVisitor<Planner.Context, Plan> {
             toCollect.add(new Reference(table.getReferenceInfo(DocSysColumns.RAW)));
         }
 
+        FileReadingCollector.FileFormat fileFormat =
+                FileReadingCollector.FileFormat.fromString(analysis.settings().get("format", "json"));
         DiscoveryNodes allNodes = clusterService.state().nodes();
         FileUriCollectPhase collectPhase = new FileUriCollectPhase(
                 context.jobId(),
@@ -519,7 +547,9 @@ public class Planner extends AnalyzedStatementVisitor<Planner.Context, Plan> {
                 toCollect,
                 projections,
                 analysis.settings().get("compression", null),
-                analysis.settings().getAsBoolean("shared", null)
+                analysis.settings().getAsBoolean("shared", null),
+                fileFormat,
+                columnTypes(table)
         );
 
         return new CollectAndMerge(collectPhase, MergePhase.localMerge(
@@ -530,6 +560,16 @@ public class Planner extends AnalyzedStatementVisitor<Planner.Context, Plan> {
                 collectPhase.outputTypes()), context.jobId());
     }
 
+    private static Map<String, DataType> columnTypes(DocTableInfo table) {
+        Map<String, DataType> columnTypes = new HashMap<>(table.columns().size());
+        for (ReferenceInfo column : table.columns()) {
+            if (column.ident().isColumn()) {
+                columnTypes.put(column.ident().columnIdent().name(), column.type());
+            }
+        }
+        return columnTypes;
+    }
+
     private Routing generateRouting(DiscoveryNodes allNodes, int maxNodes) {
         final AtomicInteger counter = new AtomicInteger(maxNodes);
         final Map<String, Map<String, List<Integer>>> locations = new TreeMap<>();
@@ -611,6 +651,11 @@ public class Planner extends AnalyzedStatementVisitor<Planner.Context, Plan> {
         return node != null ? new IterablePlan(context.jobId(), node) : new NoopPlan(context.jobId());
     }
 
+    @Override
+    public Plan visitExplainStatement(ExplainAnalyzedStatement analysis, Context context) {
+        return new ExplainPlan(process(analysis.statement(), context), analysis.isAnalyze());
+    }
+
     @Override
     public Plan visitKillAnalyzedStatement(KillAnalyzedStatement analysis, Context context) {
         return analysis.jobId().isPresent() ?
@@ -22,8 +22,12 @@
 package io.crate.planner.consumer;
 
 
+import com.google.common.base.Optional;
+import io.crate.Constants;
 import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.relations.QueriedRelation;
 import io.crate.exceptions.ValidationException;
+import io.crate.operation.projectors.TopN;
 import io.crate.planner.Planner;
 import org.elasticsearch.common.Nullable;
 
@@ -69,4 +73,34 @@ public class ConsumerContext {
     public Integer requiredPageSize() {
         return requiredPageSize;
     }
+
+    /**
+     * the limit of the given relation.
+     *
+     * Without a limit the root relation is limited to the default select limit,
+     * a sub relation (e.g. the sub-query of an INSERT INTO ... SELECT) isn't limited as all of its rows are
+     * consumed by the parent relation.
+     *
+     * @return the limit or {@link TopN#NO_LIMIT}
+     */
+    public int limit(QueriedRelation relation) {
+        Optional<Integer> limit = relation.querySpec().limit();
+        if (limit.isPresent()) {
+            return limit.get();
+        }
+        return relation == rootRelation ? Constants.DEFAULT_SELECT_LIMIT : TopN.NO_LIMIT;
+    }
+
+    /**
+     * the limit of the given relation including its offset, see {@link #limit(QueriedRelation)}
+     *
+     * @return the limit plus offset or {@link TopN#NO_LIMIT}
+     */
+    public int limitAndOffset(QueriedRelation relation) {
+        int limit = limit(relation);
+        if (limit == TopN.NO_LIMIT) {
+            return TopN.NO_LIMIT;
+        }
+        return limit + relation.querySpec().offset();
+    }
 }
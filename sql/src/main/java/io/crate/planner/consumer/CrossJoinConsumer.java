@@ -24,18 +24,22 @@ package io.crate.planner.consumer;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.collect.*;
-import io.crate.Constants;
+import com.google.common.primitives.Ints;
 import io.crate.analyze.*;
 import io.crate.analyze.relations.*;
 import io.crate.analyze.symbol.*;
 import io.crate.exceptions.ValidationException;
+import io.crate.operation.operator.AndOperator;
+import io.crate.operation.operator.EqOperator;
 import io.crate.operation.projectors.TopN;
 import io.crate.planner.TableStatsService;
 import io.crate.planner.distribution.DistributionInfo;
+import io.crate.planner.distribution.DistributionType;
 import io.crate.planner.distribution.UpstreamPhase;
 import io.crate.planner.fetch.FetchRequiredVisitor;
 import io.crate.planner.node.NoopPlannedAnalyzedRelation;
 import io.crate.planner.node.dql.MergePhase;
+import io.crate.planner.node.dql.join.HashJoinPhase;
 import io.crate.planner.node.dql.join.NestedLoop;
 import io.crate.planner.node.dql.join.NestedLoopPhase;
 import io.crate.planner.projection.FilterProjection;
@@ -43,6 +47,8 @@ import io.crate.planner.projection.Projection;
 import io.crate.planner.projection.TopNProjection;
 import io.crate.planner.projection.builder.ProjectionBuilder;
 import io.crate.sql.tree.QualifiedName;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
@@ -96,6 +102,12 @@ public class CrossJoinConsumer implements Consumer {
 
     private static class Visitor extends RelationPlanningVisitor {
 
+        /**
+         * minimum number of docs both tables of an equi-join must have
+         * so that both sides are repartitioned instead of broadcasting the smaller one
+         */
+        private static final long SHUFFLE_JOIN_MIN_DOCS = 100_000L;
+
         private static final Predicate<MultiSourceSelect.Source> DOC_TABLE_RELATION = new Predicate<MultiSourceSelect.Source>() {
             @Override
             public boolean apply(@Nullable MultiSourceSelect.Source input) {
@@ -174,10 +186,14 @@ public class CrossJoinConsumer implements Consumer {
             left.normalize(analysisMetaData);
             right.normalize(analysisMetaData);
 
+            JoinKeys joinKeys = filterNeeded ? JoinKeys.extract(where.query(), left, right) : null;
+
             boolean broadcastLeftTable = false;
+            long leftNumDocs = -1L;
+            long rightNumDocs = -1L;
             if (isDistributed) {
-                long leftNumDocs = tableStatsService.numDocs(left.tableRelation().tableInfo().ident());
-                long rightNumDocs = tableStatsService.numDocs(right.tableRelation().tableInfo().ident());
+                leftNumDocs = tableStatsService.numDocs(left.tableRelation().tableInfo().ident());
+                rightNumDocs = tableStatsService.numDocs(right.tableRelation().tableInfo().ident());
 
                 if (rightNumDocs > leftNumDocs) {
                     broadcastLeftTable = true;
@@ -197,10 +213,44 @@ public class CrossJoinConsumer implements Consumer {
             Set<String> localExecutionNodes = ImmutableSet.of(clusterService.localNode().id());
             Collection<String> nlExecutionNodes = localExecutionNodes;
 
+            Collection<String> shuffleExecutionNodes = null;
+            if (isDistributed && joinKeys != null && Math.min(leftNumDocs, rightNumDocs) >= SHUFFLE_JOIN_MIN_DOCS) {
+                shuffleExecutionNodes = shuffleExecutionNodes(leftPlan.resultPhase(), rightPlan.resultPhase());
+                if (shuffleExecutionNodes.size() < 2) {
+                    shuffleExecutionNodes = null;
+                }
+            }
 
             MergePhase leftMerge = null;
             MergePhase rightMerge = null;
-            if (isDistributed && broadcastLeftTable) {
+            if (shuffleExecutionNodes != null) {
+                // both tables are large: instead of broadcasting one of them, both sides are
+                // partitioned by their first join key and every node joins one partition.
+                // Both merge phases use the same ordered execution nodes so that equal keys end up on the same node.
+                LOGGER.debug("Both tables are large ({} and {} docs), will repartition both sides by the join key",
+                        leftNumDocs, rightNumDocs);
+                nlExecutionNodes = shuffleExecutionNodes;
+                leftMerge = mergePhase(
+                        context,
+                        nlExecutionNodes,
+                        leftPlan.resultPhase(),
+                        left.querySpec().orderBy().orNull(),
+                        left.querySpec().outputs(),
+                        true);
+                rightMerge = mergePhase(
+                        context,
+                        nlExecutionNodes,
+                        rightPlan.resultPhase(),
+                        right.querySpec().orderBy().orNull(),
+                        right.querySpec().outputs(),
+                        true);
+                // the keys are hashed after they're converted to the join key type,
+                // otherwise e.g. an integer and a long key which are equal would end up on different nodes
+                leftPlan.resultPhase().distributionInfo(
+                        new DistributionInfo(DistributionType.MODULO, joinKeys.leftKeys[0], joinKeys.keyTypes.get(0)));
+                rightPlan.resultPhase().distributionInfo(
+                        new DistributionInfo(DistributionType.MODULO, joinKeys.rightKeys[0], joinKeys.keyTypes.get(0)));
+            } else if (isDistributed && broadcastLeftTable) {
                 rightPlan.resultPhase().distributionInfo(DistributionInfo.DEFAULT_SAME_NODE);
                 nlExecutionNodes = rightPlan.resultPhase().executionNodes();
 
@@ -267,25 +317,52 @@ public class CrossJoinConsumer implements Consumer {
                 }
             }
 
-            int topNLimit = querySpec.limit().or(Constants.DEFAULT_SELECT_LIMIT);
             TopNProjection topN = ProjectionBuilder.topNProjection(
                     inputs,
                     remainingOrderBy,
                     isDistributed ? 0 : querySpec.offset(),
-                    isDistributed ? topNLimit + querySpec.offset() : topNLimit,
+                    isDistributed ? context.limitAndOffset(statement) : context.limit(statement),
                     postNLOutputs
             );
             projections.add(topN);
 
-            NestedLoopPhase nl = new NestedLoopPhase(
-                    context.plannerContext().jobId(),
-                    context.plannerContext().nextExecutionPhaseId(),
-                    isDistributed ? "distributed-nested-loop" : "nested-loop",
-                    projections,
-                    leftMerge,
-                    rightMerge,
-                    nlExecutionNodes
-            );
+            NestedLoopPhase nl;
+            if (joinKeys == null) {
+                nl = new NestedLoopPhase(
+                        context.plannerContext().jobId(),
+                        context.plannerContext().nextExecutionPhaseId(),
+                        isDistributed ? "distributed-nested-loop" : "nested-loop",
+                        projections,
+                        leftMerge,
+                        rightMerge,
+                        nlExecutionNodes
+                );
+            } else {
+                // the hash table is built from the smaller side, which is the broadcast side if distributed.
+                // With an ORDER BY the left side is always probed so that the rows are emitted in the same
+                // order as by the nested loop.
+                // The filter projection is kept as the join condition might contain more than the equality checks.
+                boolean buildLeft = broadcastLeftTable && orderByBeforeSplit == null;
+                String name = isDistributed ? "distributed-hash-join" : "hash-join";
+                if (shuffleExecutionNodes != null) {
+                    name = "shuffle-hash-join";
+                }
+                LOGGER.debug("Using hash join on {} keys, building the hash table from the {} side",
+                        joinKeys.leftKeys.length, buildLeft ? "left" : "right");
+                nl = new HashJoinPhase(
+                        context.plannerContext().jobId(),
+                        context.plannerContext().nextExecutionPhaseId(),
+                        name,
+                        projections,
+                        leftMerge,
+                        rightMerge,
+                        nlExecutionNodes,
+                        joinKeys.leftKeys,
+                        joinKeys.rightKeys,
+                        joinKeys.keyTypes,
+                        buildLeft
+                );
+            }
             if (isDistributed) {
                 nl.distributionInfo(DistributionInfo.DEFAULT_BROADCAST);
             }
@@ -297,7 +374,7 @@ public class CrossJoinConsumer implements Consumer {
                         postNLOutputs,
                         orderByBeforeSplit,
                         querySpec.offset(),
-                        querySpec.limit().or(Constants.DEFAULT_SELECT_LIMIT),
+                        context.limit(statement),
                         querySpec.outputs()
                 );
                 localMergePhase.addProjection(finalTopN);
@@ -305,6 +382,15 @@ public class CrossJoinConsumer implements Consumer {
             return new NestedLoop(nl, leftPlan, rightPlan, localMergePhase);
         }
 
+        /**
+         * all nodes which execute one of the upstream phases, in a stable order
+         */
+        private static Collection<String> shuffleExecutionNodes(UpstreamPhase leftPhase, UpstreamPhase rightPhase) {
+            Set<String> nodes = new TreeSet<>(leftPhase.executionNodes());
+            nodes.addAll(rightPhase.executionNodes());
+            return ImmutableList.copyOf(nodes);
+        }
+
         private static List<Field> concatFields(QueriedTableRelation<?> left, QueriedTableRelation<?> right) {
             List<Field> inputs = new ArrayList<>(left.fields().size() + right.fields().size());
             inputs.addAll(left.fields());
@@ -417,6 +503,97 @@ public class CrossJoinConsumer implements Consumer {
         }
     }
 
+    /**
+     * positions of the join keys of an equi-join within the rows of the left and the right relation
+     * and the types the values of both sides are compared as
+     */
+    private static class JoinKeys {
+
+        private final int[] leftKeys;
+        private final int[] rightKeys;
+        private final List<DataType> keyTypes;
+
+        private JoinKeys(int[] leftKeys, int[] rightKeys, List<DataType> keyTypes) {
+            this.leftKeys = leftKeys;
+            this.rightKeys = rightKeys;
+            this.keyTypes = keyTypes;
+        }
+
+        /**
+         * extract the join keys from all <code>left.x = right.y</code> conditions which are combined with AND.
+         *
+         * @return the join keys or null if the query doesn't contain any equality condition between the two relations
+         */
+        @Nullable
+        static JoinKeys extract(Symbol query, QueriedTableRelation<?> left, QueriedTableRelation<?> right) {
+            List<Symbol> conditions = new ArrayList<>();
+            splitConjunctions(query, conditions);
+
+            List<Integer> leftKeys = new ArrayList<>();
+            List<Integer> rightKeys = new ArrayList<>();
+            List<DataType> keyTypes = new ArrayList<>();
+            for (Symbol condition : conditions) {
+                if (!(condition instanceof Function)
+                    || !((Function) condition).info().ident().name().equals(EqOperator.NAME)) {
+                    continue;
+                }
+                List<Symbol> arguments = ((Function) condition).arguments();
+                if (!(arguments.get(0) instanceof Field) || !(arguments.get(1) instanceof Field)) {
+                    continue;
+                }
+                Field first = (Field) arguments.get(0);
+                Field second = (Field) arguments.get(1);
+                DataType keyType = keyType(first.valueType(), second.valueType());
+                if (keyType == null) {
+                    continue;
+                }
+                if (first.relation() == left && second.relation() == right) {
+                    leftKeys.add(left.fields().indexOf(first));
+                    rightKeys.add(right.fields().indexOf(second));
+                    keyTypes.add(keyType);
+                } else if (first.relation() == right && second.relation() == left) {
+                    leftKeys.add(left.fields().indexOf(second));
+                    rightKeys.add(right.fields().indexOf(first));
+                    keyTypes.add(keyType);
+                }
+            }
+            if (leftKeys.isEmpty() || leftKeys.contains(-1) || rightKeys.contains(-1)) {
+                return null;
+            }
+            return new JoinKeys(Ints.toArray(leftKeys), Ints.toArray(rightKeys), keyTypes);
+        }
+
+        /**
+         * @return the type both values of a join key are converted to before they're hashed,
+         *         or null if values of these types can't be compared within the hash table
+         */
+        @Nullable
+        private static DataType keyType(DataType firstType, DataType secondType) {
+            if (firstType.equals(secondType)) {
+                return firstType;
+            }
+            if (!DataTypes.NUMERIC_PRIMITIVE_TYPES.contains(firstType)
+                || !DataTypes.NUMERIC_PRIMITIVE_TYPES.contains(secondType)) {
+                return null;
+            }
+            if (firstType.equals(DataTypes.DOUBLE) || firstType.equals(DataTypes.FLOAT)
+                || secondType.equals(DataTypes.DOUBLE) || secondType.equals(DataTypes.FLOAT)) {
+                return DataTypes.DOUBLE;
+            }
+            return DataTypes.LONG;
+        }
+
+        private static void splitConjunctions(Symbol query, List<Symbol> conditions) {
+            if (query instanceof Function && ((Function) query).info().ident().name().equals(AndOperator.NAME)) {
+                for (Symbol argument : ((Function) query).arguments()) {
+                    splitConjunctions(argument, conditions);
+                }
+            } else {
+                conditions.add(query);
+            }
+        }
+    }
+
     private static class SubRelationConverter extends AnalyzedRelationVisitor<MultiSourceSelect.Source, QueriedTableRelation> {
 
         static final SubRelationConverter INSTANCE = new SubRelationConverter();
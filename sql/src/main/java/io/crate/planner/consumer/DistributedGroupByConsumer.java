@@ -25,7 +25,6 @@ import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
-import io.crate.Constants;
 import io.crate.analyze.HavingClause;
 import io.crate.analyze.QuerySpec;
 import io.crate.analyze.relations.AnalyzedRelation;
@@ -155,7 +154,7 @@ public class DistributedGroupByConsumer implements Consumer {
                         collectOutputs,
                         querySpec.orderBy().orNull(),
                         0,
-                        querySpec.limit().or(Constants.DEFAULT_SELECT_LIMIT) + querySpec.offset(),
+                        context.limitAndOffset(table),
                         querySpec.outputs()));
             }
 
@@ -178,7 +177,7 @@ public class DistributedGroupByConsumer implements Consumer {
                         querySpec.outputs(),
                         querySpec.orderBy().orNull(),
                         querySpec.offset(),
-                        querySpec.limit().orNull(),
+                        context.limit(table),
                         null);
                 localMergeNode = MergePhase.localMerge(
                         plannerContext.jobId(),
@@ -109,7 +109,6 @@ public class InsertFromSubQueryConsumer implements Consumer {
             }
 
             List<Symbol> outputs = table.querySpec().outputs();
-            assert !table.querySpec().orderBy().isPresent() : "insert from subquery with order by is not supported";
             for (int i = 0; i < outputs.size(); i++) {
                 outputs.set(i, DocReferenceConverter.convertIfPossible(outputs.get(i), table.tableRelation().tableInfo()));
             }
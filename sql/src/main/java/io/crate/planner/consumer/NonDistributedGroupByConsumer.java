@@ -179,7 +179,7 @@ public class NonDistributedGroupByConsumer implements Consumer {
                         collectOutputs,
                         table.querySpec().orderBy().orNull(),
                         table.querySpec().offset(),
-                        table.querySpec().limit().orNull(),
+                        context.limit(table),
                         table.querySpec().outputs()
                 ));
             }
@@ -23,7 +23,7 @@ package io.crate.planner.consumer;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
-import io.crate.Constants;
+import io.crate.analyze.InsertFromSubQueryAnalyzedStatement;
 import io.crate.analyze.OrderBy;
 import io.crate.analyze.QueriedTable;
 import io.crate.analyze.QueriedTableRelation;
@@ -38,6 +38,7 @@ import io.crate.analyze.symbol.SymbolVisitor;
 import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.exceptions.VersionInvalidException;
 import io.crate.operation.predicate.MatchPredicate;
+import io.crate.operation.projectors.TopN;
 import io.crate.planner.Planner;
 import io.crate.planner.node.dql.CollectAndMerge;
 import io.crate.planner.node.dql.CollectPhase;
@@ -157,7 +158,7 @@ public class QueryAndFetchConsumer implements Consumer {
                 List<Projection> projections = ImmutableList.of();
                 Integer nodePageSizeHint = null;
                 if (context.rootRelation() == table || querySpec.limit().isPresent()) {
-                    int limit = querySpec.limit().or(Constants.DEFAULT_SELECT_LIMIT);
+                    int limit = context.limit(table);
                     TopNProjection topNProjection = new TopNProjection(querySpec.offset() + limit, 0);
                     topNProjection.outputs(allOutputs);
                     projections = ImmutableList.<Projection>of(topNProjection);
@@ -174,7 +175,7 @@ public class QueryAndFetchConsumer implements Consumer {
 
                 // MERGE
                 if (context.rootRelation() == table) {
-                    TopNProjection tnp = new TopNProjection(querySpec.limit().or(Constants.DEFAULT_SELECT_LIMIT), querySpec.offset());
+                    TopNProjection tnp = new TopNProjection(context.limit(table), querySpec.offset());
                     tnp.outputs(finalOutputs);
                     if (!orderBy.isPresent()) {
                         // no sorting needed
@@ -199,6 +200,25 @@ public class QueryAndFetchConsumer implements Consumer {
                                 collectPhase.outputTypes()
                         );
                     }
+                } else if (orderBy.isPresent()
+                           && !querySpec.limit().isPresent()
+                           && context.rootRelation() instanceof InsertFromSubQueryAnalyzedStatement) {
+                    // INSERT INTO ... SELECT ... ORDER BY consumes all rows,
+                    // they're sorted without a limit on the handler which spills to disk if required
+                    TopNProjection tnp = new TopNProjection(
+                            TopN.NO_LIMIT,
+                            querySpec.offset(),
+                            orderByInputColumns,
+                            orderBy.get().reverseFlags(),
+                            orderBy.get().nullsFirst());
+                    tnp.outputs(finalOutputs);
+                    mergeNode = MergePhase.localMerge(
+                            plannerContext.jobId(),
+                            plannerContext.nextExecutionPhaseId(),
+                            ImmutableList.<Projection>of(tnp),
+                            collectPhase.executionNodes().size(),
+                            collectPhase.outputTypes()
+                    );
                 }
             } else {
                 collectPhase = CollectPhase.forQueriedTable(
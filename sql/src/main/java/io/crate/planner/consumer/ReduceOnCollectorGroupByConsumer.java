@@ -23,7 +23,6 @@ package io.crate.planner.consumer;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
-import io.crate.Constants;
 import io.crate.analyze.HavingClause;
 import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.analyze.relations.DocTableRelation;
@@ -159,7 +158,7 @@ public class ReduceOnCollectorGroupByConsumer implements Consumer {
                         collectOutputs,
                         table.querySpec().orderBy().orNull(),
                         0, // no offset
-                        table.querySpec().limit().or(Constants.DEFAULT_SELECT_LIMIT) + table.querySpec().offset(),
+                        context.limitAndOffset(table),
                         table.querySpec().outputs()
                 ));
             }
@@ -182,7 +181,7 @@ public class ReduceOnCollectorGroupByConsumer implements Consumer {
                                 table.querySpec().outputs(),
                                 null, // omit order by
                                 table.querySpec().offset(),
-                                table.querySpec().limit().or(Constants.DEFAULT_SELECT_LIMIT),
+                                context.limit(table),
                                 table.querySpec().outputs()
                         )
                 );
@@ -202,7 +201,7 @@ public class ReduceOnCollectorGroupByConsumer implements Consumer {
                                 collectorTopN ? table.querySpec().outputs() : collectOutputs,
                                 table.querySpec().orderBy().orNull(),
                                 table.querySpec().offset(),
-                                table.querySpec().limit().or(Constants.DEFAULT_SELECT_LIMIT),
+                                context.limit(table),
                                 table.querySpec().outputs()
                         )
                 );
@@ -21,10 +21,13 @@
 
 package io.crate.planner.distribution;
 
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 
 public class DistributionInfo implements Streamable {
@@ -35,13 +38,27 @@ public class DistributionInfo implements Streamable {
 
     private DistributionType distributionType;
     private int distributeByColumn;
+    @Nullable
+    private DataType distributeByType;
 
     protected DistributionInfo() {
     }
 
     public DistributionInfo(DistributionType distributionType, int distributeByColumn) {
+        this(distributionType, distributeByColumn, null);
+    }
+
+    /**
+     * @param distributeByType if set the values of the distribute by column are converted to this type
+     *                         before they're hashed, so that values which are equal after the conversion
+     *                         (e.g. join keys of different numeric types) end up in the same bucket
+     */
+    public DistributionInfo(DistributionType distributionType,
+                            int distributeByColumn,
+                            @Nullable DataType distributeByType) {
         this.distributionType = distributionType;
         this.distributeByColumn = distributeByColumn;
+        this.distributeByType = distributeByType;
     }
 
     public DistributionInfo(DistributionType distributionType) {
@@ -56,6 +73,11 @@ public class DistributionInfo implements Streamable {
         return distributeByColumn;
     }
 
+    @Nullable
+    public DataType distributeByType() {
+        return distributeByType;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -63,13 +85,16 @@ public class DistributionInfo implements Streamable {
 
         DistributionInfo that = (DistributionInfo) o;
 
-        return distributeByColumn == that.distributeByColumn && distributionType == that.distributionType;
+        return distributeByColumn == that.distributeByColumn
+               && distributionType == that.distributionType
+               && (distributeByType == null ? that.distributeByType == null : distributeByType.equals(that.distributeByType));
     }
 
     @Override
     public int hashCode() {
         int result = distributionType.hashCode();
         result = 31 * result + distributeByColumn;
+        result = 31 * result + (distributeByType != null ? distributeByType.hashCode() : 0);
         return result;
     }
 
@@ -78,6 +103,7 @@ public class DistributionInfo implements Streamable {
         return "DistributionInfo{" +
                 "distributionType=" + distributionType +
                 ", distributeByColumn=" + distributeByColumn +
+                ", distributeByType=" + distributeByType +
                 '}';
     }
 
@@ -85,12 +111,21 @@ public class DistributionInfo implements Streamable {
     public void readFrom(StreamInput in) throws IOException {
         distributionType = DistributionType.values()[in.readVInt()];
         distributeByColumn = in.readVInt();
+        if (in.readBoolean()) {
+            distributeByType = DataTypes.fromStream(in);
+        }
     }
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeVInt(distributionType.ordinal());
         out.writeVInt(distributeByColumn);
+        if (distributeByType == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            DataTypes.toStream(distributeByType, out);
+        }
     }
 
     public static DistributionInfo fromStream(StreamInput in) throws IOException {
@@ -21,14 +21,17 @@
 
 package io.crate.planner.node;
 
+import io.crate.metadata.Routing;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.CountPhase;
 import io.crate.planner.node.dql.FileUriCollectPhase;
 import io.crate.planner.node.dql.MergePhase;
+import io.crate.planner.node.dql.join.HashJoinPhase;
 import io.crate.planner.node.dql.join.NestedLoopPhase;
 import io.crate.planner.node.fetch.FetchPhase;
 import org.elasticsearch.common.io.stream.Streamable;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.UUID;
 
@@ -48,7 +51,8 @@ public interface ExecutionPhase extends Streamable {
         FILE_URI_COLLECT(FileUriCollectPhase.FACTORY),
         MERGE(MergePhase.FACTORY),
         FETCH(FetchPhase.FACTORY),
-        NESTED_LOOP(NestedLoopPhase.FACTORY);
+        NESTED_LOOP(NestedLoopPhase.FACTORY),
+        HASH_JOIN(HashJoinPhase.FACTORY);
 
         private final ExecutionPhaseFactory factory;
 
@@ -71,5 +75,13 @@ public interface ExecutionPhase extends Streamable {
 
     UUID jobId();
 
+    /**
+     * create a copy of this phase which belongs to the given job. Routed phases use the given routing.
+     *
+     * The copy shares everything else with this phase, so neither must be modified afterwards.
+     * This is used to execute phases which are cached by {@link io.crate.action.job.NodeOperationTemplates}.
+     */
+    ExecutionPhase bind(UUID jobId, @Nullable Routing routing);
+
     <C, R> R accept(ExecutionPhaseVisitor<C, R> visitor, C context);
 }
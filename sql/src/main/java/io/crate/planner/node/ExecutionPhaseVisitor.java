@@ -24,6 +24,7 @@ package io.crate.planner.node;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.CountPhase;
 import io.crate.planner.node.dql.MergePhase;
+import io.crate.planner.node.dql.join.HashJoinPhase;
 import io.crate.planner.node.dql.join.NestedLoopPhase;
 import io.crate.planner.node.fetch.FetchPhase;
 
@@ -56,4 +57,8 @@ public class ExecutionPhaseVisitor<C, R> {
     public R visitNestedLoopPhase(NestedLoopPhase phase, C context) {
         return visitExecutionPhase(phase, context);
     }
+
+    public R visitHashJoinPhase(HashJoinPhase phase, C context) {
+        return visitNestedLoopPhase(phase, context);
+    }
 }
@@ -21,11 +21,17 @@
 
 package io.crate.planner.node;
 
+import io.crate.metadata.Routing;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.UUID;
 
 public class ExecutionPhases {
 
@@ -41,6 +47,95 @@ public class ExecutionPhases {
         node.writeTo(out);
     }
 
+    /**
+     * write the jobId of a phase. {@link TemplateStreamOutput}s get a placeholder instead,
+     * so that the serialized phases are the same for every job.
+     */
+    public static void writeJobId(StreamOutput out, UUID jobId) throws IOException {
+        if (out instanceof TemplateStreamOutput) {
+            out.writeLong(0L);
+            out.writeLong(0L);
+        } else {
+            out.writeLong(jobId.getMostSignificantBits());
+            out.writeLong(jobId.getLeastSignificantBits());
+        }
+    }
+
+    /**
+     * read the jobId of a phase. Phases read from a {@link TemplateStreamInput} don't belong to a job yet,
+     * they get their jobId with {@link ExecutionPhase#bind(UUID, Routing)}.
+     */
+    @Nullable
+    public static UUID readJobId(StreamInput in) throws IOException {
+        UUID jobId = new UUID(in.readLong(), in.readLong());
+        if (in instanceof TemplateStreamInput) {
+            return null;
+        }
+        return jobId;
+    }
+
+    /**
+     * write the routing of a phase. {@link TemplateStreamOutput}s keep the routing aside instead,
+     * so that the serialized phases are the same for every routing of the same tables.
+     */
+    public static void writeRouting(StreamOutput out, @Nullable Routing routing) throws IOException {
+        if (out instanceof TemplateStreamOutput) {
+            ((TemplateStreamOutput) out).routing(routing);
+        } else if (routing == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            routing.writeTo(out);
+        }
+    }
+
+    /**
+     * read the routing of a phase. Phases read from a {@link TemplateStreamInput} get their routing
+     * with {@link ExecutionPhase#bind(UUID, Routing)}.
+     */
+    @Nullable
+    public static Routing readRouting(StreamInput in) throws IOException {
+        if (in instanceof TemplateStreamInput || !in.readBoolean()) {
+            return null;
+        }
+        Routing routing = new Routing();
+        routing.readFrom(in);
+        return routing;
+    }
+
+    /**
+     * output for phases which are serialized without jobId and routing
+     */
+    public static class TemplateStreamOutput extends BytesStreamOutput {
+
+        private Routing routing;
+
+        private void routing(@Nullable Routing routing) {
+            assert this.routing == null : "only one routing per phase expected";
+            this.routing = routing;
+        }
+
+        /**
+         * @return the routing of the phase written since the last call or null if it had none
+         */
+        @Nullable
+        public Routing takeRouting() {
+            Routing routing = this.routing;
+            this.routing = null;
+            return routing;
+        }
+    }
+
+    /**
+     * input for phases serialized with a {@link TemplateStreamOutput}
+     */
+    public static class TemplateStreamInput extends BytesStreamInput {
+
+        public TemplateStreamInput(BytesReference bytes) {
+            super(bytes);
+        }
+    }
+
     public static boolean hasDirectResponseDownstream(Collection<String> downstreamNodes) {
         for (String nodeId : downstreamNodes) {
             if (nodeId.equals(ExecutionPhase.DIRECT_RETURN_DOWNSTREAM_NODE)) {
@@ -28,6 +28,7 @@ import io.crate.planner.node.dml.SymbolBasedUpsertByIdNode;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.ESGetNode;
 import io.crate.planner.node.dql.MergePhase;
+import io.crate.planner.node.dql.join.HashJoinPhase;
 import io.crate.planner.node.dql.join.NestedLoopPhase;
 import org.elasticsearch.common.Nullable;
 
@@ -85,6 +86,10 @@ public class PlanNodeVisitor<C, R> {
         return visitPlanNode(phase, context);
     }
 
+    public R visitHashJoinPhase(HashJoinPhase phase, C context) {
+        return visitNestedLoopPhase(phase, context);
+    }
+
     public R visitGenericDDLNode(GenericDDLNode node, C context) {
         return visitPlanNode(node, context);
     }
@@ -25,7 +25,9 @@ import com.google.common.base.MoreObjects;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import io.crate.analyze.symbol.Symbols;
+import io.crate.metadata.Routing;
 import io.crate.planner.node.ExecutionPhase;
+import io.crate.planner.node.ExecutionPhases;
 import io.crate.planner.projection.Projection;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
@@ -33,12 +35,13 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
-public abstract class AbstractDQLPlanPhase implements DQLPlanNode, Streamable, ExecutionPhase {
+public abstract class AbstractDQLPlanPhase implements DQLPlanNode, Streamable, ExecutionPhase, Cloneable {
 
     private UUID jobId;
     private int executionPhaseId;
@@ -71,6 +74,18 @@ public abstract class AbstractDQLPlanPhase implements DQLPlanNode, Streamable, E
         return executionPhaseId;
     }
 
+    @Override
+    public AbstractDQLPlanPhase bind(UUID jobId, @Nullable Routing routing) {
+        AbstractDQLPlanPhase phase;
+        try {
+            phase = (AbstractDQLPlanPhase) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+        phase.jobId = jobId;
+        return phase;
+    }
+
     public boolean hasProjections() {
         return projections != null && projections.size() > 0;
     }
@@ -102,7 +117,7 @@ public abstract class AbstractDQLPlanPhase implements DQLPlanNode, Streamable, E
     @Override
     public void readFrom(StreamInput in) throws IOException {
         name = in.readString();
-        jobId = new UUID(in.readLong(), in.readLong());
+        jobId = ExecutionPhases.readJobId(in);
         executionPhaseId = in.readVInt();
 
         int numCols = in.readVInt();
@@ -127,8 +142,7 @@ public abstract class AbstractDQLPlanPhase implements DQLPlanNode, Streamable, E
     public void writeTo(StreamOutput out) throws IOException {
         out.writeString(name);
         assert jobId != null : "jobId must not be null";
-        out.writeLong(jobId.getMostSignificantBits());
-        out.writeLong(jobId.getLeastSignificantBits());
+        ExecutionPhases.writeJobId(out, jobId);
         out.writeVInt(executionPhaseId);
 
         int numCols = outputTypes.size();
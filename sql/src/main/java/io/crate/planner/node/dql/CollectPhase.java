@@ -38,6 +38,7 @@ import io.crate.planner.Planner;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.distribution.UpstreamPhase;
 import io.crate.planner.node.ExecutionPhaseVisitor;
+import io.crate.planner.node.ExecutionPhases;
 import io.crate.planner.node.PlanNodeVisitor;
 import io.crate.planner.projection.Projection;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -194,6 +195,13 @@ public class CollectPhase extends AbstractDQLPlanPhase implements UpstreamPhase
         return routing;
     }
 
+    @Override
+    public CollectPhase bind(UUID jobId, @Nullable Routing routing) {
+        CollectPhase phase = (CollectPhase) super.bind(jobId, routing);
+        phase.routing = routing;
+        return phase;
+    }
+
     public List<Symbol> toCollect() {
         return toCollect;
     }
@@ -234,10 +242,7 @@ public class CollectPhase extends AbstractDQLPlanPhase implements UpstreamPhase
 
         maxRowGranularity = RowGranularity.fromStream(in);
 
-        if (in.readBoolean()) {
-            routing = new Routing();
-            routing.readFrom(in);
-        }
+        routing = ExecutionPhases.readRouting(in);
 
         whereClause = new WhereClause(in);
 
@@ -265,12 +270,7 @@ public class CollectPhase extends AbstractDQLPlanPhase implements UpstreamPhase
 
         RowGranularity.toStream(maxRowGranularity, out);
 
-        if (routing != null) {
-            out.writeBoolean(true);
-            routing.writeTo(out);
-        } else {
-            out.writeBoolean(false);
-        }
+        ExecutionPhases.writeRouting(out, routing);
         whereClause.writeTo(out);
 
         if (nodePageSizeHint != null ) {
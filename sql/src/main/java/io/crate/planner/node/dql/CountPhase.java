@@ -26,9 +26,11 @@ import io.crate.metadata.Routing;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.distribution.UpstreamPhase;
 import io.crate.planner.node.ExecutionPhaseVisitor;
+import io.crate.planner.node.ExecutionPhases;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.Set;
 import java.util.UUID;
@@ -76,6 +78,11 @@ public class CountPhase implements UpstreamPhase {
         return jobId;
     }
 
+    @Override
+    public CountPhase bind(UUID jobId, @Nullable Routing routing) {
+        return new CountPhase(jobId, executionPhaseId, routing, whereClause, distributionInfo);
+    }
+
     public Routing routing() {
         return routing;
     }
@@ -111,10 +118,9 @@ public class CountPhase implements UpstreamPhase {
 
     @Override
     public void readFrom(StreamInput in) throws IOException {
-        jobId = new UUID(in.readLong(), in.readLong());
+        jobId = ExecutionPhases.readJobId(in);
         executionPhaseId = in.readVInt();
-        routing = new Routing();
-        routing.readFrom(in);
+        routing = ExecutionPhases.readRouting(in);
         whereClause = new WhereClause(in);
         distributionInfo = DistributionInfo.fromStream(in);
     }
@@ -122,10 +128,9 @@ public class CountPhase implements UpstreamPhase {
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         assert jobId != null : "jobId must not be null";
-        out.writeLong(jobId.getMostSignificantBits());
-        out.writeLong(jobId.getLeastSignificantBits());
+        ExecutionPhases.writeJobId(out, jobId);
         out.writeVInt(executionPhaseId);
-        routing.writeTo(out);
+        ExecutionPhases.writeRouting(out, routing);
         whereClause.writeTo(out);
         distributionInfo.writeTo(out);
     }
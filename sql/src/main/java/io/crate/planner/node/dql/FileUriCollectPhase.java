@@ -22,6 +22,7 @@
 package io.crate.planner.node.dql;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
 import io.crate.analyze.EvaluatingNormalizer;
 import io.crate.analyze.WhereClause;
 import io.crate.analyze.symbol.Symbol;
@@ -30,12 +31,16 @@ import io.crate.metadata.RowGranularity;
 import io.crate.operation.collect.files.FileReadingCollector;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.projection.Projection;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public class FileUriCollectPhase extends CollectPhase {
@@ -49,6 +54,8 @@ public class FileUriCollectPhase extends CollectPhase {
     private Symbol targetUri;
     private String compression;
     private Boolean sharedStorage;
+    private FileReadingCollector.FileFormat fileFormat = FileReadingCollector.FileFormat.JSON;
+    private Map<String, DataType> columnTypes = ImmutableMap.of();
 
     private FileUriCollectPhase() {
         super();
@@ -63,12 +70,32 @@ public class FileUriCollectPhase extends CollectPhase {
                                List<Projection> projections,
                                String compression,
                                Boolean sharedStorage) {
+        this(jobId, executionNodeId, name, routing, rowGranularity, targetUri, toCollect, projections,
+                compression, sharedStorage, FileReadingCollector.FileFormat.JSON, ImmutableMap.<String, DataType>of());
+    }
+
+    /**
+     * @param columnTypes types of the top level columns of the target table, used to convert values of CSV files
+     */
+    public FileUriCollectPhase(UUID jobId,
+                               int executionNodeId,
+                               String name,
+                               Routing routing,
+                               RowGranularity rowGranularity, Symbol targetUri,
+                               List<Symbol> toCollect,
+                               List<Projection> projections,
+                               String compression,
+                               Boolean sharedStorage,
+                               FileReadingCollector.FileFormat fileFormat,
+                               Map<String, DataType> columnTypes) {
         super(jobId, executionNodeId, name, routing, rowGranularity, toCollect, projections,
                 WhereClause.MATCH_ALL,
                 DistributionInfo.DEFAULT_BROADCAST);
         this.targetUri = targetUri;
         this.compression = compression;
         this.sharedStorage = sharedStorage;
+        this.fileFormat = fileFormat;
+        this.columnTypes = columnTypes;
     }
 
     public Symbol targetUri() {
@@ -76,7 +103,11 @@ public class FileUriCollectPhase extends CollectPhase {
     }
 
     public FileReadingCollector.FileFormat fileFormat() {
-        return FileReadingCollector.FileFormat.JSON;
+        return fileFormat;
+    }
+
+    public Map<String, DataType> columnTypes() {
+        return columnTypes;
     }
 
     @Override
@@ -102,7 +133,9 @@ public class FileUriCollectPhase extends CollectPhase {
                 normalizedToCollect,
                 projections(),
                 compression(),
-                sharedStorage());
+                sharedStorage(),
+                fileFormat,
+                columnTypes);
     }
 
     @Nullable
@@ -116,6 +149,12 @@ public class FileUriCollectPhase extends CollectPhase {
         compression = in.readOptionalString();
         sharedStorage = in.readOptionalBoolean();
         targetUri = Symbol.fromStream(in);
+        fileFormat = FileReadingCollector.FileFormat.values()[in.readVInt()];
+        int numColumnTypes = in.readVInt();
+        columnTypes = new HashMap<>(numColumnTypes);
+        for (int i = 0; i < numColumnTypes; i++) {
+            columnTypes.put(in.readString(), DataTypes.fromStream(in));
+        }
     }
 
     @Override
@@ -124,6 +163,12 @@ public class FileUriCollectPhase extends CollectPhase {
         out.writeOptionalString(compression);
         out.writeOptionalBoolean(sharedStorage);
         Symbol.toStream(targetUri, out);
+        out.writeVInt(fileFormat.ordinal());
+        out.writeVInt(columnTypes.size());
+        for (Map.Entry<String, DataType> entry : columnTypes.entrySet()) {
+            out.writeString(entry.getKey());
+            DataTypes.toStream(entry.getValue(), out);
+        }
     }
 
     @Override
@@ -134,6 +179,7 @@ public class FileUriCollectPhase extends CollectPhase {
                 .add("projections", projections)
                 .add("outputTypes", outputTypes)
                 .add("compression", compression)
+                .add("fileFormat", fileFormat)
                 .add("sharedStorageDefault", sharedStorage)
                 .toString();
     }
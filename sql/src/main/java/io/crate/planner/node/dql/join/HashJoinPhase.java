@@ -0,0 +1,181 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.planner.node.dql.join;
+
+import com.google.common.base.MoreObjects;
+import io.crate.planner.node.ExecutionPhaseVisitor;
+import io.crate.planner.node.PlanNodeVisitor;
+import io.crate.planner.node.dql.MergePhase;
+import io.crate.planner.projection.Projection;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A join phase for equi-joins which is executed using a hash table.
+ *
+ * The inputs, outputs and distribution are the same as for the {@link NestedLoopPhase},
+ * additionally it contains the positions of the join keys within the rows of the left and the right side,
+ * the types the key values are converted to before they're compared
+ * and which of the sides is used to build the hash table.
+ */
+public class HashJoinPhase extends NestedLoopPhase {
+
+    public static final ExecutionPhaseFactory<HashJoinPhase> FACTORY = new ExecutionPhaseFactory<HashJoinPhase>() {
+        @Override
+        public HashJoinPhase create() {
+            return new HashJoinPhase();
+        }
+    };
+
+    private int[] leftJoinKeys;
+    private int[] rightJoinKeys;
+    private List<DataType> joinKeyTypes;
+    private boolean buildLeft;
+
+    public HashJoinPhase() {}
+
+    public HashJoinPhase(UUID jobId,
+                         int executionNodeId,
+                         String name,
+                         List<Projection> projections,
+                         @Nullable MergePhase leftMergePhase,
+                         @Nullable MergePhase rightMergePhase,
+                         Collection<String> executionNodes,
+                         int[] leftJoinKeys,
+                         int[] rightJoinKeys,
+                         List<DataType> joinKeyTypes,
+                         boolean buildLeft) {
+        super(jobId, executionNodeId, name, projections, leftMergePhase, rightMergePhase, executionNodes);
+        assert leftJoinKeys.length == rightJoinKeys.length : "number of join keys must match";
+        assert leftJoinKeys.length == joinKeyTypes.size() : "number of join key types must match";
+        this.leftJoinKeys = leftJoinKeys;
+        this.rightJoinKeys = rightJoinKeys;
+        this.joinKeyTypes = joinKeyTypes;
+        this.buildLeft = buildLeft;
+    }
+
+    @Override
+    public Type type() {
+        return Type.HASH_JOIN;
+    }
+
+    /**
+     * positions of the join keys in the rows of the left side
+     */
+    public int[] leftJoinKeys() {
+        return leftJoinKeys;
+    }
+
+    /**
+     * positions of the join keys in the rows of the right side
+     */
+    public int[] rightJoinKeys() {
+        return rightJoinKeys;
+    }
+
+    /**
+     * types of the join keys, the values of both sides are converted to these types before they're hashed
+     */
+    public List<DataType> joinKeyTypes() {
+        return joinKeyTypes;
+    }
+
+    /**
+     * @return true if the hash table is built from the left side, false if it is built from the right side
+     */
+    public boolean buildLeft() {
+        return buildLeft;
+    }
+
+    @Override
+    public <C, R> R accept(ExecutionPhaseVisitor<C, R> visitor, C context) {
+        return visitor.visitHashJoinPhase(this, context);
+    }
+
+    @Override
+    public <C, R> R accept(PlanNodeVisitor<C, R> visitor, C context) {
+        return visitor.visitHashJoinPhase(this, context);
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        super.readFrom(in);
+        leftJoinKeys = readKeys(in);
+        rightJoinKeys = readKeys(in);
+        joinKeyTypes = new ArrayList<>(leftJoinKeys.length);
+        for (int i = 0; i < leftJoinKeys.length; i++) {
+            joinKeyTypes.add(DataTypes.fromStream(in));
+        }
+        buildLeft = in.readBoolean();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        writeKeys(out, leftJoinKeys);
+        writeKeys(out, rightJoinKeys);
+        for (DataType joinKeyType : joinKeyTypes) {
+            DataTypes.toStream(joinKeyType, out);
+        }
+        out.writeBoolean(buildLeft);
+    }
+
+    private static int[] readKeys(StreamInput in) throws IOException {
+        int[] keys = new int[in.readVInt()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = in.readVInt();
+        }
+        return keys;
+    }
+
+    private static void writeKeys(StreamOutput out, int[] keys) throws IOException {
+        out.writeVInt(keys.length);
+        for (int key : keys) {
+            out.writeVInt(key);
+        }
+    }
+
+    @Override
+    public String toString() {
+        MoreObjects.ToStringHelper helper = MoreObjects.toStringHelper(this)
+                .add("executionPhaseId", executionPhaseId())
+                .add("name", name())
+                .add("outputTypes", outputTypes)
+                .add("jobId", jobId())
+                .add("executionNodes", executionNodes())
+                .add("leftJoinKeys", Arrays.toString(leftJoinKeys))
+                .add("rightJoinKeys", Arrays.toString(rightJoinKeys))
+                .add("joinKeyTypes", joinKeyTypes)
+                .add("buildLeft", buildLeft);
+        return helper.toString();
+    }
+}
@@ -25,6 +25,7 @@ import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import io.crate.analyze.symbol.Symbols;
+import io.crate.metadata.Routing;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.distribution.UpstreamPhase;
 import io.crate.planner.node.ExecutionPhaseVisitor;
@@ -98,6 +99,18 @@ public class NestedLoopPhase extends AbstractDQLPlanPhase implements UpstreamPha
         return rightMergePhase;
     }
 
+    @Override
+    public NestedLoopPhase bind(UUID jobId, @Nullable Routing routing) {
+        NestedLoopPhase phase = (NestedLoopPhase) super.bind(jobId, routing);
+        if (leftMergePhase != null) {
+            phase.leftMergePhase = (MergePhase) leftMergePhase.bind(jobId, null);
+        }
+        if (rightMergePhase != null) {
+            phase.rightMergePhase = (MergePhase) rightMergePhase.bind(jobId, null);
+        }
+        return phase;
+    }
+
     @Override
     public <C, R> R accept(ExecutionPhaseVisitor<C, R> visitor, C context) {
         return visitor.visitNestedLoopPhase(this, context);
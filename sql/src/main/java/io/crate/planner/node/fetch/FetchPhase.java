@@ -24,12 +24,15 @@ package io.crate.planner.node.fetch;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import io.crate.analyze.symbol.Reference;
+import io.crate.metadata.Routing;
 import io.crate.metadata.TableIdent;
 import io.crate.planner.node.ExecutionPhase;
 import io.crate.planner.node.ExecutionPhaseVisitor;
+import io.crate.planner.node.ExecutionPhases;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.*;
 
@@ -95,6 +98,11 @@ public class FetchPhase implements ExecutionPhase {
         return jobId;
     }
 
+    @Override
+    public FetchPhase bind(UUID jobId, @Nullable Routing routing) {
+        return new FetchPhase(jobId, executionPhaseId, executionNodes, bases, tableIndices, fetchRefs);
+    }
+
     @Override
     public <C, R> R accept(ExecutionPhaseVisitor<C, R> visitor, C context) {
         return visitor.visitFetchPhase(this, context);
@@ -102,7 +110,7 @@ public class FetchPhase implements ExecutionPhase {
 
     @Override
     public void readFrom(StreamInput in) throws IOException {
-        jobId = new UUID(in.readLong(), in.readLong());
+        jobId = ExecutionPhases.readJobId(in);
         executionPhaseId = in.readVInt();
 
         int n = in.readVInt();
@@ -141,8 +149,7 @@ public class FetchPhase implements ExecutionPhase {
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
-        out.writeLong(jobId.getMostSignificantBits());
-        out.writeLong(jobId.getLeastSignificantBits());
+        ExecutionPhases.writeJobId(out, jobId);
         out.writeVInt(executionPhaseId);
 
         out.writeVInt(executionNodes.size());
@@ -21,6 +21,7 @@
 
 package io.crate.planner.projection;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.crate.analyze.EvaluatingNormalizer;
@@ -37,12 +38,28 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
 
 import java.io.IOException;
 import java.util.*;
 
 public class WriterProjection extends Projection {
 
+    public enum OutputFormat {
+        JSON,
+        CSV;
+
+        public static OutputFormat fromString(String format) {
+            for (OutputFormat outputFormat : values()) {
+                if (outputFormat.name().equalsIgnoreCase(format)) {
+                    return outputFormat;
+                }
+            }
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                    "Unsupported output format \"%s\", supported are: json and csv", format));
+        }
+    }
+
     private static final List<Symbol> OUTPUTS = ImmutableList.<Symbol>of(
             new Value(DataTypes.LONG) // number of lines written
     );
@@ -56,7 +73,7 @@ public class WriterProjection extends Projection {
             new FunctionIdent(FormatFunction.NAME, Arrays.<DataType>asList(StringType.INSTANCE,
                     StringType.INSTANCE, StringType.INSTANCE, StringType.INSTANCE)),
             StringType.INSTANCE),
-            Arrays.<Symbol>asList(Literal.newLiteral("%s_%s_%s.json"), TABLE_NAME_REF, SHARD_ID_REF, PARTITION_IDENT_REF)
+            Arrays.<Symbol>asList(Literal.newLiteral("%s_%s_%s"), TABLE_NAME_REF, SHARD_ID_REF, PARTITION_IDENT_REF)
     );
 
     private Symbol uri;
@@ -97,6 +114,38 @@ public class WriterProjection extends Projection {
         return settings;
     }
 
+    /**
+     * the format of the written rows, defined by the <code>format</code> setting
+     */
+    public OutputFormat outputFormat() {
+        return OutputFormat.fromString(settings.get("format", "json"));
+    }
+
+    /**
+     * the number of (uncompressed) bytes after which the output is continued in a new file,
+     * defined by the <code>max_file_size</code> setting. -1 if the output shouldn't be split.
+     */
+    public long maxFileSize() {
+        ByteSizeValue maxFileSize = settings.getAsBytesSize("max_file_size", null);
+        if (maxFileSize == null) {
+            return -1L;
+        }
+        Preconditions.checkArgument(maxFileSize.bytes() > 0, "max_file_size must be greater than 0");
+        return maxFileSize.bytes();
+    }
+
+    /**
+     * the names of the written columns, used as header if the output format requires one
+     */
+    @Nullable
+    public List<String> outputNames() {
+        return outputNames;
+    }
+
+    public void outputNames(@Nullable List<String> outputNames) {
+        this.outputNames = outputNames;
+    }
+
     public void isDirectoryUri(boolean isDirectoryUri) {
         this.isDirectoryUri = isDirectoryUri;
     }
@@ -100,6 +100,8 @@ public class RestSQLAction extends BaseRestHandler {
         final SQLRequestBuilder requestBuilder = new SQLRequestBuilder(client);
         requestBuilder.stmt(context.stmt());
         requestBuilder.args(context.args());
+        requestBuilder.fetchSize(context.fetchSize());
+        requestBuilder.cursorId(context.cursorId());
         requestBuilder.includeTypesOnResponse(request.paramAsBoolean("types", false));
         requestBuilder.addFlagsToRequestHeader(composeFlags(request));
         requestBuilder.execute(RestSQLAction.<SQLResponse>newListener(request, channel));
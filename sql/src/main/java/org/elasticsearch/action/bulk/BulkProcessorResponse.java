@@ -23,10 +23,18 @@ package org.elasticsearch.action.bulk;
 
 import com.carrotsearch.hppc.IntArrayList;
 
+import javax.annotation.Nullable;
 import java.util.List;
 
 public interface BulkProcessorResponse<T> {
     IntArrayList itemIndices();
 
     List<T> responses();
+
+    /**
+     * @return the error which stopped the request after some of its items were written, those are still
+     * part of the response
+     */
+    @Nullable
+    Throwable failure();
 }
@@ -438,6 +438,9 @@ public class SymbolBasedBulkShardProcessor<Request extends BulkProcessorRequest,
                 responses.set(location, response.responses().get(i) != null);
             }
         }
+        if (response.failure() != null) {
+            setFailure(response.failure());
+        }
         setResultIfDone(response.itemIndices().size());
         trace("response executed.");
     }
@@ -0,0 +1,201 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.action.job;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import io.crate.analyze.WhereClause;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.analyze.symbol.Value;
+import io.crate.core.collections.TreeMapBuilder;
+import io.crate.exceptions.NodeOperationTemplateMissingException;
+import io.crate.metadata.Routing;
+import io.crate.metadata.RowGranularity;
+import io.crate.operation.NodeOperation;
+import io.crate.planner.distribution.DistributionInfo;
+import io.crate.planner.node.ExecutionPhase;
+import io.crate.planner.node.dql.CollectPhase;
+import io.crate.planner.node.dql.MergePhase;
+import io.crate.planner.projection.Projection;
+import io.crate.planner.projection.TopNProjection;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class NodeOperationTemplatesTest extends CrateUnitTest {
+
+    private static List<NodeOperation> nodeOperations(UUID jobId, int limit) {
+        MergePhase mergePhase = new MergePhase(
+                jobId, 1, "merge", 2,
+                ImmutableList.<DataType>of(DataTypes.STRING),
+                ImmutableList.<Projection>of(new TopNProjection(limit, 0)),
+                DistributionInfo.DEFAULT_BROADCAST);
+        mergePhase.executionNodes(Sets.newHashSet("n1", "n2"));
+        return ImmutableList.of(NodeOperation.withoutDownstream(mergePhase));
+    }
+
+    private static List<NodeOperation> collectOperations(Routing routing) {
+        CollectPhase collectPhase = new CollectPhase(
+                UUID.randomUUID(), 1, "collect", routing, RowGranularity.DOC,
+                ImmutableList.<Symbol>of(new Value(DataTypes.STRING)),
+                ImmutableList.<Projection>of(),
+                WhereClause.MATCH_ALL,
+                DistributionInfo.DEFAULT_BROADCAST);
+        return ImmutableList.of(NodeOperation.withoutDownstream(collectPhase));
+    }
+
+    private static Routing routing(String nodeId) {
+        return new Routing(TreeMapBuilder.<String, Map<String, List<Integer>>>newMapBuilder()
+                .put(nodeId, TreeMapBuilder.<String, List<Integer>>newMapBuilder().put("t1", Arrays.asList(1, 2)).map())
+                .map());
+    }
+
+    private static JobRequest streamed(JobRequest request) throws Exception {
+        BytesStreamOutput out = new BytesStreamOutput();
+        request.writeTo(out);
+        JobRequest streamed = new JobRequest();
+        streamed.readFrom(new BytesStreamInput(out.bytes()));
+        return streamed;
+    }
+
+    @Test
+    public void testFingerprintDoesNotDependOnJobId() throws Exception {
+        NodeOperationTemplate t1 = NodeOperationTemplate.of(nodeOperations(UUID.randomUUID(), 10));
+        NodeOperationTemplate t2 = NodeOperationTemplate.of(nodeOperations(UUID.randomUUID(), 10));
+        NodeOperationTemplate t3 = NodeOperationTemplate.of(nodeOperations(UUID.randomUUID(), 20));
+
+        assertThat(t1.fingerprint(), is(t2.fingerprint()));
+        assertThat(t1.fingerprint(), not(is(t3.fingerprint())));
+    }
+
+    @Test
+    public void testNodeOperationsAreBoundToTheJobOfTheRequest() throws Exception {
+        NodeOperationTemplates templates = new NodeOperationTemplates(ImmutableSettings.EMPTY);
+        NodeOperationTemplate template = NodeOperationTemplate.of(nodeOperations(UUID.randomUUID(), 10));
+
+        UUID firstJob = UUID.randomUUID();
+        JobRequest request = streamed(new JobRequest(firstJob, template, true, false));
+        assertThat(request.nodeOperations(), nullValue());
+        Collection<? extends NodeOperation> nodeOperations = templates.nodeOperations(request);
+        assertThat(nodeOperations.size(), is(1));
+        assertThat(nodeOperations.iterator().next().executionPhase().jobId(), is(firstJob));
+
+        UUID secondJob = UUID.randomUUID();
+        request = streamed(new JobRequest(secondJob, template, false, false));
+        assertThat(request.templateBytes(), nullValue());
+        nodeOperations = templates.nodeOperations(request);
+        MergePhase mergePhase = (MergePhase) nodeOperations.iterator().next().executionPhase();
+        assertThat(mergePhase.jobId(), is(secondJob));
+        assertThat(mergePhase.executionPhaseId(), is(1));
+        assertThat(mergePhase.executionNodes(), is((Collection<String>) Sets.newHashSet("n1", "n2")));
+    }
+
+    @Test
+    public void testCachedNodeOperationsAreSharedByJobs() throws Exception {
+        NodeOperationTemplates templates = new NodeOperationTemplates(ImmutableSettings.EMPTY);
+        NodeOperationTemplate template = NodeOperationTemplate.of(nodeOperations(UUID.randomUUID(), 10));
+
+        UUID firstJob = UUID.randomUUID();
+        ExecutionPhase firstPhase = templates.nodeOperations(streamed(new JobRequest(firstJob, template, true, false)))
+                .iterator().next().executionPhase();
+        UUID secondJob = UUID.randomUUID();
+        ExecutionPhase secondPhase = templates.nodeOperations(streamed(new JobRequest(secondJob, template, false, false)))
+                .iterator().next().executionPhase();
+
+        assertThat(secondPhase, not(sameInstance(firstPhase)));
+        assertThat(firstPhase.jobId(), is(firstJob));
+        assertThat(secondPhase.jobId(), is(secondJob));
+        assertThat(((MergePhase) secondPhase).projections(), sameInstance(((MergePhase) firstPhase).projections()));
+    }
+
+    @Test
+    public void testRoutingIsNotPartOfTheFingerprint() throws Exception {
+        Routing firstRouting = routing("n1");
+        Routing secondRouting = routing("n2");
+        NodeOperationTemplate t1 = NodeOperationTemplate.of(collectOperations(firstRouting));
+        NodeOperationTemplate t2 = NodeOperationTemplate.of(collectOperations(secondRouting));
+        assertThat(t1.fingerprint(), is(t2.fingerprint()));
+        assertThat(t2.routings().get(0), sameInstance(secondRouting));
+
+        NodeOperationTemplates templates = new NodeOperationTemplates(ImmutableSettings.EMPTY);
+        templates.nodeOperations(streamed(new JobRequest(UUID.randomUUID(), t1, true, false)));
+
+        UUID jobId = UUID.randomUUID();
+        Collection<? extends NodeOperation> nodeOperations =
+                templates.nodeOperations(streamed(new JobRequest(jobId, t2, false, false)));
+        CollectPhase collectPhase = (CollectPhase) nodeOperations.iterator().next().executionPhase();
+        assertThat(collectPhase.jobId(), is(jobId));
+        assertThat(collectPhase.executionNodes(), contains("n2"));
+        assertThat(collectPhase.routing().locations().get("n2").get("t1"), contains(1, 2));
+    }
+
+    @Test
+    public void testMissingTemplate() throws Exception {
+        NodeOperationTemplates templates = new NodeOperationTemplates(ImmutableSettings.EMPTY);
+        NodeOperationTemplate template = NodeOperationTemplate.of(nodeOperations(UUID.randomUUID(), 10));
+
+        expectedException.expect(NodeOperationTemplateMissingException.class);
+        templates.nodeOperations(streamed(new JobRequest(UUID.randomUUID(), template, false, false)));
+    }
+
+    @Test
+    public void testTemplatesAreNotCachedIfDisabled() throws Exception {
+        NodeOperationTemplates templates = new NodeOperationTemplates(ImmutableSettings.settingsBuilder()
+                .put(NodeOperationTemplates.CACHE_SIZE_SETTING, 0).build());
+        assertThat(templates.enabled(), is(false));
+        NodeOperationTemplate template = NodeOperationTemplate.of(nodeOperations(UUID.randomUUID(), 10));
+        templates.nodeOperations(streamed(new JobRequest(UUID.randomUUID(), template, true, false)));
+
+        expectedException.expect(NodeOperationTemplateMissingException.class);
+        templates.nodeOperations(streamed(new JobRequest(UUID.randomUUID(), template, false, false)));
+    }
+
+    @Test
+    public void testHandlerRemembersAcknowledgedTemplates() throws Exception {
+        NodeOperationTemplates templates = new NodeOperationTemplates(ImmutableSettings.EMPTY);
+        NodeOperationTemplate template = NodeOperationTemplate.of(nodeOperations(UUID.randomUUID(), 10));
+
+        assertThat(templates.isCachedOn("n1", template), is(false));
+        templates.cachedOn("n1", template);
+        assertThat(templates.isCachedOn("n1", template), is(true));
+        assertThat(templates.isCachedOn("n2", template), is(false));
+        templates.missingOn("n1", template);
+        assertThat(templates.isCachedOn("n1", template), is(false));
+    }
+}
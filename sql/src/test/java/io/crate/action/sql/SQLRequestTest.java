@@ -22,6 +22,8 @@
 package io.crate.action.sql;
 
 import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
 import org.elasticsearch.common.io.stream.BytesStreamInput;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.junit.Test;
@@ -80,4 +82,37 @@ public class SQLRequestTest extends CrateUnitTest {
         assertThat(inRequest.stmt(), is("select * from users"));
         assertThat(inRequest.getDefaultSchema(), is("foo"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFetchSizeAndCursorAreSerializedAsHeaders() throws Exception {
+        SQLRequest request = new SQLRequest("select * from users");
+        request.fetchSize(100);
+        request.cursorId("c1");
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        request.writeTo(out);
+
+        BytesStreamInput in = new BytesStreamInput(out.bytes());
+        SQLRequest inRequest = new SQLRequest();
+        inRequest.readFrom(in);
+
+        assertThat(inRequest.stmt(), is("select * from users"));
+        assertThat(inRequest.fetchSize(), is(100));
+        assertThat(inRequest.cursorId(), is("c1"));
+    }
+
+    @Test
+    public void testResponseCursorSerialization() throws Exception {
+        SQLResponse response = new SQLResponse(new String[]{"name"}, new Object[][]{new Object[]{"Arthur"}},
+                new DataType[]{DataTypes.STRING}, 1L, 0L, false);
+        response.cursorId("c1");
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        response.writeTo(out);
+
+        SQLResponse inResponse = new SQLResponse();
+        inResponse.readFrom(new BytesStreamInput(out.bytes()));
+        assertThat(inResponse.cursorId(), is("c1"));
+        assertThat((String) inResponse.rows()[0][0], is("Arthur"));
+    }
+}
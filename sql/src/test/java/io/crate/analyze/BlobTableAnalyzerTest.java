@@ -175,6 +175,20 @@ public class BlobTableAnalyzerTest extends BaseAnalyzerTest {
         assertThat(analysis.tableParameter().settings().get(BlobIndices.SETTING_INDEX_BLOBS_PATH), is("/tmp/crate_blob_data"));
     }
 
+    @Test
+    public void testCreateBlobTableWithPackThreshold() {
+        CreateBlobTableAnalyzedStatement analysis = (CreateBlobTableAnalyzedStatement)analyze(
+                "create blob table screenshots with (blobs_pack_threshold='64kb')");
+
+        assertThat(analysis.tableParameter().settings().get(BlobIndices.SETTING_INDEX_BLOBS_PACK_THRESHOLD), is("65536"));
+    }
+
+    @Test
+    public void testCreateBlobTableWithNegativePackThreshold() {
+        expectedException.expect(IllegalArgumentException.class);
+        analyze("create blob table screenshots with (blobs_pack_threshold=-1)");
+    }
+
     @Test
     public void testCreateBlobTableWithPathInvalidType() {
         expectedException.expect(IllegalArgumentException.class);
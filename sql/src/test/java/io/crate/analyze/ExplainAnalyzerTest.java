@@ -0,0 +1,84 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.analyze;
+
+import io.crate.exceptions.UnsupportedFeatureException;
+import io.crate.metadata.sys.MetaDataSysModule;
+import io.crate.operation.aggregation.impl.AggregationImplModule;
+import io.crate.operation.operator.OperatorModule;
+import io.crate.operation.predicate.PredicateModule;
+import io.crate.operation.scalar.ScalarFunctionModule;
+import io.crate.testing.MockedClusterServiceModule;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.inject.Module;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public class ExplainAnalyzerTest extends BaseAnalyzerTest {
+
+    @Override
+    protected List<Module> getModules() {
+        List<Module> modules = super.getModules();
+        modules.addAll(Arrays.<Module>asList(
+                new MockedClusterServiceModule(),
+                new SelectStatementAnalyzerTest.TestMetaDataModule(),
+                new MetaDataSysModule(),
+                new OperatorModule(),
+                new AggregationImplModule(),
+                new PredicateModule(),
+                new ScalarFunctionModule()
+        ));
+        return modules;
+    }
+
+    @Test
+    public void testExplainSelect() throws Exception {
+        ExplainAnalyzedStatement stmt = (ExplainAnalyzedStatement) analyze("explain select name from users");
+        assertThat(stmt.isAnalyze(), is(false));
+        assertThat(stmt.statement(), instanceOf(SelectAnalyzedStatement.class));
+        assertThat(stmt.fields().size(), is(1));
+        assertThat(stmt.fields().get(0).path().outputName(), is("EXPLAIN"));
+        assertThat(stmt.fields().get(0).valueType(), is(DataTypes.STRING));
+    }
+
+    @Test
+    public void testExplainAnalyzeSelect() throws Exception {
+        ExplainAnalyzedStatement stmt = (ExplainAnalyzedStatement) analyze(
+                "explain analyze select count(*), name from users group by name");
+        assertThat(stmt.isAnalyze(), is(true));
+        assertThat(stmt.statement(), instanceOf(SelectAnalyzedStatement.class));
+        assertThat(stmt.fields().get(0).path().outputName(), is("EXPLAIN ANALYZE"));
+    }
+
+    @Test
+    public void testExplainOtherThanSelectIsNotSupported() throws Exception {
+        expectedException.expect(UnsupportedFeatureException.class);
+        expectedException.expectMessage("EXPLAIN is only supported for SELECT statements");
+        analyze("explain delete from users");
+    }
+}
@@ -32,6 +32,7 @@ import io.crate.metadata.TableIdent;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.types.DataTypes;
 import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.io.stream.BytesStreamInput;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.lucene.uid.Versions;
@@ -108,4 +109,34 @@ public class SymbolBasedShardUpsertRequestTest extends CrateUnitTest {
         assertThat(item2.retryOnConflict(), is(0));
     }
 
+    @Test
+    public void testStreamingOfWrittenItems() throws Exception {
+        ShardId shardId = new ShardId("test", 1);
+        SymbolBasedShardUpsertRequest request = new SymbolBasedShardUpsertRequest(
+                shardId, null, new Reference[]{idRef, nameRef}, UUID.randomUUID());
+        request.add(0, "99", null, new Object[]{99, new BytesRef("Marvin")}, null, null);
+        request.add(1, "42", null, new Object[]{42, new BytesRef("Deep Thought")}, null, null);
+        request.items().get(0).written(new BytesArray("{\"id\":99,\"name\":\"Marvin\"}"), "99", "1", "1445000000000", 60000L, 3L);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        request.writeTo(out);
+
+        BytesStreamInput in = new BytesStreamInput(out.bytes());
+        SymbolBasedShardUpsertRequest request2 = new SymbolBasedShardUpsertRequest();
+        request2.readFrom(in);
+
+        SymbolBasedShardUpsertRequest.Item item1 = request2.items().get(0);
+        assertThat(item1.source().toUtf8(), is("{\"id\":99,\"name\":\"Marvin\"}"));
+        assertThat(item1.writtenRouting(), is("99"));
+        assertThat(item1.parent(), is("1"));
+        assertThat(item1.timestamp(), is("1445000000000"));
+        assertThat(item1.ttl(), is(60000L));
+        assertThat(item1.writtenVersion(), is(3L));
+        assertThat(item1.version(), is(Versions.MATCH_ANY));
+
+        SymbolBasedShardUpsertRequest.Item item2 = request2.items().get(1);
+        assertNull(item2.source());
+        assertThat(item2.version(), is(Versions.MATCH_ANY));
+    }
+
 }
@@ -28,10 +28,12 @@ import io.crate.test.integration.CrateUnitTest;
 import io.crate.types.DataTypes;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.action.index.IndexResponse;
-import org.elasticsearch.action.index.TransportIndexAction;
 import org.elasticsearch.action.support.ActionFilters;
 import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.action.index.MappingUpdatedAction;
 import org.elasticsearch.cluster.action.shard.ShardStateAction;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.Index;
@@ -46,7 +48,10 @@ import org.junit.Test;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.mock;
 
 public class SymbolBasedTransportShardUpsertActionTest extends CrateUnitTest {
@@ -58,13 +63,13 @@ public class SymbolBasedTransportShardUpsertActionTest extends CrateUnitTest {
                                                  ClusterService clusterService,
                                                  TransportService transportService,
                                                  ActionFilters actionFilters,
-                                                 TransportIndexAction indexAction,
+                                                 MappingUpdatedAction mappingUpdatedAction,
                                                  IndicesService indicesService,
                                                  JobContextService jobContextService,
                                                  ShardStateAction shardStateAction,
                                                  Functions functions) {
             super(settings, threadPool, clusterService, transportService, actionFilters,
-                    jobContextService, indexAction, indicesService, shardStateAction, functions);
+                    jobContextService, mappingUpdatedAction, indicesService, shardStateAction, functions);
         }
 
         @Override
@@ -73,6 +78,13 @@ public class SymbolBasedTransportShardUpsertActionTest extends CrateUnitTest {
                                           ShardId shardId,
                                           boolean tryInsertFirst,
                                           int retryCount) throws ElasticsearchException {
+            if (item.id().startsWith("written")) {
+                item.written(new BytesArray("{}"), null, null, null, -1, 1L);
+                return null;
+            }
+            if (item.id().startsWith("invalid")) {
+                throw new IllegalArgumentException("invalid item " + item.id());
+            }
             throw new IndexMissingException(new Index(request.index()));
         }
     }
@@ -87,7 +99,7 @@ public class SymbolBasedTransportShardUpsertActionTest extends CrateUnitTest {
                 mock(ClusterService.class),
                 mock(TransportService.class),
                 mock(ActionFilters.class),
-                mock(TransportIndexAction.class),
+                mock(MappingUpdatedAction.class),
                 mock(IndicesService.class),
                 mock(JobContextService.class),
                 mock(ShardStateAction.class),
@@ -112,4 +124,49 @@ public class SymbolBasedTransportShardUpsertActionTest extends CrateUnitTest {
         assertThat(response.failures().size(), is(1));
         assertThat(response.failures().get(0).message(), is("IndexMissingException[[characters] missing]"));
     }
+
+    @Test
+    public void testFailureAfterWrittenItemsStillReturnsWrittenItems() throws Exception {
+        ShardId shardId = new ShardId("characters", 0);
+        final SymbolBasedShardUpsertRequest request = new SymbolBasedShardUpsertRequest(
+                shardId, null, new Reference[]{idRef()}, UUID.randomUUID());
+        request.add(1, "written1", null, new Object[]{1}, null, null);
+        request.add(2, "invalid2", null, new Object[]{2}, null, null);
+        request.add(3, "written3", null, new Object[]{3}, null, null);
+
+        ShardUpsertResponse response = transportShardUpsertAction.processRequestItems(
+                shardId, request, new AtomicBoolean(false));
+
+        assertThat(response.failure(), instanceOf(IllegalArgumentException.class));
+        assertThat(response.itemIndices().size(), is(3));
+        assertThat(response.responses().get(0), notNullValue());
+        assertThat(response.failures().get(1).message(), is("IllegalArgumentException[invalid item invalid2]"));
+        assertThat(response.failures().get(2).id(), is("written3"));
+
+        // only the first item reaches the replicas
+        assertThat(request.items().get(0).source(), notNullValue());
+        assertThat(request.items().get(2).source(), nullValue());
+    }
+
+    @Test
+    public void testRetriedPrimaryOperationDiscardsWrittenSource() throws Exception {
+        ShardId shardId = new ShardId("characters", 0);
+        final SymbolBasedShardUpsertRequest request = new SymbolBasedShardUpsertRequest(
+                shardId, null, new Reference[]{idRef()}, UUID.randomUUID());
+        request.add(1, "invalid1", null, new Object[]{1}, null, null);
+        request.items().get(0).written(new BytesArray("{\"id\":1}"), null, null, null, -1, 2L);
+
+        try {
+            transportShardUpsertAction.processRequestItems(shardId, request, new AtomicBoolean(false));
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertThat(request.items().get(0).source(), nullValue());
+            assertThat(request.items().get(0).writtenVersion(), is(Versions.MATCH_ANY));
+        }
+    }
+
+    private static Reference idRef() {
+        return new Reference(new ReferenceInfo(
+                new ReferenceIdent(new TableIdent(null, "characters"), "id"), RowGranularity.DOC, DataTypes.SHORT));
+    }
 }
@@ -43,6 +43,7 @@ import io.crate.planner.Planner;
 import io.crate.planner.node.dml.ESDeleteByQueryNode;
 import io.crate.planner.node.dql.ESGetNode;
 import io.crate.planner.node.management.KillPlan;
+import io.crate.testing.TestingHelpers;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import org.junit.Test;
@@ -54,8 +55,10 @@ import java.util.concurrent.TimeUnit;
 
 import static io.crate.testing.TestingHelpers.isRow;
 import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
 import static org.hamcrest.core.Is.is;
 
@@ -150,6 +153,27 @@ public class TransportExecutorTest extends BaseTransportExecutorTest {
         results.get(0).get();
     }
 
+    @Test
+    public void testExplainTask() throws Exception {
+        setup.setUpCharacters();
+        execute("explain select name from characters order by name");
+        assertThat(response.cols(), is(new String[] { "EXPLAIN" }));
+        String printed = TestingHelpers.printedTable(response.rows());
+        assertThat(printed, containsString("Phase "));
+        assertThat(printed, not(containsString("Profile:")));
+    }
+
+    @Test
+    public void testExplainAnalyzeTask() throws Exception {
+        setup.setUpCharacters();
+        execute("explain analyze select name from characters order by name");
+        assertThat(response.cols(), is(new String[] { "EXPLAIN ANALYZE" }));
+        String printed = TestingHelpers.printedTable(response.rows());
+        assertThat(printed, containsString("Phase "));
+        assertThat(printed, containsString("Profile:"));
+        assertThat(printed, containsString("rows in"));
+    }
+
     protected Planner.Context newPlannerContext() {
         return new Planner.Context(clusterService(), UUID.randomUUID(), null);
     }
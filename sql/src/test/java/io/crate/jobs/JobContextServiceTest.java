@@ -49,6 +49,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import static org.elasticsearch.common.unit.TimeValue.timeValueMillis;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -270,6 +272,43 @@ public class JobContextServiceTest extends CrateUnitTest {
         assertThat(jobContextService.killJobs(jobsToKill), is(1L));
     }
 
+    @Test
+    public void testProfilerIsKeptAfterJobFinished() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        JobExecutionContext.Builder builder = jobContextService.newBuilder(jobId, true);
+        DummySubContext subContext = new DummySubContext();
+        builder.addSubContext(subContext);
+        jobContextService.createContext(builder);
+        subContext.close();
+
+        assertThat(jobContextService.removeProfiler(jobId), sameInstance(builder.profiler()));
+        assertThat(jobContextService.removeProfiler(jobId), nullValue());
+    }
+
+    @Test
+    public void testLaterContextOfFinishedJobSharesProfiler() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        JobExecutionContext.Builder builder1 = jobContextService.newBuilder(jobId, true);
+        DummySubContext subContext = new DummySubContext();
+        builder1.addSubContext(subContext);
+        jobContextService.createContext(builder1);
+        subContext.close();
+
+        JobExecutionContext.Builder builder2 = jobContextService.newBuilder(jobId, true);
+        assertThat(builder2.profiler(), sameInstance(builder1.profiler()));
+    }
+
+    @Test
+    public void testKillJobsRemovesProfiler() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        JobExecutionContext.Builder builder = jobContextService.newBuilder(jobId, true);
+        builder.addSubContext(new DummySubContext());
+        jobContextService.createContext(builder);
+
+        jobContextService.killJobs(ImmutableList.of(jobId));
+        assertThat(jobContextService.removeProfiler(jobId), nullValue());
+    }
+
     @Test
     public void testCloseContextRemovesSubContext() throws Exception {
         JobExecutionContext ctx1 = getJobExecutionContextWithOneActiveSubContext(jobContextService);
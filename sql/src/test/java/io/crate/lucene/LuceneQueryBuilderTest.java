@@ -88,7 +88,10 @@ public class LuceneQueryBuilderTest extends CrateUnitTest {
         DocTableInfo users = TestingTableInfo.builder(new TableIdent(null, "users"), null)
                 .add("name", DataTypes.STRING)
                 .add("x", DataTypes.INTEGER)
+                .add("y", DataTypes.INTEGER)
+                .add("l", DataTypes.LONG)
                 .add("d", DataTypes.DOUBLE)
+                .add("ts", DataTypes.TIMESTAMP)
                 .add("d_array", new ArrayType(DataTypes.DOUBLE))
                 .add("y_array", new ArrayType(DataTypes.LONG))
                 .add("shape", DataTypes.GEO_SHAPE)
@@ -172,6 +175,84 @@ public class LuceneQueryBuilderTest extends CrateUnitTest {
         assertThat(query, instanceOf(FilteredQuery.class));
     }
 
+    @Test
+    public void testWhereRefGtRefUsesColumnsExistAsApproximation() throws Exception {
+        Query query = convert("x > y");
+        assertThat(query, instanceOf(FilteredQuery.class));
+        FilteredQuery filteredQuery = (FilteredQuery) query;
+        assertThat(filteredQuery.getQuery().toString(), is("ConstantScore(BooleanFilter(+x:[* TO *] +y:[* TO *]))"));
+        assertThat(filteredQuery.getFilter(), instanceOf(LuceneQueryBuilder.Visitor.FunctionFilter.class));
+    }
+
+    @Test
+    public void testArithmeticIsInvertedToRangeQuery() throws Exception {
+        assertThat(convert("x + 1 > 10").toString(), is("x:[10 TO *]"));
+        assertThat(convert("x - 1 = 10").toString(), is("x:[11 TO 11]"));
+        assertThat(convert("10 - x <= 3").toString(), is("x:[7 TO *]"));
+        assertThat(convert("20 < x + 10").toString(), is("x:[11 TO *]"));
+    }
+
+    @Test
+    public void testArithmeticOutOfColumnRange() throws Exception {
+        assertThat(convert("x + 1 > 3000000000"), instanceOf(MatchNoDocsQuery.class));
+        assertThat(convert("x + 1 < 3000000000").toString(), is("x:[* TO *]"));
+    }
+
+    @Test
+    public void testArithmeticOnLongColumnVerifiesOverflowingValues() throws Exception {
+        Query query = convert("l + 10 > 5");
+        assertThat(query, instanceOf(BooleanQuery.class));
+        BooleanClause[] clauses = ((BooleanQuery) query).getClauses();
+        assertThat(clauses.length, is(2));
+        assertThat(clauses[0].getQuery().toString(), is("l:[-4 TO 9223372036854775797]"));
+        FilteredQuery overflow = (FilteredQuery) clauses[1].getQuery();
+        assertThat(overflow.getQuery().toString(), is("l:[9223372036854775798 TO *]"));
+        assertThat(overflow.getFilter(), instanceOf(LuceneQueryBuilder.Visitor.FunctionFilter.class));
+    }
+
+    @Test
+    public void testFloatingPointArithmeticUsesFunctionFilter() throws Exception {
+        Query query = convert("d + 1.5 > 10.0");
+        assertThat(query, instanceOf(FilteredQuery.class));
+        assertThat(((FilteredQuery) query).getFilter(), instanceOf(LuceneQueryBuilder.Visitor.FunctionFilter.class));
+    }
+
+    @Test
+    public void testAbsToRangeQuery() throws Exception {
+        assertThat(convert("abs(d) > 5.0").toString(), is("(d:{5.0 TO *} d:{* TO -5.0})~1"));
+        assertThat(convert("abs(x) <= 3").toString(), is("x:[-3 TO 3]"));
+        assertThat(convert("abs(x) = 3").toString(), is("(x:[3 TO 3] x:[-3 TO 3])~1"));
+        assertThat(convert("abs(x) < -1"), instanceOf(MatchNoDocsQuery.class));
+    }
+
+    @Test
+    public void testDateTruncToRangeQuery() throws Exception {
+        // 2015-10-10T00:00:00.000Z
+        assertThat(convert("date_trunc('day', ts) = 1444435200000").toString(),
+                is("ts:[1444435200000 TO 1444521600000}"));
+        assertThat(convert("date_trunc('day', ts) = 1444435200001"), instanceOf(MatchNoDocsQuery.class));
+        assertThat(convert("date_trunc('day', ts) < 1444435200001").toString(), is("ts:{* TO 1444521600000}"));
+        assertThat(convert("date_trunc('day', 'UTC', ts) >= 1444435200001").toString(),
+                is("ts:[1444521600000 TO *}"));
+    }
+
+    @Test
+    public void testDateTruncWithTimeZoneUsesFunctionFilter() throws Exception {
+        Query query = convert("date_trunc('day', 'Europe/Vienna', ts) = 1444435200000");
+        assertThat(query, instanceOf(FilteredQuery.class));
+        assertThat(((FilteredQuery) query).getFilter(), instanceOf(LuceneQueryBuilder.Visitor.FunctionFilter.class));
+    }
+
+    @Test
+    public void testSubstrToPrefixQuery() throws Exception {
+        Query query = convert("substr(name, 1, 3) = 'foo'");
+        assertThat(query, instanceOf(PrefixQuery.class));
+        assertThat(query.toString(), is("name:foo*"));
+
+        assertThat(convert("substr(name, 1, 3) = 'fo'").toString(), is("name:fo"));
+        assertThat(convert("substr(name, 1, 3) = 'fooo'"), instanceOf(MatchNoDocsQuery.class));
+    }
+
     @Test
     public void testLteQuery() throws Exception {
         Query query = convert("x <= 10");
@@ -0,0 +1,77 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation;
+
+import io.crate.core.collections.Row;
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ColumnBatchTest extends CrateUnitTest {
+
+    @Test
+    public void testValuesAreBoxedUsingTheElementType() throws Exception {
+        ColumnBatch batch = new ColumnBatch(new ColumnBatch.ElementType[]{
+                ColumnBatch.ElementType.LONG,
+                ColumnBatch.ElementType.INTEGER,
+                ColumnBatch.ElementType.SHORT,
+                ColumnBatch.ElementType.BYTE,
+                ColumnBatch.ElementType.DOUBLE,
+                ColumnBatch.ElementType.FLOAT
+        }, 2);
+        for (int i = 0; i < 4; i++) {
+            batch.column(i).setLong(0, 10L);
+        }
+        batch.column(4).setDouble(0, 1.5d);
+        batch.column(5).setDouble(0, 2.5d);
+        batch.size(1);
+
+        Object[] cells = batch.rowAt(0).materialize();
+        assertThat(cells, is(new Object[]{10L, 10, (short) 10, (byte) 10, 1.5d, 2.5f}));
+    }
+
+    @Test
+    public void testNullsAndCursorRow() throws Exception {
+        ColumnBatch batch = new ColumnBatch(new ColumnBatch.ElementType[]{ColumnBatch.ElementType.LONG}, 4);
+        ColumnBatch.Column column = batch.column(0);
+        column.setLong(0, 1L);
+        column.setNull(1);
+        column.setLong(2, 3L);
+        batch.size(3);
+
+        assertThat(batch.capacity(), is(4));
+        assertThat(batch.numColumns(), is(1));
+        assertThat(column.isNull(1), is(true));
+
+        Row row = batch.rowAt(1);
+        assertThat(row.get(0), nullValue());
+        Row sameRow = batch.rowAt(2);
+        assertThat(sameRow == row, is(true));
+        assertThat((Long) row.get(0), is(3L));
+
+        // a null must be overwritten by setting a value at the same position
+        column.setLong(1, 2L);
+        assertThat((Long) batch.rowAt(1).get(0), is(2L));
+    }
+}
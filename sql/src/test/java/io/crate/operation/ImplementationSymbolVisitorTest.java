@@ -24,7 +24,9 @@ package io.crate.operation;
 import io.crate.analyze.symbol.Aggregation;
 import io.crate.analyze.symbol.Function;
 import io.crate.analyze.symbol.InputColumn;
+import io.crate.analyze.symbol.Literal;
 import io.crate.analyze.symbol.Symbol;
+import io.crate.core.collections.Row;
 import io.crate.core.collections.RowN;
 import io.crate.metadata.*;
 import io.crate.operation.aggregation.FunctionExpression;
@@ -32,6 +34,8 @@ import io.crate.operation.aggregation.impl.AggregationImplModule;
 import io.crate.operation.aggregation.impl.AverageAggregation;
 import io.crate.operation.aggregation.impl.CountAggregation;
 import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.compiler.CompiledInput;
+import io.crate.operation.operator.GtOperator;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
@@ -217,4 +221,23 @@ public class ImplementationSymbolVisitorTest extends CrateUnitTest {
         assertThat(impl, is(instanceOf(MultiplyFunction.class)));
         assertThat(((MultiplyFunction)impl).compiled.get(), is(true));
     }
+
+    @Test
+    public void testComparisonIsCompiledToBytecode() throws Exception {
+        Function gt = new Function(
+                new FunctionInfo(
+                        new FunctionIdent(GtOperator.NAME, Arrays.<DataType>asList(DataTypes.LONG, DataTypes.LONG)),
+                        DataTypes.BOOLEAN),
+                Arrays.<Symbol>asList(new InputColumn(0, DataTypes.LONG), Literal.newLiteral(10L))
+        );
+        ImplementationSymbolVisitor.Context context = visitor.extractImplementations(gt);
+        Input<?> input = context.topLevelInputs().get(0);
+        assertThat(input, is(instanceOf(CompiledInput.class)));
+
+        CollectExpression<Row, ?> collectExpression = context.collectExpressions().iterator().next();
+        collectExpression.setNextRow(new RowN(new Object[]{11L}));
+        assertThat((Boolean) input.value(), is(true));
+        collectExpression.setNextRow(new RowN(new Object[]{10L}));
+        assertThat((Boolean) input.value(), is(false));
+    }
 }
@@ -39,6 +39,7 @@ import io.crate.metadata.*;
 import io.crate.operation.aggregation.impl.AggregationImplModule;
 import io.crate.operation.aggregation.impl.MinimumAggregation;
 import io.crate.operation.projectors.FlatProjectorChain;
+import io.crate.operation.projectors.SortRunDirectory;
 import io.crate.operation.projectors.TopN;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.node.dql.MergePhase;
@@ -143,6 +144,7 @@ public class PageDownstreamFactoryTest extends CrateUnitTest {
                 ImmutableSettings.EMPTY,
                 mock(TransportActionProvider.class, Answers.RETURNS_DEEP_STUBS.get()),
                 mock(BulkRetryCoordinatorPool.class),
+                mock(SortRunDirectory.class),
                 referenceResolver,
                 functions
         );
@@ -189,6 +191,7 @@ public class PageDownstreamFactoryTest extends CrateUnitTest {
                 ImmutableSettings.EMPTY,
                 mock(TransportActionProvider.class, Answers.RETURNS_DEEP_STUBS.get()),
                 mock(BulkRetryCoordinatorPool.class),
+                mock(SortRunDirectory.class),
                 referenceResolver,
                 functions
         );
@@ -0,0 +1,157 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation;
+
+import com.google.common.util.concurrent.SettableFuture;
+import io.crate.core.collections.Row;
+import io.crate.core.collections.RowN;
+import io.crate.executor.PagedQueryResult;
+import io.crate.executor.TaskResult;
+import io.crate.operation.projectors.IterableRowEmitter;
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.core.Is.is;
+
+public class QueryResultRowDownstreamTest extends CrateUnitTest {
+
+    private static List<Row> rows(int numRows) {
+        List<Row> rows = new ArrayList<>(numRows);
+        for (int i = 0; i < numRows; i++) {
+            rows.add(new RowN(new Object[]{i}));
+        }
+        return rows;
+    }
+
+    @Test
+    public void testAllRowsWithoutFetchSize() throws Exception {
+        SettableFuture<TaskResult> result = SettableFuture.create();
+        new IterableRowEmitter(new QueryResultRowDownstream(result), null, rows(5)).run();
+
+        assertThat(result.get(), not(instanceOf(PagedQueryResult.class)));
+        assertThat(result.get().rows().size(), is(5));
+    }
+
+    @Test
+    public void testPagesAreFetchedOnDemand() throws Exception {
+        SettableFuture<TaskResult> result = SettableFuture.create();
+        new IterableRowEmitter(new QueryResultRowDownstream(result, 2), null, rows(5)).run();
+
+        TaskResult page = result.get();
+        assertThat(page, instanceOf(PagedQueryResult.class));
+        assertThat(page.rows().size(), is(2));
+        assertThat((Integer) page.rows().iterator().next().get(0), is(0));
+
+        page = ((PagedQueryResult) page).fetch().get();
+        assertThat(page, instanceOf(PagedQueryResult.class));
+        assertThat(page.rows().size(), is(2));
+        assertThat((Integer) page.rows().iterator().next().get(0), is(2));
+
+        page = ((PagedQueryResult) page).fetch().get();
+        assertThat(page, not(instanceOf(PagedQueryResult.class)));
+        assertThat(page.rows().size(), is(1));
+        assertThat((Integer) page.rows().iterator().next().get(0), is(4));
+        assertThat(((PagedQueryResult) result.get()).finishFuture().isDone(), is(true));
+    }
+
+    @Test
+    public void testFailureWhilePausedFailsNextFetch() throws Exception {
+        SettableFuture<TaskResult> result = SettableFuture.create();
+        QueryResultRowDownstream downstream = new QueryResultRowDownstream(result, 2);
+        new IterableRowEmitter(downstream, null, rows(5)).run();
+        PagedQueryResult page = (PagedQueryResult) result.get();
+        assertThat(page.finishFuture().isDone(), is(false));
+
+        // e.g. the paused job is killed
+        downstream.fail(new IllegalStateException("job killed"));
+        assertThat(page.finishFuture().isDone(), is(true));
+
+        expectedException.expect(ExecutionException.class);
+        expectedException.expectMessage("job killed");
+        page.fetch().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testPagesOfUpstreamWhichCantPauseAreBuffered() throws Exception {
+        SettableFuture<TaskResult> result = SettableFuture.create();
+        QueryResultRowDownstream downstream = new QueryResultRowDownstream(result, 2);
+        downstream.setUpstream(new RowUpstream() {
+            @Override
+            public void pause() {
+            }
+
+            @Override
+            public void resume(boolean async) {
+            }
+
+            @Override
+            public void repeat() {
+            }
+        });
+        for (Row row : rows(7)) {
+            assertThat(downstream.setNextRow(row), is(true));
+        }
+        downstream.finish();
+
+        List<Integer> received = new ArrayList<>();
+        TaskResult page = result.get();
+        while (page instanceof PagedQueryResult) {
+            assertThat(page.rows().size(), is(2));
+            for (Row row : page.rows()) {
+                received.add((Integer) row.get(0));
+            }
+            page = ((PagedQueryResult) page).fetch().get(10, TimeUnit.SECONDS);
+        }
+        for (Row row : page.rows()) {
+            received.add((Integer) row.get(0));
+        }
+        assertThat(received, contains(0, 1, 2, 3, 4, 5, 6));
+    }
+
+    @Test
+    public void testCloseStopsUpstream() throws Exception {
+        SettableFuture<TaskResult> result = SettableFuture.create();
+        final List<Row> emitted = new ArrayList<>();
+        List<Row> rows = rows(10);
+        QueryResultRowDownstream downstream = new QueryResultRowDownstream(result, 3) {
+            @Override
+            public boolean setNextRow(Row row) {
+                emitted.add(row);
+                return super.setNextRow(row);
+            }
+        };
+        new IterableRowEmitter(downstream, null, rows).run();
+
+        ((PagedQueryResult) result.get()).close();
+        // the row that is received after close is rejected, which finishes the upstream
+        assertThat(emitted.size(), is(4));
+    }
+}
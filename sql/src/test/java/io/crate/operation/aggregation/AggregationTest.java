@@ -87,7 +87,26 @@ public abstract class AggregationTest extends CrateUnitTest {
 
         }
         state = impl.terminatePartial(ramAccountingContext, state);
+        if (impl instanceof SlotAggregationFunction) {
+            assertEquals("slot aggregation must return the same result",
+                    state, executeSlotAggregation((SlotAggregationFunction) impl, inputs, bucket));
+        }
         return new Object[][]{{state}};
     }
 
+    private Object executeSlotAggregation(SlotAggregationFunction impl,
+                                          InputCollectExpression[] inputs,
+                                          ArrayBucket bucket) {
+        AggregationSlots slots = new AggregationSlots(ramAccountingContext, impl.longSlots(), impl.doubleSlots());
+        // aggregate into the 2nd group to verify the slot offsets
+        slots.ensureCapacity(2);
+        for (Row row : bucket) {
+            for (InputCollectExpression i : inputs) {
+                i.setNextRow(row);
+            }
+            impl.iterate(slots, 1, inputs);
+        }
+        return impl.terminatePartial(slots, 1);
+    }
+
 }
@@ -111,4 +111,32 @@ public class AggregatorTest extends CrateUnitTest {
         long result = (Long)collector.finishCollect(state);
         assertThat(result, is(5L));
     }
+
+    @Test
+    public void testSlotAggregationFromPartial() {
+        Aggregation aggregation = Aggregation.finalAggregation(
+                countImpl.info(),
+                Collections.<Symbol>singletonList(new InputColumn(0)),
+                Aggregation.Step.PARTIAL
+        );
+        Input dummyInput = new Input() {
+
+            @Override
+            public Object value() {
+                return 10L;
+            }
+        };
+
+        Aggregator aggregator = new Aggregator(RAM_ACCOUNTING_CONTEXT, aggregation, countImpl, dummyInput);
+        assertThat(aggregator.supportsSlots(), is(true));
+        AggregationSlots[] slots = Aggregator.newSlots(new Aggregator[]{aggregator});
+        slots[0].ensureCapacity(3);
+        aggregator.processRow(slots[0], 2);
+        aggregator.processRow(slots[0], 2);
+        aggregator.processRow(slots[0], 0);
+
+        assertThat((Long) aggregator.finishCollect(slots[0], 0), is(10L));
+        assertThat((Long) aggregator.finishCollect(slots[0], 1), is(0L));
+        assertThat((Long) aggregator.finishCollect(slots[0], 2), is(20L));
+    }
 }
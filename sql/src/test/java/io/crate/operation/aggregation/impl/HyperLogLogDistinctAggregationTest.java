@@ -0,0 +1,128 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.aggregation.impl;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.metadata.FunctionIdent;
+import io.crate.operation.Input;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.AggregationTest;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.core.Is.is;
+
+public class HyperLogLogDistinctAggregationTest extends AggregationTest {
+
+    private Object[][] executeAggregation(DataType dataType, Object[][] data) throws Exception {
+        return executeAggregation(HyperLogLogDistinctAggregation.NAME, dataType, data);
+    }
+
+    private static Input<Object> input(final Object value) {
+        return new Input<Object>() {
+            @Override
+            public Object value() {
+                return value;
+            }
+        };
+    }
+
+    @Test
+    public void testReturnType() throws Exception {
+        FunctionIdent fi = new FunctionIdent(HyperLogLogDistinctAggregation.NAME,
+                ImmutableList.<DataType>of(DataTypes.STRING, DataTypes.INTEGER));
+        assertEquals(DataTypes.LONG, functions.get(fi).info().returnType());
+    }
+
+    @Test
+    public void testString() throws Exception {
+        Object[][] result = executeAggregation(DataTypes.STRING, new Object[][]{
+                {new BytesRef("Youri")}, {new BytesRef("Ruben")}, {new BytesRef("Ruben")}, {null}});
+        assertThat((Long) result[0][0], is(2L));
+    }
+
+    @Test
+    public void testDouble() throws Exception {
+        Object[][] result = executeAggregation(DataTypes.DOUBLE, new Object[][]{{0.7d}, {0.3d}, {0.3d}});
+        assertThat((Long) result[0][0], is(2L));
+    }
+
+    @Test
+    public void testNoValues() throws Exception {
+        Object[][] result = executeAggregation(DataTypes.LONG, new Object[][]{{null}});
+        assertThat((Long) result[0][0], is(0L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testHighCardinalityIsApproximated() throws Exception {
+        FunctionIdent fi = new FunctionIdent(HyperLogLogDistinctAggregation.NAME,
+                ImmutableList.<DataType>of(DataTypes.LONG));
+        AggregationFunction impl = (AggregationFunction) functions.get(fi);
+
+        Object state = impl.newState(ramAccountingContext);
+        for (long i = 0; i < 100000; i++) {
+            state = impl.iterate(ramAccountingContext, state, input(i % 50000));
+        }
+        long cardinality = (Long) impl.terminatePartial(ramAccountingContext, state);
+        assertThat((double) cardinality, closeTo(50000d, 2500d));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReduceSerializedStates() throws Exception {
+        FunctionIdent fi = new FunctionIdent(HyperLogLogDistinctAggregation.NAME,
+                ImmutableList.<DataType>of(DataTypes.INTEGER, DataTypes.INTEGER));
+        AggregationFunction impl = (AggregationFunction) functions.get(fi);
+
+        Object state1 = impl.newState(ramAccountingContext);
+        Object state2 = impl.newState(ramAccountingContext);
+        for (int i = 0; i < 100; i++) {
+            state1 = impl.iterate(ramAccountingContext, state1, input(i), input(10));
+            state2 = impl.iterate(ramAccountingContext, state2, input(i + 50), input(10));
+        }
+
+        BytesStreamOutput streamOutput = new BytesStreamOutput();
+        impl.partialType().streamer().writeValueTo(streamOutput, state2);
+        Object streamed = impl.partialType().streamer().readValueFrom(new BytesStreamInput(streamOutput.bytes()));
+
+        Object reduced = impl.reduce(ramAccountingContext, impl.newState(ramAccountingContext), state1);
+        reduced = impl.reduce(ramAccountingContext, reduced, streamed);
+        assertThat((Long) impl.terminatePartial(ramAccountingContext, reduced), is(150L));
+    }
+
+    @Test
+    public void testInvalidPrecision() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("precision of hyperloglog_distinct must be between 4 and 18");
+        FunctionIdent fi = new FunctionIdent(HyperLogLogDistinctAggregation.NAME,
+                ImmutableList.<DataType>of(DataTypes.LONG, DataTypes.INTEGER));
+        AggregationFunction impl = (AggregationFunction) functions.get(fi);
+        impl.iterate(ramAccountingContext, impl.newState(ramAccountingContext), input(1L), input(30));
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.aggregation.impl;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.metadata.FunctionIdent;
+import io.crate.operation.Input;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.AggregationTest;
+import io.crate.types.ArrayType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+
+public class PercentileAggregationTest extends AggregationTest {
+
+    private static final DataType DOUBLE_ARRAY = new ArrayType(DataTypes.DOUBLE);
+
+    private static Input<Object> input(final Object value) {
+        return new Input<Object>() {
+            @Override
+            public Object value() {
+                return value;
+            }
+        };
+    }
+
+    private AggregationFunction percentile(DataType valueType, DataType fractionType) {
+        FunctionIdent fi = new FunctionIdent(PercentileAggregation.NAME,
+                ImmutableList.of(valueType, fractionType));
+        return (AggregationFunction) functions.get(fi);
+    }
+
+    @Test
+    public void testReturnType() throws Exception {
+        assertEquals(DataTypes.DOUBLE, percentile(DataTypes.LONG, DataTypes.DOUBLE).info().returnType());
+        assertEquals(DOUBLE_ARRAY, percentile(DataTypes.LONG, DOUBLE_ARRAY).info().returnType());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSingleFraction() throws Exception {
+        AggregationFunction impl = percentile(DataTypes.INTEGER, DataTypes.DOUBLE);
+        Object state = impl.newState(ramAccountingContext);
+        for (int i = 0; i <= 10000; i++) {
+            state = impl.iterate(ramAccountingContext, state, input(i), input(0.5d));
+        }
+        assertThat((Double) impl.terminatePartial(ramAccountingContext, state), closeTo(5000d, 100d));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMultipleFractions() throws Exception {
+        AggregationFunction impl = percentile(DataTypes.DOUBLE, DOUBLE_ARRAY);
+        Object state = impl.newState(ramAccountingContext);
+        Object[] fractions = new Object[]{0.25d, 0.75d};
+        for (int i = 0; i <= 10000; i++) {
+            state = impl.iterate(ramAccountingContext, state, input((double) i), input(fractions));
+        }
+        Object[] result = (Object[]) impl.terminatePartial(ramAccountingContext, state);
+        assertThat(result.length, is(2));
+        assertThat((Double) result[0], closeTo(2500d, 100d));
+        assertThat((Double) result[1], closeTo(7500d, 100d));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testNoValues() throws Exception {
+        AggregationFunction impl = percentile(DataTypes.LONG, DataTypes.DOUBLE);
+        Object state = impl.iterate(ramAccountingContext, impl.newState(ramAccountingContext),
+                input(null), input(0.5d));
+        assertThat(impl.terminatePartial(ramAccountingContext, state), nullValue());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReduceSerializedStates() throws Exception {
+        AggregationFunction impl = percentile(DataTypes.LONG, DataTypes.DOUBLE);
+        Object state1 = impl.newState(ramAccountingContext);
+        Object state2 = impl.newState(ramAccountingContext);
+        for (long i = 0; i < 5000; i++) {
+            state1 = impl.iterate(ramAccountingContext, state1, input(i), input(0.9d));
+            state2 = impl.iterate(ramAccountingContext, state2, input(i + 5000), input(0.9d));
+        }
+
+        BytesStreamOutput streamOutput = new BytesStreamOutput();
+        impl.partialType().streamer().writeValueTo(streamOutput, state2);
+        Object streamed = impl.partialType().streamer().readValueFrom(new BytesStreamInput(streamOutput.bytes()));
+
+        Object reduced = impl.reduce(ramAccountingContext, impl.newState(ramAccountingContext), state1);
+        reduced = impl.reduce(ramAccountingContext, reduced, streamed);
+        assertThat((Double) impl.terminatePartial(ramAccountingContext, reduced), closeTo(9000d, 100d));
+    }
+
+    @Test
+    public void testInvalidFraction() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("fraction of percentile must be between 0 and 1, got 1.5");
+        AggregationFunction impl = percentile(DataTypes.LONG, DataTypes.DOUBLE);
+        impl.iterate(ramAccountingContext, impl.newState(ramAccountingContext), input(1L), input(1.5d));
+    }
+
+    @Test
+    public void testUnsupportedFractionType() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("fraction argument of percentile must be a double or an array of doubles");
+        percentile(DataTypes.LONG, DataTypes.STRING);
+    }
+}
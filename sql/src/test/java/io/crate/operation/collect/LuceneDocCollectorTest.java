@@ -33,8 +33,10 @@ import io.crate.metadata.ReferenceIdent;
 import io.crate.metadata.ReferenceInfo;
 import io.crate.metadata.RowGranularity;
 import io.crate.metadata.TableIdent;
+import io.crate.operation.ColumnBatch;
 import io.crate.operation.Paging;
 import io.crate.operation.collect.collectors.OrderedDocCollector;
+import io.crate.operation.projectors.BatchRowReceiver;
 import io.crate.operation.projectors.RowReceiver;
 import io.crate.operation.reference.doc.lucene.LuceneMissingValue;
 import io.crate.testing.CollectingRowReceiver;
@@ -246,6 +248,23 @@ public class LuceneDocCollectorTest extends SQLTransportIntegrationTest {
         }}));
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testUnorderedCollectInColumnBatches() throws Exception {
+        BatchCollectingRowReceiver rowReceiver = new BatchCollectingRowReceiver();
+        CrateCollector docCollector = createDocCollector("select population from countries", rowReceiver);
+        docCollector.doCollect();
+
+        Bucket bucket = rowReceiver.result();
+        assertThat(bucket.size(), is(NUMBER_OF_DOCS));
+        assertThat(rowReceiver.numBatches, greaterThan(0));
+        assertThat(new ArrayList<>(rowReceiver.rows), containsInAnyOrder(new ArrayList() {{
+            for (int i = 0; i < NUMBER_OF_DOCS; i++) {
+                add(equalTo(new Object[]{i}));
+            }
+        }}));
+    }
+
     @Test
     public void testKillWhilePaused() throws Exception {
         CollectingRowReceiver projector = CollectingRowReceiver.withPauseAfter(5);
@@ -599,4 +618,18 @@ public class LuceneDocCollectorTest extends SQLTransportIntegrationTest {
 
         reader.close();
     }
+
+    private static class BatchCollectingRowReceiver extends CollectingRowReceiver implements BatchRowReceiver {
+
+        private int numBatches = 0;
+
+        @Override
+        public boolean setNextBatch(ColumnBatch batch) {
+            numBatches++;
+            for (int i = 0; i < batch.size(); i++) {
+                setNextRow(batch.rowAt(i));
+            }
+            return true;
+        }
+    }
 }
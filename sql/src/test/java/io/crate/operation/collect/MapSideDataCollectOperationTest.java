@@ -90,7 +90,7 @@ public class MapSideDataCollectOperationTest {
 
         CollectSourceResolver collectSourceResolver = mock(CollectSourceResolver.class);
         when(collectSourceResolver.getService(any(CollectPhase.class), anyString()))
-                .thenReturn(new FileCollectSource(functions, clusterService));
+                .thenReturn(new FileCollectSource(ImmutableSettings.EMPTY, functions, clusterService));
         MapSideDataCollectOperation collectOperation = new MapSideDataCollectOperation(
                 clusterService,
                 functions,
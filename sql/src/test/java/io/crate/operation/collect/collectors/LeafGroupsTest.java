@@ -0,0 +1,68 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.collect.collectors;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+
+public class LeafGroupsTest extends CrateUnitTest {
+
+    @Test
+    public void testSmallShardIsNotSplit() throws Exception {
+        int[][] groups = LeafGroups.group(new int[] { 10, 20, 30 }, 4, 100);
+        assertThat(groups.length, is(1));
+        assertThat(groups[0], is(new int[] { 0, 1, 2 }));
+    }
+
+    @Test
+    public void testNoLeaves() throws Exception {
+        int[][] groups = LeafGroups.group(new int[0], 4, 100);
+        assertThat(groups.length, is(1));
+        assertThat(groups[0].length, is(0));
+    }
+
+    @Test
+    public void testLeavesAreBalancedByNumberOfDocs() throws Exception {
+        int[][] groups = LeafGroups.group(new int[] { 100, 500, 300, 200 }, 2, 100);
+        assertThat(groups.length, is(2));
+        // 500 + 100 and 300 + 200, leaves keep their order within a group
+        assertThat(groups[0], is(new int[] { 0, 1 }));
+        assertThat(groups[1], is(new int[] { 2, 3 }));
+    }
+
+    @Test
+    public void testNumberOfGroupsIsLimitedByMinDocsPerGroup() throws Exception {
+        int[][] groups = LeafGroups.group(new int[] { 100, 100, 100, 100 }, 4, 150);
+        assertThat(groups.length, is(2));
+    }
+
+    @Test
+    public void testEmptyLeavesDoNotCauseEmptyGroups() throws Exception {
+        int[][] groups = LeafGroups.group(new int[] { 300, 0, 0 }, 3, 100);
+        assertThat(groups.length, is(3));
+        for (int[] group : groups) {
+            assertThat(group.length, is(1));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.ArrayType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+
+public class CsvLineParserTest extends CrateUnitTest {
+
+    private static final Map<String, DataType> COLUMN_TYPES = ImmutableMap.<String, DataType>of(
+            "id", DataTypes.LONG,
+            "tags", new ArrayType(DataTypes.STRING),
+            "details", DataTypes.OBJECT
+    );
+
+    private Object[] parse(CsvLineParser parser, String line) {
+        BytesRef bytes = new BytesRef(line);
+        return parser.parse(bytes.bytes, bytes.offset, bytes.length);
+    }
+
+    private CsvLineParser parser(char delimiter, String header) {
+        CsvLineParser parser = new CsvLineParser(delimiter, COLUMN_TYPES);
+        BytesRef bytes = new BytesRef(header);
+        parser.parseHeader(bytes.bytes, bytes.offset, bytes.length);
+        return parser;
+    }
+
+    @Test
+    public void testParseConvertsToColumnTypes() throws Exception {
+        CsvLineParser parser = parser(',', "id,name,tags,details");
+        assertThat(parser.columnNames(), is(new String[]{"id", "name", "tags", "details"}));
+
+        Object[] values = parse(parser, "1,Arthur,\"[\"\"a\"\", \"\"b\"\"]\",\"{\"\"age\"\": 38}\"");
+        assertThat(values[0], is((Object) 1L));
+        assertThat(values[1], is((Object) "Arthur"));
+        assertThat(values[2], is((Object) Arrays.asList("a", "b")));
+        assertThat(((Map) values[3]).get("age"), is((Object) 38));
+    }
+
+    @Test
+    public void testParseQuotedAndEmptyValues() throws Exception {
+        CsvLineParser parser = parser('\t', "id\tname\tdetails");
+        Object[] values = parse(parser, "\t\"Zaphod\tBeeblebrox\"\t");
+        assertThat(values[0], nullValue());
+        assertThat(values[1], is((Object) "Zaphod\tBeeblebrox"));
+        assertThat(values[2], nullValue());
+    }
+
+    @Test
+    public void testInvalidValueIsKeptAsString() throws Exception {
+        CsvLineParser parser = parser(',', "id");
+        assertThat(parse(parser, "foo")[0], is((Object) "foo"));
+    }
+
+    @Test
+    public void testTooManyValues() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        CsvLineParser parser = parser(',', "id,name");
+        parse(parser, "1,Arthur,38");
+    }
+}
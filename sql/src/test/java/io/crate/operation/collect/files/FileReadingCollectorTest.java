@@ -42,7 +42,9 @@ import io.crate.operation.reference.file.FileLineReferenceResolver;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.CollectingRowReceiver;
 import io.crate.testing.TestingHelpers;
+import io.crate.types.DataType;
 import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -55,12 +57,15 @@ import java.net.SocketTimeoutException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.zip.GZIPOutputStream;
 
 import static io.crate.testing.TestingHelpers.createReference;
 import static io.crate.testing.TestingHelpers.isRow;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Matchers.*;
 import static org.mockito.Mockito.mock;
@@ -191,6 +196,69 @@ public class FileReadingCollectorTest extends CrateUnitTest {
         assertThat(TestingHelpers.printedTable(rows), is("foo\nbar\n"));
     }
 
+    @Test
+    public void testCollectSplitFileWithMultipleLocalReaders() throws Throwable {
+        File file = File.createTempFile("splitFile", ".json");
+        file.deleteOnExit();
+        int numLines = 1000;
+        try (FileWriter writer = new FileWriter(file)) {
+            for (int i = 0; i < numLines; i++) {
+                writer.write("{\"id\": " + i + "}" + (i % 3 == 0 ? "\r\n" : "\n"));
+            }
+        }
+        String uri = Paths.get(file.toURI()).toUri().toString();
+
+        int numLocalReaders = 3;
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < numLocalReaders; i++) {
+            CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+            FileReadingCollector collector = createCollector(uri, null, rowReceiver,
+                    mock(S3ObjectInputStream.class), FileReadingCollector.FileFormat.JSON, numLocalReaders, i);
+            collector.minSplitSize(1);
+            rowReceiver.prepare(mock(ExecutionState.class));
+            collector.doCollect();
+            Bucket rows = rowReceiver.result();
+            assertThat(rows.size(), greaterThan(0));
+            for (Row row : rows) {
+                lines.add(((BytesRef) row.get(0)).utf8ToString());
+            }
+        }
+        assertThat(lines.size(), is(numLines));
+        for (int i = 0; i < numLines; i++) {
+            assertThat(lines.get(i), is("{\"id\": " + i + "}"));
+        }
+    }
+
+    @Test
+    public void testCollectCsvWithSplitFile() throws Throwable {
+        File file = File.createTempFile("splitFile", ".csv");
+        file.deleteOnExit();
+        int numLines = 500;
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write("id,name,details\n");
+            for (int i = 0; i < numLines; i++) {
+                writer.write(i + ",\"Arthur, " + i + "\",\"{\"\"age\"\": " + i + "}\"\n");
+            }
+        }
+        String uri = Paths.get(file.toURI()).toUri().toString();
+
+        int numLocalReaders = 2;
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < numLocalReaders; i++) {
+            CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+            FileReadingCollector collector = createCollector(uri, null, rowReceiver,
+                    mock(S3ObjectInputStream.class), FileReadingCollector.FileFormat.CSV, numLocalReaders, i);
+            collector.minSplitSize(1);
+            rowReceiver.prepare(mock(ExecutionState.class));
+            collector.doCollect();
+            for (Row row : rowReceiver.result()) {
+                lines.add(((BytesRef) row.get(0)).utf8ToString());
+            }
+        }
+        assertThat(lines.size(), is(numLines));
+        assertThat(lines.get(42), is("{\"id\":42,\"name\":\"Arthur, 42\",\"details\":{\"age\":42}}"));
+    }
+
     @Test
     public void unsupportedURITest() throws Throwable {
         expectedException.expect(IllegalArgumentException.class);
@@ -216,14 +284,29 @@ public class FileReadingCollectorTest extends CrateUnitTest {
 
     private CollectingRowReceiver getObjects(String fileUri, String compression, final S3ObjectInputStream s3InputStream) throws Throwable {
         CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+        FileReadingCollector collector = createCollector(fileUri, compression, rowReceiver, s3InputStream,
+                FileReadingCollector.FileFormat.JSON, 1, 0);
+        rowReceiver.prepare(mock(ExecutionState.class));
+        collector.doCollect();
+        return rowReceiver;
+    }
+
+    private FileReadingCollector createCollector(String fileUri,
+                                                 String compression,
+                                                 CollectingRowReceiver rowReceiver,
+                                                 final S3ObjectInputStream s3InputStream,
+                                                 FileReadingCollector.FileFormat format,
+                                                 int numLocalReaders,
+                                                 int localReaderNumber) {
         FileCollectInputSymbolVisitor.Context context =
                 inputSymbolVisitor.extractImplementations(createReference("_raw", DataTypes.STRING));
-        FileReadingCollector collector = new FileReadingCollector(
+        return new FileReadingCollector(
                 fileUri,
                 context.topLevelInputs(),
                 context.expressions(),
                 rowReceiver,
-                FileReadingCollector.FileFormat.JSON,
+                format,
+                ImmutableMap.<String, DataType>of("id", DataTypes.INTEGER, "details", DataTypes.OBJECT),
                 compression,
                 ImmutableMap.<String, FileInputFactory>of("s3", new FileInputFactory() {
                     @Override
@@ -256,11 +339,10 @@ public class FileReadingCollectorTest extends CrateUnitTest {
                     }
                 },
                 1,
-                0
+                0,
+                numLocalReaders,
+                localReaderNumber
         );
-        rowReceiver.prepare(mock(ExecutionState.class));
-        collector.doCollect();
-        return rowReceiver;
     }
 
     /**
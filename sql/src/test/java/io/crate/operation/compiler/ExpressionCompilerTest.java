@@ -0,0 +1,213 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.compiler;
+
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.InputColumn;
+import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.operation.Input;
+import io.crate.operation.operator.*;
+import io.crate.operation.predicate.IsNullPredicate;
+import io.crate.operation.predicate.NotPredicate;
+import io.crate.operation.scalar.arithmetic.AddFunction;
+import io.crate.operation.scalar.arithmetic.DivideFunction;
+import io.crate.operation.scalar.arithmetic.MultiplyFunction;
+import io.crate.operation.scalar.arithmetic.SubtractFunction;
+import io.crate.operation.scalar.cast.CastFunctionResolver;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+
+public class ExpressionCompilerTest extends CrateUnitTest {
+
+    private static final InputColumn LONG_COLUMN = new InputColumn(0, DataTypes.LONG);
+    private static final InputColumn DOUBLE_COLUMN = new InputColumn(1, DataTypes.DOUBLE);
+    private static final InputColumn BOOLEAN_COLUMN = new InputColumn(2, DataTypes.BOOLEAN);
+    private static final InputColumn OTHER_BOOLEAN_COLUMN = new InputColumn(3, DataTypes.BOOLEAN);
+
+    private static Function function(String name, DataType returnType, Symbol... arguments) {
+        List<DataType> argumentTypes = new ArrayList<>(arguments.length);
+        for (Symbol argument : arguments) {
+            argumentTypes.add(argument.valueType());
+        }
+        return new Function(new FunctionInfo(new FunctionIdent(name, argumentTypes), returnType), Arrays.asList(arguments));
+    }
+
+    /**
+     * evaluates the compiled function, the values are used for the input columns of the leaves
+     */
+    private static Object evaluate(CompiledExpression compiledExpression, Object... values) {
+        List<Symbol> leaves = compiledExpression.leaves();
+        Input[] inputs = new Input[leaves.size()];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = Literal.newLiteral(leaves.get(i).valueType(), values[((InputColumn) leaves.get(i)).index()]);
+        }
+        return compiledExpression.newInput(inputs).value();
+    }
+
+    @Test
+    public void testArithmeticAndComparison() throws Exception {
+        // (x + 2) * 3 > 10
+        Function function = function(GtOperator.NAME, DataTypes.BOOLEAN,
+                function(MultiplyFunction.NAME, DataTypes.LONG,
+                        function(AddFunction.NAME, DataTypes.LONG, LONG_COLUMN, Literal.newLiteral(2L)),
+                        Literal.newLiteral(3L)),
+                Literal.newLiteral(10L));
+        CompiledExpression compiled = ExpressionCompiler.compile(function);
+        assertThat(compiled, notNullValue());
+        assertThat(compiled.leaves(), contains((Symbol) LONG_COLUMN));
+
+        assertThat((Boolean) evaluate(compiled, 1L), is(false));
+        assertThat((Boolean) evaluate(compiled, 2L), is(true));
+        assertThat(evaluate(compiled, (Object) null), nullValue());
+    }
+
+    @Test
+    public void testMixedArithmeticReturnsDouble() throws Exception {
+        // x / to_double(y)
+        Function function = function(DivideFunction.NAME, DataTypes.DOUBLE,
+                DOUBLE_COLUMN,
+                function(CastFunctionResolver.FunctionNames.TO_DOUBLE, DataTypes.DOUBLE, LONG_COLUMN));
+        CompiledExpression compiled = ExpressionCompiler.compile(function);
+        assertThat(compiled, notNullValue());
+        assertThat((Double) evaluate(compiled, 4L, 3.0d), is(0.75d));
+        assertThat((Double) evaluate(compiled, 0L, 3.0d), is(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    public void testLongDivisionByZero() throws Exception {
+        Function function = function(DivideFunction.NAME, DataTypes.LONG, LONG_COLUMN, Literal.newLiteral(0L));
+        CompiledExpression compiled = ExpressionCompiler.compile(function);
+        assertThat(compiled, notNullValue());
+
+        expectedException.expect(ArithmeticException.class);
+        evaluate(compiled, 10L);
+    }
+
+    @Test
+    public void testDoubleComparisonIsConsistentWithCompareTo() throws Exception {
+        Function eq = function(EqOperator.NAME, DataTypes.BOOLEAN, DOUBLE_COLUMN, Literal.newLiteral(Double.NaN));
+        CompiledExpression compiled = ExpressionCompiler.compile(eq);
+        assertThat(compiled, notNullValue());
+        assertThat((Boolean) evaluate(compiled, null, Double.NaN), is(true));
+
+        Function lt = function(LtOperator.NAME, DataTypes.BOOLEAN, DOUBLE_COLUMN, Literal.newLiteral(0.0d));
+        compiled = ExpressionCompiler.compile(lt);
+        assertThat(compiled, notNullValue());
+        assertThat((Boolean) evaluate(compiled, null, -0.0d), is(true));
+    }
+
+    @Test
+    public void testThreeValuedLogic() throws Exception {
+        CompiledExpression and = ExpressionCompiler.compile(
+                function(AndOperator.NAME, DataTypes.BOOLEAN, BOOLEAN_COLUMN, OTHER_BOOLEAN_COLUMN));
+        CompiledExpression or = ExpressionCompiler.compile(
+                function(OrOperator.NAME, DataTypes.BOOLEAN, BOOLEAN_COLUMN, OTHER_BOOLEAN_COLUMN));
+        assertThat(and, notNullValue());
+        assertThat(or, notNullValue());
+
+        Boolean[] values = new Boolean[]{true, false, null};
+        for (Boolean left : values) {
+            for (Boolean right : values) {
+                Input[] inputs = new Input[]{Literal.newLiteral(DataTypes.BOOLEAN, left), Literal.newLiteral(DataTypes.BOOLEAN, right)};
+                assertThat(and.newInput(inputs).value(), is((Object) new AndOperator().evaluate(inputs)));
+                assertThat(or.newInput(inputs).value(), is((Object) new OrOperator().evaluate(inputs)));
+            }
+        }
+    }
+
+    @Test
+    public void testNotAndIsNull() throws Exception {
+        CompiledExpression not = ExpressionCompiler.compile(
+                function(NotPredicate.NAME, DataTypes.BOOLEAN, BOOLEAN_COLUMN));
+        assertThat(not, notNullValue());
+        assertThat((Boolean) evaluate(not, null, null, true), is(false));
+        // same as NotPredicate: not null is true
+        assertThat((Boolean) evaluate(not, null, null, null), is(true));
+
+        CompiledExpression isNull = ExpressionCompiler.compile(
+                function(IsNullPredicate.NAME, DataTypes.BOOLEAN,
+                        function(AddFunction.NAME, DataTypes.LONG, LONG_COLUMN, Literal.newLiteral(1L))));
+        assertThat(isNull, notNullValue());
+        assertThat((Boolean) evaluate(isNull, 1L), is(false));
+        assertThat((Boolean) evaluate(isNull, (Object) null), is(true));
+    }
+
+    @Test
+    public void testUnsupportedFunctionsAreLeaves() throws Exception {
+        Function like = function(LikeOperator.NAME, DataTypes.BOOLEAN,
+                new InputColumn(0, DataTypes.STRING), Literal.newLiteral("foo%"));
+        assertThat(ExpressionCompiler.compile(like), nullValue());
+
+        Function and = function(AndOperator.NAME, DataTypes.BOOLEAN, like, BOOLEAN_COLUMN);
+        CompiledExpression compiled = ExpressionCompiler.compile(and);
+        assertThat(compiled, notNullValue());
+        assertThat(compiled.leaves(), contains((Symbol) like, BOOLEAN_COLUMN));
+    }
+
+    @Test
+    public void testFunctionsOfTheSameShapeShareTheGeneratedClass() throws Exception {
+        CompiledExpression gte42 = ExpressionCompiler.compile(
+                function(GteOperator.NAME, DataTypes.BOOLEAN, LONG_COLUMN, Literal.newLiteral(42L)));
+        CompiledExpression gte10 = ExpressionCompiler.compile(
+                function(GteOperator.NAME, DataTypes.BOOLEAN, LONG_COLUMN, Literal.newLiteral(10L)));
+        assertThat(gte42, notNullValue());
+        assertThat(gte10, notNullValue());
+
+        Input<?> gte42Input = gte42.newInput(new Input[]{Literal.newLiteral(20L)});
+        Input<?> gte10Input = gte10.newInput(new Input[]{Literal.newLiteral(20L)});
+        assertThat(gte10Input.getClass(), sameInstance((Object) gte42Input.getClass()));
+        assertThat((Boolean) gte42Input.value(), is(false));
+        assertThat((Boolean) gte10Input.value(), is(true));
+
+        // a different constant type is a different shape
+        CompiledExpression gteDouble = ExpressionCompiler.compile(
+                function(GteOperator.NAME, DataTypes.BOOLEAN, DOUBLE_COLUMN, Literal.newLiteral(10.0d)));
+        assertThat(gteDouble, notNullValue());
+        Input<?> gteDoubleInput = gteDouble.newInput(new Input[]{Literal.newLiteral(20.0d)});
+        assertThat(gteDoubleInput.getClass(), not(sameInstance((Object) gte42Input.getClass())));
+        assertThat((Boolean) gteDoubleInput.value(), is(true));
+    }
+
+    @Test
+    public void testLeafWhichOccursTwiceAndConstantsInOrder() throws Exception {
+        // x - 1 < x * 3
+        Function function = function(LtOperator.NAME, DataTypes.BOOLEAN,
+                function(SubtractFunction.NAME, DataTypes.LONG, LONG_COLUMN, Literal.newLiteral(1L)),
+                function(MultiplyFunction.NAME, DataTypes.LONG, LONG_COLUMN, Literal.newLiteral(3L)));
+        CompiledExpression compiled = ExpressionCompiler.compile(function);
+        assertThat(compiled, notNullValue());
+        assertThat(compiled.leaves(), contains((Symbol) LONG_COLUMN));
+        assertThat((Boolean) evaluate(compiled, -1L), is(false));
+        assertThat((Boolean) evaluate(compiled, 0L), is(true));
+    }
+}
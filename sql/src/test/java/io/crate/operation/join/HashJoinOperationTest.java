@@ -0,0 +1,271 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.join;
+
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import io.crate.Streamer;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.core.collections.*;
+import io.crate.executor.transport.distributed.ModuloBucketBuilder;
+import io.crate.operation.PageConsumeListener;
+import io.crate.operation.PageDownstream;
+import io.crate.operation.RowUpstream;
+import io.crate.operation.merge.IteratorPageDownstream;
+import io.crate.operation.merge.PassThroughPagingIterator;
+import io.crate.operation.projectors.ListenableRowReceiver;
+import io.crate.operation.projectors.RowReceiver;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.CollectingRowReceiver;
+import io.crate.testing.RowCollectionBucket;
+import io.crate.testing.TestingHelpers;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.hamcrest.core.Is.is;
+
+public class HashJoinOperationTest extends CrateUnitTest {
+
+    private static final RamAccountingContext RAM_ACCOUNTING_CONTEXT =
+            new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.Name.FIELDDATA));
+
+    private Bucket executeHashJoin(List<Row> leftRows, List<Row> rightRows, boolean buildLeft) throws Exception {
+        return executeHashJoin(leftRows, rightRows, DataTypes.INTEGER, buildLeft);
+    }
+
+    private Bucket executeHashJoin(List<Row> leftRows,
+                                   List<Row> rightRows,
+                                   DataType joinKeyType,
+                                   boolean buildLeft) throws Exception {
+        CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+        HashJoinOperation hashJoinOperation = new HashJoinOperation(
+                rowReceiver, RAM_ACCOUNTING_CONTEXT, new int[]{0}, new int[]{0},
+                ImmutableList.<DataType>of(joinKeyType), buildLeft);
+
+        PageDownstream leftPageDownstream = pageDownstream(hashJoinOperation.leftRowReceiver());
+        PageDownstream rightPageDownstream = pageDownstream(hashJoinOperation.rightRowReceiver());
+
+        Thread t1 = sendRowsThreaded("left", leftPageDownstream, leftRows);
+        Thread t2 = sendRowsThreaded("right", rightPageDownstream, rightRows);
+        t1.join();
+        t2.join();
+        return rowReceiver.result();
+    }
+
+    private PageDownstream pageDownstream(RowReceiver rowReceiver) {
+        return new IteratorPageDownstream(
+                rowReceiver,
+                PassThroughPagingIterator.<Row>oneShot(),
+                Optional.<Executor>absent()
+        );
+    }
+
+    private List<Row> asRows(Object[]... rows) {
+        List<Row> result = new ArrayList<>(rows.length);
+        for (Object[] row : rows) {
+            result.add(new RowN(row));
+        }
+        return result;
+    }
+
+    @Test
+    public void testBuildSideEmpty() throws Exception {
+        Bucket rows = executeHashJoin(asRows(new Object[]{1, "green"}), Collections.<Row>emptyList(), false);
+        assertThat(rows.size(), is(0));
+    }
+
+    @Test
+    public void testProbeSideEmpty() throws Exception {
+        Bucket rows = executeHashJoin(Collections.<Row>emptyList(), asRows(new Object[]{1, "small"}), false);
+        assertThat(rows.size(), is(0));
+    }
+
+    @Test
+    @Repeat(iterations = 5)
+    public void testHashJoinBuildRight() throws Exception {
+        List<Row> leftRows = asRows(new Object[]{1, "green"}, new Object[]{2, "blue"}, new Object[]{3, "red"},
+                new Object[]{null, "black"});
+        List<Row> rightRows = asRows(new Object[]{1, "small"}, new Object[]{3, "medium"}, new Object[]{1, "large"},
+                new Object[]{null, "tiny"});
+
+        Bucket rows = executeHashJoin(leftRows, rightRows, false);
+        assertThat(TestingHelpers.printedTable(rows), is("" +
+                "1| green| 1| small\n" +
+                "1| green| 1| large\n" +
+                "3| red| 3| medium\n"));
+    }
+
+    @Test
+    @Repeat(iterations = 5)
+    public void testHashJoinBuildLeft() throws Exception {
+        List<Row> leftRows = asRows(new Object[]{1, "green"}, new Object[]{2, "blue"}, new Object[]{3, "red"});
+        List<Row> rightRows = asRows(new Object[]{3, "medium"}, new Object[]{1, "small"});
+
+        Bucket rows = executeHashJoin(leftRows, rightRows, true);
+        assertThat(TestingHelpers.printedTable(rows), is("" +
+                "3| red| 3| medium\n" +
+                "1| green| 1| small\n"));
+    }
+
+    @Test
+    public void testHashJoinNormalizesKeys() throws Exception {
+        List<Row> leftRows = asRows(new Object[]{-0.0d, "zero"}, new Object[]{2, "two"}, new Object[]{3L, "three"});
+        List<Row> rightRows = asRows(new Object[]{0.0f, "null"}, new Object[]{2L, "zwei"}, new Object[]{3.0d, "drei"});
+
+        Bucket rows = executeHashJoin(leftRows, rightRows, DataTypes.DOUBLE, false);
+        assertThat(TestingHelpers.printedTable(rows), is("" +
+                "-0.0| zero| 0.0| null\n" +
+                "2| two| 2| zwei\n" +
+                "3| three| 3.0| drei\n"));
+    }
+
+    @Test
+    public void testShuffledHashJoinWithMixedKeyTypes() throws Exception {
+        // the rows of both sides are partitioned like the shuffle hash join does it and joined per node
+        List<Row> leftRows = new ArrayList<>();
+        List<Row> rightRows = new ArrayList<>();
+        for (int i = -50; i < 50; i++) {
+            leftRows.add(new RowN(new Object[]{i, "left"}));
+            rightRows.add(new RowN(new Object[]{(long) i, "right"}));
+        }
+        assertThat(shuffledHashJoin(leftRows, DataTypes.INTEGER, rightRows, DataTypes.LONG, DataTypes.LONG, 3), is(100));
+
+        leftRows = asRows(new Object[]{2, "left"}, new Object[]{-1, "left"}, new Object[]{7, "left"});
+        rightRows = asRows(new Object[]{2.0d, "right"}, new Object[]{-1.0d, "right"}, new Object[]{7.5d, "right"});
+        assertThat(shuffledHashJoin(leftRows, DataTypes.INTEGER, rightRows, DataTypes.DOUBLE, DataTypes.DOUBLE, 3), is(2));
+
+        leftRows = asRows(new Object[]{-0.0d, "left"}, new Object[]{1.5d, "left"});
+        rightRows = asRows(new Object[]{0.0d, "right"}, new Object[]{1.5d, "right"});
+        assertThat(shuffledHashJoin(leftRows, DataTypes.DOUBLE, rightRows, DataTypes.DOUBLE, DataTypes.DOUBLE, 3), is(2));
+    }
+
+    private int shuffledHashJoin(List<Row> leftRows,
+                                 DataType leftKeyType,
+                                 List<Row> rightRows,
+                                 DataType rightKeyType,
+                                 DataType joinKeyType,
+                                 int numNodes) throws Exception {
+        Bucket[] leftBuckets = distribute(leftRows, leftKeyType, joinKeyType, numNodes);
+        Bucket[] rightBuckets = distribute(rightRows, rightKeyType, joinKeyType, numNodes);
+        int numRows = 0;
+        for (int i = 0; i < numNodes; i++) {
+            Bucket rows = executeHashJoin(
+                    asRows(Buckets.materialize(leftBuckets[i])),
+                    asRows(Buckets.materialize(rightBuckets[i])),
+                    joinKeyType,
+                    false);
+            numRows += rows.size();
+        }
+        return numRows;
+    }
+
+    private Bucket[] distribute(List<Row> rows, DataType keyType, DataType joinKeyType, int numNodes) {
+        ModuloBucketBuilder builder = new ModuloBucketBuilder(
+                new Streamer[]{keyType.streamer(), DataTypes.STRING.streamer()}, numNodes, 0, joinKeyType);
+        for (Row row : rows) {
+            builder.add(row);
+        }
+        Bucket[] buckets = new Bucket[numNodes];
+        builder.build(buckets);
+        return buckets;
+    }
+
+    @Test
+    public void testBuildSideFailureResumesPausedProbeSide() throws Exception {
+        CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+        HashJoinOperation hashJoinOperation = new HashJoinOperation(
+                rowReceiver, RAM_ACCOUNTING_CONTEXT, new int[]{0}, new int[]{0},
+                ImmutableList.<DataType>of(DataTypes.INTEGER), false);
+        ListenableRowReceiver probeSide = hashJoinOperation.leftRowReceiver();
+        final List<String> upstreamCalls = new ArrayList<>();
+        probeSide.setUpstream(new RowUpstream() {
+            @Override
+            public void pause() {
+                upstreamCalls.add("pause");
+            }
+
+            @Override
+            public void resume(boolean async) {
+                upstreamCalls.add("resume");
+            }
+
+            @Override
+            public void repeat() {
+                throw new UnsupportedOperationException();
+            }
+        });
+
+        // the build side hasn't finished yet, so the probe side is paused
+        assertThat(probeSide.setNextRow(new RowN(new Object[]{1, "green"})), is(true));
+        assertThat(upstreamCalls, is((List<String>) ImmutableList.of("pause")));
+
+        hashJoinOperation.rightRowReceiver().fail(new IllegalStateException("build side failed"));
+        assertThat(upstreamCalls, is((List<String>) ImmutableList.of("pause", "resume")));
+        assertThat(probeSide.setNextRow(new RowN(new Object[]{2, "blue"})), is(false));
+        assertThat(probeSide.finishFuture().isDone(), is(true));
+
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("build side failed");
+        rowReceiver.result();
+    }
+
+    private Thread sendRowsThreaded(String name, final PageDownstream pageDownstream, final List<Row> rows) {
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    setLastPage(pageDownstream, new RowCollectionBucket(rows));
+                } catch (Throwable t) {
+                    t.printStackTrace();
+                }
+            }
+        };
+        t.setName(name);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    private void setLastPage(final PageDownstream pageDownstream, Bucket bucket) {
+        pageDownstream.nextPage(new BucketPage(Futures.immediateFuture(bucket)), new PageConsumeListener() {
+            @Override
+            public void needMore() {
+                pageDownstream.finish();
+            }
+
+            @Override
+            public void finish() {
+                pageDownstream.finish();
+            }
+        });
+    }
+}
@@ -23,6 +23,7 @@ package io.crate.operation.operator;
 import io.crate.analyze.symbol.Function;
 import io.crate.analyze.symbol.Literal;
 import io.crate.analyze.symbol.Symbol;
+import io.crate.metadata.Scalar;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.types.DataTypes;
 import org.apache.lucene.util.BytesRef;
@@ -31,6 +32,7 @@ import org.junit.Test;
 import java.util.Arrays;
 
 import static io.crate.operation.operator.LikeOperator.DEFAULT_ESCAPE;
+import static io.crate.testing.TestingHelpers.createReference;
 
 public class LikeOperatorTest extends CrateUnitTest {
 
@@ -172,4 +174,18 @@ public class LikeOperatorTest extends CrateUnitTest {
         assertNull(op.evaluate(Literal.newLiteral("foobarbaz"), brNullValue));
     }
 
+    @Test
+    public void testCompiledLikeOperator() {
+        LikeOperator op = new LikeOperator(
+                LikeOperator.generateInfo(LikeOperator.NAME, DataTypes.STRING)
+        );
+        Literal<BytesRef> pattern = Literal.newLiteral("foo%baz");
+        Scalar<Boolean, BytesRef> compiled = op.compile(Arrays.<Symbol>asList(
+                createReference("name", DataTypes.STRING), pattern));
+        assertNotSame(op, compiled);
+        assertTrue(compiled.evaluate(Literal.newLiteral("foobarbaz"), pattern));
+        assertFalse(compiled.evaluate(Literal.newLiteral("foobar"), pattern));
+        assertNull(compiled.evaluate(Literal.newLiteral((BytesRef) null), pattern));
+    }
+
 }
@@ -0,0 +1,129 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.profile;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.core.collections.Row1;
+import io.crate.jobs.ExecutionState;
+import io.crate.operation.Input;
+import io.crate.operation.collect.InputCollectExpression;
+import io.crate.operation.projectors.Projector;
+import io.crate.operation.projectors.SimpleTopNProjector;
+import io.crate.planner.node.ExecutionPhase;
+import io.crate.planner.projection.TopNProjection;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.CollectingRowReceiver;
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PhaseProfilerTest extends CrateUnitTest {
+
+    private PhaseProfiler phaseProfiler() {
+        ExecutionPhase phase = mock(ExecutionPhase.class);
+        when(phase.executionPhaseId()).thenReturn(1);
+        when(phase.name()).thenReturn("collect");
+        when(phase.type()).thenReturn(ExecutionPhase.Type.COLLECT);
+        return new PhaseProfiler(phase);
+    }
+
+    private Projector topNProjector(int limit) {
+        InputCollectExpression input = new InputCollectExpression(0);
+        return new SimpleTopNProjector(ImmutableList.<Input<?>>of(input), ImmutableList.of(input), limit, 0);
+    }
+
+    @Test
+    public void testRowsOfProjectorsAndOutputAreCounted() throws Exception {
+        PhaseProfiler phaseProfiler = phaseProfiler();
+        Projector projector = ProfilingProjector.wrap(
+                topNProjector(2), phaseProfiler.projectionProfiler(new TopNProjection(2, 0)));
+        CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+        projector.downstream(phaseProfiler.profileOutput(rowReceiver));
+        projector.prepare(mock(ExecutionState.class));
+
+        int i = 0;
+        while (projector.setNextRow(new Row1(i))) {
+            i++;
+        }
+        assertThat(phaseProfiler.snapshot().finished(), is(false));
+        projector.finish();
+        assertThat(rowReceiver.result().size(), is(2));
+
+        PhaseProfile profile = phaseProfiler.snapshot();
+        assertThat(profile.phaseId(), is(1));
+        assertThat(profile.name(), is("collect (COLLECT)"));
+        assertThat(profile.finished(), is(true));
+        assertThat(profile.operations().size(), is(2));
+
+        OperationProfile topN = profile.operations().get(0);
+        assertThat(topN.name(), is("TOPN"));
+        assertThat(topN.rowsIn(), is(2L));
+        assertThat(topN.rowsOut(), is(2L));
+
+        OperationProfile output = profile.operations().get(1);
+        assertThat(output.name(), is("CollectingRowReceiver"));
+        assertThat(output.rowsIn(), is(2L));
+    }
+
+    @Test
+    public void testProjectorsOfTheSameProjectionShareTheProfiler() throws Exception {
+        PhaseProfiler phaseProfiler = phaseProfiler();
+        TopNProjection projection = new TopNProjection(10, 0);
+        for (int shard = 0; shard < 2; shard++) {
+            Projector projector = ProfilingProjector.wrap(topNProjector(10), phaseProfiler.projectionProfiler(projection));
+            projector.downstream(new CollectingRowReceiver());
+            projector.prepare(mock(ExecutionState.class));
+            projector.setNextRow(new Row1(shard));
+            projector.finish();
+        }
+        PhaseProfile profile = phaseProfiler.snapshot();
+        assertThat(profile.operations().size(), is(1));
+        assertThat(profile.operations().get(0).rowsIn(), is(2L));
+    }
+
+    @Test
+    public void testStreaming() throws Exception {
+        PhaseProfile profile = new PhaseProfile(3, "merge (MERGE)", 1000L, true, 512L, 4L,
+                ImmutableList.of(new OperationProfile("GROUP", 10L, 2L, 300L, 200L, 50L)));
+        BytesStreamOutput out = new BytesStreamOutput();
+        profile.writeTo(out);
+
+        PhaseProfile streamed = PhaseProfile.fromStream(new BytesStreamInput(out.bytes()));
+        assertThat(streamed.phaseId(), is(3));
+        assertThat(streamed.name(), is("merge (MERGE)"));
+        assertThat(streamed.wallNanos(), is(1000L));
+        assertThat(streamed.finished(), is(true));
+        assertThat(streamed.bytesUsed(), is(512L));
+        assertThat(streamed.pagesSent(), is(4L));
+        assertThat(streamed.operations().size(), is(1));
+        OperationProfile operation = streamed.operations().get(0);
+        assertThat(operation.name(), is("GROUP"));
+        assertThat(operation.rowsIn(), is(10L));
+        assertThat(operation.rowsOut(), is(2L));
+        assertThat(operation.pausedNanos(), is(50L));
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.Streamer;
+import io.crate.analyze.symbol.Literal;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.core.collections.Bucket;
+import io.crate.core.collections.Row;
+import io.crate.core.collections.RowN;
+import io.crate.operation.Input;
+import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.collect.InputCollectExpression;
+import io.crate.operation.projectors.sorting.OrderingByPosition;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.CollectingRowReceiver;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static io.crate.testing.TestingHelpers.isRow;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.core.Is.is;
+
+public class ExternalSortingProjectorTest extends CrateUnitTest {
+
+    private static final InputCollectExpression INPUT = new InputCollectExpression(0);
+    private static final Literal<Boolean> TRUE_LITERAL = Literal.newLiteral(true);
+    private static final List<Input<?>> INPUT_LITERAL_LIST = ImmutableList.of(INPUT, TRUE_LITERAL);
+    private static final List<CollectExpression<Row, ?>> COLLECT_EXPRESSIONS = ImmutableList.<CollectExpression<Row, ?>>of(INPUT);
+    private static final Streamer<?>[] STREAMERS = new Streamer[]{DataTypes.INTEGER.streamer(), DataTypes.BOOLEAN.streamer()};
+    private static final RamAccountingContext RAM_ACCOUNTING_CONTEXT =
+            new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.Name.FIELDDATA));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final UUID jobId = UUID.randomUUID();
+    private File runRoot;
+    private SortRunDirectory runDirectory;
+
+    @Before
+    public void prepare() throws Exception {
+        runRoot = folder.newFolder();
+        runDirectory = new SortRunDirectory(runRoot.toPath());
+    }
+
+    private Projector getProjector(int offset, long spillThreshold, int mergeFanIn, boolean reverse, RowReceiver rowReceiver) {
+        Projector pipe = new ExternalSortingProjector(
+                INPUT_LITERAL_LIST,
+                COLLECT_EXPRESSIONS,
+                1,
+                OrderingByPosition.arrayOrdering(0, reverse, null),
+                offset,
+                STREAMERS,
+                RAM_ACCOUNTING_CONTEXT,
+                runDirectory,
+                jobId,
+                spillThreshold,
+                mergeFanIn
+        );
+        pipe.downstream(rowReceiver);
+        return pipe;
+    }
+
+    private void feed(Projector projector, int numRows) {
+        List<Integer> values = new ArrayList<>(numRows);
+        for (int i = 0; i < numRows; i++) {
+            values.add(i);
+        }
+        Collections.shuffle(values, getRandom());
+
+        RowN row = new RowN(1);
+        for (Integer value : values) {
+            row.cells(new Object[]{value});
+            assertThat(projector.setNextRow(row), is(true));
+        }
+    }
+
+    private Bucket sort(int numRows, int offset, long spillThreshold, int mergeFanIn, boolean reverse) throws Exception {
+        CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+        Projector projector = getProjector(offset, spillThreshold, mergeFanIn, reverse, rowReceiver);
+        feed(projector, numRows);
+        projector.finish();
+        return rowReceiver.result();
+    }
+
+    private Bucket sort(int numRows, int offset, long spillThreshold, boolean reverse) throws Exception {
+        return sort(numRows, offset, spillThreshold, ExternalSortingProjector.DEFAULT_MERGE_FAN_IN, reverse);
+    }
+
+    @Test
+    public void testSortInMemory() throws Exception {
+        Bucket rows = sort(100, 0, ExternalSortingProjector.DEFAULT_SPILL_THRESHOLD, false);
+        assertThat(rows.size(), is(100));
+        int expected = 0;
+        for (Row row : rows) {
+            assertThat(row, isRow(expected++));
+        }
+    }
+
+    @Test
+    public void testSortWithSpilledRuns() throws Exception {
+        // every few rows exceed the threshold, so the rows are spread across many runs
+        Bucket rows = sort(5000, 0, 1024, false);
+        assertThat(rows.size(), is(5000));
+        int expected = 0;
+        for (Row row : rows) {
+            assertThat(row, isRow(expected++));
+        }
+    }
+
+    @Test
+    public void testReverseSortWithSpilledRunsAndOffset() throws Exception {
+        Bucket rows = sort(5000, 10, 1024, true);
+        assertThat(rows.size(), is(4990));
+        int expected = 4989;
+        for (Row row : rows) {
+            assertThat(row, isRow(expected--));
+        }
+    }
+
+    @Test
+    public void testMultiPassMergeWithLimitedFanIn() throws Exception {
+        // more than 100 runs are merged with at most 4 open runs at a time
+        Bucket rows = sort(5000, 0, 1024, 4, false);
+        assertThat(rows.size(), is(5000));
+        int expected = 0;
+        for (Row row : rows) {
+            assertThat(row, isRow(expected++));
+        }
+        assertThat(runRoot.list(), emptyArray());
+    }
+
+    @Test
+    public void testKillJobRemovesRuns() throws Exception {
+        CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+        Projector projector = getProjector(0, 1024, ExternalSortingProjector.DEFAULT_MERGE_FAN_IN, false, rowReceiver);
+        feed(projector, 1000);
+        assertThat(runRoot.list().length, is(1));
+
+        // a killed job doesn't necessarily fail its projectors
+        runDirectory.killJob(jobId);
+        assertThat(runRoot.list(), emptyArray());
+
+        projector.fail(new InterruptedException("job killed"));
+        assertThat(runRoot.list(), emptyArray());
+    }
+
+    @Test
+    public void testNoRows() throws Exception {
+        CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+        Projector projector = getProjector(0, 1024, ExternalSortingProjector.DEFAULT_MERGE_FAN_IN, false, rowReceiver);
+        projector.finish();
+        assertThat(rowReceiver.result().size(), is(0));
+    }
+}
@@ -15,6 +15,7 @@ import io.crate.operation.Input;
 import io.crate.operation.aggregation.AggregationFunction;
 import io.crate.operation.aggregation.impl.AggregationImplModule;
 import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.collect.InputCollectExpression;
 import io.crate.operation.collect.JobCollectContext;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.CollectingRowReceiver;
@@ -27,6 +28,8 @@ import org.elasticsearch.common.inject.ModulesBuilder;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.core.Is.is;
@@ -86,6 +89,107 @@ public class GroupingProjectorTest extends CrateUnitTest {
         assertThat(rows.iterator().next().get(1), instanceOf(Long.class));
     }
 
+    private static final Functions FUNCTIONS = new ModulesBuilder()
+            .add(new AggregationImplModule()).createInjector().getInstance(Functions.class);
+
+    private static AggregationContext finalAggregation(String name, DataType argumentType, Input<?> input) {
+        List<DataType> argumentTypes = argumentType == null
+                ? ImmutableList.<DataType>of() : ImmutableList.of(argumentType);
+        AggregationFunction function = (AggregationFunction) FUNCTIONS.get(new FunctionIdent(name, argumentTypes));
+        AggregationContext aggregationContext = new AggregationContext(function,
+                Aggregation.finalAggregation(function.info(), ImmutableList.<Symbol>of(), Aggregation.Step.ITER));
+        if (input != null) {
+            aggregationContext.addInput(input);
+        }
+        return aggregationContext;
+    }
+
+    /**
+     * groups 10000 rows of (i % 1000, value(i)) by the first column using a tiny spill threshold
+     */
+    private static Bucket groupWithSpilling(InputCollectExpression valueExpression,
+                                            AggregationContext... aggregations) throws Exception {
+        InputCollectExpression keyExpression = new InputCollectExpression(0);
+        GroupingProjector projector = new GroupingProjector(
+                Arrays.asList(DataTypes.LONG),
+                ImmutableList.<Input<?>>of(keyExpression),
+                new CollectExpression[]{keyExpression, valueExpression},
+                aggregations,
+                RAM_ACCOUNTING_CONTEXT,
+                4 * 1024
+        );
+        CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+        projector.downstream(rowReceiver);
+        projector.prepare(mock(JobCollectContext.class));
+        for (long i = 0; i < 10_000; i++) {
+            projector.setNextRow(new RowN(new Object[]{i % 1000, i, new BytesRef(String.format(Locale.ENGLISH, "%05d", i))}));
+        }
+        projector.finish();
+        return rowReceiver.result();
+    }
+
+    @Test
+    public void testSpillWithSlotStates() throws Exception {
+        InputCollectExpression valueExpression = new InputCollectExpression(1);
+        Bucket rows = groupWithSpilling(valueExpression,
+                finalAggregation("count", null, null),
+                finalAggregation("sum", DataTypes.LONG, valueExpression));
+
+        assertThat(rows.size(), is(1000));
+        for (Row row : rows) {
+            long key = (Long) row.get(0);
+            assertThat((Long) row.get(1), is(10L));
+            // key + (key + 1000) + ... + (key + 9000)
+            // sum always returns a double
+            assertThat((Double) row.get(2), is((double) (key * 10 + 45_000L)));
+        }
+    }
+
+    @Test
+    public void testSpillWithObjectStates() throws Exception {
+        InputCollectExpression valueExpression = new InputCollectExpression(2);
+        Bucket rows = groupWithSpilling(valueExpression,
+                finalAggregation("count", null, null),
+                finalAggregation("max", DataTypes.STRING, valueExpression));
+
+        assertThat(rows.size(), is(1000));
+        for (Row row : rows) {
+            long key = (Long) row.get(0);
+            assertThat((Long) row.get(1), is(10L));
+            assertThat(((BytesRef) row.get(2)).utf8ToString(), is(String.format(Locale.ENGLISH, "%05d", key + 9000)));
+        }
+    }
+
+    @Test
+    public void testSpillOnlyReleasesBytesOfTheGrouper() throws Exception {
+        RamAccountingContext ramAccountingContext =
+                new RamAccountingContext("phase", new NoopCircuitBreaker(CircuitBreaker.Name.FIELDDATA));
+        InputCollectExpression keyExpression = new InputCollectExpression(0);
+        GroupingProjector projector = new GroupingProjector(
+                Arrays.asList(DataTypes.LONG),
+                ImmutableList.<Input<?>>of(keyExpression),
+                new CollectExpression[]{keyExpression},
+                new AggregationContext[]{finalAggregation("count", null, null)},
+                ramAccountingContext,
+                1024 * 1024
+        );
+        CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+        projector.downstream(rowReceiver);
+        projector.prepare(mock(JobCollectContext.class));
+        long otherBytes = 10 * 1024 * 1024;
+        for (long i = 0; i < 1000; i++) {
+            if (i == 10) {
+                // another projector of the same phase accounts against the context
+                ramAccountingContext.addBytes(otherBytes);
+            }
+            projector.setNextRow(new RowN(new Object[]{i % 100}));
+        }
+        projector.finish();
+
+        assertThat(rowReceiver.result().size(), is(100));
+        assertThat(ramAccountingContext.usedBytes() >= otherBytes, is(true));
+    }
+
     class DummyInput implements Input<BytesRef> {
 
         private final BytesRef[] values;
@@ -114,6 +114,7 @@ public class ProjectionToProjectorVisitorTest extends CrateUnitTest {
                 ImmutableSettings.EMPTY,
                 mock(TransportActionProvider.class, Answers.RETURNS_DEEP_STUBS.get()),
                 mock(BulkRetryCoordinatorPool.class),
+                mock(SortRunDirectory.class),
                 symbolvisitor,
                 new EvaluatingNormalizer(functions, RowGranularity.DOC, referenceResolver)
         );
@@ -164,6 +165,18 @@ public class ProjectionToProjectorVisitorTest extends CrateUnitTest {
         assertThat(projector, instanceOf(SortingTopNProjector.class));
     }
 
+    @Test
+    public void testSortingProjectionWithoutLimit() throws Exception {
+        TopNProjection projection = new TopNProjection(TopN.NO_LIMIT, 0,
+                Arrays.<Symbol>asList(new InputColumn(1, DataTypes.LONG)),
+                new boolean[]{false},
+                new Boolean[]{null}
+        );
+        projection.outputs(Arrays.<Symbol>asList(new InputColumn(0, DataTypes.STRING)));
+        Projector projector = visitor.create(projection, RAM_ACCOUNTING_CONTEXT, UUID.randomUUID());
+        assertThat(projector, instanceOf(ExternalSortingProjector.class));
+    }
+
     @Test
     public void testAggregationProjector() throws Exception {
         AggregationProjection projection = new AggregationProjection();
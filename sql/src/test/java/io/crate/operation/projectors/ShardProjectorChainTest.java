@@ -28,6 +28,7 @@ import io.crate.analyze.symbol.InputColumn;
 import io.crate.analyze.symbol.Literal;
 import io.crate.analyze.symbol.Symbol;
 import io.crate.breaker.RamAccountingContext;
+import io.crate.core.collections.Row1;
 import io.crate.executor.transport.TransportActionProvider;
 import io.crate.jobs.ExecutionState;
 import io.crate.metadata.Functions;
@@ -71,8 +72,9 @@ import java.util.Collections;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
+import static io.crate.testing.TestingHelpers.isRow;
 import static io.crate.testing.TestingHelpers.newMockedThreadPool;
-import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.*;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Mockito.*;
 
@@ -108,6 +110,7 @@ public class ShardProjectorChainTest extends CrateUnitTest {
                 ImmutableSettings.EMPTY,
                 mock(TransportActionProvider.class),
                 mock(BulkRetryCoordinatorPool.class),
+                mock(SortRunDirectory.class),
                 implementationSymbolVisitor,
                 new EvaluatingNormalizer(functions, RowGranularity.DOC, injector.getInstance(NestedReferenceResolver.class)),
                 null
@@ -239,6 +242,39 @@ public class ShardProjectorChainTest extends CrateUnitTest {
         assertThat(chain.shardProjectors.size(), is(0));
     }
 
+    @Test
+    public void testGroupingWithMultipleUpstreamsMergesPartialStates() throws Exception {
+        GroupProjection groupProjection = new GroupProjection(
+                Arrays.<Symbol>asList(new InputColumn(0, DataTypes.INTEGER)),
+                Arrays.asList(countAggregation()));
+        CollectingRowReceiver finalDownstream = finalDownstream();
+        ShardProjectorChain chain = ShardProjectorChain.passThroughMerge(
+                UUID.randomUUID(),
+                2,
+                ImmutableList.of(groupProjection),
+                finalDownstream,
+                projectionToProjectorVisitor,
+                RAM_ACCOUNTING_CONTEXT);
+
+        RowReceiver shardDownstream1 = chain.newShardDownstreamProjector(projectionToProjectorVisitor);
+        RowReceiver shardDownstream2 = chain.newShardDownstreamProjector(projectionToProjectorVisitor);
+        assertThat(shardDownstream1, not(sameInstance(shardDownstream2)));
+        chain.prepare(mock(ExecutionState.class));
+
+        for (int i = 0; i < 10; i++) {
+            shardDownstream1.setNextRow(new Row1(i % 3));
+            shardDownstream2.setNextRow(new Row1(i % 2));
+        }
+        shardDownstream1.finish();
+        shardDownstream2.finish();
+
+        assertThat(finalDownstream.result(), containsInAnyOrder(
+                isRow(0, 9L),
+                isRow(1, 8L),
+                isRow(2, 3L)
+        ));
+    }
+
     @Test
     public void testZeroShards() throws Exception {
         TopNProjection topN = new TopNProjection(0, 1);
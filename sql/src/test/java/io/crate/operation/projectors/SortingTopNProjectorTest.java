@@ -79,9 +79,9 @@ public class SortingTopNProjectorTest extends CrateUnitTest {
     }
 
     @Test
-    public void testOrderByWithoutLimitAndOffset() throws Exception {
+    public void testOrderByWithLimitAboveRowCountAndWithoutOffset() throws Exception {
         CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
-        Projector pipe = getProjector(2, TopN.NO_LIMIT, TopN.NO_OFFSET, rowReceiver);
+        Projector pipe = getProjector(2, 100, TopN.NO_OFFSET, rowReceiver);
         int i;
         for (i = 10; i > 0; i--) {   // 10 --> 1
             if (!pipe.setNextRow(spare(i))) {
@@ -116,9 +116,9 @@ public class SortingTopNProjectorTest extends CrateUnitTest {
     }
 
     @Test
-    public void testOrderByWithoutLimit() throws Exception {
+    public void testOrderByWithLimitAboveRowCount() throws Exception {
         CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
-        Projector pipe = getProjector(2, TopN.NO_LIMIT, 5, rowReceiver);
+        Projector pipe = getProjector(2, 100, 5, rowReceiver);
         int i;
         for (i = 10; i > 0; i--) {   // 10 --> 1
             if (!pipe.setNextRow(spare(i))) {
@@ -231,7 +231,13 @@ public class SortingTopNProjectorTest extends CrateUnitTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testNegativeOffset() {
-        new SortingTopNProjector(INPUT_LITERAL_LIST, COLLECT_EXPRESSIONS, 2, FIRST_CELL_ORDERING, TopN.NO_LIMIT, -10);
+        new SortingTopNProjector(INPUT_LITERAL_LIST, COLLECT_EXPRESSIONS, 2, FIRST_CELL_ORDERING, 10, -10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoLimit() {
+        // sorting without a limit is done by the ExternalSortingProjector
+        new SortingTopNProjector(INPUT_LITERAL_LIST, COLLECT_EXPRESSIONS, 2, FIRST_CELL_ORDERING, TopN.NO_LIMIT, 0);
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -252,7 +258,7 @@ public class SortingTopNProjectorTest extends CrateUnitTest {
                         OrderingByPosition.arrayOrdering(2, false, null),
                         OrderingByPosition.arrayOrdering(3, false, null)
                 )),
-                TopN.NO_LIMIT,
+                10,
                 TopN.NO_OFFSET);
 
         pipe.downstream(rowReceiver);
@@ -25,10 +25,14 @@ import com.google.common.collect.ImmutableSet;
 import io.crate.core.collections.Bucket;
 import io.crate.core.collections.Row;
 import io.crate.core.collections.Row1;
+import io.crate.core.collections.RowN;
 import io.crate.exceptions.UnhandledServerException;
 import io.crate.jobs.ExecutionState;
 import io.crate.metadata.ColumnIdent;
+import io.crate.operation.Input;
 import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.collect.InputCollectExpression;
+import io.crate.planner.projection.WriterProjection;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.CollectingRowReceiver;
 import io.crate.testing.TestingHelpers;
@@ -39,6 +43,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.net.URI;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -92,6 +98,48 @@ public class WriterProjectorTest extends CrateUnitTest {
                 "input line 04\n", TestingHelpers.readFile(fileAbsolutePath));
     }
 
+    @Test
+    public void testWriteCsvWithRotation() throws Exception {
+        File folder = this.folder.newFolder();
+        String uri = Paths.get(folder.toURI()).resolve("out.csv").toUri().toString();
+        InputCollectExpression id = new InputCollectExpression(0);
+        InputCollectExpression name = new InputCollectExpression(1);
+        WriterProjector projector = new WriterProjector(
+                executorService,
+                uri,
+                ImmutableSettings.EMPTY,
+                Arrays.<Input<?>>asList(id, name),
+                Arrays.asList("id", "name"),
+                ImmutableSet.<CollectExpression<Row, ?>>of(id, name),
+                new HashMap<ColumnIdent, Object>(),
+                WriterProjection.OutputFormat.CSV,
+                20L
+        );
+        CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+        projector.downstream(rowReceiver);
+
+        projector.prepare(mock(ExecutionState.class));
+        projector.setNextRow(new RowN(new Object[]{1, new BytesRef("Arthur")}));
+        projector.setNextRow(new RowN(new Object[]{2, new BytesRef("Zaphod, \"Zaphy\" Beeblebrox")}));
+        projector.setNextRow(new RowN(new Object[]{3, null}));
+        projector.setNextRow(new RowN(new Object[]{4, new BytesRef("")}));
+        projector.finish();
+
+        assertThat(rowReceiver.result(), contains(isRow(4L)));
+        assertThat(TestingHelpers.readFile(new File(folder, "out.csv").getAbsolutePath()),
+                is("id,name\n1,Arthur\n2,\"Zaphod, \"\"Zaphy\"\" Beeblebrox\"\n"));
+        assertThat(TestingHelpers.readFile(new File(folder, "out.1.csv").getAbsolutePath()),
+                is("id,name\n3,\n4,\"\"\n"));
+    }
+
+    @Test
+    public void testPartUri() throws Exception {
+        assertThat(WriterProjector.partUri(new URI("file:///tmp/out.json.gz"), 2).toString(),
+                is("file:///tmp/out.2.json.gz"));
+        assertThat(WriterProjector.partUri(new URI("s3://key:secret@bucket/dir.d/out"), 1).toString(),
+                is("s3://key:secret@bucket/dir.d/out.1"));
+    }
+
     @Test
     public void testToNestedStringObjectMap() throws Exception {
 
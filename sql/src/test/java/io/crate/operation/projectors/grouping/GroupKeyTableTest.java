@@ -0,0 +1,180 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.projectors.grouping;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.operation.Input;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.core.Is.is;
+
+public class GroupKeyTableTest extends CrateUnitTest {
+
+    private static final RamAccountingContext RAM_ACCOUNTING_CONTEXT =
+            new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.Name.FIELDDATA));
+
+    private static class ValueInput implements Input<Object> {
+
+        Object value;
+
+        @Override
+        public Object value() {
+            return value;
+        }
+    }
+
+    private static GroupKeyTable table(ValueInput input, DataType type) {
+        return GroupKeyTable.create(ImmutableList.of(type), ImmutableList.<Input<?>>of(input), RAM_ACCOUNTING_CONTEXT);
+    }
+
+    @Test
+    public void testSpecializedTableIsChosen() throws Exception {
+        ValueInput input = new ValueInput();
+        assertThat(table(input, DataTypes.INTEGER), instanceOf(LongGroupKeyTable.class));
+        assertThat(table(input, DataTypes.DOUBLE), instanceOf(LongGroupKeyTable.class));
+        assertThat(table(input, DataTypes.STRING), instanceOf(BytesRefGroupKeyTable.class));
+        assertThat(table(input, DataTypes.OBJECT), instanceOf(ObjectGroupKeyTable.class));
+        assertThat(GroupKeyTable.create(
+                ImmutableList.of(DataTypes.STRING, DataTypes.LONG),
+                ImmutableList.<Input<?>>of(input, input),
+                RAM_ACCOUNTING_CONTEXT), instanceOf(CompositeGroupKeyTable.class));
+    }
+
+    @Test
+    public void testLongKeysWithNull() throws Exception {
+        ValueInput input = new ValueInput();
+        GroupKeyTable table = table(input, DataTypes.INTEGER);
+
+        input.value = 10;
+        assertThat(table.add(), is(0));
+        input.value = null;
+        assertThat(table.add(), is(1));
+        input.value = 10;
+        assertThat(table.add(), is(-1));
+        input.value = null;
+        assertThat(table.add(), is(-2));
+        input.value = -3;
+        assertThat(table.add(), is(2));
+        assertThat(table.size(), is(3));
+
+        Object[] cells = new Object[1];
+        table.keyValues(0, cells);
+        assertThat(cells[0], is((Object) 10));
+        table.keyValues(1, cells);
+        assertNull(cells[0]);
+        table.keyValues(2, cells);
+        assertThat(cells[0], is((Object) (-3)));
+    }
+
+    @Test
+    public void testDoubleKeys() throws Exception {
+        ValueInput input = new ValueInput();
+        GroupKeyTable table = table(input, DataTypes.DOUBLE);
+
+        input.value = 1.5d;
+        assertThat(table.add(), is(0));
+        input.value = Double.NaN;
+        assertThat(table.add(), is(1));
+        input.value = Double.NaN;
+        assertThat(table.add(), is(-2));
+
+        Object[] cells = new Object[1];
+        table.keyValues(0, cells);
+        assertThat(cells[0], is((Object) 1.5d));
+    }
+
+    @Test
+    public void testBytesRefKeysAreCopied() throws Exception {
+        ValueInput input = new ValueInput();
+        GroupKeyTable table = table(input, DataTypes.STRING);
+
+        BytesRef reused = new BytesRef("foo");
+        input.value = reused;
+        assertThat(table.add(), is(0));
+        reused.bytes = new BytesRef("bar").bytes;
+        assertThat(table.add(), is(1));
+        input.value = new BytesRef("foo");
+        assertThat(table.add(), is(-1));
+
+        Object[] cells = new Object[1];
+        table.keyValues(0, cells);
+        assertThat(cells[0], is((Object) new BytesRef("foo")));
+        table.keyValues(1, cells);
+        assertThat(cells[0], is((Object) new BytesRef("bar")));
+    }
+
+    @Test
+    public void testCompositeKeys() throws Exception {
+        ValueInput name = new ValueInput();
+        ValueInput age = new ValueInput();
+        ValueInput active = new ValueInput();
+        GroupKeyTable table = GroupKeyTable.create(
+                ImmutableList.of(DataTypes.STRING, DataTypes.INTEGER, DataTypes.BOOLEAN),
+                ImmutableList.<Input<?>>of(name, age, active),
+                RAM_ACCOUNTING_CONTEXT);
+
+        name.value = new BytesRef("Arthur");
+        age.value = 42;
+        active.value = true;
+        assertThat(table.add(), is(0));
+        age.value = null;
+        assertThat(table.add(), is(1));
+        age.value = 42;
+        assertThat(table.add(), is(-1));
+        name.value = null;
+        assertThat(table.add(), is(2));
+
+        Object[] cells = new Object[3];
+        table.keyValues(0, cells);
+        assertThat(Arrays.asList(cells), is(Arrays.<Object>asList(new BytesRef("Arthur"), 42, true)));
+        table.keyValues(1, cells);
+        assertThat(Arrays.asList(cells), is(Arrays.<Object>asList(new BytesRef("Arthur"), null, true)));
+        table.keyValues(2, cells);
+        assertThat(Arrays.asList(cells), is(Arrays.<Object>asList(null, 42, true)));
+    }
+
+    @Test
+    public void testManyKeys() throws Exception {
+        ValueInput input = new ValueInput();
+        GroupKeyTable table = table(input, DataTypes.LONG);
+        for (long i = 0; i < 10000; i++) {
+            input.value = i;
+            assertThat(table.add(), is((int) i));
+        }
+        for (long i = 0; i < 10000; i++) {
+            input.value = i;
+            assertThat(table.add(), is(-1 - (int) i));
+        }
+        assertThat(table.size(), is(10000));
+    }
+}
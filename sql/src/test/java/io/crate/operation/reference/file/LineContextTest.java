@@ -25,6 +25,12 @@ import io.crate.metadata.ColumnIdent;
 import io.crate.test.integration.CrateUnitTest;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+
 public class LineContextTest extends CrateUnitTest {
     @Test
     public void testGet() throws Exception {
@@ -37,4 +43,23 @@ public class LineContextTest extends CrateUnitTest {
         assertNull(context.get(new ColumnIdent("details", "invalid")));
         assertEquals(43, context.get(new ColumnIdent("details", "age")));
     }
+
+    @Test
+    public void testGetParsesOnlyRegisteredColumns() throws Exception {
+        LineContext context = new LineContext();
+        context.addColumn(new ColumnIdent("details", "age"));
+
+        String line = "{\"name\": \"foo\", \"tags\": [1, 2], \"details\": {\"age\": 43}}";
+        byte[] buffer = ("xx" + line + "\nyy").getBytes(StandardCharsets.UTF_8);
+        context.rawSource(buffer, 2, line.length());
+
+        assertEquals(43, context.get(new ColumnIdent("details", "age")));
+        assertNull(context.get(new ColumnIdent("name")));
+        assertThat(context.sourceAsBytesRef().utf8ToString(), is(line));
+
+        Map<String, Object> source = context.sourceAsMap();
+        assertThat(source.size(), is(3));
+        assertEquals("foo", source.get("name"));
+        assertEquals(Arrays.asList(1, 2), source.get("tags"));
+    }
 }
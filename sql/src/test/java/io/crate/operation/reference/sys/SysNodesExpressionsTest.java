@@ -23,6 +23,7 @@ package io.crate.operation.reference.sys;
 import com.google.common.collect.ImmutableMap;
 import io.crate.Build;
 import io.crate.Version;
+import io.crate.action.sql.StatementCache;
 import io.crate.metadata.NestedReferenceResolver;
 import io.crate.metadata.ReferenceInfo;
 import io.crate.metadata.RowGranularity;
@@ -547,6 +548,22 @@ public class SysNodesExpressionsTest extends CrateUnitTest {
         assertEquals(4, cores);
     }
 
+    @Test
+    public void testStatementCache() throws Exception {
+        StatementCache statementCache = injector.getInstance(StatementCache.class);
+        statementCache.get("select name from sys.nodes");
+        statementCache.get("select name from sys.nodes");
+
+        ReferenceInfo refInfo = refInfo("sys.nodes.statement_cache", DataTypes.OBJECT, RowGranularity.NODE);
+        NestedObjectExpression ref = (NestedObjectExpression) resolver.getImplementation(refInfo);
+
+        Map<String, Object> v = ref.value();
+        assertEquals(1L, v.get("size"));
+        assertEquals(1L, v.get("hits"));
+        assertEquals(1L, v.get("misses"));
+        assertEquals(0.5d, v.get("hit_rate"));
+    }
+
     @Test
     public void testNestedBytesRefExpressionsString() throws Exception {
         ReferenceInfo refInfo = refInfo("sys.nodes.version", DataTypes.OBJECT, RowGranularity.NODE);
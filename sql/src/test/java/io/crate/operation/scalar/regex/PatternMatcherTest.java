@@ -0,0 +1,108 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.scalar.regex;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public class PatternMatcherTest extends CrateUnitTest {
+
+    private static boolean like(String value, String pattern) {
+        // match on a slice of a larger array to make sure offsets are respected
+        BytesRef bytes = new BytesRef("xx" + value + "yy");
+        bytes.offset += 2;
+        bytes.length -= 4;
+        return PatternMatcher.compileLike(pattern, '\\').matches(bytes);
+    }
+
+    @Test
+    public void testSpecializedMatchers() throws Exception {
+        assertThat(PatternMatcher.compileLike("foo", '\\'), instanceOf(PatternMatcher.ExactMatcher.class));
+        assertThat(PatternMatcher.compileLike("foo%", '\\'), instanceOf(PatternMatcher.PrefixMatcher.class));
+        assertThat(PatternMatcher.compileLike("%foo", '\\'), instanceOf(PatternMatcher.SuffixMatcher.class));
+        assertThat(PatternMatcher.compileLike("%foo%", '\\'), instanceOf(PatternMatcher.ContainsMatcher.class));
+        assertThat(PatternMatcher.compileLike("f%o%o", '\\'), instanceOf(PatternMatcher.SequenceMatcher.class));
+        assertThat(PatternMatcher.compileLike("%%", '\\'), instanceOf(PatternMatcher.MatchAllMatcher.class));
+        assertThat(PatternMatcher.compileLike("f_o", '\\'), instanceOf(PatternMatcher.AutomatonMatcher.class));
+    }
+
+    @Test
+    public void testLike() throws Exception {
+        assertThat(like("foobar", "foobar"), is(true));
+        assertThat(like("foobar", "foo"), is(false));
+        assertThat(like("", ""), is(true));
+        assertThat(like("foobar", "foo%"), is(true));
+        assertThat(like("fo", "foo%"), is(false));
+        assertThat(like("foobar", "%bar"), is(true));
+        assertThat(like("ar", "%bar"), is(false));
+        assertThat(like("foobar", "%oba%"), is(true));
+        assertThat(like("foobar", "%abo%"), is(false));
+        assertThat(like("foobar", "f%o%r"), is(true));
+        assertThat(like("for", "f%o%r"), is(true));
+        assertThat(like("fr", "f%o%r"), is(false));
+        assertThat(like("aa", "a%a"), is(true));
+        assertThat(like("a", "a%a"), is(false));
+        assertThat(like("foobar", "_oo_a_"), is(true));
+        assertThat(like("foobar", "_oo_"), is(false));
+    }
+
+    @Test
+    public void testLikeEscapingAndSpecialCharacters() throws Exception {
+        assertThat(like("fo%bar", "fo\\%bar"), is(true));
+        assertThat(like("foobar", "fo\\%bar"), is(false));
+        assertThat(like("fo_bar", "%\\_%"), is(true));
+        assertThat(like("foobar", "%\\_%"), is(false));
+        assertThat(like("a", "a?"), is(false));
+        assertThat(like("a?", "a?"), is(true));
+        assertThat(like("f.o(b)", "f.o(_)"), is(true));
+        assertThat(like("foo\nbar", "foo_bar"), is(true));
+    }
+
+    @Test
+    public void testLikeMultiByteCharacters() throws Exception {
+        assertThat(like("äöü", "_ö_"), is(true));
+        assertThat(like("äöü", "%ö%"), is(true));
+        assertThat(like("a😀b", "a_b"), is(true));
+        assertThat(like("a😀b", "a__b"), is(false));
+        assertThat(like("😀", "😀%"), is(true));
+    }
+
+    @Test
+    public void testRegexp() throws Exception {
+        assertThat(PatternMatcher.compileRegexp("a(b{1,4})c").matches(new BytesRef("abbbbc")), is(true));
+        assertThat(PatternMatcher.compileRegexp("<1-9999> \\$").matches(new BytesRef("10000 $")), is(false));
+        assertThat(PatternMatcher.compileRegexp("\\w+ \\d").matches(new BytesRef("foo 1")), is(true));
+    }
+
+    @Test
+    public void testCachedMatchersDontDependOnReusedBuffers() throws Exception {
+        BytesRef pattern = new BytesRef("foo%");
+        PatternMatcher matcher = PatternMatcher.like(pattern);
+        pattern.bytes[0] = 'b';
+        assertThat(PatternMatcher.like(new BytesRef("foo%")) == matcher, is(true));
+        assertThat(PatternMatcher.like(pattern).matches(new BytesRef("foobar")), is(false));
+    }
+}
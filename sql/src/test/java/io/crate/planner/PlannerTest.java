@@ -25,9 +25,11 @@ import io.crate.metadata.table.SchemaInfo;
 import io.crate.metadata.table.TableInfo;
 import io.crate.metadata.table.TestingTableInfo;
 import io.crate.operation.aggregation.impl.AggregationImplModule;
+import io.crate.operation.collect.files.FileReadingCollector;
 import io.crate.operation.operator.EqOperator;
 import io.crate.operation.operator.OperatorModule;
 import io.crate.operation.predicate.PredicateModule;
+import io.crate.operation.projectors.TopN;
 import io.crate.operation.scalar.ScalarFunctionModule;
 import io.crate.planner.node.PlanNode;
 import io.crate.planner.node.ddl.DropTableNode;
@@ -35,6 +37,7 @@ import io.crate.planner.node.ddl.ESClusterUpdateSettingsNode;
 import io.crate.planner.node.ddl.ESDeletePartitionNode;
 import io.crate.planner.node.dml.*;
 import io.crate.planner.node.dql.*;
+import io.crate.planner.node.management.ExplainPlan;
 import io.crate.planner.node.management.KillPlan;
 import io.crate.planner.projection.*;
 import io.crate.sql.parser.SqlParser;
@@ -1073,6 +1076,26 @@ public class PlannerTest extends CrateUnitTest {
         assertNull(collectPhase.sharedStorage());
     }
 
+    @Test
+    public void testCopyFromCsvPlan() throws Exception {
+        CollectAndMerge plan = (CollectAndMerge) plan("copy users from '/path/to/file.csv' with (format='csv')");
+        FileUriCollectPhase collectPhase = (FileUriCollectPhase) plan.collectPhase();
+        assertThat(collectPhase.fileFormat(), is(FileReadingCollector.FileFormat.CSV));
+        assertThat(collectPhase.columnTypes().get("id"), is((DataType) DataTypes.LONG));
+        assertThat(collectPhase.columnTypes().get("name"), is((DataType) DataTypes.STRING));
+
+        plan = (CollectAndMerge) plan("copy users from '/path/to/file.ext'");
+        collectPhase = (FileUriCollectPhase) plan.collectPhase();
+        assertThat(collectPhase.fileFormat(), is(FileReadingCollector.FileFormat.JSON));
+    }
+
+    @Test
+    public void testCopyFromWithUnsupportedFormat() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Unsupported file format \"xml\", supported are: json, csv and tsv");
+        plan("copy users from '/path/to/file.xml' with (format='xml')");
+    }
+
     @Test
     public void testCopyToWithColumnsReferenceRewrite() throws Exception {
         CollectAndMerge plan = (CollectAndMerge) plan("copy users (name) to '/file.ext'");
@@ -1083,6 +1106,25 @@ public class PlannerTest extends CrateUnitTest {
         assertThat(nameRef.info().ident().columnIdent().path().get(0), is("name"));
     }
 
+    @Test
+    public void testCopyToCsvUsesAllTopLevelColumns() throws Exception {
+        CollectAndMerge plan = (CollectAndMerge) plan(
+                "copy users to directory '/tmp' with (format='csv', max_file_size='10mb')");
+        WriterProjection projection = (WriterProjection) plan.collectPhase().projections().get(0);
+        assertThat(projection.outputFormat(), is(WriterProjection.OutputFormat.CSV));
+        assertThat(projection.maxFileSize(), is(10L * 1024 * 1024));
+        assertThat(projection.outputNames(), hasItems("id", "name", "date"));
+        assertThat(projection.outputNames(), not(hasItem("_id")));
+        assertThat(projection.inputs().size(), is(projection.outputNames().size()));
+    }
+
+    @Test
+    public void testCopyToWithUnsupportedFormat() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Unsupported output format \"xml\", supported are: json and csv");
+        plan("copy users to directory '/tmp' with (format='xml')");
+    }
+
     @Test (expected = IllegalArgumentException.class)
     public void testCopyFromPlanWithInvalidParameters() throws Exception {
         plan("copy users from '/path/to/file.ext' with (bulk_size=-28)");
@@ -1359,9 +1401,27 @@ public class PlannerTest extends CrateUnitTest {
         plan("insert into users (date, id, name) (select date, id, name from users offset 10)");
     }
 
-    @Test (expected = UnsupportedFeatureException.class)
+    @Test
     public void testInsertFromSubQueryWithOrderBy() throws Exception {
-        plan("insert into users (date, id, name) (select date, id, name from users order by id)");
+        InsertFromSubQuery planNode = (InsertFromSubQuery) plan(
+                "insert into users (date, id, name) (select date, id, name from users order by id)");
+        CollectAndMerge queryAndFetch = (CollectAndMerge) planNode.innerPlan();
+        assertThat(queryAndFetch.collectPhase().projections().size(), is(0));
+        assertThat(planNode.handlerMergeNode().isPresent(), is(false));
+
+        // all rows are sorted on the handler without a limit, which is done by the ExternalSortingProjector
+        MergePhase localMerge = queryAndFetch.localMerge();
+        assertThat(localMerge.projections().size(), is(2));
+        TopNProjection topN = (TopNProjection) localMerge.projections().get(0);
+        assertThat(topN.limit(), is(TopN.NO_LIMIT));
+        assertThat(topN.isOrdered(), is(true));
+        assertThat(topN.outputs().size(), is(3));
+        assertThat(localMerge.projections().get(1), instanceOf(ColumnIndexWriterProjection.class));
+    }
+
+    @Test (expected = UnsupportedFeatureException.class)
+    public void testInsertFromSubQueryWithOrderByAndLimit() throws Exception {
+        plan("insert into users (date, id, name) (select date, id, name from users order by id limit 10)");
     }
 
     @Test
@@ -1910,6 +1970,21 @@ public class PlannerTest extends CrateUnitTest {
         assertThat(killJobsPlan.jobToKill().get().toString(), is("6a3d6fb6-1401-4333-933d-b38c9322fca7"));
     }
 
+    @Test
+    public void testExplainPlan() throws Exception {
+        ExplainPlan explainPlan = plan("explain select name from users order by name limit 100");
+        assertThat(explainPlan.isAnalyze(), is(false));
+        assertThat(explainPlan.subPlan(), instanceOf(CollectAndMerge.class));
+        assertThat(explainPlan.jobId(), is(explainPlan.subPlan().jobId()));
+    }
+
+    @Test
+    public void testExplainAnalyzePlan() throws Exception {
+        ExplainPlan explainPlan = plan("explain analyze select count(*), name from users group by name");
+        assertThat(explainPlan.isAnalyze(), is(true));
+        assertThat(explainPlan.subPlan(), instanceOf(DistributedGroupBy.class));
+    }
+
     @Test
     public void testShardQueueSizeCalculation() throws Exception {
         CollectAndMerge plan = plan("select name from users order by name limit 100");
@@ -23,8 +23,10 @@
 package io.crate.planner;
 
 import com.google.common.collect.ImmutableSet;
+import io.crate.action.sql.SQLCursors;
 import io.crate.action.sql.SQLRequest;
 import io.crate.action.sql.SQLResponse;
+import io.crate.action.sql.StatementCache;
 import io.crate.action.sql.TransportSQLAction;
 import io.crate.analyze.Analyzer;
 import io.crate.executor.transport.kill.TransportKillJobsNodeAction;
@@ -81,7 +83,9 @@ public class TableStatsServiceTest extends CrateUnitTest  {
                 mock(TransportService.class),
                 mock(StatsTables.class),
                 new ActionFilters(ImmutableSet.<ActionFilter>of()),
-                mock(TransportKillJobsNodeAction.class)
+                mock(TransportKillJobsNodeAction.class),
+                mock(StatementCache.class),
+                mock(SQLCursors.class)
         ) {
             @Override
             protected void doExecute(SQLRequest request, ActionListener<SQLResponse> listener) {
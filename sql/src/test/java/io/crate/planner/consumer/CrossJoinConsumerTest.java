@@ -44,16 +44,19 @@ import io.crate.planner.NoopPlan;
 import io.crate.planner.Plan;
 import io.crate.planner.Planner;
 import io.crate.planner.TableStatsService;
+import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.distribution.DistributionType;
 import io.crate.planner.node.dql.CollectAndMerge;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.MergePhase;
+import io.crate.planner.node.dql.join.HashJoinPhase;
 import io.crate.planner.node.dql.join.NestedLoop;
 import io.crate.planner.projection.FilterProjection;
 import io.crate.planner.projection.TopNProjection;
 import io.crate.sql.parser.SqlParser;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.MockedClusterServiceModule;
+import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.common.inject.Injector;
@@ -354,4 +357,47 @@ public class CrossJoinConsumerTest extends CrateUnitTest {
         Plan plan = plan("select e.nope, u.name from empty e, users u order by e.nope, u.name");
         assertThat(plan, instanceOf(NoopPlan.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testEquiJoinIsPlannedAsHashJoin() throws Exception {
+        NestedLoop nl = plan("select u1.name from users u1, users u2 where u1.id = u2.id order by 1");
+        assertThat(nl.nestedLoopPhase(), instanceOf(HashJoinPhase.class));
+        HashJoinPhase hashJoinPhase = (HashJoinPhase) nl.nestedLoopPhase();
+        assertThat(hashJoinPhase.leftJoinKeys(), is(new int[]{0}));
+        assertThat(hashJoinPhase.rightJoinKeys(), is(new int[]{0}));
+        assertThat(hashJoinPhase.joinKeyTypes(), contains((DataType) DataTypes.LONG));
+        // the left side is probed to keep the order
+        assertThat(hashJoinPhase.buildLeft(), is(false));
+        assertThat(hashJoinPhase.projections().get(0), instanceOf(FilterProjection.class));
+    }
+
+    @Test
+    public void testNonEquiJoinIsPlannedAsNestedLoop() throws Exception {
+        NestedLoop nl = plan("select u1.floats, u2.name from users u1, users u2 where u1.name || u2.name = 'foobar' order by u1.floats, u2.name");
+        assertThat(nl.nestedLoopPhase(), not(instanceOf(HashJoinPhase.class)));
+    }
+
+    @Test
+    public void testEquiJoinOnLargeTablesRepartitionsBothSides() throws Exception {
+        when(statsService.numDocs(eq(BaseAnalyzerTest.USER_TABLE_IDENT))).thenReturn(1000000L);
+        when(statsService.numDocs(eq(BaseAnalyzerTest.USER_TABLE_IDENT_MULTI_PK))).thenReturn(2000000L);
+        NestedLoop nl = plan("select users.name, u2.name from users, users_multi_pk u2 " +
+                             "where users.name = u2.name " +
+                             "order by users.name, u2.name");
+        assertThat(nl.nestedLoopPhase(), instanceOf(HashJoinPhase.class));
+        assertThat(nl.nestedLoopPhase().name(), is("shuffle-hash-join"));
+
+        DistributionInfo leftDistribution = nl.left().resultPhase().distributionInfo();
+        assertThat(leftDistribution.distributionType(), is(DistributionType.MODULO));
+        assertThat(leftDistribution.distributeByColumn(), is(0));
+        assertThat(leftDistribution.distributeByType(), is((DataType) DataTypes.STRING));
+        DistributionInfo rightDistribution = nl.right().resultPhase().distributionInfo();
+        assertThat(rightDistribution.distributionType(), is(DistributionType.MODULO));
+        assertThat(rightDistribution.distributeByType(), is((DataType) DataTypes.STRING));
+
+        MergePhase leftMerge = nl.nestedLoopPhase().leftMergePhase();
+        MergePhase rightMerge = nl.nestedLoopPhase().rightMergePhase();
+        assertThat(leftMerge.executionNodes(), contains("nodeOne", "nodeTow"));
+        assertThat(rightMerge.executionNodes(), contains("nodeOne", "nodeTow"));
+    }
+}
@@ -24,6 +24,8 @@ package io.crate.planner.node.dql;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
 import io.crate.planner.distribution.DistributionInfo;
+import io.crate.planner.node.ExecutionPhases;
+import io.crate.planner.node.dql.join.HashJoinPhase;
 import io.crate.planner.node.dql.join.NestedLoopPhase;
 import io.crate.planner.projection.Projection;
 import io.crate.planner.projection.TopNProjection;
@@ -35,6 +37,7 @@ import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.hamcrest.core.Is;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.UUID;
 
 import static org.hamcrest.CoreMatchers.is;
@@ -70,4 +73,31 @@ public class NestedLoopPhaseTest extends CrateUnitTest {
         assertThat(node.name(), is(node2.name()));
         assertThat(node.outputTypes(), is(node2.outputTypes()));
     }
+
+    @Test
+    public void testHashJoinPhaseSerialization() throws Exception {
+        TopNProjection topNProjection = new TopNProjection(10, 0);
+        UUID jobId = UUID.randomUUID();
+        HashJoinPhase node = new HashJoinPhase(jobId, 1, "hashJoin", ImmutableList.<Projection>of(topNProjection),
+                null,
+                null,
+                Sets.newHashSet("node1"),
+                new int[]{0, 2},
+                new int[]{1, 0},
+                ImmutableList.<DataType>of(DataTypes.LONG, DataTypes.STRING),
+                true);
+
+        BytesStreamOutput output = new BytesStreamOutput();
+        ExecutionPhases.toStream(output, node);
+
+        BytesStreamInput input = new BytesStreamInput(output.bytes());
+        HashJoinPhase node2 = (HashJoinPhase) ExecutionPhases.fromStream(input);
+
+        assertThat(node2.executionNodes(), is(node.executionNodes()));
+        assertThat(node2.name(), is(node.name()));
+        assertThat(node2.leftJoinKeys(), is(new int[]{0, 2}));
+        assertThat(node2.rightJoinKeys(), is(new int[]{1, 0}));
+        assertThat(node2.joinKeyTypes(), is((List<DataType>) ImmutableList.<DataType>of(DataTypes.LONG, DataTypes.STRING)));
+        assertThat(node2.buildLeft(), is(true));
+    }
 }